@@ -0,0 +1,150 @@
+package com.kzow3n.jdbcplus.benchmark;
+
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * H2内存数据库，建一张30列的student_record表，用于结果集映射的基准测试
+ * 可为MyBatis使用的连接注入每条语句的固定延迟，模拟与数据库之间的网络往返；getDataSource返回的连接不注入
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class BenchmarkDatabase {
+
+    private final JdbcDataSource dataSource;
+    private final SqlSessionFactory sqlSessionFactory;
+
+    public BenchmarkDatabase(int rows) {
+        this(rows, 0L);
+    }
+
+    /**
+     * @param latencyMillis 每条语句执行前等待的毫秒数
+     */
+    public BenchmarkDatabase(int rows, long latencyMillis) {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        DataSource sessionDataSource = latencyMillis > 0L ? withLatency(dataSource, latencyMillis) : dataSource;
+        Configuration configuration = new Configuration(new Environment("benchmark", new JdbcTransactionFactory(), sessionDataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+        createStudentRecords(rows);
+    }
+
+    public JdbcDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public SqlSessionFactory getSqlSessionFactory() {
+        return sqlSessionFactory;
+    }
+
+    private static DataSource withLatency(DataSource dataSource, long latencyMillis) {
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            return "getConnection".equals(method.getName()) ? withLatency((Connection) result, latencyMillis) : result;
+        });
+    }
+
+    private static Connection withLatency(Connection connection, long latencyMillis) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            return "prepareStatement".equals(method.getName()) ? withLatency((PreparedStatement) result, latencyMillis) : result;
+        });
+    }
+
+    private static PreparedStatement withLatency(PreparedStatement ps, long latencyMillis) {
+        return proxy(PreparedStatement.class, ps, (target, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                Thread.sleep(latencyMillis);
+            }
+            return method.invoke(target, args);
+        });
+    }
+
+    private interface Invoker<T> {
+        Object invoke(T target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Invoker<T> invoker) {
+        return type.cast(Proxy.newProxyInstance(BenchmarkDatabase.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            try {
+                return invoker.invoke(target, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }));
+    }
+
+    private void createStudentRecords(int rows) {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table student_record (id bigint primary key, name varchar(32), age int, gender int, "
+                        + "phone varchar(16), email varchar(64), address varchar(128), birthday date, class_id bigint, "
+                        + "headmaster_id bigint, school_id bigint, student_no varchar(16), status int, nation varchar(16), "
+                        + "hometown varchar(32), guardian_name varchar(32), guardian_phone varchar(16), height decimal(5, 2), "
+                        + "weight decimal(5, 2), gpa double, grade int, rank int, boarder boolean, graduated boolean, "
+                        + "remark varchar(128), create_by bigint, create_time timestamp, update_by bigint, update_time timestamp, "
+                        + "version int)");
+            }
+            String sql = "insert into student_record values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (int i = 1; i <= rows; i ++) {
+                    int index = 1;
+                    ps.setLong(index ++, i);
+                    ps.setString(index ++, "student" + i);
+                    ps.setInt(index ++, 10 + i % 8);
+                    ps.setInt(index ++, i % 2);
+                    ps.setString(index ++, "138" + (10000000 + i));
+                    ps.setString(index ++, "student" + i + "@example.com");
+                    ps.setString(index ++, "No." + i + " Nanshan Road, Shenzhen");
+                    ps.setDate(index ++, Date.valueOf("2010-01-01"));
+                    ps.setLong(index ++, i % 40);
+                    ps.setLong(index ++, i % 60);
+                    ps.setLong(index ++, i % 5);
+                    ps.setString(index ++, "S" + i);
+                    ps.setInt(index ++, 1);
+                    ps.setString(index ++, "Han");
+                    ps.setString(index ++, "Shenzhen");
+                    ps.setString(index ++, "guardian" + i);
+                    ps.setString(index ++, "139" + (10000000 + i));
+                    ps.setBigDecimal(index ++, new BigDecimal("150.50"));
+                    ps.setBigDecimal(index ++, new BigDecimal("45.20"));
+                    ps.setDouble(index ++, 3.5D);
+                    ps.setInt(index ++, 1 + i % 6);
+                    ps.setInt(index ++, i);
+                    ps.setBoolean(index ++, i % 3 == 0);
+                    ps.setBoolean(index ++, false);
+                    ps.setString(index ++, i % 4 == 0 ? null : "remark" + i);
+                    ps.setLong(index ++, 1L);
+                    ps.setTimestamp(index ++, Timestamp.valueOf("2026-01-01 08:00:00"));
+                    ps.setLong(index ++, 1L);
+                    ps.setTimestamp(index ++, Timestamp.valueOf("2026-06-01 08:00:00"));
+                    ps.setInt(index, 1);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.kzow3n.jdbcplus.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import com.kzow3n.jdbcplus.utils.CacheKeyUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成缓存键的耗时与内存分配，使用5张连表查询的Sql与参数
+ * jsonKey按哈希前的方式拼接完整Sql与fastjson序列化的参数，hashedKey为定长的128位MurmurHash3
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+    private String sql;
+    private List<Object> args;
+
+    @Setup
+    public void setUp() {
+        LinkedQueryWrapper linkedQueryWrapper = Queries.fiveJoinQuery().formatSql();
+        sql = linkedQueryWrapper.getFullSql();
+        args = new ArrayList<>(linkedQueryWrapper.getArgs());
+    }
+
+    @Benchmark
+    public String hashedKey() {
+        return CacheKeyUtils.getCacheKey("forMaps", null, sql, args);
+    }
+
+    @Benchmark
+    public String jsonKey() {
+        List<SqlArg> sqlArgs = new ArrayList<>();
+        for (Object arg : args) {
+            sqlArgs.add(arg == null ? new SqlArg(null, "null") : new SqlArg(arg, arg.getClass().getName()));
+        }
+        return "linked-mybatis:" + "forMaps" + ":" + sql + ":" + JSON.toJSONString(sqlArgs);
+    }
+
+    /**
+     * 哈希前缓存键中的参数，与当时的com.kzow3n.jdbcplus.pojo.SqlArg一致
+     */
+    public static class SqlArg {
+        private final Object value;
+        private final String className;
+
+        SqlArg(Object value, String className) {
+            this.value = value;
+            this.className = className;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.kzow3n.jdbcplus.benchmark;
+
+import com.alibaba.fastjson.support.spring.GenericFastJsonRedisSerializer;
+import com.kzow3n.jdbcplus.benchmark.entity.StudentRecord;
+import com.kzow3n.jdbcplus.core.cache.BinaryResultCodec;
+import com.kzow3n.jdbcplus.core.executor.LinkedQueryExecutor;
+import com.kzow3n.jdbcplus.core.executor.LinkedQueryExecutorBuilder;
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存值的编解码耗时，1000行30列的forMaps与forObjects结果
+ * jdk、fastjson为redisTemplate常用的序列化器，binary为BinaryResultCodec不压缩，binaryDeflate为超过4096字节时压缩
+ * 测试数据固定，编码后的字节数不随运行变化，记录在README中；decode读取每行的每个值，使按需解码的行全部解码
+ * jdk、fastjson与RedisQueryCache一样先把forMaps的行转为LinkedHashMap
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    @Param({"jdk", "fastjson", "binary", "binaryDeflate"})
+    private String codec;
+
+    @Param({"maps", "beans"})
+    private String shape;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] bytes;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        BenchmarkDatabase database = new BenchmarkDatabase(1000);
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build();
+        LinkedQueryWrapper linkedQueryWrapper = new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(StudentRecord.class, "s");
+        value = "maps".equals(shape) ? queryExecutor.forMaps(linkedQueryWrapper) : queryExecutor.forObjects(StudentRecord.class, linkedQueryWrapper);
+        serializer = buildSerializer(codec);
+        if ("maps".equals(shape) && !codec.startsWith("binary")) {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Object row : (List<?>) value) {
+                rows.add(new LinkedHashMap<>((Map<String, Object>) row));
+            }
+            value = rows;
+        }
+        bytes = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        List<?> rows = (List<?>) serializer.deserialize(bytes);
+        for (Object row : rows) {
+            if (row instanceof Map) {
+                for (Object cell : ((Map<?, ?>) row).values()) {
+                    blackhole.consume(cell);
+                }
+            }
+            else {
+                blackhole.consume(row);
+            }
+        }
+    }
+
+    private static RedisSerializer<Object> buildSerializer(String codec) {
+        switch (codec) {
+            case "jdk":
+                return new JdkSerializationRedisSerializer();
+            case "fastjson":
+                return new GenericFastJsonRedisSerializer();
+            case "binary":
+                return fromCodec(new BinaryResultCodec(Integer.MAX_VALUE));
+            default:
+                return fromCodec(new BinaryResultCodec());
+        }
+    }
+
+    private static RedisSerializer<Object> fromCodec(BinaryResultCodec binaryResultCodec) {
+        return new RedisSerializer<Object>() {
+            @Override
+            public byte[] serialize(Object value) {
+                return binaryResultCodec.encode(value);
+            }
+
+            @Override
+            public Object deserialize(byte[] bytes) {
+                return binaryResultCodec.decode(bytes);
+            }
+        };
+    }
+}
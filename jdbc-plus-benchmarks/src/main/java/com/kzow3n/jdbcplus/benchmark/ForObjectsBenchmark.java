@@ -0,0 +1,125 @@
+package com.kzow3n.jdbcplus.benchmark;
+
+import com.kzow3n.jdbcplus.benchmark.entity.StudentRecord;
+import com.kzow3n.jdbcplus.core.executor.LinkedQueryExecutor;
+import com.kzow3n.jdbcplus.core.executor.LinkedQueryExecutorBuilder;
+import com.kzow3n.jdbcplus.core.jdbc.SqlRunnerContext;
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 30列实体类的forObjects吞吐量，以MyBatis自动映射结果集
+ * rebuildMappedStatement按缓存前的方式每次查询构建MappedStatement与ResultMap，cachedMappedStatement使用SqlRunnerContext中缓存的，二者其余步骤相同
+ * cachedAutoMapping在cachedMappedStatement的基础上，与SqlRunnerContext一样向新建的ResultSetHandler预置已解析的自动映射
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForObjectsBenchmark {
+
+    @Param({"10", "1000"})
+    private int rows;
+
+    private BenchmarkDatabase database;
+    private LinkedQueryExecutor queryExecutor;
+    private Configuration configuration;
+    private String sql;
+    private Field autoMappingsField;
+    private Map<String, Object> autoMappings;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase(rows);
+        queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build();
+        configuration = database.getSqlSessionFactory().getConfiguration();
+        sql = selectAll().formatSql().getFullSql();
+        try {
+            autoMappingsField = DefaultResultSetHandler.class.getDeclaredField("autoMappingsCache");
+            autoMappingsField.setAccessible(true);
+            DefaultResultSetHandler resultSetHandler = newResultSetHandler();
+            query(resultSetHandler);
+            autoMappings = new HashMap<>(getAutoMappings(resultSetHandler));
+        } catch (ReflectiveOperationException | SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public List<StudentRecord> forObjects() {
+        return queryExecutor.forObjects(StudentRecord.class, selectAll());
+    }
+
+    @Benchmark
+    public List<Object> rebuildMappedStatement() throws SQLException {
+        ResultMap resultMap = new ResultMap.Builder(configuration, "linkedMap", StudentRecord.class, new ArrayList<>()).build();
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, "linkedSelect",
+                new StaticSqlSource(configuration, "some select statement"), SqlCommandType.SELECT)
+                .resultMaps(Collections.singletonList(resultMap))
+                .build();
+        return query(mappedStatement);
+    }
+
+    @Benchmark
+    public List<Object> cachedMappedStatement() throws SQLException {
+        return query(newResultSetHandler());
+    }
+
+    @Benchmark
+    public List<Object> cachedAutoMapping() throws SQLException, IllegalAccessException {
+        DefaultResultSetHandler resultSetHandler = newResultSetHandler();
+        getAutoMappings(resultSetHandler).putAll(autoMappings);
+        return query(resultSetHandler);
+    }
+
+    private DefaultResultSetHandler newResultSetHandler() {
+        MappedStatement mappedStatement = SqlRunnerContext.of(database.getSqlSessionFactory()).getMappedStatement(StudentRecord.class);
+        return new DefaultResultSetHandler(null, mappedStatement, null, null, null, new RowBounds());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getAutoMappings(DefaultResultSetHandler resultSetHandler) throws IllegalAccessException {
+        return (Map<String, Object>) autoMappingsField.get(resultSetHandler);
+    }
+
+    private List<Object> query(MappedStatement mappedStatement) throws SQLException {
+        return query(new DefaultResultSetHandler(null, mappedStatement, null, null, null, new RowBounds()));
+    }
+
+    private List<Object> query(DefaultResultSetHandler resultSetHandler) throws SQLException {
+        try (Connection connection = database.getDataSource().getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.executeQuery();
+            return resultSetHandler.handleResultSets(ps);
+        }
+    }
+
+    private static LinkedQueryWrapper selectAll() {
+        return new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(StudentRecord.class, "s");
+    }
+}
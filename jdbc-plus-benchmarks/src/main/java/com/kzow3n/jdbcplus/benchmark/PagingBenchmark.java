@@ -0,0 +1,58 @@
+package com.kzow3n.jdbcplus.benchmark;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.kzow3n.jdbcplus.benchmark.entity.StudentRecord;
+import com.kzow3n.jdbcplus.core.executor.LinkedQueryExecutor;
+import com.kzow3n.jdbcplus.core.executor.LinkedQueryExecutorBuilder;
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 30列实体类forObjectPage的耗时，每页10行，取1000行中符合条件的第3页
+ * twoQueryPage先执行计数语句再查询当前页，windowCountPage以COUNT(1) OVER()列在同一条语句中取得总数
+ * latencyMillis为每条语句注入的延迟，模拟与数据库之间的网络往返，为0时只比较H2本身的执行开销
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PagingBenchmark {
+
+    @Param({"0", "1", "5"})
+    private long latencyMillis;
+
+    private LinkedQueryExecutor twoQueryExecutor;
+    private LinkedQueryExecutor windowCountExecutor;
+
+    @Setup
+    public void setUp() {
+        BenchmarkDatabase database = new BenchmarkDatabase(1000, latencyMillis);
+        twoQueryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build();
+        windowCountExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).windowCountPage(true).build();
+    }
+
+    @Benchmark
+    public Page<StudentRecord> twoQueryPage() {
+        return twoQueryExecutor.forObjectPage(StudentRecord.class, pageQuery(), 3, 10);
+    }
+
+    @Benchmark
+    public Page<StudentRecord> windowCountPage() {
+        return windowCountExecutor.forObjectPage(StudentRecord.class, pageQuery(), 3, 10);
+    }
+
+    private static LinkedQueryWrapper pageQuery() {
+        return new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(StudentRecord.class, "s")
+                .eq(1, StudentRecord::getGender, 1)
+                .orderBy(1, StudentRecord::getId);
+    }
+}
@@ -0,0 +1,95 @@
+package com.kzow3n.jdbcplus.benchmark;
+
+import com.kzow3n.jdbcplus.benchmark.entity.*;
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+
+/**
+ * 基准测试使用的查询，与业务接口中常见的写法一致
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class Queries {
+
+    /**
+     * 5张连表、30个查询字段，共使用32个方法引用
+     */
+    public static LinkedQueryWrapper fiveJoinQuery() {
+        return new LinkedQueryWrapper()
+                .selectAll(1)
+                .select(2, ClassRoom::getName, "className")
+                .select(2, ClassRoom::getGrade, "grade")
+                .select(3, School::getName, "schoolName")
+                .select(3, School::getCity, "city")
+                .select(3, School::getLevel, "schoolLevel")
+                .select(4, Teacher::getName, "headmasterName")
+                .select(4, Teacher::getSubject, "headmasterSubject")
+                .select(4, Teacher::getPhone, "headmasterPhone")
+                .select(4, Teacher::getStatus, "headmasterStatus")
+                .select(5, Teacher::getName, "deanName")
+                .select(5, Teacher::getSubject, "deanSubject")
+                .select(5, Teacher::getPhone, "deanPhone")
+                .select(6, Score::getCourse, "course")
+                .select(6, Score::getScore, "score")
+                .select(6, Score::getId, "scoreId")
+                .from(Student.class, "s")
+                .leftJoin(ClassRoom.class, "c")
+                .on(2, ClassRoom::getId, 1, Student::getClassId)
+                .leftJoin(School.class, "sc")
+                .on(3, School::getId, 1, Student::getSchoolId)
+                .leftJoin(Teacher.class, "t")
+                .on(4, Teacher::getId, 1, Student::getHeadmasterId)
+                .leftJoin(Teacher.class, "d")
+                .on(5, Teacher::getSchoolId, 3, School::getId)
+                .innerJoin(Score.class, "sr")
+                .on(6, Score::getStudentId, 1, Student::getId)
+                .eq(1, Student::getStatus, 1)
+                .gt(1, Student::getAge, 10)
+                .like(1, Student::getName, "student")
+                .in(1, Student::getGender, 1, 2)
+                .eq(3, School::getCity, "Shenzhen")
+                .orderBy(1, Student::getId)
+                .thenBy(6, Score::getCourse);
+    }
+
+    /**
+     * 与fiveJoinQuery相同的查询，以静态元模型代替方法引用
+     */
+    public static LinkedQueryWrapper fiveJoinQueryByMetamodel() {
+        return new LinkedQueryWrapper()
+                .selectAll(1)
+                .select(2, ClassRoom_.NAME, "className")
+                .select(2, ClassRoom_.GRADE, "grade")
+                .select(3, School_.NAME, "schoolName")
+                .select(3, School_.CITY, "city")
+                .select(3, School_.LEVEL, "schoolLevel")
+                .select(4, Teacher_.NAME, "headmasterName")
+                .select(4, Teacher_.SUBJECT, "headmasterSubject")
+                .select(4, Teacher_.PHONE, "headmasterPhone")
+                .select(4, Teacher_.STATUS, "headmasterStatus")
+                .select(5, Teacher_.NAME, "deanName")
+                .select(5, Teacher_.SUBJECT, "deanSubject")
+                .select(5, Teacher_.PHONE, "deanPhone")
+                .select(6, Score_.COURSE, "course")
+                .select(6, Score_.SCORE, "score")
+                .select(6, Score_.ID, "scoreId")
+                .from(Student.class, "s")
+                .leftJoin(ClassRoom.class, "c")
+                .on(2, ClassRoom_.ID, 1, Student_.CLASS_ID)
+                .leftJoin(School.class, "sc")
+                .on(3, School_.ID, 1, Student_.SCHOOL_ID)
+                .leftJoin(Teacher.class, "t")
+                .on(4, Teacher_.ID, 1, Student_.HEADMASTER_ID)
+                .leftJoin(Teacher.class, "d")
+                .on(5, Teacher_.SCHOOL_ID, 3, School_.ID)
+                .innerJoin(Score.class, "sr")
+                .on(6, Score_.STUDENT_ID, 1, Student_.ID)
+                .eq(1, Student_.STATUS, 1)
+                .gt(1, Student_.AGE, 10)
+                .like(1, Student_.NAME, "student")
+                .in(1, Student_.GENDER, 1, 2)
+                .eq(3, School_.CITY, "Shenzhen")
+                .orderBy(1, Student_.ID)
+                .thenBy(6, Score_.COURSE);
+    }
+}
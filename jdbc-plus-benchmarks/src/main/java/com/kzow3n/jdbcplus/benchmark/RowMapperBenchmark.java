@@ -0,0 +1,79 @@
+package com.kzow3n.jdbcplus.benchmark;
+
+import com.kzow3n.jdbcplus.benchmark.entity.StudentRecord;
+import com.kzow3n.jdbcplus.core.executor.LinkedQueryExecutor;
+import com.kzow3n.jdbcplus.core.executor.LinkedQueryExecutorBuilder;
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 30列实体类的结果集映射，MyBatis自动映射与BeanRowMapper的对比，均为forObjects端到端
+ * jdbcOnly执行同一条Sql并以getObject读取每个单元格，不创建对象，为两者共同的下限；映射本身的耗时为各自减去jdbcOnly
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    @Param({"100", "2000"})
+    private int rows;
+
+    private BenchmarkDatabase database;
+    private LinkedQueryExecutor myBatisExecutor;
+    private LinkedQueryExecutor beanRowMapperExecutor;
+    private String sql;
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase(rows);
+        myBatisExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build();
+        beanRowMapperExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .beanRowMapper(true)
+                .build();
+        sql = selectAll().formatSql().getFullSql();
+    }
+
+    @Benchmark
+    public List<StudentRecord> myBatis() {
+        return myBatisExecutor.forObjects(StudentRecord.class, selectAll());
+    }
+
+    @Benchmark
+    public List<StudentRecord> beanRowMapper() {
+        return beanRowMapperExecutor.forObjects(StudentRecord.class, selectAll());
+    }
+
+    @Benchmark
+    public void jdbcOnly(Blackhole blackhole) throws SQLException {
+        try (Connection connection = database.getDataSource().getConnection();
+             PreparedStatement ps = connection.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            int columnCount = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                for (int i = 1; i <= columnCount; i ++) {
+                    blackhole.consume(rs.getObject(i));
+                }
+            }
+        }
+    }
+
+    private static LinkedQueryWrapper selectAll() {
+        return new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(StudentRecord.class, "s");
+    }
+}
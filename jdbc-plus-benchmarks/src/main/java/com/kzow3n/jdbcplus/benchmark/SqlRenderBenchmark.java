@@ -0,0 +1,48 @@
+package com.kzow3n.jdbcplus.benchmark;
+
+import com.kzow3n.jdbcplus.benchmark.entity.ClassRoom;
+import com.kzow3n.jdbcplus.benchmark.entity.School;
+import com.kzow3n.jdbcplus.benchmark.entity.Student;
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成Sql的耗时与内存分配，包括构造查询条件；减去WrapperBuildBenchmark.buildWrapper即为生成Sql本身
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SqlRenderBenchmark {
+
+    /**
+     * 5张连表、30个查询字段
+     */
+    @Benchmark
+    public String renderFiveJoins() {
+        return Queries.fiveJoinQuery().formatSql().getFullSql();
+    }
+
+    /**
+     * 在5张连表的基础上加一个嵌套子查询条件
+     */
+    @Benchmark
+    public String renderWithSubquery() {
+        return Queries.fiveJoinQuery()
+                .in(1, Student::getClassId, wrapper -> wrapper
+                        .select(1, ClassRoom::getId)
+                        .from(ClassRoom.class, "c")
+                        .leftJoin(School.class, "sc")
+                        .on(2, School::getId, 1, ClassRoom::getSchoolId)
+                        .eq(2, School::getLevel, 1))
+                .formatSql()
+                .getFullSql();
+    }
+}
@@ -0,0 +1,84 @@
+package com.kzow3n.jdbcplus.benchmark;
+
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.kzow3n.jdbcplus.benchmark.entity.*;
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import com.kzow3n.jdbcplus.utils.ColumnUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 构造查询条件时解析方法引用的开销
+ * uncachedResolution按缓存前的方式逐个解析：writeReplace、SerializedLambda、Class.forName、findField
+ * buildWrapperByMetamodel以编译期生成的静态元模型构造同一查询条件
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WrapperBuildBenchmark {
+
+    private final List<SFunction<?, ?>> fns = Arrays.asList(
+            (SFunction<Student, ?>) Student::getId, (SFunction<Student, ?>) Student::getName,
+            (SFunction<Student, ?>) Student::getAge, (SFunction<Student, ?>) Student::getClassId,
+            (SFunction<ClassRoom, ?>) ClassRoom::getName, (SFunction<ClassRoom, ?>) ClassRoom::getGrade,
+            (SFunction<School, ?>) School::getName, (SFunction<School, ?>) School::getCity,
+            (SFunction<Teacher, ?>) Teacher::getName, (SFunction<Teacher, ?>) Teacher::getPhone,
+            (SFunction<Score, ?>) Score::getCourse, (SFunction<Score, ?>) Score::getScore);
+
+    /**
+     * 构造一个5张连表、32个方法引用的查询条件，不生成Sql
+     */
+    @Benchmark
+    public LinkedQueryWrapper buildWrapper() {
+        return Queries.fiveJoinQuery();
+    }
+
+    /**
+     * 同一查询条件以静态元模型构造，不解析方法引用
+     */
+    @Benchmark
+    public LinkedQueryWrapper buildWrapperByMetamodel() {
+        return Queries.fiveJoinQueryByMetamodel();
+    }
+
+    @Benchmark
+    public Field[] cachedResolution() {
+        Field[] fields = new Field[fns.size()];
+        for (int i = 0; i < fields.length; i ++) {
+            fields[i] = ColumnUtils.getField((SFunction) fns.get(i));
+        }
+        return fields;
+    }
+
+    @Benchmark
+    public Field[] uncachedResolution() throws Exception {
+        Field[] fields = new Field[fns.size()];
+        for (int i = 0; i < fields.length; i ++) {
+            fields[i] = resolveField(fns.get(i));
+        }
+        return fields;
+    }
+
+    private static Field resolveField(Object fn) throws Exception {
+        Method writeReplaceMethod = fn.getClass().getDeclaredMethod("writeReplace");
+        writeReplaceMethod.setAccessible(true);
+        SerializedLambda serializedLambda = (SerializedLambda) writeReplaceMethod.invoke(fn);
+        String fieldName = serializedLambda.getImplMethodName().substring("get".length());
+        fieldName = fieldName.replaceFirst(fieldName.charAt(0) + "", (fieldName.charAt(0) + "").toLowerCase());
+        Class<?> aClass = Class.forName(serializedLambda.getImplClass().replace("/", "."));
+        return ReflectionUtils.findField(aClass, fieldName);
+    }
+}
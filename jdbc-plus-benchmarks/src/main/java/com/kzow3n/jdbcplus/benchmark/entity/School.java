@@ -0,0 +1,20 @@
+package com.kzow3n.jdbcplus.benchmark.entity;
+
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+/**
+ * @author owen
+ * @since 2026/10/18
+ */
+@Data
+@TableName("school")
+public class School {
+
+    @TableId
+    private Long id;
+    private String name;
+    private String city;
+    private Integer level;
+}
@@ -0,0 +1,22 @@
+package com.kzow3n.jdbcplus.benchmark.entity;
+
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * @author owen
+ * @since 2026/10/18
+ */
+@Data
+@TableName("score")
+public class Score {
+
+    @TableId
+    private Long id;
+    private Long studentId;
+    private String course;
+    private BigDecimal score;
+}
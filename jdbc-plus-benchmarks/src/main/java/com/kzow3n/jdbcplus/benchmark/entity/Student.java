@@ -0,0 +1,36 @@
+package com.kzow3n.jdbcplus.benchmark.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * @author owen
+ * @since 2026/10/18
+ */
+@Data
+@TableName("student")
+public class Student {
+
+    @TableId
+    private Long id;
+    private String name;
+    private Integer age;
+    private Integer gender;
+    private String phone;
+    private String email;
+    private String address;
+    private LocalDate birthday;
+    private Long classId;
+    private Long headmasterId;
+    private Long schoolId;
+    @TableField("student_no")
+    private String studentNumber;
+    private Integer status;
+    private LocalDateTime createTime;
+    private LocalDateTime updateTime;
+}
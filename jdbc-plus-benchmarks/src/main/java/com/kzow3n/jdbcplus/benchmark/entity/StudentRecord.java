@@ -0,0 +1,55 @@
+package com.kzow3n.jdbcplus.benchmark.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 30个字段的宽表，用于映射与缓存编解码的基准测试，JDK序列化的对比需要Serializable
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Data
+@TableName("student_record")
+public class StudentRecord implements Serializable {
+
+    @TableId
+    private Long id;
+    private String name;
+    private Integer age;
+    private Integer gender;
+    private String phone;
+    private String email;
+    private String address;
+    private LocalDate birthday;
+    private Long classId;
+    private Long headmasterId;
+    private Long schoolId;
+    @TableField("student_no")
+    private String studentNumber;
+    private Integer status;
+    private String nation;
+    private String hometown;
+    private String guardianName;
+    private String guardianPhone;
+    private BigDecimal height;
+    private BigDecimal weight;
+    private Double gpa;
+    private Integer grade;
+    private Integer rank;
+    private Boolean boarder;
+    private Boolean graduated;
+    private String remark;
+    private Long createBy;
+    private LocalDateTime createTime;
+    private Long updateBy;
+    private LocalDateTime updateTime;
+    private Integer version;
+}
@@ -0,0 +1,1002 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import com.kzow3n.jdbcplus.core.jdbc.LinkedRow;
+
+import java.io.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 查询结果的二进制编解码器，列名（或实体类属性名）只写一次，每行只写带类型标记的值
+ * 编码后超过compressThreshold字节时以Deflate压缩
+ * 解码列表时只记录每行的位置，访问到某一行时才解码该行
+ * 无法按列编码的数据（如没有无参构造方法的类）以JDK序列化写入
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class BinaryResultCodec implements CacheCodec {
+
+    private static final byte MAGIC_0 = 'L';
+    private static final byte MAGIC_1 = 'R';
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HEADER_LENGTH = 4;
+    private static final int FLAG_DEFLATE = 1;
+
+    private static final byte KIND_VALUE = 0;
+    private static final byte KIND_MAPS = 1;
+    private static final byte KIND_BEANS = 2;
+    private static final byte KIND_ENTRY = 3;
+
+    private static final byte ROW_VALUES = 0;
+    private static final byte ROW_KEYS = 1;
+    private static final byte ROW_NULL = 2;
+
+    private static final byte T_NULL = 0;
+    private static final byte T_STRING = 1;
+    private static final byte T_INT = 2;
+    private static final byte T_LONG = 3;
+    private static final byte T_DOUBLE = 4;
+    private static final byte T_FLOAT = 5;
+    private static final byte T_TRUE = 6;
+    private static final byte T_FALSE = 7;
+    private static final byte T_SHORT = 8;
+    private static final byte T_BYTE = 9;
+    private static final byte T_BIG_DECIMAL = 10;
+    private static final byte T_BIG_INTEGER = 11;
+    private static final byte T_TIMESTAMP = 12;
+    private static final byte T_SQL_DATE = 13;
+    private static final byte T_SQL_TIME = 14;
+    private static final byte T_DATE = 15;
+    private static final byte T_LOCAL_DATE = 16;
+    private static final byte T_LOCAL_DATE_TIME = 17;
+    private static final byte T_LOCAL_TIME = 18;
+    private static final byte T_BYTES = 19;
+    private static final byte T_CHAR = 20;
+    private static final byte T_ENUM = 21;
+    private static final byte T_LIST = 22;
+    private static final byte T_MAP = 23;
+    private static final byte T_SERIAL = 24;
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    /**
+     * 无法按属性编码的类
+     */
+    private static final BeanLayout NO_LAYOUT = new BeanLayout(null, null, new String[0], new MethodHandle[0], new MethodHandle[0]);
+    private static final Map<Class<?>, BeanLayout> BEAN_LAYOUT_CACHE = new ConcurrentHashMap<>();
+
+    private final int compressThreshold;
+
+    public BinaryResultCodec() {
+        this(4096);
+    }
+
+    /**
+     * @param compressThreshold 编码后超过该字节数时压缩，Integer.MAX_VALUE表示不压缩
+     */
+    public BinaryResultCodec(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        Output out = new Output(256);
+        out.writeByte(MAGIC_0);
+        out.writeByte(MAGIC_1);
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(0);
+        writeBody(out, value);
+        int bodyLength = out.size() - HEADER_LENGTH;
+        if (bodyLength <= compressThreshold) {
+            return out.toByteArray();
+        }
+        byte[] bytes = out.buffer();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes, HEADER_LENGTH, bodyLength);
+            deflater.finish();
+            Output compressed = new Output(bodyLength / 2 + 16);
+            compressed.writeByte(MAGIC_0);
+            compressed.writeByte(MAGIC_1);
+            compressed.writeByte(FORMAT_VERSION);
+            compressed.writeByte(FLAG_DEFLATE);
+            compressed.writeVarInt(bodyLength);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                compressed.write(chunk, 0, n);
+            }
+            //压缩效果不明显时不压缩，省去解压
+            if (compressed.size() >= out.size()) {
+                return out.toByteArray();
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        if (!canDecode(bytes)) {
+            throw new IllegalArgumentException("bytes were not encoded by BinaryResultCodec.");
+        }
+        Input in;
+        if ((bytes[3] & FLAG_DEFLATE) != 0) {
+            Input header = new Input(bytes, HEADER_LENGTH);
+            int bodyLength = header.readVarInt();
+            byte[] body = new byte[bodyLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(bytes, header.pos, bytes.length - header.pos);
+                int n = 0;
+                while (n < bodyLength && !inflater.finished()) {
+                    int read = inflater.inflate(body, n, bodyLength - n);
+                    if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    n += read;
+                }
+                if (n != bodyLength) {
+                    throw new IllegalArgumentException("compressed cache value is truncated.");
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            } finally {
+                inflater.end();
+            }
+            in = new Input(body, 0);
+        }
+        else {
+            in = new Input(bytes, HEADER_LENGTH);
+        }
+        return readBody(in);
+    }
+
+    @Override
+    public boolean canDecode(byte[] bytes) {
+        return bytes != null && bytes.length >= HEADER_LENGTH
+                && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1 && bytes[2] == FORMAT_VERSION;
+    }
+
+    private static void writeBody(Output out, Object value) {
+        if (value instanceof CacheEntry) {
+            CacheEntry cacheEntry = (CacheEntry) value;
+            out.writeByte(KIND_ENTRY);
+            out.writeLong(cacheEntry.getRefreshAt());
+            writeBody(out, cacheEntry.getValue());
+            return;
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            if (isMapList(list)) {
+                writeMaps(out, list);
+                return;
+            }
+            BeanLayout layout = getListLayout(list);
+            if (layout != null) {
+                writeBeans(out, list, layout);
+                return;
+            }
+        }
+        out.writeByte(KIND_VALUE);
+        writeValue(out, value);
+    }
+
+    /**
+     * 非null元素都是键为String的Map
+     */
+    private static boolean isMapList(List<?> list) {
+        boolean blnFound = false;
+        for (Object row : list) {
+            if (row == null) {
+                continue;
+            }
+            if (!(row instanceof Map)) {
+                return false;
+            }
+            for (Object key : ((Map<?, ?>) row).keySet()) {
+                if (!(key instanceof String)) {
+                    return false;
+                }
+            }
+            blnFound = true;
+        }
+        return blnFound;
+    }
+
+    /**
+     * 非null元素为同一个可按属性编码的类时返回其属性布局
+     */
+    private static BeanLayout getListLayout(List<?> list) {
+        Class<?> type = null;
+        for (Object row : list) {
+            if (row == null) {
+                continue;
+            }
+            if (type == null) {
+                type = row.getClass();
+            }
+            else if (row.getClass() != type) {
+                return null;
+            }
+        }
+        if (type == null) {
+            return null;
+        }
+        BeanLayout layout = getBeanLayout(type);
+        return layout == NO_LAYOUT ? null : layout;
+    }
+
+    /**
+     * 列名取第一个非null行的键，键与之相同的行只写值，其余行写出自己的键
+     */
+    @SuppressWarnings("unchecked")
+    private static void writeMaps(Output out, List<?> list) {
+        List<String> header = null;
+        for (Object row : list) {
+            if (row != null) {
+                header = new ArrayList<>(((Map<String, ?>) row).keySet());
+                break;
+            }
+        }
+        out.writeByte(KIND_MAPS);
+        out.writeVarInt(header.size());
+        for (String column : header) {
+            out.writeString(column);
+        }
+        out.writeVarInt(list.size());
+        Output rowOut = new Output(64);
+        for (Object row : list) {
+            rowOut.reset();
+            if (row == null) {
+                rowOut.writeByte(ROW_NULL);
+            }
+            else {
+                Map<String, ?> map = (Map<String, ?>) row;
+                if (hasHeader(map, header)) {
+                    rowOut.writeByte(ROW_VALUES);
+                    for (Object columnValue : map.values()) {
+                        writeValue(rowOut, columnValue);
+                    }
+                }
+                else {
+                    rowOut.writeByte(ROW_KEYS);
+                    rowOut.writeVarInt(map.size());
+                    for (Map.Entry<String, ?> entry : map.entrySet()) {
+                        rowOut.writeString(entry.getKey());
+                        writeValue(rowOut, entry.getValue());
+                    }
+                }
+            }
+            out.writeVarInt(rowOut.size());
+            out.write(rowOut.buffer(), 0, rowOut.size());
+        }
+    }
+
+    private static boolean hasHeader(Map<String, ?> map, List<String> header) {
+        if (map.size() != header.size()) {
+            return false;
+        }
+        int i = 0;
+        for (String key : map.keySet()) {
+            if (!key.equals(header.get(i ++))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeBeans(Output out, List<?> list, BeanLayout layout) {
+        out.writeByte(KIND_BEANS);
+        out.writeString(layout.type.getName());
+        out.writeVarInt(layout.fieldNames.length);
+        for (String fieldName : layout.fieldNames) {
+            out.writeString(fieldName);
+        }
+        out.writeVarInt(list.size());
+        Output rowOut = new Output(64);
+        for (Object row : list) {
+            rowOut.reset();
+            if (row == null) {
+                rowOut.writeByte(ROW_NULL);
+            }
+            else {
+                rowOut.writeByte(ROW_VALUES);
+                for (MethodHandle getter : layout.getters) {
+                    try {
+                        writeValue(rowOut, (Object) getter.invokeExact(row));
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        throw new IllegalArgumentException(e.getMessage(), e);
+                    }
+                }
+            }
+            out.writeVarInt(rowOut.size());
+            out.write(rowOut.buffer(), 0, rowOut.size());
+        }
+    }
+
+    private static void writeValue(Output out, Object value) {
+        if (value == null) {
+            out.writeByte(T_NULL);
+        }
+        else if (value instanceof String) {
+            out.writeByte(T_STRING);
+            out.writeString((String) value);
+        }
+        else if (value instanceof Integer) {
+            out.writeByte(T_INT);
+            out.writeVarLong((Integer) value);
+        }
+        else if (value instanceof Long) {
+            out.writeByte(T_LONG);
+            out.writeVarLong((Long) value);
+        }
+        else if (value instanceof Double) {
+            out.writeByte(T_DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits((Double) value));
+        }
+        else if (value instanceof Float) {
+            out.writeByte(T_FLOAT);
+            out.writeInt(Float.floatToRawIntBits((Float) value));
+        }
+        else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? T_TRUE : T_FALSE);
+        }
+        else if (value instanceof Short) {
+            out.writeByte(T_SHORT);
+            out.writeVarLong((Short) value);
+        }
+        else if (value instanceof Byte) {
+            out.writeByte(T_BYTE);
+            out.writeByte((Byte) value);
+        }
+        else if (value.getClass() == BigDecimal.class) {
+            BigDecimal decimal = (BigDecimal) value;
+            out.writeByte(T_BIG_DECIMAL);
+            out.writeVarLong(decimal.scale());
+            out.writeBytes(decimal.unscaledValue().toByteArray());
+        }
+        else if (value.getClass() == BigInteger.class) {
+            out.writeByte(T_BIG_INTEGER);
+            out.writeBytes(((BigInteger) value).toByteArray());
+        }
+        else if (value.getClass() == Timestamp.class) {
+            Timestamp timestamp = (Timestamp) value;
+            out.writeByte(T_TIMESTAMP);
+            out.writeVarLong(timestamp.getTime());
+            out.writeVarInt(timestamp.getNanos());
+        }
+        else if (value.getClass() == java.sql.Date.class) {
+            out.writeByte(T_SQL_DATE);
+            out.writeVarLong(((java.sql.Date) value).getTime());
+        }
+        else if (value.getClass() == Time.class) {
+            out.writeByte(T_SQL_TIME);
+            out.writeVarLong(((Time) value).getTime());
+        }
+        else if (value.getClass() == Date.class) {
+            out.writeByte(T_DATE);
+            out.writeVarLong(((Date) value).getTime());
+        }
+        else if (value instanceof LocalDate) {
+            out.writeByte(T_LOCAL_DATE);
+            out.writeVarLong(((LocalDate) value).toEpochDay());
+        }
+        else if (value instanceof LocalDateTime) {
+            LocalDateTime dateTime = (LocalDateTime) value;
+            out.writeByte(T_LOCAL_DATE_TIME);
+            out.writeVarLong(dateTime.toLocalDate().toEpochDay());
+            out.writeVarLong(dateTime.toLocalTime().toNanoOfDay());
+        }
+        else if (value instanceof LocalTime) {
+            out.writeByte(T_LOCAL_TIME);
+            out.writeVarLong(((LocalTime) value).toNanoOfDay());
+        }
+        else if (value instanceof byte[]) {
+            out.writeByte(T_BYTES);
+            out.writeBytes((byte[]) value);
+        }
+        else if (value instanceof Character) {
+            out.writeByte(T_CHAR);
+            out.writeVarInt((Character) value);
+        }
+        else if (value instanceof Enum) {
+            out.writeByte(T_ENUM);
+            out.writeString(((Enum<?>) value).getDeclaringClass().getName());
+            out.writeString(((Enum<?>) value).name());
+        }
+        //解码为ArrayList、LinkedHashMap，其余集合类型以JDK序列化保留原类型
+        else if (value.getClass() == ArrayList.class || value instanceof LazyRowList) {
+            List<?> list = (List<?>) value;
+            out.writeByte(T_LIST);
+            out.writeVarInt(list.size());
+            for (Object item : list) {
+                writeValue(out, item);
+            }
+        }
+        else if (value instanceof LinkedRow || value.getClass() == LinkedHashMap.class || value.getClass() == HashMap.class) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(T_MAP);
+            out.writeVarInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        }
+        else {
+            out.writeByte(T_SERIAL);
+            out.writeBytes(serialize(value));
+        }
+    }
+
+    private static Object readBody(Input in) {
+        byte kind = in.readByte();
+        switch (kind) {
+            case KIND_VALUE:
+                return readValue(in);
+            case KIND_ENTRY:
+                long refreshAt = in.readLong();
+                return new CacheEntry(readBody(in), refreshAt);
+            case KIND_MAPS:
+                return readMaps(in);
+            case KIND_BEANS:
+                return readBeans(in);
+            default:
+                throw new IllegalArgumentException("unknown cache value kind " + kind + ".");
+        }
+    }
+
+    private static List<Object> readMaps(Input in) {
+        int columnCount = in.readVarInt();
+        List<String> header = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i ++) {
+            header.add(in.readString());
+        }
+        Function<Object[], Map<String, Object>> rowFactory = LinkedRow.rowFactory(header);
+        return new LazyRowList(in.data, readRowOffsets(in), rowIn -> {
+            byte rowTag = rowIn.readByte();
+            if (rowTag == ROW_NULL) {
+                return null;
+            }
+            if (rowTag == ROW_VALUES) {
+                Object[] values = new Object[columnCount];
+                for (int i = 0; i < columnCount; i ++) {
+                    values[i] = readValue(rowIn);
+                }
+                return rowFactory.apply(values);
+            }
+            int size = rowIn.readVarInt();
+            Map<String, Object> map = new LinkedHashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i ++) {
+                String key = rowIn.readString();
+                map.put(key, readValue(rowIn));
+            }
+            return map;
+        });
+    }
+
+    /**
+     * 按属性名对应当前类的属性，类已删除的属性读出后丢弃
+     */
+    private static List<Object> readBeans(Input in) {
+        String className = in.readString();
+        Class<?> type = loadClass(className);
+        BeanLayout layout = getBeanLayout(type);
+        if (layout == NO_LAYOUT) {
+            throw new IllegalArgumentException("class " + className + " could not be decoded by fields.");
+        }
+        int fieldCount = in.readVarInt();
+        MethodHandle[] setters = new MethodHandle[fieldCount];
+        for (int i = 0; i < fieldCount; i ++) {
+            setters[i] = layout.getSetter(in.readString());
+        }
+        return new LazyRowList(in.data, readRowOffsets(in), rowIn -> {
+            if (rowIn.readByte() == ROW_NULL) {
+                return null;
+            }
+            try {
+                Object bean = layout.constructor.invokeExact();
+                for (MethodHandle setter : setters) {
+                    Object value = readValue(rowIn);
+                    if (setter != null && value != null) {
+                        setter.invokeExact(bean, value);
+                    }
+                }
+                return bean;
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * 只读取每行的起始位置，跳过行内容
+     */
+    private static int[] readRowOffsets(Input in) {
+        int rowCount = in.readVarInt();
+        int[] offsets = new int[rowCount];
+        for (int i = 0; i < rowCount; i ++) {
+            int length = in.readVarInt();
+            offsets[i] = in.pos;
+            in.pos += length;
+        }
+        return offsets;
+    }
+
+    private static Object readValue(Input in) {
+        byte tag = in.readByte();
+        switch (tag) {
+            case T_NULL:
+                return null;
+            case T_STRING:
+                return in.readString();
+            case T_INT:
+                return (int) in.readVarLong();
+            case T_LONG:
+                return in.readVarLong();
+            case T_DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case T_FLOAT:
+                return Float.intBitsToFloat(in.readInt());
+            case T_TRUE:
+                return Boolean.TRUE;
+            case T_FALSE:
+                return Boolean.FALSE;
+            case T_SHORT:
+                return (short) in.readVarLong();
+            case T_BYTE:
+                return in.readByte();
+            case T_BIG_DECIMAL:
+                int scale = (int) in.readVarLong();
+                return new BigDecimal(new BigInteger(in.readBytes()), scale);
+            case T_BIG_INTEGER:
+                return new BigInteger(in.readBytes());
+            case T_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(in.readVarLong());
+                timestamp.setNanos(in.readVarInt());
+                return timestamp;
+            case T_SQL_DATE:
+                return new java.sql.Date(in.readVarLong());
+            case T_SQL_TIME:
+                return new Time(in.readVarLong());
+            case T_DATE:
+                return new Date(in.readVarLong());
+            case T_LOCAL_DATE:
+                return LocalDate.ofEpochDay(in.readVarLong());
+            case T_LOCAL_DATE_TIME:
+                LocalDate date = LocalDate.ofEpochDay(in.readVarLong());
+                return LocalDateTime.of(date, LocalTime.ofNanoOfDay(in.readVarLong()));
+            case T_LOCAL_TIME:
+                return LocalTime.ofNanoOfDay(in.readVarLong());
+            case T_BYTES:
+                return in.readBytes();
+            case T_CHAR:
+                return (char) in.readVarInt();
+            case T_ENUM:
+                return readEnum(in.readString(), in.readString());
+            case T_LIST:
+                int size = in.readVarInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i ++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            case T_MAP:
+                int mapSize = in.readVarInt();
+                Map<Object, Object> map = new LinkedHashMap<>(mapSize * 4 / 3 + 1);
+                for (int i = 0; i < mapSize; i ++) {
+                    Object key = readValue(in);
+                    map.put(key, readValue(in));
+                }
+                return map;
+            case T_SERIAL:
+                return deserialize(in.readBytes());
+            default:
+                throw new IllegalArgumentException("unknown cache value tag " + tag + ".");
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readEnum(String className, String name) {
+        return Enum.valueOf((Class<? extends Enum>) loadClass(className), name);
+    }
+
+    private static Class<?> loadClass(String className) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            return Class.forName(className, false, classLoader != null ? classLoader : BinaryResultCodec.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private static byte[] serialize(Object value) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        return bos.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                if (classLoader == null) {
+                    return super.resolveClass(desc);
+                }
+                try {
+                    return Class.forName(desc.getName(), false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    return super.resolveClass(desc);
+                }
+            }
+        }) {
+            return ois.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private static BeanLayout getBeanLayout(Class<?> type) {
+        BeanLayout layout = BEAN_LAYOUT_CACHE.get(type);
+        if (layout == null) {
+            layout = BEAN_LAYOUT_CACHE.computeIfAbsent(type, BinaryResultCodec::buildBeanLayout);
+        }
+        return layout;
+    }
+
+    /**
+     * 与JDK序列化一致，编码本类及父类中非static、非transient的属性
+     * 有final属性、没有无参构造方法或本身有专门类型标记的类不按属性编码
+     */
+    private static BeanLayout buildBeanLayout(Class<?> type) {
+        if (type.isArray() || type.isEnum() || type.isInterface() || Modifier.isAbstract(type.getModifiers())
+                || type.getName().startsWith("java.") || Map.class.isAssignableFrom(type)
+                || Collection.class.isAssignableFrom(type)) {
+            return NO_LAYOUT;
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Constructor<?> declaredConstructor = type.getDeclaredConstructor();
+            declaredConstructor.setAccessible(true);
+            MethodHandle constructor = lookup.unreflectConstructor(declaredConstructor).asType(CONSTRUCTOR_TYPE);
+            List<String> fieldNames = new ArrayList<>();
+            List<MethodHandle> getters = new ArrayList<>();
+            List<MethodHandle> setters = new ArrayList<>();
+            for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                for (Field field : clazz.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    if (Modifier.isFinal(modifiers) || fieldNames.contains(field.getName())) {
+                        return NO_LAYOUT;
+                    }
+                    field.setAccessible(true);
+                    fieldNames.add(field.getName());
+                    getters.add(lookup.unreflectGetter(field).asType(GETTER_TYPE));
+                    setters.add(lookup.unreflectSetter(field).asType(SETTER_TYPE));
+                }
+            }
+            return new BeanLayout(type, constructor, fieldNames.toArray(new String[0]),
+                    getters.toArray(new MethodHandle[0]), setters.toArray(new MethodHandle[0]));
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            return NO_LAYOUT;
+        }
+    }
+
+    private static final class BeanLayout {
+        private final Class<?> type;
+        private final MethodHandle constructor;
+        private final String[] fieldNames;
+        private final MethodHandle[] getters;
+        private final MethodHandle[] setters;
+
+        BeanLayout(Class<?> type, MethodHandle constructor, String[] fieldNames, MethodHandle[] getters, MethodHandle[] setters) {
+            this.type = type;
+            this.constructor = constructor;
+            this.fieldNames = fieldNames;
+            this.getters = getters;
+            this.setters = setters;
+        }
+
+        MethodHandle getSetter(String fieldName) {
+            for (int i = 0; i < fieldNames.length; i ++) {
+                if (fieldNames[i].equals(fieldName)) {
+                    return setters[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowDecoder {
+        Object decode(Input in);
+    }
+
+    /**
+     * 按需解码的结果列表，每行在第一次访问时解码并保留，每次decode都返回新的列表，不与其他调用方共享
+     * 多个线程同时读取是安全的，同一行只保留先解码出的对象；修改与ArrayList一样需由调用方同步
+     * 发生add、remove等结构性修改时先解码全部行转为ArrayList，序列化时同样以ArrayList写出
+     */
+    static final class LazyRowList extends AbstractList<Object> implements RandomAccess, Serializable {
+
+        private static final long serialVersionUID = 1L;
+        private static final Object NULL_ROW = new Object();
+
+        private final transient byte[] data;
+        private final transient int[] offsets;
+        private final transient RowDecoder rowDecoder;
+        private final transient AtomicReferenceArray<Object> rows;
+        /**
+         * 转为ArrayList后的全部行，volatile保证读取线程看到完整的列表
+         */
+        private transient volatile List<Object> inflated;
+
+        LazyRowList(byte[] data, int[] offsets, RowDecoder rowDecoder) {
+            this.data = data;
+            this.offsets = offsets;
+            this.rowDecoder = rowDecoder;
+            this.rows = new AtomicReferenceArray<>(offsets.length);
+        }
+
+        @Override
+        public Object get(int index) {
+            List<Object> list = inflated;
+            if (list != null) {
+                return list.get(index);
+            }
+            Object row = rows.get(index);
+            if (row == null) {
+                Object decoded = rowDecoder.decode(new Input(data, offsets[index]));
+                rows.compareAndSet(index, null, decoded == null ? NULL_ROW : decoded);
+                row = rows.get(index);
+            }
+            return row == NULL_ROW ? null : row;
+        }
+
+        @Override
+        public int size() {
+            List<Object> list = inflated;
+            return list != null ? list.size() : offsets.length;
+        }
+
+        /**
+         * 与转为ArrayList互斥，避免转换时丢失修改
+         */
+        @Override
+        public synchronized Object set(int index, Object element) {
+            List<Object> list = inflated;
+            if (list != null) {
+                return list.set(index, element);
+            }
+            Object oldValue = get(index);
+            rows.set(index, element == null ? NULL_ROW : element);
+            return oldValue;
+        }
+
+        @Override
+        public synchronized void add(int index, Object element) {
+            inflate().add(index, element);
+            modCount ++;
+        }
+
+        @Override
+        public synchronized Object remove(int index) {
+            Object oldValue = inflate().remove(index);
+            modCount ++;
+            return oldValue;
+        }
+
+        private List<Object> inflate() {
+            List<Object> list = inflated;
+            if (list == null) {
+                list = new ArrayList<>(offsets.length + 1);
+                for (int i = 0; i < offsets.length; i ++) {
+                    list.add(get(i));
+                }
+                inflated = list;
+            }
+            return list;
+        }
+
+        private Object writeReplace() {
+            return new ArrayList<>(this);
+        }
+    }
+
+    private static final class Output {
+        private byte[] buf;
+        private int count;
+
+        Output(int capacity) {
+            buf = new byte[capacity];
+        }
+
+        void ensure(int n) {
+            if (count + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length << 1, count + n));
+            }
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[count ++] = (byte) b;
+        }
+
+        void write(byte[] bytes, int off, int len) {
+            ensure(len);
+            System.arraycopy(bytes, off, buf, count, len);
+            count += len;
+        }
+
+        void writeInt(int v) {
+            ensure(4);
+            buf[count ++] = (byte) (v >>> 24);
+            buf[count ++] = (byte) (v >>> 16);
+            buf[count ++] = (byte) (v >>> 8);
+            buf[count ++] = (byte) v;
+        }
+
+        void writeLong(long v) {
+            writeInt((int) (v >>> 32));
+            writeInt((int) v);
+        }
+
+        void writeVarInt(int v) {
+            ensure(5);
+            while ((v & ~0x7F) != 0) {
+                buf[count ++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[count ++] = (byte) v;
+        }
+
+        /**
+         * zigzag编码，绝对值小的负数也只占一两个字节
+         */
+        void writeVarLong(long v) {
+            ensure(10);
+            long zigzag = (v << 1) ^ (v >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                buf[count ++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buf[count ++] = (byte) zigzag;
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void writeString(String s) {
+            //纯ASCII的字符串直接写入，省去编码的中间数组
+            int length = s.length();
+            boolean blnAscii = true;
+            for (int i = 0; i < length; i ++) {
+                if (s.charAt(i) >= 0x80) {
+                    blnAscii = false;
+                    break;
+                }
+            }
+            if (!blnAscii) {
+                writeBytes(s.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            writeVarInt(length);
+            ensure(length);
+            for (int i = 0; i < length; i ++) {
+                buf[count ++] = (byte) s.charAt(i);
+            }
+        }
+
+        int size() {
+            return count;
+        }
+
+        void reset() {
+            count = 0;
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, count);
+        }
+    }
+
+    private static final class Input {
+        private final byte[] data;
+        private int pos;
+
+        Input(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        byte readByte() {
+            return data[pos ++];
+        }
+
+        int readInt() {
+            return ((data[pos ++] & 0xFF) << 24) | ((data[pos ++] & 0xFF) << 16)
+                    | ((data[pos ++] & 0xFF) << 8) | (data[pos ++] & 0xFF);
+        }
+
+        long readLong() {
+            return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+        }
+
+        int readVarInt() {
+            int result = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = data[pos ++];
+                result |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("malformed varint.");
+        }
+
+        long readVarLong() {
+            long zigzag = 0;
+            for (int shift = 0; shift < 70; shift += 7) {
+                byte b = data[pos ++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+            throw new IllegalArgumentException("malformed varint.");
+        }
+
+        byte[] readBytes() {
+            int length = readVarInt();
+            byte[] bytes = Arrays.copyOfRange(data, pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+
+        String readString() {
+            int length = readVarInt();
+            String s = new String(data, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return s;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存准入策略，避免导出等大结果集挤占缓存
+ * 查询结果超过maxRows行、编码后超过maxBytes字节时不写入缓存；开启minFrequency时同一缓存键查询数据库minFrequency次后才写入
+ * 应在同一JVM的所有执行器间共享，各项拒绝次数通过getter读取
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Slf4j
+public class CacheAdmission {
+
+    private final int maxRows;
+    private final long maxBytes;
+    private final int minFrequency;
+    private final FrequencySketch frequencySketch;
+    private final LongAdder admittedCount = new LongAdder();
+    private final LongAdder rowsRejectedCount = new LongAdder();
+    private final LongAdder bytesRejectedCount = new LongAdder();
+    private final LongAdder frequencyRejectedCount = new LongAdder();
+
+    /**
+     * @param maxRows 最大行数，0表示不限制
+     * @param maxBytes 编码后的最大字节数，0表示不限制，只对Redis缓存生效
+     */
+    public CacheAdmission(int maxRows, long maxBytes) {
+        this(maxRows, maxBytes, 1, 0);
+    }
+
+    /**
+     * @param minFrequency 同一缓存键查询数据库达到该次数后才写入缓存，1表示不限制
+     */
+    public CacheAdmission(int maxRows, long maxBytes, int minFrequency) {
+        this(maxRows, maxBytes, minFrequency, 1 << 16);
+    }
+
+    /**
+     * @param expectedKeys 预计的不同缓存键数量，决定计数器占用的内存（每个缓存键约8字节）
+     */
+    public CacheAdmission(int maxRows, long maxBytes, int minFrequency, int expectedKeys) {
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.minFrequency = minFrequency;
+        this.frequencySketch = minFrequency > 1 ? new FrequencySketch(expectedKeys) : null;
+    }
+
+    /**
+     * 查询数据库后判断结果是否写入缓存，同时记录缓存键出现一次
+     */
+    public boolean admit(CacheKey key, Object value) {
+        if (!admitRows(key, value)) {
+            return false;
+        }
+        if (frequencySketch != null) {
+            int frequency = frequencySketch.increment(spread(key.getKey().hashCode()));
+            if (frequency < minFrequency) {
+                frequencyRejectedCount.increment();
+                log.info(String.format("cacheKey:%s is not cached, seen %d times.", key, frequency));
+                return false;
+            }
+        }
+        admittedCount.increment();
+        return true;
+    }
+
+    /**
+     * 只按行数判断，用于后台刷新已缓存的结果
+     */
+    public boolean admitRows(CacheKey key, Object value) {
+        if (maxRows <= 0) {
+            return true;
+        }
+        if (value instanceof CacheEntry) {
+            value = ((CacheEntry) value).getValue();
+        }
+        if (value instanceof Collection && ((Collection<?>) value).size() > maxRows) {
+            rowsRejectedCount.increment();
+            log.info(String.format("cacheKey:%s is not cached, %d rows exceed maxRows.", key, ((Collection<?>) value).size()));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 按编码后的大小判断，由缓存在写入前调用
+     */
+    public boolean admitBytes(CacheKey key, int bytes) {
+        if (maxBytes <= 0L || bytes <= maxBytes) {
+            return true;
+        }
+        bytesRejectedCount.increment();
+        log.info(String.format("cacheKey:%s is not cached, %d bytes exceed maxBytes.", key, bytes));
+        return false;
+    }
+
+    private static long spread(int hash) {
+        long h = hash * 0x9e3779b97f4a7c15L;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * 通过行数与查询次数检查的次数，其中仍可能因编码后超过maxBytes而未写入
+     */
+    public long getAdmittedCount() {
+        return admittedCount.sum();
+    }
+
+    public long getRowsRejectedCount() {
+        return rowsRejectedCount.sum();
+    }
+
+    public long getBytesRejectedCount() {
+        return bytesRejectedCount.sum();
+    }
+
+    public long getFrequencyRejectedCount() {
+        return frequencyRejectedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rowsRejectedCount.sum() + bytesRejectedCount.sum() + frequencyRejectedCount.sum();
+    }
+}
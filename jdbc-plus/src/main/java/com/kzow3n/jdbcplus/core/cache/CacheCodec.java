@@ -0,0 +1,19 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+/**
+ * 缓存值编解码器，配置后Redis缓存以字节数组直接读写，不经过redisTemplate的序列化器
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public interface CacheCodec {
+
+    byte[] encode(Object value);
+
+    Object decode(byte[] bytes);
+
+    /**
+     * 是否为本编解码器写入的数据，不是时按redisTemplate的序列化器读取，兼容切换前写入的缓存
+     */
+    boolean canDecode(byte[] bytes);
+}
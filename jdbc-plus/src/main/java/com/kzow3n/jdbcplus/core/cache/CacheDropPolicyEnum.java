@@ -0,0 +1,35 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+/**
+ * 异步写入缓存的队列已满时的丢弃策略
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public enum CacheDropPolicyEnum {
+
+    /**
+     * 丢弃新提交的写入
+     */
+    DROP_NEWEST(1, "丢弃新提交的写入"),
+    /**
+     * 丢弃最早提交、尚未写入的写入
+     */
+    DROP_OLDEST(2, "丢弃最早的写入")
+    ;
+
+    private final Integer key;
+    private final String value;
+
+    CacheDropPolicyEnum(Integer key, String value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    public Integer getKey() {
+        return key;
+    }
+    public String getValue() {
+        return value;
+    }
+}
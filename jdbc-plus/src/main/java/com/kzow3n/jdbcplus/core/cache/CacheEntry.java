@@ -0,0 +1,38 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import com.alibaba.fastjson.annotation.JSONField;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * 开启过期后继续使用（stale-while-revalidate）时写入缓存的数据，记录应刷新的时间
+ * 超过刷新时间后仍返回旧数据，同时在后台重新查询
+ * 保留无参构造与setter，fastjson等JSON序列化器不接受只有带参构造的类
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Getter
+@Setter
+public class CacheEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Object value;
+    private long refreshAt;
+
+    public CacheEntry() {
+    }
+
+    public CacheEntry(Object value, long refreshAt) {
+        this.value = value;
+        this.refreshAt = refreshAt;
+    }
+
+    @JSONField(serialize = false)
+    public boolean isStale() {
+        return System.currentTimeMillis() >= refreshAt;
+    }
+}
@@ -0,0 +1,328 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import com.kzow3n.jdbcplus.utils.CacheKeyUtils;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.Statements;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.merge.Merge;
+import net.sf.jsqlparser.statement.replace.Replace;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.truncate.Truncate;
+import net.sf.jsqlparser.statement.update.Update;
+import net.sf.jsqlparser.statement.upsert.Upsert;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MyBatis拦截器，监听insert、update、delete语句，解析出写入的表，事务提交后失效依赖这些表的查询缓存
+ * 存在Spring事务时在事务提交后失效，自动提交时在语句执行后失效，其余情况在SqlSession提交后失效，回滚时丢弃
+ * 无法解析的语句（如存储过程）失效全部缓存
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Slf4j
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "rollback", args = {boolean.class}),
+        @Signature(type = Executor.class, method = "close", args = {boolean.class})
+})
+public class CacheInvalidationInterceptor implements Interceptor {
+
+    static final int MAX_PARSED_SQL_COUNT = 4096;
+    /**
+     * 表示写入的表未知
+     */
+    private static final Set<String> UNKNOWN_TABLES = Collections.unmodifiableSet(new HashSet<>());
+
+    private final QueryCache queryCache;
+    private final Map<String, Set<String>> sqlTablesMap = new ConcurrentHashMap<>();
+    private final Map<Executor, PendingTables> pendingTablesMap = new ConcurrentHashMap<>();
+
+    public CacheInvalidationInterceptor(QueryCache queryCache) {
+        this.queryCache = queryCache;
+    }
+
+    /**
+     * 只失效Redis中的缓存；查询端配置了NearCache时应使用带NearCache的构造，否则各节点的进程内缓存在过期前仍返回旧数据
+     */
+    public CacheInvalidationInterceptor(RedisTemplate<String, Object> redisTemplate) {
+        this(new RedisQueryCache(redisTemplate));
+    }
+
+    /**
+     * 同时清除各节点的进程内缓存
+     */
+    public CacheInvalidationInterceptor(RedisTemplate<String, Object> redisTemplate, NearCache nearCache) {
+        this(new TieredQueryCache(nearCache, new RedisQueryCache(redisTemplate)));
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Executor executor = (Executor) invocation.getTarget();
+        switch (invocation.getMethod().getName()) {
+            case "update":
+                Object result = invocation.proceed();
+                MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+                onUpdate(executor, getTables(ms.getBoundSql(invocation.getArgs()[1]).getSql()));
+                return result;
+            case "commit":
+                Object commitResult = invocation.proceed();
+                PendingTables pendingTables = pendingTablesMap.remove(executor);
+                if (pendingTables != null) {
+                    invalidate(pendingTables);
+                }
+                return commitResult;
+            default:
+                //rollback、close时丢弃未提交的失效
+                pendingTablesMap.remove(executor);
+                return invocation.proceed();
+        }
+    }
+
+    /**
+     * 解析语句写入的表，结果按Sql缓存
+     */
+    Set<String> getTables(String sql) {
+        Set<String> tables = sqlTablesMap.get(sql);
+        if (tables != null) {
+            return tables;
+        }
+        tables = parseTables(sql);
+        //foreach等动态Sql的写法不固定，数量过多时清空重新缓存
+        if (sqlTablesMap.size() >= MAX_PARSED_SQL_COUNT) {
+            sqlTablesMap.clear();
+        }
+        sqlTablesMap.put(sql, tables);
+        return tables;
+    }
+
+    /**
+     * 已缓存解析结果的Sql数
+     */
+    int getParsedSqlCount() {
+        return sqlTablesMap.size();
+    }
+
+    private void onUpdate(Executor executor, Set<String> tables) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            getSynchronization().pendingTables.add(tables);
+            return;
+        }
+        if (isAutoCommit(executor)) {
+            PendingTables pendingTables = new PendingTables();
+            pendingTables.add(tables);
+            invalidate(pendingTables);
+            return;
+        }
+        pendingTablesMap.computeIfAbsent(executor, k -> new PendingTables()).add(tables);
+    }
+
+    /**
+     * 每个Spring事务注册一个，挂起的外层事务的同步器不会出现在内层事务中
+     */
+    private InvalidationSynchronization getSynchronization() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof InvalidationSynchronization
+                    && ((InvalidationSynchronization) synchronization).getInterceptor() == this) {
+                return (InvalidationSynchronization) synchronization;
+            }
+        }
+        InvalidationSynchronization synchronization = new InvalidationSynchronization();
+        TransactionSynchronizationManager.registerSynchronization(synchronization);
+        return synchronization;
+    }
+
+    private boolean isAutoCommit(Executor executor) {
+        try {
+            Connection connection = executor.getTransaction().getConnection();
+            return connection.getAutoCommit();
+        } catch (SQLException | RuntimeException e) {
+            log.error(e.getMessage());
+        }
+        return true;
+    }
+
+    private void invalidate(PendingTables pendingTables) {
+        try {
+            if (pendingTables.blnAllTables) {
+                queryCache.invalidateAll();
+            }
+            else if (!pendingTables.tables.isEmpty()) {
+                queryCache.invalidateTables(pendingTables.tables);
+            }
+        } catch (RuntimeException e) {
+            log.error(e.getMessage());
+        }
+    }
+
+    private static Set<String> parseTables(String sql) {
+        Statements statements;
+        try {
+            statements = CCJSqlParserUtil.parseStatements(sql);
+        } catch (JSQLParserException e) {
+            //SQL Server以方括号引用表名，默认不开启以免与数组下标冲突
+            try {
+                statements = CCJSqlParserUtil.parseStatements(CCJSqlParserUtil.newParser(sql).withSquareBracketQuotation(true));
+            } catch (JSQLParserException ignored) {
+                log.error(e.getMessage());
+                return UNKNOWN_TABLES;
+            }
+        }
+        Set<String> tables = new LinkedHashSet<>();
+        for (Statement statement : statements.getStatements()) {
+            if (statement instanceof Insert) {
+                addTable(tables, ((Insert) statement).getTable());
+            }
+            else if (statement instanceof Update) {
+                addUpdateTables(tables, (Update) statement);
+            }
+            else if (statement instanceof Delete) {
+                addDeleteTables(tables, (Delete) statement);
+            }
+            else if (statement instanceof Replace) {
+                addTable(tables, ((Replace) statement).getTable());
+            }
+            else if (statement instanceof Upsert) {
+                addTable(tables, ((Upsert) statement).getTable());
+            }
+            else if (statement instanceof Merge) {
+                addTable(tables, ((Merge) statement).getTable());
+            }
+            else if (statement instanceof Truncate) {
+                addTable(tables, ((Truncate) statement).getTable());
+            }
+            else {
+                return UNKNOWN_TABLES;
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * SQL Server的update s set ... from student s join teacher t中，要更新的表以from中的别名给出，需还原为表名
+     * 多表更新时join的表也可能被更新
+     */
+    private static void addUpdateTables(Set<String> tables, Update update) {
+        Map<String, Table> aliasMap = new HashMap<>();
+        if (update.getFromItem() instanceof Table) {
+            putAlias(aliasMap, (Table) update.getFromItem());
+        }
+        putJoinAliases(aliasMap, update.getJoins());
+        addTable(tables, resolveAlias(aliasMap, update.getTable()));
+        addJoinTables(tables, update.getStartJoins());
+        addJoinTables(tables, update.getJoins());
+    }
+
+    /**
+     * 多表删除时要删除的表可能以别名给出，如delete s from student s join teacher t，需还原为表名
+     */
+    private static void addDeleteTables(Set<String> tables, Delete delete) {
+        List<Table> deleteTables = delete.getTables();
+        if (deleteTables == null || deleteTables.isEmpty()) {
+            addTable(tables, delete.getTable());
+            return;
+        }
+        Map<String, Table> aliasMap = new HashMap<>();
+        putAlias(aliasMap, delete.getTable());
+        putJoinAliases(aliasMap, delete.getJoins());
+        for (Table table : deleteTables) {
+            addTable(tables, resolveAlias(aliasMap, table));
+        }
+    }
+
+    private static void putJoinAliases(Map<String, Table> aliasMap, List<Join> joins) {
+        if (joins == null) {
+            return;
+        }
+        for (Join join : joins) {
+            if (join.getRightItem() instanceof Table) {
+                putAlias(aliasMap, (Table) join.getRightItem());
+            }
+        }
+    }
+
+    private static void putAlias(Map<String, Table> aliasMap, Table table) {
+        if (table != null && table.getAlias() != null) {
+            aliasMap.put(table.getAlias().getName().toLowerCase(Locale.ENGLISH), table);
+        }
+    }
+
+    /**
+     * 没有别名的表按名称查找别名对应的表，找不到时即为表名
+     */
+    private static Table resolveAlias(Map<String, Table> aliasMap, Table table) {
+        if (table == null || table.getName() == null || table.getAlias() != null || table.getSchemaName() != null) {
+            return table;
+        }
+        Table aliasTable = aliasMap.get(table.getName().toLowerCase(Locale.ENGLISH));
+        return aliasTable != null ? aliasTable : table;
+    }
+
+    private static void addJoinTables(Set<String> tables, List<Join> joins) {
+        if (joins == null) {
+            return;
+        }
+        for (Join join : joins) {
+            FromItem rightItem = join.getRightItem();
+            if (rightItem instanceof Table) {
+                addTable(tables, (Table) rightItem);
+            }
+        }
+    }
+
+    private static void addTable(Set<String> tables, Table table) {
+        if (table != null && table.getName() != null) {
+            tables.add(CacheKeyUtils.normalizeTableName(table.getName()));
+        }
+    }
+
+    /**
+     * 待失效的表
+     */
+    private static final class PendingTables {
+        private final Set<String> tables = Collections.synchronizedSet(new LinkedHashSet<>());
+        private volatile boolean blnAllTables = false;
+
+        void add(Set<String> writtenTables) {
+            if (writtenTables == UNKNOWN_TABLES) {
+                blnAllTables = true;
+            }
+            else {
+                tables.addAll(writtenTables);
+            }
+        }
+    }
+
+    private final class InvalidationSynchronization implements TransactionSynchronization {
+        private final PendingTables pendingTables = new PendingTables();
+
+        CacheInvalidationInterceptor getInterceptor() {
+            return CacheInvalidationInterceptor.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            invalidate(pendingTables);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Set;
+
+/**
+ * 查询缓存键，记录查询依赖的表
+ * 同一次查询的查找与写入使用同一个实例，写入时沿用查找时读取的表版本，查找后发生的表更新不会被写入的旧数据掩盖
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Getter
+public class CacheKey {
+
+    private final String key;
+    /**
+     * 依赖的表，为null时表示依赖的表未知（如包含原始Sql片段），任意表失效时都会失效
+     */
+    private final Set<String> tables;
+    @Setter
+    private String versionedKey;
+    /**
+     * 查找时进程内缓存的失效代数，未经过进程内缓存查找时为-1
+     */
+    @Setter
+    private long nearCacheGeneration = -1L;
+
+    public CacheKey(String key, Set<String> tables) {
+        this.key = key;
+        this.tables = tables;
+    }
+
+    @Override
+    public String toString() {
+        return versionedKey != null ? versionedKey : key;
+    }
+}
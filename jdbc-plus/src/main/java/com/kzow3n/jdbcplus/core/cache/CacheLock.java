@@ -0,0 +1,59 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import com.kzow3n.jdbcplus.utils.CacheKeyUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * 基于Redis的短时锁，用于多个节点同时未命中缓存时只由一个节点查询数据库
+ * 加锁为SET NX PX，释放时只删除自己持有的锁，锁到期自动释放，不续期
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Slf4j
+public class CacheLock {
+
+    public static final String LOCK_KEY_PREFIX = "linked-mybatis-lock:";
+    private static final byte[] UNLOCK_SCRIPT = ("if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "return redis.call('del', KEYS[1]) else return 0 end").getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final byte[] lockKey;
+    private final byte[] token = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+    public CacheLock(RedisTemplate<String, Object> redisTemplate, String cacheKey) {
+        this.redisTemplate = redisTemplate;
+        String suffix = cacheKey.startsWith(CacheKeyUtils.KEY_PREFIX) ? cacheKey.substring(CacheKeyUtils.KEY_PREFIX.length()) : cacheKey;
+        this.lockKey = (LOCK_KEY_PREFIX + suffix).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 尝试加锁，Redis不可用时视为加锁成功，由本节点查询
+     */
+    public boolean tryLock(long lockMillis) {
+        try {
+            Boolean blnLocked = redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.set(lockKey, token,
+                    Expiration.milliseconds(lockMillis), RedisStringCommands.SetOption.SET_IF_ABSENT));
+            return !Boolean.FALSE.equals(blnLocked);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage());
+        }
+        return true;
+    }
+
+    public void unlock() {
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.eval(UNLOCK_SCRIPT, ReturnType.INTEGER, 1, lockKey, token));
+        } catch (RuntimeException e) {
+            log.error(e.getMessage());
+        }
+    }
+}
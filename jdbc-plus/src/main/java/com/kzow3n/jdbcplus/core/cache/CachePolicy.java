@@ -0,0 +1,70 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import java.time.Duration;
+
+/**
+ * 单个查询的缓存策略，设置在LinkedQueryWrapper上，优先于执行器的cacheable与cacheTimeout
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class CachePolicy {
+
+    private static final CachePolicy NO_CACHE = new CachePolicy(false, false, null);
+
+    private final boolean blnCacheCount;
+    private final boolean blnCacheRecords;
+    private final Long timeoutSeconds;
+
+    private CachePolicy(boolean blnCacheCount, boolean blnCacheRecords, Long timeoutSeconds) {
+        this.blnCacheCount = blnCacheCount;
+        this.blnCacheRecords = blnCacheRecords;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    /**
+     * 缓存计数与查询结果
+     *
+     * @param timeout 过期时间，为null时使用执行器的cacheTimeout
+     */
+    public static CachePolicy cache(Duration timeout) {
+        return new CachePolicy(true, true, toSeconds(timeout));
+    }
+
+    public static CachePolicy noCache() {
+        return NO_CACHE;
+    }
+
+    /**
+     * 只缓存计数（包括分页查询的总数），查询结果每次从数据库读取
+     */
+    public static CachePolicy cacheCountOnly(Duration timeout) {
+        return new CachePolicy(true, false, toSeconds(timeout));
+    }
+
+    private static Long toSeconds(Duration timeout) {
+        if (timeout == null) {
+            return null;
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("cache timeout should be positive.");
+        }
+        //不足1秒按1秒计
+        return Math.max(1L, timeout.getSeconds() + (timeout.getNano() > 0 ? 1L : 0L));
+    }
+
+    public boolean isCacheCount() {
+        return blnCacheCount;
+    }
+
+    public boolean isCacheRecords() {
+        return blnCacheRecords;
+    }
+
+    /**
+     * 过期秒数，为null时使用执行器的cacheTimeout
+     */
+    public Long getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+}
@@ -0,0 +1,227 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异步写入缓存，未命中缓存时查询线程只提交写入，不等待Redis
+ * 队列有界，同一缓存键（含表版本）已在队列中或正在写入时不重复提交；队列已满时按丢弃策略丢弃
+ * 写入由一个后台线程依次完成，尚未写入的值仍可通过getPending读取；应在同一JVM的所有执行器间共享
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Slf4j
+public class CacheWriter implements Closeable {
+
+    private final int capacity;
+    private final CacheDropPolicyEnum dropPolicy;
+    private final Deque<String> queue = new ArrayDeque<>();
+    private final Map<String, PendingWrite> pendingMap = new ConcurrentHashMap<>();
+    private final Thread worker;
+    private int inFlightCount = 0;
+    private volatile boolean blnClosed = false;
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    public CacheWriter(int capacity) {
+        this(capacity, CacheDropPolicyEnum.DROP_NEWEST);
+    }
+
+    /**
+     * @param capacity 队列中最多等待写入的数量
+     */
+    public CacheWriter(int capacity, CacheDropPolicyEnum dropPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity should be positive.");
+        }
+        this.capacity = capacity;
+        this.dropPolicy = dropPolicy;
+        this.worker = new Thread(this::run, "linked-mybatis-cache-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 提交不存在时写入，已关闭时在当前线程直接写入
+     *
+     * @param onWritten 写入成功后在写入线程中执行，可为null
+     * @return 是否进入队列，重复提交或被丢弃时返回false
+     */
+    public boolean submit(QueryCache queryCache, CacheKey key, Object value, long timeoutSeconds, Runnable onWritten) {
+        PendingWrite pendingWrite = new PendingWrite(queryCache, key, value, timeoutSeconds, onWritten);
+        if (blnClosed) {
+            write(pendingWrite);
+            return false;
+        }
+        String pendingKey = key.toString();
+        synchronized (this) {
+            //缓存键带有表版本，键相同即数据相同，且写入为不存在时写入，保留先提交的即可
+            if (pendingMap.containsKey(pendingKey)) {
+                coalescedCount.increment();
+                return false;
+            }
+            if (queue.size() >= capacity) {
+                droppedCount.increment();
+                if (dropPolicy == CacheDropPolicyEnum.DROP_NEWEST) {
+                    log.info(String.format("cacheKey:%s is dropped, cache writer is full.", key));
+                    return false;
+                }
+                String oldestKey = queue.pollFirst();
+                pendingMap.remove(oldestKey);
+                log.info(String.format("cacheKey:%s is dropped, cache writer is full.", oldestKey));
+            }
+            pendingMap.put(pendingKey, pendingWrite);
+            queue.addLast(pendingKey);
+            notifyAll();
+        }
+        return true;
+    }
+
+    /**
+     * 已提交尚未写入的值，key需为已读取表版本的缓存键
+     */
+    public Object getPending(CacheKey key) {
+        PendingWrite pendingWrite = pendingMap.get(key.toString());
+        return pendingWrite == null ? null : pendingWrite.value;
+    }
+
+    /**
+     * 在当前线程写入队列中的全部缓存，并等待后台线程正在进行的写入完成
+     */
+    public void flush() {
+        PendingWrite pendingWrite;
+        while ((pendingWrite = take(false)) != null) {
+            try {
+                write(pendingWrite);
+            } finally {
+                complete(pendingWrite);
+            }
+        }
+        synchronized (this) {
+            while (inFlightCount > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 写入队列中剩余的缓存后停止后台线程
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            blnClosed = true;
+            notifyAll();
+        }
+        flush();
+    }
+
+    private void run() {
+        while (true) {
+            PendingWrite pendingWrite = take(true);
+            if (pendingWrite == null) {
+                return;
+            }
+            try {
+                write(pendingWrite);
+            } finally {
+                complete(pendingWrite);
+            }
+        }
+    }
+
+    /**
+     * 取出最早的写入，写入完成前仍保留在pendingMap中
+     *
+     * @param blnWait 队列为空时是否等待，已关闭时不等待
+     */
+    private synchronized PendingWrite take(boolean blnWait) {
+        while (queue.isEmpty()) {
+            if (!blnWait || blnClosed) {
+                return null;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        PendingWrite pendingWrite = pendingMap.get(queue.pollFirst());
+        inFlightCount ++;
+        return pendingWrite;
+    }
+
+    private synchronized void complete(PendingWrite pendingWrite) {
+        pendingMap.remove(pendingWrite.key.toString(), pendingWrite);
+        inFlightCount --;
+        notifyAll();
+    }
+
+    private void write(PendingWrite pendingWrite) {
+        try {
+            if (pendingWrite.queryCache.putIfAbsent(pendingWrite.key, pendingWrite.value, pendingWrite.timeoutSeconds)) {
+                writtenCount.increment();
+                if (pendingWrite.onWritten != null) {
+                    pendingWrite.onWritten.run();
+                }
+            }
+            else {
+                log.info(String.format("cacheKey:%s already exists.", pendingWrite.key));
+            }
+        } catch (RuntimeException e) {
+            failedCount.increment();
+            log.error(e.getMessage());
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return queue.size() + inFlightCount;
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    private static final class PendingWrite {
+        private final QueryCache queryCache;
+        private final CacheKey key;
+        private final Object value;
+        private final long timeoutSeconds;
+        private final Runnable onWritten;
+
+        PendingWrite(QueryCache queryCache, CacheKey key, Object value, long timeoutSeconds, Runnable onWritten) {
+            this.queryCache = queryCache;
+            this.key = key;
+            this.value = value;
+            this.timeoutSeconds = timeoutSeconds;
+            this.onWritten = onWritten;
+        }
+    }
+}
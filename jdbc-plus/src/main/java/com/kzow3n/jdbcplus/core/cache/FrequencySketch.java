@@ -0,0 +1,61 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+/**
+ * Count-Min Sketch，以4位计数器估算缓存键出现的次数，内存占用与缓存键数量无关
+ * 每个计数器最大为15，计数总次数达到容量的10倍时全部减半，使过去的热点逐渐淡出
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    /**
+     * @param expectedKeys 预计的不同缓存键数量
+     */
+    FrequencySketch(int expectedKeys) {
+        int length = Integer.highestOneBit(Math.max(64, Math.min(expectedKeys, 1 << 26)) - 1) << 1;
+        table = new long[length];
+        tableMask = length - 1;
+        sampleSize = length * 10;
+    }
+
+    /**
+     * 记录出现一次，返回记录后的估算次数
+     */
+    synchronized int increment(long hash) {
+        int frequency = Integer.MAX_VALUE;
+        boolean blnAdded = false;
+        for (int i = 0; i < SEEDS.length; i ++) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            int index = (int) h & tableMask;
+            int offset = ((int) (h >>> 40) & 15) << 2;
+            int count = (int) ((table[index] >>> offset) & 15L);
+            if (count < 15) {
+                table[index] += 1L << offset;
+                count ++;
+                blnAdded = true;
+            }
+            frequency = Math.min(frequency, count);
+        }
+        if (blnAdded && ++ size >= sampleSize) {
+            reset();
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i ++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size >>>= 1;
+    }
+}
@@ -0,0 +1,303 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 进程内一级缓存，位于Redis缓存之前，命中时不产生网络请求
+ * 缓存项以编码后的字节保存，每次命中解码出新的副本，调用方修改返回的结果不影响缓存；默认编解码器不压缩，列表按需逐行解码
+ * 按字节数限制容量，淘汰策略为Caffeine的W-TinyLFU，节点间通过Redis发布订阅同步失效
+ * 每个缓存项记录依赖的表，可按表失效；每次失效递增失效代数，查找后发生过失效的值不再写入
+ * 同一个JVM内应共享一个实例
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Slf4j
+public class NearCache implements Closeable {
+
+    public static final String CHANNEL = "linked-mybatis:near-cache";
+    static final String ALL_KEYS = "*";
+    private static final String TABLES_PREFIX = "@tables:";
+    private static final char SEPARATOR = '|';
+    private static final char TABLE_SEPARATOR = ',';
+
+    private final Cache<String, Entry> cache;
+    private final CacheCodec cacheCodec;
+    private final AtomicLong generation = new AtomicLong();
+    private final String nodeId = UUID.randomUUID().toString();
+    private final RedisTemplate<String, Object> redisTemplate;
+    private RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * 仅在本节点生效，不同步失效
+     *
+     * @param maximumWeight 最大内存占用（字节，按编码后的大小估算）
+     * @param expireSeconds 写入后的过期时间，应不大于Redis缓存的过期时间
+     */
+    public NearCache(long maximumWeight, long expireSeconds) {
+        this(null, maximumWeight, expireSeconds);
+    }
+
+    /**
+     * 通过redisTemplate的连接订阅失效消息，其他节点清除缓存时同步清除本节点
+     */
+    public NearCache(RedisTemplate<String, Object> redisTemplate, long maximumWeight, long expireSeconds) {
+        this(redisTemplate, maximumWeight, expireSeconds, new BinaryResultCodec(Integer.MAX_VALUE));
+    }
+
+    /**
+     * @param cacheCodec 缓存项的编解码器，每次解码应返回新的对象
+     */
+    public NearCache(RedisTemplate<String, Object> redisTemplate, long maximumWeight, long expireSeconds, CacheCodec cacheCodec) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((String key, Entry entry) -> weigh(key, entry.bytes))
+                .expireAfterWrite(expireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        this.cacheCodec = cacheCodec;
+        this.redisTemplate = redisTemplate;
+        if (redisTemplate != null && redisTemplate.getConnectionFactory() != null) {
+            subscribe(redisTemplate.getConnectionFactory());
+        }
+    }
+
+    /**
+     * 命中时返回解码出的新副本
+     */
+    public Object get(String key) {
+        Entry entry = cache.getIfPresent(key);
+        return entry == null ? null : cacheCodec.decode(entry.bytes);
+    }
+
+    /**
+     * 当前的失效代数，本节点或其他节点每次失效都会递增
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * 写入依赖的表未知的缓存，任意表失效时都会清除
+     */
+    public void put(String key, Object value) {
+        put(key, null, value);
+    }
+
+    /**
+     * @param tables 依赖的表，为null时表示未知
+     */
+    public void put(String key, Set<String> tables, Object value) {
+        put(key, tables, value, generation.get());
+    }
+
+    /**
+     * 读取值之前取得失效代数，之后发生过失效时不写入，避免失效前读取的旧值在失效后写回
+     * 写入时编码，无法编码的值不写入
+     *
+     * @param expectedGeneration 读取值之前的getGeneration()
+     * @return 是否写入
+     */
+    public boolean put(String key, Set<String> tables, Object value, long expectedGeneration) {
+        if (value == null || generation.get() != expectedGeneration) {
+            return false;
+        }
+        byte[] bytes;
+        try {
+            bytes = cacheCodec.encode(value);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage());
+            return false;
+        }
+        cache.put(key, new Entry(bytes, tables));
+        //写入期间发生的失效可能先于写入清除过缓存，撤销本次写入
+        if (generation.get() != expectedGeneration) {
+            cache.invalidate(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 清除本节点及其他节点的指定缓存
+     */
+    public void invalidate(String key) {
+        generation.incrementAndGet();
+        cache.invalidate(key);
+        publish(key);
+    }
+
+    /**
+     * 清除本节点及其他节点依赖指定表的缓存，以及依赖的表未知的缓存
+     * 需遍历本节点的缓存项，容量受maximumWeight限制
+     *
+     * @param tables 经CacheKeyUtils.normalizeTableName处理后的表名
+     */
+    public void invalidateTables(Collection<String> tables) {
+        if (tables == null || tables.isEmpty()) {
+            return;
+        }
+        evictTables(tables);
+        publish(getTablesKey(tables));
+    }
+
+    /**
+     * 清除本节点及其他节点的全部缓存
+     */
+    public void invalidateAll() {
+        evictAll();
+        publish(ALL_KEYS);
+    }
+
+    /**
+     * 只清除本节点依赖指定表的缓存，其他节点由失效方发布的消息通知
+     */
+    void evictTables(Collection<String> tables) {
+        if (tables == null || tables.isEmpty()) {
+            return;
+        }
+        generation.incrementAndGet();
+        removeTables(tables);
+    }
+
+    /**
+     * 只清除本节点的全部缓存
+     */
+    void evictAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * 命中、未命中、淘汰次数等统计
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public long getEstimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void close() {
+        if (listenerContainer == null) {
+            return;
+        }
+        try {
+            listenerContainer.destroy();
+        } catch (Exception e) {
+            log.error(e.getMessage());
+        }
+        listenerContainer = null;
+    }
+
+    private void subscribe(RedisConnectionFactory connectionFactory) {
+        MessageListener listener = (Message message, byte[] pattern) -> onMessage(new String(message.getBody(), StandardCharsets.UTF_8));
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(listener, new ChannelTopic(CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+        listenerContainer = container;
+    }
+
+    private void publish(String key) {
+        if (redisTemplate == null) {
+            return;
+        }
+        byte[] channel = CHANNEL.getBytes(StandardCharsets.UTF_8);
+        byte[] message = toMessage(nodeId, key);
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channel, message));
+        } catch (RuntimeException e) {
+            log.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 失效消息为"发送方|缓存键"，缓存键为*时清除全部，以@tables:开头时按表清除
+     * 消息不经过redisTemplate的序列化器，各节点的序列化配置不同也能识别
+     */
+    static byte[] toMessage(String senderId, String key) {
+        return (senderId + SEPARATOR + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String getTablesKey(Collection<String> tables) {
+        return TABLES_PREFIX + String.join(String.valueOf(TABLE_SEPARATOR), tables);
+    }
+
+    void onMessage(String message) {
+        int index = message.indexOf(SEPARATOR);
+        if (index < 0) {
+            return;
+        }
+        //本节点发出的消息已在本地处理过
+        if (index == nodeId.length() && message.startsWith(nodeId)) {
+            return;
+        }
+        String key = message.substring(index + 1);
+        generation.incrementAndGet();
+        if (ALL_KEYS.equals(key)) {
+            cache.invalidateAll();
+        }
+        else if (key.startsWith(TABLES_PREFIX)) {
+            String[] tables = StringUtils.split(key.substring(TABLES_PREFIX.length()), TABLE_SEPARATOR);
+            removeTables(Arrays.asList(tables));
+        }
+        else {
+            cache.invalidate(key);
+        }
+    }
+
+    private void removeTables(Collection<String> tables) {
+        cache.asMap().values().removeIf(entry -> entry.dependsOn(tables));
+    }
+
+    /**
+     * 估算缓存项的内存占用：键、字节数组及缓存项本身
+     */
+    static int weigh(String key, byte[] bytes) {
+        long weight = 56L + key.length() * 2L + 16L + bytes.length;
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static final class Entry {
+        private final byte[] bytes;
+        private final Set<String> tables;
+
+        Entry(byte[] bytes, Set<String> tables) {
+            this.bytes = bytes;
+            this.tables = tables;
+        }
+
+        boolean dependsOn(Collection<String> invalidTables) {
+            if (tables == null) {
+                return true;
+            }
+            for (String table : invalidTables) {
+                if (tables.contains(table)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
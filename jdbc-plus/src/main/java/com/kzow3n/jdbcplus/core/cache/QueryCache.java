@@ -0,0 +1,42 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import java.util.Collection;
+
+/**
+ * 查询结果缓存，每次查找只访问一次缓存，写入为原子的不存在时写入
+ * 缓存按依赖的表失效，失效操作不扫描缓存
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public interface QueryCache {
+
+    /**
+     * 查找缓存，未命中时返回null
+     */
+    Object get(CacheKey key);
+
+    /**
+     * 缓存不存在时写入，已存在时不覆盖
+     *
+     * @return 是否写入
+     */
+    boolean putIfAbsent(CacheKey key, Object value, long timeoutSeconds);
+
+    /**
+     * 写入并覆盖已有的缓存，用于后台刷新
+     */
+    void put(CacheKey key, Object value, long timeoutSeconds);
+
+    /**
+     * 失效依赖指定表的缓存，以及依赖的表未知的缓存
+     *
+     * @param tables 经CacheKeyUtils.normalizeTableName处理后的表名
+     */
+    void invalidateTables(Collection<String> tables);
+
+    /**
+     * 失效全部缓存
+     */
+    void invalidateAll();
+}
@@ -0,0 +1,134 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import com.kzow3n.jdbcplus.core.jdbc.LinkedRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * 基于Redis的查询缓存，查找为一次EVALSHA，在Redis端读取表版本并GET带版本的键，写入为一次SET NX EX
+ * 失效为INCR表版本，不使用KEYS扫描；缓存键与版本键一样以UTF-8直接读写，不经过redisTemplate的键序列化器
+ * 缓存值以字节直接读写，配置cacheCodec时以编解码器编码，否则使用redisTemplate的序列化器；读取到非编解码器写入的值时仍按序列化器解析
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Slf4j
+public class RedisQueryCache implements QueryCache {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final TableVersions tableVersions;
+    private final CacheCodec cacheCodec;
+    private final CacheAdmission cacheAdmission;
+
+    public RedisQueryCache(RedisTemplate<String, Object> redisTemplate) {
+        this(redisTemplate, null, null);
+    }
+
+    public RedisQueryCache(RedisTemplate<String, Object> redisTemplate, CacheCodec cacheCodec) {
+        this(redisTemplate, cacheCodec, null);
+    }
+
+    /**
+     * @param cacheAdmission 不为null时，编码后超过maxBytes的值不写入
+     */
+    public RedisQueryCache(RedisTemplate<String, Object> redisTemplate, CacheCodec cacheCodec, CacheAdmission cacheAdmission) {
+        this.redisTemplate = redisTemplate;
+        this.tableVersions = new TableVersions(redisTemplate);
+        this.cacheCodec = cacheCodec;
+        this.cacheAdmission = cacheAdmission;
+    }
+
+    @Override
+    public Object get(CacheKey key) {
+        byte[] bytes = tableVersions.get(key);
+        if (bytes == null) {
+            return null;
+        }
+        log.info("get cache from redis.");
+        if (cacheCodec != null && cacheCodec.canDecode(bytes)) {
+            return cacheCodec.decode(bytes);
+        }
+        RedisSerializer<?> valueSerializer = redisTemplate.getValueSerializer();
+        return valueSerializer == null ? bytes : valueSerializer.deserialize(bytes);
+    }
+
+    @Override
+    public boolean putIfAbsent(CacheKey key, Object value, long timeoutSeconds) {
+        return set(key, value, timeoutSeconds, RedisStringCommands.SetOption.SET_IF_ABSENT);
+    }
+
+    @Override
+    public void put(CacheKey key, Object value, long timeoutSeconds) {
+        set(key, value, timeoutSeconds, RedisStringCommands.SetOption.UPSERT);
+    }
+
+    @Override
+    public void invalidateTables(Collection<String> tables) {
+        tableVersions.invalidateTables(tables);
+    }
+
+    @Override
+    public void invalidateAll() {
+        tableVersions.invalidateAll();
+    }
+
+    /**
+     * 先编码再写入，以便按编码后的大小决定是否写入
+     */
+    private boolean set(CacheKey key, Object value, long timeoutSeconds, RedisStringCommands.SetOption option) {
+        byte[] bytes = serialize(value);
+        if (cacheAdmission != null && !cacheAdmission.admitBytes(key, bytes.length)) {
+            return false;
+        }
+        byte[] rawKey = rawKey(key);
+        Boolean blnSet = redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                connection.set(rawKey, bytes, Expiration.seconds(timeoutSeconds), option));
+        return Boolean.TRUE.equals(blnSet);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serialize(Object value) {
+        if (cacheCodec != null) {
+            return cacheCodec.encode(value);
+        }
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        return valueSerializer == null ? (byte[]) value : valueSerializer.serialize(toPortable(value));
+    }
+
+    /**
+     * LinkedRow只在JDK序列化时以LinkedHashMap写出，fastjson等JSON序列化器会写入LinkedRow的类名而无法读回，交给序列化器前先转为LinkedHashMap
+     */
+    private static Object toPortable(Object value) {
+        if (value instanceof CacheEntry) {
+            CacheEntry cacheEntry = (CacheEntry) value;
+            Object portable = toPortable(cacheEntry.getValue());
+            return portable == cacheEntry.getValue() ? value : new CacheEntry(portable, cacheEntry.getRefreshAt());
+        }
+        if (!(value instanceof List) || ((List<?>) value).isEmpty() || !(((List<?>) value).get(0) instanceof LinkedRow)) {
+            return value;
+        }
+        List<?> rows = (List<?>) value;
+        List<Object> portableRows = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            portableRows.add(row instanceof LinkedRow ? new LinkedHashMap<>((LinkedRow) row) : row);
+        }
+        return portableRows;
+    }
+
+    /**
+     * 与Lua脚本拼接的键一致，经过get查找的key沿用查找时的表版本
+     */
+    private byte[] rawKey(CacheKey key) {
+        return tableVersions.getVersionedKey(key).getBytes(StandardCharsets.UTF_8);
+    }
+}
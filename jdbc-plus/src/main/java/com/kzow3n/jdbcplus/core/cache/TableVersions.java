@@ -0,0 +1,196 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 基于Redis计数器的表版本，缓存键中带上所依赖表的版本，失效一张表只需INCR该表的版本，不扫描也不删除缓存
+ * 旧版本的缓存不再被访问，到期后由Redis自动清除
+ * 计数器以字符串形式直接读写，不经过redisTemplate的序列化器，版本键不设置过期时间
+ * 查找时由Lua脚本在一次往返中读取版本、拼接带版本的键并GET，脚本访问的键不全在KEYS中，不适用于Redis Cluster
+ * 递增版本时在同一管道中向NearCache.CHANNEL发布失效消息，各节点的进程内缓存随之清除
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Slf4j
+public class TableVersions {
+
+    public static final String VERSION_KEY_PREFIX = "linked-mybatis-version:";
+    /**
+     * 全局版本，所有缓存都依赖，递增后全部缓存失效
+     */
+    static final String GLOBAL_VERSION_KEY = VERSION_KEY_PREFIX + "@all";
+    /**
+     * 任意表失效时都会递增，依赖的表未知的缓存依赖此版本
+     */
+    static final String ANY_TABLE_VERSION_KEY = VERSION_KEY_PREFIX + "@any";
+
+    /**
+     * KEYS为依赖的版本键，ARGV[1]为缓存键，返回{带版本的键, 缓存值}，拼接规则与getVersionedKey一致
+     */
+    static final String GET_SCRIPT = "local versions = redis.call('MGET', unpack(KEYS))\n"
+            + "local key = ARGV[1]\n"
+            + "for i = 1, #KEYS do\n"
+            + "    key = key .. (i == 1 and ':' or '.') .. (versions[i] or '0')\n"
+            + "end\n"
+            + "return {key, redis.call('GET', key)}";
+    private static final byte[] GET_SCRIPT_BYTES = GET_SCRIPT.getBytes(StandardCharsets.UTF_8);
+    private static final String GET_SCRIPT_SHA1 = DigestUtils.sha1DigestAsHex(GET_SCRIPT);
+
+    private static final byte[] CHANNEL_BYTES = NearCache.CHANNEL.getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    /**
+     * 失效消息的发送方，与任何NearCache都不同，本节点的进程内缓存同样会处理
+     */
+    private final String senderId = UUID.randomUUID().toString();
+
+    public TableVersions(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * 一次往返读取所依赖表的版本并查找带版本的缓存键，带版本的键记录在cacheKey中，写入时沿用，不再读取版本
+     * 脚本以EVALSHA执行，Redis中没有该脚本时改用EVAL，每个Redis节点只发生一次
+     *
+     * @return 缓存值，不存在时返回null
+     */
+    public byte[] get(CacheKey cacheKey) {
+        if (cacheKey.getVersionedKey() != null) {
+            byte[] rawKey = cacheKey.getVersionedKey().getBytes(StandardCharsets.UTF_8);
+            return redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.get(rawKey));
+        }
+        List<String> versionKeys = getVersionKeys(cacheKey);
+        byte[][] keysAndArgs = new byte[versionKeys.size() + 1][];
+        for (int i = 0; i < versionKeys.size(); i ++) {
+            keysAndArgs[i] = versionKeys.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        keysAndArgs[versionKeys.size()] = cacheKey.getKey().getBytes(StandardCharsets.UTF_8);
+        List<Object> result = redisTemplate.execute((RedisCallback<List<Object>>) connection ->
+                evalGetScript(connection, versionKeys.size(), keysAndArgs));
+        if (result == null || result.isEmpty()) {
+            return null;
+        }
+        cacheKey.setVersionedKey(new String((byte[]) result.get(0), StandardCharsets.UTF_8));
+        return result.size() > 1 ? (byte[]) result.get(1) : null;
+    }
+
+    private static List<Object> evalGetScript(RedisConnection connection, int numKeys, byte[][] keysAndArgs) {
+        try {
+            return connection.evalSha(GET_SCRIPT_SHA1, ReturnType.MULTI, numKeys, keysAndArgs);
+        } catch (RuntimeException e) {
+            if (!isNoScriptError(e)) {
+                throw e;
+            }
+            return connection.eval(GET_SCRIPT_BYTES, ReturnType.MULTI, numKeys, keysAndArgs);
+        }
+    }
+
+    private static boolean isNoScriptError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 一次MGET读取所依赖表的版本，拼接在缓存键后，如linked-mybatis:1f0c…:3.0.12
+     * 结果记录在cacheKey中，同一个cacheKey只读取一次；经过get查找的cacheKey不再读取
+     */
+    public String getVersionedKey(CacheKey cacheKey) {
+        if (cacheKey.getVersionedKey() != null) {
+            return cacheKey.getVersionedKey();
+        }
+        List<String> versionKeys = getVersionKeys(cacheKey);
+        byte[][] rawKeys = toBytes(versionKeys);
+        List<byte[]> versions = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.mGet(rawKeys));
+        StringBuilder keyBuilder = new StringBuilder(cacheKey.getKey().length() + versionKeys.size() * 4);
+        keyBuilder.append(cacheKey.getKey());
+        for (int i = 0; i < versionKeys.size(); i ++) {
+            byte[] version = versions == null || versions.size() <= i ? null : versions.get(i);
+            keyBuilder.append(i == 0 ? ':' : '.');
+            keyBuilder.append(version == null ? "0" : new String(version, StandardCharsets.UTF_8));
+        }
+        String versionedKey = keyBuilder.toString();
+        cacheKey.setVersionedKey(versionedKey);
+        return versionedKey;
+    }
+
+    /**
+     * 全局版本在前，其后为各表的版本，依赖的表未知时为任意表的版本
+     */
+    private static List<String> getVersionKeys(CacheKey cacheKey) {
+        Set<String> tables = cacheKey.getTables();
+        List<String> versionKeys = new ArrayList<>(tables == null ? 2 : tables.size() + 1);
+        versionKeys.add(GLOBAL_VERSION_KEY);
+        if (tables == null) {
+            versionKeys.add(ANY_TABLE_VERSION_KEY);
+        }
+        else {
+            for (String table : tables) {
+                versionKeys.add(VERSION_KEY_PREFIX + table);
+            }
+        }
+        return versionKeys;
+    }
+
+    /**
+     * 递增各表及任意表的版本并发布失效消息，以管道方式一次发送
+     *
+     * @param tables 经CacheKeyUtils.normalizeTableName处理后的表名
+     */
+    public void invalidateTables(Collection<String> tables) {
+        if (tables == null || tables.isEmpty()) {
+            return;
+        }
+        List<String> versionKeys = new ArrayList<>(tables.size() + 1);
+        for (String table : tables) {
+            versionKeys.add(VERSION_KEY_PREFIX + table);
+        }
+        versionKeys.add(ANY_TABLE_VERSION_KEY);
+        byte[][] rawKeys = toBytes(versionKeys);
+        byte[] message = NearCache.toMessage(senderId, NearCache.getTablesKey(tables));
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] rawKey : rawKeys) {
+                connection.incr(rawKey);
+            }
+            connection.publish(CHANNEL_BYTES, message);
+            return null;
+        });
+    }
+
+    /**
+     * 递增全局版本并发布失效消息，全部缓存失效
+     */
+    public void invalidateAll() {
+        byte[] rawKey = GLOBAL_VERSION_KEY.getBytes(StandardCharsets.UTF_8);
+        byte[] message = NearCache.toMessage(senderId, NearCache.ALL_KEYS);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.incr(rawKey);
+            connection.publish(CHANNEL_BYTES, message);
+            return null;
+        });
+    }
+
+    private static byte[][] toBytes(List<String> keys) {
+        byte[][] rawKeys = new byte[keys.size()][];
+        for (int i = 0; i < rawKeys.length; i ++) {
+            rawKeys[i] = keys.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return rawKeys;
+    }
+}
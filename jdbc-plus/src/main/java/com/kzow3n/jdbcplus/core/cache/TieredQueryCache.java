@@ -0,0 +1,92 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collection;
+
+/**
+ * 两级查询缓存，先查进程内缓存，未命中时再查远程缓存并回填进程内缓存
+ * 进程内缓存以不带版本的缓存键保存，命中时不读取表版本，失效时按记录的依赖表清除
+ * 查找前在缓存键上记录进程内缓存的失效代数，之后的回填与写入只在期间未发生失效时写入进程内缓存
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Slf4j
+public class TieredQueryCache implements QueryCache {
+
+    private final NearCache nearCache;
+    private final QueryCache remoteCache;
+
+    public TieredQueryCache(NearCache nearCache, QueryCache remoteCache) {
+        this.nearCache = nearCache;
+        this.remoteCache = remoteCache;
+    }
+
+    @Override
+    public Object get(CacheKey key) {
+        key.setNearCacheGeneration(nearCache.getGeneration());
+        Object value = nearCache.get(key.getKey());
+        if (value != null) {
+            log.info("get cache from near cache.");
+            return value;
+        }
+        value = remoteCache.get(key);
+        putNearCache(key, value);
+        return value;
+    }
+
+    /**
+     * 远程缓存写入成功后才写入进程内缓存，远程缓存拒绝写入（如超过准入大小）的值也不进入进程内缓存
+     */
+    @Override
+    public boolean putIfAbsent(CacheKey key, Object value, long timeoutSeconds) {
+        boolean blnSet = remoteCache.putIfAbsent(key, value, timeoutSeconds);
+        if (blnSet) {
+            putNearCache(key, value);
+        }
+        return blnSet;
+    }
+
+    @Override
+    public void put(CacheKey key, Object value, long timeoutSeconds) {
+        putNearCache(key, value);
+        remoteCache.put(key, value, timeoutSeconds);
+    }
+
+    /**
+     * 先递增远程缓存的表版本，再通知各节点清除进程内缓存，收到通知的节点重新加载时读到的是新版本
+     * RedisQueryCache递增版本时已发布失效消息，只需同步清除本节点
+     */
+    @Override
+    public void invalidateTables(Collection<String> tables) {
+        remoteCache.invalidateTables(tables);
+        if (remoteCache instanceof RedisQueryCache) {
+            nearCache.evictTables(tables);
+        }
+        else {
+            nearCache.invalidateTables(tables);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        remoteCache.invalidateAll();
+        if (remoteCache instanceof RedisQueryCache) {
+            nearCache.evictAll();
+        }
+        else {
+            nearCache.invalidateAll();
+        }
+    }
+
+    /**
+     * 未经过本缓存查找的缓存键不知道查找时的失效代数，不写入进程内缓存
+     */
+    private void putNearCache(CacheKey key, Object value) {
+        if (key.getNearCacheGeneration() < 0L) {
+            return;
+        }
+        nearCache.put(key.getKey(), key.getTables(), value, key.getNearCacheGeneration());
+    }
+}
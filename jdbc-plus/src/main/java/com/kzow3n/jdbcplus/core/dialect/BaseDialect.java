@@ -0,0 +1,26 @@
+package com.kzow3n.jdbcplus.core.dialect;
+
+/**
+ * 方言基类
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public abstract class BaseDialect implements Dialect {
+
+    /**
+     * 以openChar、closeChar引用标识符，标识符中的closeChar写两次
+     */
+    protected static String quote(String identifier, char openChar, char closeChar) {
+        StringBuilder stringBuilder = new StringBuilder(identifier.length() + 2);
+        stringBuilder.append(openChar);
+        for (int i = 0; i < identifier.length(); i ++) {
+            char c = identifier.charAt(i);
+            if (c == closeChar) {
+                stringBuilder.append(closeChar);
+            }
+            stringBuilder.append(c);
+        }
+        return stringBuilder.append(closeChar).toString();
+    }
+}
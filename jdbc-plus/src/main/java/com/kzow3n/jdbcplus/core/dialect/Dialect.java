@@ -0,0 +1,72 @@
+package com.kzow3n.jdbcplus.core.dialect;
+
+import com.kzow3n.jdbcplus.pojo.LikeArg;
+
+import java.util.List;
+
+/**
+ * 数据库方言，负责分页、计数、标识符引用与模糊查询等与数据库相关的Sql
+ * 每个数据源只选择一次，实现类应无状态，可在多线程间共享
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public interface Dialect {
+
+    /**
+     * 写入order by与limit、offset，limit为null时只写入order by，offset为null时从第一行开始
+     */
+    void appendOrderByAndLimit(StringBuilder target, CharSequence orderBy, Integer limit, Integer offset);
+
+    /**
+     * 获取分页Sql，分页参数以占位符表示，同一查询的分页Sql与页码无关
+     */
+    String getPageSql(String baseSql, String orderBy);
+
+    /**
+     * 按分页Sql中占位符的顺序追加分页参数
+     *
+     * @param offset 跳过的行数
+     */
+    void addPageArgs(List<Object> pageArgs, long offset, long pageSize);
+
+    /**
+     * 将查询包装为计数Sql，计数列名为SELECT_COUNT
+     */
+    default String getCountSql(String sql) {
+        return "SELECT COUNT(1) SELECT_COUNT FROM (" + sql + ") T";
+    }
+
+    /**
+     * 分页时随当前页一并查询总数的窗口函数列，不支持窗口函数时返回null
+     */
+    default String getWindowCountColumn() {
+        return "COUNT(1) OVER() PAGE_TOTAL";
+    }
+
+    /**
+     * 未指定nulls first/last时null是否视为最小值，即升序时排在最前
+     */
+    default boolean isNullsLow() {
+        return true;
+    }
+
+    /**
+     * 是否支持(a, b) > (?, ?)形式的行值比较，不支持时键集分页展开为or条件
+     */
+    default boolean supportsRowValueComparison() {
+        return false;
+    }
+
+    /**
+     * 引用表名、字段名等标识符
+     */
+    String quote(String identifier);
+
+    /**
+     * 模糊查询参数转为匹配模式，除两端的%外，参数中的字符按各数据库的默认规则匹配
+     */
+    default String toLikePattern(LikeArg likeArg) {
+        return likeArg.toPattern();
+    }
+}
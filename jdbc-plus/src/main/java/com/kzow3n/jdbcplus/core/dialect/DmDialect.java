@@ -0,0 +1,15 @@
+package com.kzow3n.jdbcplus.core.dialect;
+
+/**
+ * 达梦方言，达梦原生支持limit offset，优化器可在取够行数后停止，无需嵌套ROWNUM
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class DmDialect extends LimitOffsetDialect {
+
+    @Override
+    public String quote(String identifier) {
+        return quote(identifier, '"', '"');
+    }
+}
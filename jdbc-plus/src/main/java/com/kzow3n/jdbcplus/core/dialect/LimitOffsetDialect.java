@@ -0,0 +1,34 @@
+package com.kzow3n.jdbcplus.core.dialect;
+
+import java.util.List;
+
+/**
+ * 以limit offset分页的方言
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public abstract class LimitOffsetDialect extends BaseDialect {
+
+    @Override
+    public void appendOrderByAndLimit(StringBuilder target, CharSequence orderBy, Integer limit, Integer offset) {
+        target.append(orderBy);
+        if (limit != null) {
+            target.append(" limit ").append(limit.intValue());
+            if (offset != null) {
+                target.append(" offset ").append(offset.intValue());
+            }
+        }
+    }
+
+    @Override
+    public String getPageSql(String baseSql, String orderBy) {
+        return baseSql + orderBy + " limit ? offset ?";
+    }
+
+    @Override
+    public void addPageArgs(List<Object> pageArgs, long offset, long pageSize) {
+        pageArgs.add(pageSize);
+        pageArgs.add(offset);
+    }
+}
@@ -0,0 +1,20 @@
+package com.kzow3n.jdbcplus.core.dialect;
+
+/**
+ * MySQL、MariaDB方言，未识别的数据库同样使用本方言
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class MySqlDialect extends LimitOffsetDialect {
+
+    @Override
+    public boolean supportsRowValueComparison() {
+        return true;
+    }
+
+    @Override
+    public String quote(String identifier) {
+        return quote(identifier, '`', '`');
+    }
+}
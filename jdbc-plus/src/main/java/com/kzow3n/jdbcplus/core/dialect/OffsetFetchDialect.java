@@ -0,0 +1,60 @@
+package com.kzow3n.jdbcplus.core.dialect;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+
+/**
+ * 以SQL:2008标准的offset fetch分页的方言
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public abstract class OffsetFetchDialect extends BaseDialect {
+
+    @Override
+    public void appendOrderByAndLimit(StringBuilder target, CharSequence orderBy, Integer limit, Integer offset) {
+        target.append(orderBy);
+        if (limit != null) {
+            appendRequiredOrderBy(target, orderBy);
+            target.append(" offset ").append(offset == null ? 0 : offset.intValue())
+                    .append(" rows fetch next ").append(limit.intValue()).append(" rows only");
+        }
+    }
+
+    @Override
+    public String getPageSql(String baseSql, String orderBy) {
+        StringBuilder stringBuilder = new StringBuilder(baseSql.length() + orderBy.length() + 64);
+        stringBuilder.append(baseSql).append(orderBy);
+        appendRequiredOrderBy(stringBuilder, orderBy);
+        return stringBuilder.append(" offset ? rows fetch next ? rows only").toString();
+    }
+
+    @Override
+    public void addPageArgs(List<Object> pageArgs, long offset, long pageSize) {
+        pageArgs.add(offset);
+        pageArgs.add(pageSize);
+    }
+
+    /**
+     * offset fetch是否必须跟在order by之后
+     */
+    protected boolean isOrderByRequired() {
+        return false;
+    }
+
+    private void appendRequiredOrderBy(StringBuilder target, CharSequence orderBy) {
+        //未指定排序时按常量排序，不产生额外的排序操作
+        if (isOrderByRequired() && StringUtils.isBlank(orderBy)) {
+            target.append(" order by (select null)");
+        }
+    }
+
+    /**
+     * 以双引号引用标识符
+     */
+    @Override
+    public String quote(String identifier) {
+        return quote(identifier, '"', '"');
+    }
+}
@@ -0,0 +1,15 @@
+package com.kzow3n.jdbcplus.core.dialect;
+
+/**
+ * Oracle 12c及以上版本的方言
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class OracleDialect extends OffsetFetchDialect {
+
+    @Override
+    public boolean isNullsLow() {
+        return false;
+    }
+}
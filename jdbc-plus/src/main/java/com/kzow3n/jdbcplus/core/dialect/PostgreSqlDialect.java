@@ -0,0 +1,25 @@
+package com.kzow3n.jdbcplus.core.dialect;
+
+/**
+ * PostgreSQL方言
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class PostgreSqlDialect extends LimitOffsetDialect {
+
+    @Override
+    public boolean isNullsLow() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsRowValueComparison() {
+        return true;
+    }
+
+    @Override
+    public String quote(String identifier) {
+        return quote(identifier, '"', '"');
+    }
+}
@@ -0,0 +1,34 @@
+package com.kzow3n.jdbcplus.core.dialect;
+
+import com.kzow3n.jdbcplus.pojo.LikeArg;
+
+/**
+ * SqlServer 2012及以上版本的方言，offset fetch必须跟在order by之后，未指定排序时按常量排序
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class SqlServerDialect extends OffsetFetchDialect {
+
+    @Override
+    protected boolean isOrderByRequired() {
+        return true;
+    }
+
+    @Override
+    public String quote(String identifier) {
+        return quote(identifier, '[', ']');
+    }
+
+    /**
+     * SqlServer的like中[]表示字符集合，参数中的[需转义，与其他数据库的匹配结果保持一致
+     */
+    @Override
+    public String toLikePattern(LikeArg likeArg) {
+        String value = likeArg.getValue();
+        if (value.indexOf('[') < 0) {
+            return likeArg.toPattern();
+        }
+        return likeArg.withValue(value.replace("[", "[[]")).toPattern();
+    }
+}
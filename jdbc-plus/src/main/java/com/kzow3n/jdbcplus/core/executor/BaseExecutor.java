@@ -1,8 +1,27 @@
 package com.kzow3n.jdbcplus.core.executor;
 
 import com.alibaba.fastjson.JSON;
-import com.kzow3n.jdbcplus.pojo.SqlArg;
+import com.kzow3n.jdbcplus.core.cache.CacheAdmission;
+import com.kzow3n.jdbcplus.core.cache.CacheCodec;
+import com.kzow3n.jdbcplus.core.cache.CacheKey;
+import com.kzow3n.jdbcplus.core.cache.CachePolicy;
+import com.kzow3n.jdbcplus.core.cache.CacheWriter;
+import com.kzow3n.jdbcplus.core.cache.NearCache;
+import com.kzow3n.jdbcplus.core.cache.QueryCache;
+import com.kzow3n.jdbcplus.core.cache.RedisQueryCache;
+import com.kzow3n.jdbcplus.core.cache.TieredQueryCache;
+import com.kzow3n.jdbcplus.core.dialect.Dialect;
+import com.kzow3n.jdbcplus.core.jdbc.MySqlRunner;
+import com.kzow3n.jdbcplus.core.jdbc.SqlRunnerContext;
+import com.kzow3n.jdbcplus.utils.CacheKeyUtils;
+import com.kzow3n.jdbcplus.utils.ClazzUtils;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -10,6 +29,10 @@ import org.springframework.data.redis.core.RedisTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 执行器基类
@@ -18,22 +41,51 @@ import java.util.List;
  * @since 2021/8/28
  */
 @Data
+@Slf4j
 public class BaseExecutor {
 
+    public static final String CACHE_KEY_INDEX_PREFIX = "linked-mybatis-index:";
+
     protected SqlSession sqlSession;
     protected SqlSessionFactory sqlSessionFactory;
+    protected SqlRunnerContext sqlRunnerContext;
     protected RedisTemplate<String, Object> redisTemplate;
+    protected NearCache nearCache;
+    protected QueryCache queryCache;
+    protected CacheCodec cacheCodec;
+    protected CacheAdmission cacheAdmission;
+    protected CacheWriter cacheWriter;
+    protected Dialect dialect;
     protected Boolean cacheable = false;
     protected Long cacheTimeout = 60L;
+    protected Boolean cacheKeyIndex = false;
+    protected Boolean cacheSingleFlight = true;
+    protected Long cacheLockMillis = 0L;
+    protected Double cacheTtlJitter = 0D;
+    protected Long cacheStaleSeconds = 0L;
+    protected Executor cacheRefreshExecutor;
+    protected Executor pageCountExecutor;
+    protected Boolean windowCountPage = false;
     protected Integer queryTimeout = 60;
+    protected Integer fetchSize = 1000;
+    protected Boolean beanRowMapper = false;
 
     protected boolean mapUnderscoreToCamelCase = true;
 
+    /**
+     * 由redisTemplate、queryCache、nearCache、cacheCodec、cacheAdmission构造的缓存，首次使用时构造，其中之一变化时重新构造
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private volatile QueryCache builtQueryCache;
+
     protected void checkExecutorValid() {
         if (sqlSessionFactory == null) {
             throw new NullPointerException("sqlSessionFactory could not be null.");
         }
-        if (cacheable && redisTemplate == null) {
+        if (cacheable && redisTemplate == null && queryCache == null) {
             throw new NullPointerException("redisTemplate could not be null.");
         }
     }
@@ -41,23 +93,198 @@ public class BaseExecutor {
     protected void initConfiguration() {
         Configuration configuration = sqlSessionFactory.getConfiguration();
         mapUnderscoreToCamelCase = configuration.isMapUnderscoreToCamelCase();
+        sqlRunnerContext = SqlRunnerContext.of(sqlSessionFactory);
+    }
+
+    protected MySqlRunner buildSqlRunner() {
+        return buildSqlRunner(sqlSession);
+    }
+
+    /**
+     * @param sqlSession 为null时由SqlRunner自行打开并关闭SqlSession，用于后台线程
+     */
+    protected MySqlRunner buildSqlRunner(SqlSession sqlSession) {
+        if (sqlRunnerContext == null || sqlRunnerContext.getSqlSessionFactory() != sqlSessionFactory) {
+            sqlRunnerContext = SqlRunnerContext.of(sqlSessionFactory);
+        }
+        MySqlRunner sqlRunner = new MySqlRunner(sqlRunnerContext, sqlSession, queryTimeout);
+        sqlRunner.setBeanRowMapper(beanRowMapper);
+        if (dialect != null) {
+            sqlRunner.setDialect(dialect);
+        }
+        return sqlRunner;
+    }
+
+    /**
+     * 获取生成Sql使用的方言，未指定dialect时按数据库类型选择，每个数据源只探测一次
+     */
+    protected Dialect resolveDialect() {
+        if (dialect != null) {
+            return dialect;
+        }
+        if (sqlRunnerContext == null || sqlRunnerContext.getSqlSessionFactory() != sqlSessionFactory) {
+            sqlRunnerContext = SqlRunnerContext.of(sqlSessionFactory);
+        }
+        return sqlRunnerContext.getDialect();
+    }
+
+    /**
+     * 未指定queryCache时使用redisTemplate，配置了nearCache时在其前面加一级进程内缓存
+     */
+    protected QueryCache buildQueryCache() {
+        QueryCache cache = builtQueryCache;
+        if (cache != null) {
+            return cache;
+        }
+        cache = queryCache != null ? queryCache : new RedisQueryCache(redisTemplate, cacheCodec, cacheAdmission);
+        if (nearCache != null) {
+            cache = new TieredQueryCache(nearCache, cache);
+        }
+        builtQueryCache = cache;
+        return cache;
+    }
+
+    public void setRedisTemplate(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        builtQueryCache = null;
+    }
+
+    public void setNearCache(NearCache nearCache) {
+        this.nearCache = nearCache;
+        builtQueryCache = null;
+    }
+
+    public void setQueryCache(QueryCache queryCache) {
+        this.queryCache = queryCache;
+        builtQueryCache = null;
+    }
+
+    public void setCacheCodec(CacheCodec cacheCodec) {
+        this.cacheCodec = cacheCodec;
+        builtQueryCache = null;
+    }
+
+    public void setCacheAdmission(CacheAdmission cacheAdmission) {
+        this.cacheAdmission = cacheAdmission;
+        builtQueryCache = null;
+    }
+
+    /**
+     * 缓存的过期时间，开启cacheTtlJitter时在cacheTimeout上随机增加最多cacheTimeout * cacheTtlJitter秒，避免同时写入的缓存同时过期
+     */
+    protected long getCacheTtl() {
+        return getCacheTtl(cacheTimeout);
     }
 
-    protected String getCacheKey(String sql, List<Object> args, String type) {
-        StringBuilder stringBuilder = new StringBuilder();
-        List<SqlArg> sqlArgs = new ArrayList<>();
-        for (Object arg: args) {
-            if (arg == null) {
-                SqlArg sqlArg = new SqlArg(null, "null");
-                sqlArgs.add(sqlArg);
-                continue;
+    protected long getCacheTtl(long timeout) {
+        if (cacheTtlJitter == null || cacheTtlJitter <= 0D) {
+            return timeout;
+        }
+        long maxJitter = (long) (timeout * cacheTtlJitter);
+        return maxJitter <= 0L ? timeout : timeout + ThreadLocalRandom.current().nextLong(maxJitter + 1L);
+    }
+
+    /**
+     * 查询是否使用缓存，设置了缓存策略时以策略为准，否则以执行器的cacheable为准
+     *
+     * @param blnCount 是否为计数查询
+     */
+    protected boolean isCacheEnabled(CachePolicy cachePolicy, boolean blnCount) {
+        if (cachePolicy == null) {
+            return cacheable;
+        }
+        boolean blnCache = blnCount ? cachePolicy.isCacheCount() : cachePolicy.isCacheRecords();
+        if (blnCache && redisTemplate == null && queryCache == null) {
+            throw new NullPointerException("redisTemplate could not be null.");
+        }
+        return blnCache;
+    }
+
+    protected long getCacheTimeout(CachePolicy cachePolicy) {
+        if (cachePolicy == null || cachePolicy.getTimeoutSeconds() == null) {
+            return cacheTimeout;
+        }
+        return cachePolicy.getTimeoutSeconds();
+    }
+
+    /**
+     * @param tables 查询依赖的表，为null时表示未知
+     */
+    protected CacheKey getCacheKey(String sql, List<Object> args, String type, Set<String> tables) {
+        return new CacheKey(CacheKeyUtils.getCacheKey(type, null, sql, args), tables);
+    }
+
+    protected CacheKey getCacheKey(String sql, List<Object> args, String type, Class<?> resultType, Set<String> tables) {
+        return new CacheKey(CacheKeyUtils.getCacheKey(type, resultType, sql, args), tables);
+    }
+
+    /**
+     * 失效依赖指定实体类对应表的缓存，只递增表版本，不扫描缓存
+     */
+    public void invalidateCache(Class<?>... classes) {
+        List<String> tables = new ArrayList<>(classes.length);
+        for (Class<?> clazz : classes) {
+            tables.add(ClazzUtils.getTableName(clazz, mapUnderscoreToCamelCase));
+        }
+        invalidateCache(tables.toArray(new String[0]));
+    }
+
+    /**
+     * 失效依赖指定表的缓存，只递增表版本，不扫描缓存
+     */
+    public void invalidateCache(String... tableNames) {
+        if (tableNames.length == 0) {
+            return;
+        }
+        List<String> tables = new ArrayList<>(tableNames.length);
+        for (String tableName : tableNames) {
+            tables.add(CacheKeyUtils.normalizeTableName(tableName));
+        }
+        try {
+            if (queryCache == null && redisTemplate == null) {
+                if (nearCache != null) {
+                    nearCache.invalidateTables(tables);
+                }
+                return;
+            }
+            buildQueryCache().invalidateTables(tables);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 失效全部缓存，只递增全局版本，不扫描缓存
+     */
+    public void invalidateAllCache() {
+        try {
+            if (queryCache == null && redisTemplate == null) {
+                if (nearCache != null) {
+                    nearCache.invalidateAll();
+                }
+                return;
             }
-            String className = arg.getClass().getName();
-            SqlArg sqlArg = new SqlArg(arg, className);
-            sqlArgs.add(sqlArg);
+            buildQueryCache().invalidateAll();
+        } catch (RuntimeException e) {
+            log.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 开启cacheKeyIndex时，以linked-mybatis-index:为前缀记录缓存键对应的Sql与参数，过期时间与缓存一致，仅用于排查
+     *
+     * @param timeoutSeconds 缓存实际的过期秒数，即按查询的缓存策略计算并加上随机值、旧数据保留时间后的秒数
+     */
+    protected void indexCacheKey(String cacheKey, String sql, List<Object> args, long timeoutSeconds) {
+        if (!cacheKeyIndex || redisTemplate == null) {
+            return;
+        }
+        String indexKey = CACHE_KEY_INDEX_PREFIX + cacheKey.substring(CacheKeyUtils.KEY_PREFIX.length());
+        String value = sql + " " + JSON.toJSONString(args);
+        try {
+            redisTemplate.opsForValue().set(indexKey, value, timeoutSeconds, TimeUnit.SECONDS);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage());
         }
-        String json = JSON.toJSONString(sqlArgs);
-        stringBuilder.append("linked-mybatis:").append(type).append(":").append(sql).append(":").append(json);
-        return stringBuilder.toString();
     }
 }
@@ -1,16 +1,35 @@
 package com.kzow3n.jdbcplus.core.executor;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import com.kzow3n.jdbcplus.core.jdbc.DbTypeEnum;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kzow3n.jdbcplus.core.cache.BinaryResultCodec;
+import com.kzow3n.jdbcplus.core.cache.CacheEntry;
+import com.kzow3n.jdbcplus.core.cache.CacheKey;
+import com.kzow3n.jdbcplus.core.cache.CacheLock;
+import com.kzow3n.jdbcplus.core.cache.CachePolicy;
+import com.kzow3n.jdbcplus.core.dialect.Dialect;
 import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
 import com.kzow3n.jdbcplus.core.jdbc.MySqlRunner;
+import com.kzow3n.jdbcplus.pojo.KeysetPage;
+import com.kzow3n.jdbcplus.pojo.OrderInfo;
+import com.kzow3n.jdbcplus.utils.KeysetUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.springframework.util.CollectionUtils;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.time.temporal.Temporal;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 /**
  * 查询执行器基本方法类
@@ -21,209 +40,668 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class BaseLinkedQueryExecutor extends BaseExecutor {
 
+    /**
+     * 正在查询数据库与后台刷新的缓存键，按SqlSessionFactory区分，同一数据源的执行器共享
+     * 缓存键不含数据源，不同数据源的相同查询不能合并；弱引用的键在SqlSessionFactory不再使用后随之回收
+     */
+    private static final Cache<SqlSessionFactory, Map<String, Flight>> LOADING_MAPS = Caffeine.newBuilder().weakKeys().build();
+    private static final Cache<SqlSessionFactory, Set<String>> REFRESHING_KEYS = Caffeine.newBuilder().weakKeys().build();
+    /**
+     * 等待的线程未取得查询结果，需自行查询
+     */
+    private static final Object NOT_LOADED = new Object();
+
     protected long queryForCount(LinkedQueryWrapper linkedQueryWrapper, boolean blnLimit) {
         checkExecutorValid();
-        linkedQueryWrapper.formatSql();
-        StringBuilder fullSqlBuilder = new StringBuilder();
-        List<String> groupColumns = linkedQueryWrapper.getGroupColumns();
-        Integer limit = linkedQueryWrapper.getLimit();
-        Integer offset = linkedQueryWrapper.getOffset();
-        boolean blnAppendLimit = blnLimit && limit != null;
-        if (CollectionUtils.isEmpty(groupColumns) && !blnAppendLimit) {
-            fullSqlBuilder.append(String.format(linkedQueryWrapper.getSqlBuilder().toString(), "COUNT(1) SELECT_COUNT"));
-        }
-        else {
-            StringBuilder baseSqlBuilder = new StringBuilder();
-            baseSqlBuilder.append(linkedQueryWrapper.getBaseSql());
-            if (blnAppendLimit) {
-                String paging;
-                if (offset != null) {
-                    paging = String.format(" limit %d offset %d", limit, offset);
-                }
-                else {
-                    paging = String.format(" limit %d", limit);
-                }
-                baseSqlBuilder.append(paging);
-            }
-            fullSqlBuilder.append(String.format("SELECT COUNT(1) SELECT_COUNT FROM (%s) T", baseSqlBuilder));
-        }
-        String sql = fullSqlBuilder.toString();
-        List<Object> args = linkedQueryWrapper.getArgs();
-        MySqlRunner sqlRunner = new MySqlRunner(sqlSessionFactory, sqlSession, queryTimeout);
-        return queryForCount(sqlRunner, sql, args);
+        Dialect dialect = formatSql(linkedQueryWrapper);
+        String sql = getCountSql(linkedQueryWrapper, blnLimit, dialect);
+        return queryForCount(sql, linkedQueryWrapper.getArgs(), linkedQueryWrapper.getDependentTables(), linkedQueryWrapper.getCachePolicy());
+    }
+
+    /**
+     * @param cachePolicy 查询的缓存策略，为null时按执行器的cacheable
+     */
+    protected long queryForCount(String sql, List<Object> args, Set<String> tables, CachePolicy cachePolicy) {
+        return queryForCount(sqlSession, sql, args, tables, cachePolicy);
     }
 
     protected List<Map<String, Object>> queryForMaps(LinkedQueryWrapper linkedQueryWrapper) {
         checkExecutorValid();
-        linkedQueryWrapper.formatSql();
-        String sql = linkedQueryWrapper.getFullSql();
-        List<Object> args = linkedQueryWrapper.getArgs();
-        MySqlRunner sqlRunner = new MySqlRunner(sqlSessionFactory, sqlSession, queryTimeout);
-        return queryForMaps(sqlRunner, sql, args);
+        formatSql(linkedQueryWrapper);
+        return queryForMaps(linkedQueryWrapper.getFullSql(), linkedQueryWrapper.getArgs(), linkedQueryWrapper.getDependentTables(), linkedQueryWrapper.getCachePolicy());
+    }
+
+    protected List<Map<String, Object>> queryForMaps(String sql, List<Object> args, Set<String> tables, CachePolicy cachePolicy) {
+        return queryForMaps(sqlSession, sql, args, tables, cachePolicy);
     }
 
     protected <T> List<T> queryForObjects(Class<T> clazz, LinkedQueryWrapper linkedQueryWrapper) {
         checkExecutorValid();
-        linkedQueryWrapper.formatSql();
+        formatSql(linkedQueryWrapper);
+        return queryForObjects(clazz, linkedQueryWrapper.getFullSql(), linkedQueryWrapper.getArgs(), linkedQueryWrapper.getDependentTables(), linkedQueryWrapper.getCachePolicy());
+    }
+
+    protected <T> List<T> queryForObjects(Class<T> clazz, String sql, List<Object> args, Set<String> tables, CachePolicy cachePolicy) {
+        return queryForObjects(clazz, sqlSession, sql, args, tables, cachePolicy);
+    }
+
+    /**
+     * 流式查询不经过缓存，调用方需关闭返回的Stream；查询失败时抛出异常
+     */
+    protected Stream<Map<String, Object>> queryForMapStream(LinkedQueryWrapper linkedQueryWrapper) {
+        checkExecutorValid();
+        formatSql(linkedQueryWrapper);
         String sql = linkedQueryWrapper.getFullSql();
-        List<Object> args = linkedQueryWrapper.getArgs();
-        MySqlRunner sqlRunner = new MySqlRunner(sqlSessionFactory, sqlSession, queryTimeout);
-        return queryForObjects(clazz, sqlRunner, sql, args);
+        MySqlRunner sqlRunner = buildSqlRunner();
+        log.info(sql);
+        try {
+            return sqlRunner.selectCursor(sql, fetchSize, linkedQueryWrapper.getArgs().toArray()).stream();
+        } catch (SQLException sqlException) {
+            //返回空的Stream会被当作没有数据，逐行处理的任务会静默跳过全部数据
+            log.error(sqlException.getMessage());
+            throw new RuntimeException(sqlException);
+        }
+    }
+
+    protected <T> Stream<T> queryForStream(Class<T> clazz, LinkedQueryWrapper linkedQueryWrapper) {
+        checkExecutorValid();
+        formatSql(linkedQueryWrapper);
+        String sql = linkedQueryWrapper.getFullSql();
+        MySqlRunner sqlRunner = buildSqlRunner();
+        log.info(sql);
+        try {
+            return sqlRunner.selectCursor(clazz, sql, fetchSize, linkedQueryWrapper.getArgs().toArray()).stream();
+        } catch (SQLException sqlException) {
+            log.error(sqlException.getMessage());
+            throw new RuntimeException(sqlException);
+        }
     }
 
     protected Page<Map<String, Object>> queryForMapPage(LinkedQueryWrapper linkedQueryWrapper, Page<Map<String, Object>> page, long pageIndex, long pageSize) {
         checkExecutorValid();
-        linkedQueryWrapper.formatSql();
-        MySqlRunner sqlRunner = new MySqlRunner(sqlSessionFactory, sqlSession, queryTimeout);
-        String sql = getPageSql(linkedQueryWrapper, page, sqlRunner.getDbTypeEnum(), pageIndex, pageSize);
-        List<Object> args = linkedQueryWrapper.getArgs();
-        List<Map<String, Object>> maps = queryForMaps(sqlRunner, sql, args);
-        page.setRecords(maps);
+        Dialect dialect = formatSql(linkedQueryWrapper);
+        String countSql = getCountSql(linkedQueryWrapper, false, dialect);
+        String baseSql = linkedQueryWrapper.getBaseSql();
+        String windowBaseSql = getWindowBaseSql(linkedQueryWrapper, dialect);
+        String orderBy = linkedQueryWrapper.getOrderBy().toString();
+        return queryForMapPage(sqlSession, countSql, pageDialect -> getPageSql(baseSql, orderBy, pageDialect),
+                windowBaseSql == null ? null : pageDialect -> getPageSql(windowBaseSql, orderBy, pageDialect), linkedQueryWrapper.getArgs(), linkedQueryWrapper.getDependentTables(), linkedQueryWrapper.getCachePolicy(), page, pageIndex, pageSize);
+    }
+
+    /**
+     * @param sqlSession 查询当前页的SqlSession，为null时自行打开；异步查询总数时总是使用独立的SqlSession
+     * @param windowPageSqlProvider 带总数列的分页Sql，为null时不支持单条语句分页
+     */
+    protected Page<Map<String, Object>> queryForMapPage(SqlSession sqlSession, String countSql, Function<Dialect, String> pageSqlProvider,
+                                                        Function<Dialect, String> windowPageSqlProvider, List<Object> args,
+                                                        Set<String> tables, CachePolicy cachePolicy, Page<Map<String, Object>> page,
+                                                        long pageIndex, long pageSize) {
+        if (isWindowCountEnabled(windowPageSqlProvider, cachePolicy)) {
+            return queryForWindowPage(sqlSession, countSql, windowPageSqlProvider, args, tables, cachePolicy, page, pageIndex, pageSize,
+                    (sqlRunner, sql, pageArgs, totalConsumer) -> sqlRunner.selectPage(sql, totalConsumer, pageArgs.toArray()));
+        }
+        CompletableFuture<Long> totalFuture = queryForCountAsync(countSql, args, tables, cachePolicy);
+        if (totalFuture == null) {
+            setPageTotal(queryForCount(sqlSession, countSql, args, tables, cachePolicy), page, pageIndex, pageSize);
+        }
+        try {
+            Dialect dialect = resolveDialect();
+            String sql = pageSqlProvider.apply(dialect);
+            List<Object> pageArgs = getPageArgs(args, dialect, pageIndex, pageSize);
+            List<Map<String, Object>> maps = queryForMaps(sqlSession, sql, pageArgs, tables, cachePolicy);
+            page.setRecords(maps);
+            if (totalFuture != null) {
+                setPageTotal(joinCount(totalFuture), page, pageIndex, pageSize);
+            }
+        } finally {
+            awaitCount(totalFuture);
+        }
         return page;
     }
 
     protected <T> Page<T> queryForObjectPage(Class<T> clazz, LinkedQueryWrapper linkedQueryWrapper, Page<T> page, long pageIndex, long pageSize) {
         checkExecutorValid();
+        Dialect dialect = formatSql(linkedQueryWrapper);
+        String countSql = getCountSql(linkedQueryWrapper, false, dialect);
+        String baseSql = linkedQueryWrapper.getBaseSql();
+        String windowBaseSql = getWindowBaseSql(linkedQueryWrapper, dialect);
+        String orderBy = linkedQueryWrapper.getOrderBy().toString();
+        return queryForObjectPage(clazz, sqlSession, countSql, pageDialect -> getPageSql(baseSql, orderBy, pageDialect),
+                windowBaseSql == null ? null : pageDialect -> getPageSql(windowBaseSql, orderBy, pageDialect), linkedQueryWrapper.getArgs(), linkedQueryWrapper.getDependentTables(), linkedQueryWrapper.getCachePolicy(), page, pageIndex, pageSize);
+    }
+
+    /**
+     * @param sqlSession 查询当前页的SqlSession，为null时自行打开；异步查询总数时总是使用独立的SqlSession
+     * @param windowPageSqlProvider 带总数列的分页Sql，为null时不支持单条语句分页
+     */
+    protected <T> Page<T> queryForObjectPage(Class<T> clazz, SqlSession sqlSession, String countSql, Function<Dialect, String> pageSqlProvider,
+                                             Function<Dialect, String> windowPageSqlProvider, List<Object> args,
+                                             Set<String> tables, CachePolicy cachePolicy, Page<T> page, long pageIndex, long pageSize) {
+        if (isWindowCountEnabled(windowPageSqlProvider, cachePolicy)) {
+            return queryForWindowPage(sqlSession, countSql, windowPageSqlProvider, args, tables, cachePolicy, page, pageIndex, pageSize,
+                    (sqlRunner, sql, pageArgs, totalConsumer) -> sqlRunner.selectPage(clazz, sql, totalConsumer, pageArgs.toArray()));
+        }
+        CompletableFuture<Long> totalFuture = queryForCountAsync(countSql, args, tables, cachePolicy);
+        if (totalFuture == null) {
+            setPageTotal(queryForCount(sqlSession, countSql, args, tables, cachePolicy), page, pageIndex, pageSize);
+        }
+        try {
+            Dialect dialect = resolveDialect();
+            String sql = pageSqlProvider.apply(dialect);
+            List<Object> pageArgs = getPageArgs(args, dialect, pageIndex, pageSize);
+            List<T> list = queryForObjects(clazz, sqlSession, sql, pageArgs, tables, cachePolicy);
+            page.setRecords(list);
+            if (totalFuture != null) {
+                setPageTotal(joinCount(totalFuture), page, pageIndex, pageSize);
+            }
+        } finally {
+            awaitCount(totalFuture);
+        }
+        return page;
+    }
+
+    /**
+     * 键集分页，以上一页最后一行的排序字段值定位，不扫描之前的行，耗时与页码无关；不经过缓存
+     * 排序字段需能唯一确定一行（如以主键结尾），否则排序字段值相同的行可能被跳过；不支持group by与distinct
+     *
+     * @param cursor 上一页返回的游标，为null时查询第一页
+     */
+    protected <T> KeysetPage<T> queryForObjectsAfter(Class<T> clazz, LinkedQueryWrapper linkedQueryWrapper, String cursor, int pageSize) {
+        checkExecutorValid();
+        List<OrderInfo> orderInfos = linkedQueryWrapper.getOrderInfos();
+        if (CollectionUtils.isEmpty(orderInfos)) {
+            throw new IllegalArgumentException("keyset pagination requires orderBy.");
+        }
+        if (!CollectionUtils.isEmpty(linkedQueryWrapper.getGroupColumns()) || linkedQueryWrapper.isBlnSelectDistinct()) {
+            throw new IllegalArgumentException("keyset pagination does not support groupBy or distinct.");
+        }
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be greater than 0.");
+        }
+        int fingerprint = KeysetUtils.getFingerprint(orderInfos);
+        Object[] cursorValues = cursor == null ? null : KeysetUtils.decodeCursor(cursor, fingerprint, orderInfos.size());
+        Dialect dialect = formatSql(linkedQueryWrapper);
+        List<Object> args = new ArrayList<>(linkedQueryWrapper.getArgs());
+        String condition = cursorValues == null ? null : KeysetUtils.buildCondition(orderInfos, cursorValues, dialect, args);
+        StringBuilder keyColumns = new StringBuilder();
+        for (int i = 0; i < orderInfos.size(); i ++) {
+            OrderInfo orderInfo = orderInfos.get(i);
+            if (i > 0) {
+                keyColumns.append(',');
+            }
+            keyColumns.append(orderInfo.getTableId()).append('.').append(orderInfo.getColumn()).append(" KEYSET_").append(i);
+        }
+        StringBuilder sqlBuilder = new StringBuilder(linkedQueryWrapper.getSeekSql(keyColumns.toString(), condition));
+        //多查一行判断是否还有下一页
+        dialect.appendOrderByAndLimit(sqlBuilder, linkedQueryWrapper.getOrderBy(), pageSize + 1, null);
+        String sql = sqlBuilder.toString();
+        List<Object[]> keyValues = new ArrayList<>(pageSize + 1);
+        KeysetPage<T> keysetPage = new KeysetPage<>();
+        log.info(sql);
+        List<T> list;
+        try {
+            //游标与条件校验通过后才获取连接
+            list = load(sqlSession, sqlRunner -> sqlRunner.selectHidden(clazz, sql, orderInfos.size(), (rs, hiddenIndex) -> {
+                Object[] values = new Object[orderInfos.size()];
+                for (int i = 0; i < values.length; i ++) {
+                    values[i] = readKeyValue(rs, hiddenIndex + i);
+                }
+                keyValues.add(values);
+            }, args.toArray()));
+        } catch (SQLException sqlException) {
+            //返回空页会被当作已到末尾，调用方按游标循环时会静默丢失后面的数据
+            log.error(sqlException.getMessage());
+            throw new RuntimeException(sqlException);
+        }
+        if (list.size() > pageSize) {
+            list = new ArrayList<>(list.subList(0, pageSize));
+            keysetPage.setNextCursor(KeysetUtils.encodeCursor(fingerprint, keyValues.get(pageSize - 1)));
+        }
+        keysetPage.setRecords(list);
+        return keysetPage;
+    }
+
+    /**
+     * 读取排序字段值，驱动的专有类型（如oracle.sql.TIMESTAMP）转为JDBC标准类型
+     */
+    private static Object readKeyValue(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value == null || value instanceof Number || value instanceof String || value instanceof java.util.Date
+                || value instanceof Boolean || value instanceof Temporal) {
+            return value;
+        }
+        switch (rs.getMetaData().getColumnType(column)) {
+            case Types.DATE:
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return rs.getTimestamp(column);
+            case Types.TIME:
+                return rs.getTime(column);
+            default:
+                return rs.getString(column);
+        }
+    }
+
+    /**
+     * 以数据源的方言生成查询条件的Sql
+     *
+     * @return 使用的方言
+     */
+    protected Dialect formatSql(LinkedQueryWrapper linkedQueryWrapper) {
+        Dialect dialect = resolveDialect();
+        linkedQueryWrapper.setDialect(dialect);
         linkedQueryWrapper.formatSql();
-        MySqlRunner sqlRunner = new MySqlRunner(sqlSessionFactory, sqlSession, queryTimeout);
-        String sql = getPageSql(linkedQueryWrapper, page, sqlRunner.getDbTypeEnum(), pageIndex, pageSize);
-        List<Object> args = linkedQueryWrapper.getArgs();
-        List<T> list = queryForObjects(clazz, sqlRunner, sql, args);
+        return dialect;
+    }
+
+    /**
+     * 按查询条件的结构生成计数Sql：不含order by与查询字段，去掉不影响行数的left join
+     * 单个字段分组时以COUNT(DISTINCT)计数，分组字段为null的行单独算作一组
+     * distinct或带having的查询依赖查询字段，以完整的查询作为子查询计数
+     */
+    protected String getCountSql(LinkedQueryWrapper linkedQueryWrapper, boolean blnLimit, Dialect dialect) {
+        List<String> groupColumns = linkedQueryWrapper.getGroupColumns();
+        Integer limit = linkedQueryWrapper.getLimit();
+        Integer offset = linkedQueryWrapper.getOffset();
+        boolean blnAppendLimit = blnLimit && limit != null;
+        boolean blnGroupBy = !CollectionUtils.isEmpty(groupColumns);
+        String innerSql;
+        if (linkedQueryWrapper.isBlnSelectDistinct() || (blnGroupBy && StringUtils.isNotBlank(linkedQueryWrapper.getHaving()))) {
+            innerSql = linkedQueryWrapper.getBaseSql();
+        }
+        else if (!blnAppendLimit && !blnGroupBy) {
+            return linkedQueryWrapper.getCountSelectSql("COUNT(1) SELECT_COUNT", false);
+        }
+        else if (!blnAppendLimit && groupColumns.size() == 1) {
+            String groupColumn = groupColumns.get(0);
+            return linkedQueryWrapper.getCountSelectSql(String.format("COUNT(DISTINCT %s) + COUNT(DISTINCT CASE WHEN %s IS NULL THEN 1 END) SELECT_COUNT",
+                    groupColumn, groupColumn), false);
+        }
+        else {
+            innerSql = linkedQueryWrapper.getCountSelectSql("1 SELECT_ONE", true);
+        }
+        if (!blnAppendLimit) {
+            return dialect.getCountSql(innerSql);
+        }
+        //计数与排序无关，只保留limit、offset
+        StringBuilder limitSqlBuilder = new StringBuilder(innerSql.length() + 64);
+        limitSqlBuilder.append(innerSql);
+        dialect.appendOrderByAndLimit(limitSqlBuilder, "", limit, offset);
+        return dialect.getCountSql(limitSqlBuilder.toString());
+    }
+
+    /**
+     * 获取分页Sql，分页参数以占位符表示，同一查询的分页Sql与页码无关
+     */
+    protected String getPageSql(String baseSql, String orderBy, Dialect dialect) {
+        return dialect.getPageSql(baseSql, orderBy);
+    }
+
+    protected List<Object> getPageArgs(List<Object> args, Dialect dialect, long pageIndex, long pageSize) {
+        List<Object> pageArgs = new ArrayList<>(args.size() + 2);
+        pageArgs.addAll(args);
+        dialect.addPageArgs(pageArgs, (pageIndex - 1L) * pageSize, pageSize);
+        return pageArgs;
+    }
+
+    /**
+     * 在查询字段后追加窗口函数总数列的基础Sql，未开启windowCountPage或无法追加时返回null
+     * distinct查询追加总数列后去重结果会改变，不使用窗口函数
+     */
+    protected String getWindowBaseSql(LinkedQueryWrapper linkedQueryWrapper, Dialect dialect) {
+        if (!windowCountPage || linkedQueryWrapper.isBlnSelectDistinct()) {
+            return null;
+        }
+        String windowCountColumn = dialect.getWindowCountColumn();
+        return windowCountColumn == null ? null : linkedQueryWrapper.getBaseSql(windowCountColumn);
+    }
+
+    /**
+     * 总数与当前页一同查询，无法分别缓存，开启了缓存时仍分两条语句查询
+     */
+    private boolean isWindowCountEnabled(Function<Dialect, String> windowPageSqlProvider, CachePolicy cachePolicy) {
+        return windowCountPage && windowPageSqlProvider != null
+                && !isCacheEnabled(cachePolicy, true) && !isCacheEnabled(cachePolicy, false);
+    }
+
+    /**
+     * 以带窗口函数总数列的单条语句分页，页码超出范围时结果为空，需另外查询总数
+     */
+    private <T> Page<T> queryForWindowPage(SqlSession sqlSession, String countSql, Function<Dialect, String> windowPageSqlProvider, List<Object> args,
+                                           Set<String> tables, CachePolicy cachePolicy, Page<T> page, long pageIndex, long pageSize,
+                                           PageLoader<T> loader) {
+        Dialect dialect = resolveDialect();
+        String sql = windowPageSqlProvider.apply(dialect);
+        List<Object> pageArgs = getPageArgs(args, dialect, pageIndex, pageSize);
+        long[] total = {-1L};
+        List<T> list = null;
+        log.info(sql);
+        try {
+            list = load(sqlSession, sqlRunner -> loader.load(sqlRunner, sql, pageArgs, value -> total[0] = value));
+        } catch (SQLException sqlException) {
+            log.error(sqlException.getMessage());
+        }
         page.setRecords(list);
+        if (total[0] < 0L) {
+            //第一页为空时总数为0，其余页可能超出范围，需查询总数
+            total[0] = list != null && pageIndex <= 1L ? 0L : queryForCount(sqlSession, countSql, args, tables, cachePolicy);
+        }
+        setPageTotal(total[0], page, pageIndex, pageSize);
         return page;
     }
 
-    private Long queryForCount(MySqlRunner sqlRunner, String sql, List<Object> args) {
-        Map<String, Object> map;
-        long count = 0L;
-        if (cacheable) {
-            String cacheKey = getCacheKey(sql, args, "forCount");
-            if (redisTemplate.hasKey(cacheKey)) {
-                log.info("get cache from redis.");
-                return Long.parseLong(Objects.requireNonNull(redisTemplate.opsForValue().get(cacheKey)).toString());
+    /**
+     * 配置了pageCountExecutor时在其中以独立的SqlSession查询分页总数，未配置或线程池拒绝时返回null
+     */
+    private CompletableFuture<Long> queryForCountAsync(String countSql, List<Object> args, Set<String> tables, CachePolicy cachePolicy) {
+        if (pageCountExecutor == null) {
+            return null;
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> queryForCount(null, countSql, args, tables, cachePolicy), pageCountExecutor);
+        } catch (RuntimeException e) {
+            log.error(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 查询当前页抛出异常时等待总数查询结束并忽略其结果，返回后不再有该分页的查询占用连接
+     */
+    private void awaitCount(CompletableFuture<Long> totalFuture) {
+        if (totalFuture != null && !totalFuture.isDone()) {
+            totalFuture.handle((total, e) -> total).join();
+        }
+    }
+
+    private long joinCount(CompletableFuture<Long> totalFuture) {
+        try {
+            return totalFuture.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
-            log.info(sql);
-            try {
-                map = sqlRunner.selectOne(sql, args.toArray());
-                if (map.containsKey("SELECT_COUNT")) {
-                    count = Long.parseLong(map.get("SELECT_COUNT").toString());
-                }
-                else {
-                    count = Long.parseLong(map.get("select_count").toString());
-                }
-                doCache(cacheKey, count);
-            } catch (SQLException sqlException) {
-                log.error(sqlException.getMessage());
+            throw e;
+        }
+    }
+
+    private void setPageTotal(long total, Page<?> page, long pageIndex, long pageSize) {
+        long pages = total % pageSize > 0 ? (total / pageSize) + 1L : total / pageSize;
+        page.setTotal(total).setPages(pages).setCurrent(pageIndex).setSize(pageSize);
+    }
+
+    /**
+     * @param sqlSession 执行查询的SqlSession，为null时自行打开
+     */
+    protected Long queryForCount(SqlSession sqlSession, String sql, List<Object> args, Set<String> tables, CachePolicy cachePolicy) {
+        if (isCacheEnabled(cachePolicy, true)) {
+            CacheKey cacheKey = getCacheKey(sql, args, "forCount", tables);
+            Object value = queryWithCache(cacheKey, sql, args, getCacheTimeout(cachePolicy), sqlSession, runner -> selectCount(runner, sql, args));
+            return value == null ? 0L : Long.parseLong(value.toString());
+        }
+        log.info(sql);
+        try {
+            return load(sqlSession, runner -> selectCount(runner, sql, args));
+        } catch (SQLException sqlException) {
+            log.error(sqlException.getMessage());
+        }
+        return 0L;
+    }
+
+    private long selectCount(MySqlRunner sqlRunner, String sql, List<Object> args) throws SQLException {
+        Map<String, Object> map = sqlRunner.selectOne(sql, args.toArray());
+        if (map.containsKey("SELECT_COUNT")) {
+            return Long.parseLong(map.get("SELECT_COUNT").toString());
+        }
+        return Long.parseLong(map.get("select_count").toString());
+    }
+
+    /**
+     * @param sqlSession 执行查询的SqlSession，为null时自行打开
+     */
+    protected List<Map<String, Object>> queryForMaps(SqlSession sqlSession, String sql, List<Object> args, Set<String> tables, CachePolicy cachePolicy) {
+        if (isCacheEnabled(cachePolicy, false)) {
+            CacheKey cacheKey = getCacheKey(sql, args, "forMaps", tables);
+            //缓存键区分查询类型，命中的值即为selectAll的结果
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> maps = (List<Map<String, Object>>) queryWithCache(cacheKey, sql, args, getCacheTimeout(cachePolicy),
+                    sqlSession, runner -> runner.selectAll(sql, args.toArray()));
+            return maps;
+        }
+        log.info(sql);
+        try {
+            return load(sqlSession, runner -> runner.selectAll(sql, args.toArray()));
+        } catch (SQLException sqlException) {
+            log.error(sqlException.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * @param sqlSession 执行查询的SqlSession，为null时自行打开
+     */
+    protected <T> List<T> queryForObjects(Class<T> clazz, SqlSession sqlSession, String sql, List<Object> args, Set<String> tables,
+                                          CachePolicy cachePolicy) {
+        if (isCacheEnabled(cachePolicy, false)) {
+            CacheKey cacheKey = getCacheKey(sql, args, "forObjects", clazz, tables);
+            //缓存键区分查询类型与结果类，命中的值即为selectAll(clazz)的结果
+            @SuppressWarnings("unchecked")
+            List<T> list = (List<T>) queryWithCache(cacheKey, sql, args, getCacheTimeout(cachePolicy), sqlSession,
+                    runner -> runner.selectAll(clazz, sql, args.toArray()));
+            return list;
+        }
+        log.info(sql);
+        try {
+            return load(sqlSession, runner -> runner.selectAll(clazz, sql, args.toArray()));
+        } catch (SQLException sqlException) {
+            log.error(sqlException.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 先查缓存，未命中时查询数据库并写入缓存
+     * 同一JVM内同一缓存键同时只有一个线程查询数据库，其余线程等待其结果的副本，等待超时后自行查询；开启cacheLockMillis时多个节点间也只有一个节点查询
+     * 开启cacheStaleSeconds时，过期后的一段时间内仍返回旧数据，同时在后台刷新
+     *
+     * @param timeout 缓存过期秒数（未加随机值）
+     * @param sqlSession 未命中时执行查询的SqlSession，为null时自行打开；命中缓存时不获取连接
+     */
+    private Object queryWithCache(CacheKey cacheKey, String sql, List<Object> args, long timeout, SqlSession sqlSession, SqlLoader<?> loader) {
+        Object cache = getCache(cacheKey);
+        if (cache instanceof CacheEntry) {
+            CacheEntry cacheEntry = (CacheEntry) cache;
+            if (cacheEntry.isStale()) {
+                refreshAsync(cacheKey, sql, args, timeout, loader);
             }
+            return cacheEntry.getValue();
         }
-        else {
-            log.info(sql);
-            try {
-                map = sqlRunner.selectOne(sql, args.toArray());
-                if (map.containsKey("SELECT_COUNT")) {
-                    count = Long.parseLong(map.get("SELECT_COUNT").toString());
-                }
-                else {
-                    count = Long.parseLong(map.get("select_count").toString());
+        if (cache != null) {
+            return cache;
+        }
+        if (!cacheSingleFlight) {
+            return loadWithLock(cacheKey, sql, args, timeout, sqlSession, loader);
+        }
+        String loadingKey = cacheKey.toString();
+        Flight flight = new Flight();
+        Map<String, Flight> loadingMap = LOADING_MAPS.get(sqlSessionFactory, factory -> new ConcurrentHashMap<>());
+        Flight loadingFlight = loadingMap.putIfAbsent(loadingKey, flight);
+        if (loadingFlight != null) {
+            if (loadingFlight.addWaiter()) {
+                log.info(String.format("cacheKey:%s is loading, waiting for the result.", cacheKey));
+                Object value = awaitFlight(loadingFlight, cacheKey);
+                if (value != NOT_LOADED) {
+                    return value;
                 }
-            } catch (SQLException sqlException) {
-                log.error(sqlException.getMessage());
             }
+            return loadWithLock(cacheKey, sql, args, timeout, sqlSession, loader);
+        }
+        Object value;
+        try {
+            value = loadWithLock(cacheKey, sql, args, timeout, sqlSession, loader);
+        } catch (RuntimeException | Error e) {
+            loadingMap.remove(loadingKey, flight);
+            flight.fail(e);
+            throw e;
         }
-        return count;
+        //先移除再完成，之后到达的线程不再加入本次查询
+        loadingMap.remove(loadingKey, flight);
+        flight.complete(value);
+        return value;
     }
 
-    private List<Map<String, Object>> queryForMaps(MySqlRunner sqlRunner, String sql, List<Object> args) {
-        List<Map<String, Object>> mapList = null;
-        if (cacheable) {
-            String cacheKey = getCacheKey(sql, args, "forMaps");
-            if (redisTemplate.hasKey(cacheKey)) {
-                log.info("get cache from redis.");
-                return (List<Map<String, Object>>) redisTemplate.opsForValue().get(cacheKey);
-            }
-            log.info(sql);
-            try {
-                mapList = sqlRunner.selectAll(sql, args.toArray());
-                doCache(cacheKey, mapList);
-            } catch (SQLException sqlException) {
-                log.error(sqlException.getMessage());
+    /**
+     * 最多等待cacheLockMillis毫秒，未开启时最多等待queryTimeout秒
+     *
+     * @return 查询结果的副本，超时或结果无法复制时返回NOT_LOADED
+     */
+    private Object awaitFlight(Flight flight, CacheKey cacheKey) {
+        long waitMillis = cacheLockMillis > 0L ? cacheLockMillis : (queryTimeout != null && queryTimeout > 0 ? queryTimeout : 60L) * 1000L;
+        try {
+            return flight.get(waitMillis);
+        } catch (TimeoutException e) {
+            log.info(String.format("cacheKey:%s is still loading after %dms, query by itself.", cacheKey, waitMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return NOT_LOADED;
+    }
+
+    private Object loadWithLock(CacheKey cacheKey, String sql, List<Object> args, long timeout, SqlSession sqlSession, SqlLoader<?> loader) {
+        CacheLock cacheLock = null;
+        if (cacheLockMillis > 0L && redisTemplate != null) {
+            cacheLock = new CacheLock(redisTemplate, cacheKey.toString());
+            if (!cacheLock.tryLock(cacheLockMillis)) {
+                //其他节点正在查询，等待其写入缓存，超时后自行查询
+                Object cache = waitForCache(cacheKey);
+                if (cache != null) {
+                    return cache instanceof CacheEntry ? ((CacheEntry) cache).getValue() : cache;
+                }
+                cacheLock = null;
             }
         }
-        else {
+        try {
             log.info(sql);
-            try {
-                mapList = sqlRunner.selectAll(sql, args.toArray());
-            } catch (SQLException sqlException) {
-                log.error(sqlException.getMessage());
+            Object value = load(sqlSession, loader);
+            doCache(cacheKey, value, sql, args, timeout);
+            return value;
+        } catch (SQLException sqlException) {
+            log.error(sqlException.getMessage());
+        } finally {
+            if (cacheLock != null) {
+                cacheLock.unlock();
             }
         }
-        return mapList;
+        return null;
     }
 
-    private <T> List<T> queryForObjects(Class<T> clazz, MySqlRunner sqlRunner, String sql, List<Object> args) {
-        List<T> list = null;
-        if (cacheable) {
-            String cacheKey = getCacheKey(sql, args, "forObjects");
-            if (redisTemplate.hasKey(cacheKey)) {
-                log.info("get cache from redis.");
-                return (List<T>) redisTemplate.opsForValue().get(cacheKey);
-            }
-            log.info(sql);
+    private Object waitForCache(CacheKey cacheKey) {
+        long deadline = System.currentTimeMillis() + cacheLockMillis;
+        long interval = Math.max(10L, Math.min(100L, cacheLockMillis / 20L));
+        while (System.currentTimeMillis() < deadline) {
             try {
-                list = sqlRunner.selectAll(clazz, sql, args.toArray());
-                doCache(cacheKey, list);
-            } catch (SQLException sqlException) {
-                log.error(sqlException.getMessage());
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Object cache = getCache(cacheKey);
+            if (cache != null) {
+                return cache;
             }
         }
-        else {
-            log.info(sql);
+        return null;
+    }
+
+    /**
+     * 后台刷新过期的缓存，同一缓存键同时只有一个刷新任务，刷新使用独立的SqlSession
+     */
+    private void refreshAsync(CacheKey cacheKey, String sql, List<Object> args, long timeout, SqlLoader<?> loader) {
+        String refreshingKey = cacheKey.toString();
+        Set<String> refreshingKeys = REFRESHING_KEYS.get(sqlSessionFactory, factory -> ConcurrentHashMap.newKeySet());
+        if (!refreshingKeys.add(refreshingKey)) {
+            return;
+        }
+        Runnable task = () -> {
+            CacheLock cacheLock = null;
             try {
-                list = sqlRunner.selectAll(clazz, sql, args.toArray());
-            } catch (SQLException sqlException) {
-                log.error(sqlException.getMessage());
+                if (cacheLockMillis > 0L && redisTemplate != null) {
+                    cacheLock = new CacheLock(redisTemplate, refreshingKey);
+                    if (!cacheLock.tryLock(cacheLockMillis)) {
+                        cacheLock = null;
+                        return;
+                    }
+                }
+                log.info(sql);
+                Object value = load(null, loader);
+                if (cacheAdmission != null && !cacheAdmission.admitRows(cacheKey, value)) {
+                    return;
+                }
+                long ttl = getCacheTtl(timeout);
+                buildQueryCache().put(cacheKey, wrapCacheValue(value, ttl), ttl + cacheStaleSeconds);
+                indexCacheKey(cacheKey.getKey(), sql, args, ttl + cacheStaleSeconds);
+                log.info(String.format("cacheKey:%s has bean refreshed.", cacheKey));
+            } catch (SQLException | RuntimeException e) {
+                log.error(e.getMessage());
+            } finally {
+                if (cacheLock != null) {
+                    cacheLock.unlock();
+                }
+                refreshingKeys.remove(refreshingKey);
             }
+        };
+        try {
+            (cacheRefreshExecutor != null ? cacheRefreshExecutor : RefreshExecutorHolder.EXECUTOR).execute(task);
+        } catch (RuntimeException e) {
+            //线程池已满时放弃本次刷新，之后的查询仍返回旧数据并再次尝试
+            refreshingKeys.remove(refreshingKey);
+            log.error(e.getMessage());
         }
-        return list;
     }
 
-    private String getPageSql(LinkedQueryWrapper linkedQueryWrapper, Page<?> page, DbTypeEnum dbTypeEnum, long pageIndex, long pageSize) {
-        long total = queryForCount(linkedQueryWrapper, false);
-        long pages = total % pageSize > 0 ? (total / pageSize) + 1L : total / pageSize;
-        page.setTotal(total).setPages(pages).setCurrent(pageIndex).setSize(pageSize);
+    /**
+     * 以新建的SqlRunner查询，查询后关闭其自行打开的SqlSession
+     *
+     * @param sqlSession 为null时自行打开
+     */
+    private <R> R load(SqlSession sqlSession, SqlLoader<R> loader) throws SQLException {
+        MySqlRunner sqlRunner = buildSqlRunner(sqlSession);
+        try {
+            return loader.load(sqlRunner);
+        } finally {
+            sqlRunner.close();
+        }
+    }
 
-        String sql;
-        //待补充oracle的分页逻辑
-        switch (dbTypeEnum) {
-            default:
-                sql = linkedQueryWrapper.getBaseSql() +
-                        linkedQueryWrapper.getOrderBy().toString() +
-                        String.format(" limit %d offset %d", pageSize, (pageIndex - 1L) * pageSize);
-                break;
-            case DM:
-                sql = linkedQueryWrapper.getBaseSql() +
-                        linkedQueryWrapper.getOrderBy().toString();
-                sql = String.format("SELECT * FROM (SELECT TMP.*, ROWNUM ROW_ID FROM (%s) TMP WHERE ROWNUM <= %d) WHERE ROW_ID > %d",
-                        sql, pageIndex * pageSize, (pageIndex - 1L) * pageSize);
-                break;
-            case SQL_SERVER:
-                String orderBy = linkedQueryWrapper.getOrderBy().toString();
-                if (StringUtils.isBlank(orderBy)) {
-                    orderBy = "ORDER BY CURRENT_TIMESTAMP";
-                }
-                long start = 1L + (pageIndex - 1L) * pageSize;
-                long end = pageIndex * pageSize;
-                sql = linkedQueryWrapper.getBaseSql().replaceFirst("select ", "");
-                sql = String.format("WITH selectTemp AS (SELECT TOP 100 PERCENT ROW_NUMBER() OVER (%s) as __row_number__, %s) SELECT * FROM selectTemp WHERE __row_number__ BETWEEN %d AND %d ORDER BY __row_number__",
-                        orderBy, sql, start, end);
-                break;
+    /**
+     * 开启cacheWriter时，已提交尚未写入的结果同样视为命中
+     */
+    private Object getCache(CacheKey cacheKey) {
+        Object cache = buildQueryCache().get(cacheKey);
+        if (cache == null && cacheWriter != null) {
+            cache = cacheWriter.getPending(cacheKey);
         }
-        return sql;
+        return cache;
     }
 
-    private void doCache(String cacheKey, long count) {
-        if (!redisTemplate.hasKey(cacheKey)) {
-            redisTemplate.opsForValue().set(cacheKey, count, cacheTimeout, TimeUnit.SECONDS);
+    private void doCache(CacheKey cacheKey, Object value, String sql, List<Object> args, long timeout) {
+        if (value == null) {
+            return;
+        }
+        if (cacheAdmission != null && !cacheAdmission.admit(cacheKey, value)) {
+            return;
+        }
+        long ttl = getCacheTtl(timeout);
+        if (cacheWriter != null) {
+            //异步写入，查询线程不等待Redis
+            cacheWriter.submit(buildQueryCache(), cacheKey, wrapCacheValue(value, ttl), ttl + cacheStaleSeconds, () -> {
+                indexCacheKey(cacheKey.getKey(), sql, args, ttl + cacheStaleSeconds);
+                log.info(String.format("cacheKey:%s has bean cached.", cacheKey));
+            });
+            return;
+        }
+        if (buildQueryCache().putIfAbsent(cacheKey, wrapCacheValue(value, ttl), ttl + cacheStaleSeconds)) {
+            indexCacheKey(cacheKey.getKey(), sql, args, ttl + cacheStaleSeconds);
             log.info(String.format("cacheKey:%s has bean cached.", cacheKey));
         }
         else {
@@ -231,14 +709,118 @@ public class BaseLinkedQueryExecutor extends BaseExecutor {
         }
     }
 
-    private void doCache(String cacheKey, List<?> list) {
-        if (!redisTemplate.hasKey(cacheKey)) {
-            redisTemplate.opsForValue().set(cacheKey, list, cacheTimeout, TimeUnit.SECONDS);
-            log.info(String.format("cacheKey:%s has bean cached.", cacheKey));
+    /**
+     * 开启cacheStaleSeconds时记录刷新时间，缓存在刷新时间后继续保留cacheStaleSeconds秒
+     */
+    private Object wrapCacheValue(Object value, long ttl) {
+        if (cacheStaleSeconds <= 0L) {
+            return value;
         }
-        else {
-            log.info(String.format("cacheKey:%s already exists.", cacheKey));
+        return new CacheEntry(value, System.currentTimeMillis() + ttl * 1000L);
+    }
+
+    /**
+     * 同一缓存键的一次数据库查询，有线程等待时将结果编码一次，每个等待的线程解码出各自的副本
+     */
+    private static final class Flight {
+
+        private static final BinaryResultCodec CODEC = new BinaryResultCodec(Integer.MAX_VALUE);
+        /**
+         * 结果无法编码，等待的线程需自行查询
+         */
+        private static final byte[] UNCOPYABLE = new byte[0];
+
+        private final CompletableFuture<byte[]> future = new CompletableFuture<>();
+        private int waiters;
+        private boolean blnDone;
+
+        /**
+         * @return 是否加入等待，查询已结束时返回false
+         */
+        synchronized boolean addWaiter() {
+            if (blnDone) {
+                return false;
+            }
+            waiters ++;
+            return true;
+        }
+
+        void complete(Object value) {
+            synchronized (this) {
+                blnDone = true;
+                if (waiters == 0) {
+                    return;
+                }
+            }
+            byte[] bytes;
+            try {
+                bytes = value == null ? null : CODEC.encode(value);
+            } catch (RuntimeException e) {
+                log.error(e.getMessage());
+                bytes = UNCOPYABLE;
+            }
+            future.complete(bytes);
+        }
+
+        void fail(Throwable throwable) {
+            synchronized (this) {
+                blnDone = true;
+            }
+            future.completeExceptionally(throwable);
+        }
+
+        /**
+         * 查询抛出的异常原样抛出
+         */
+        Object get(long waitMillis) throws InterruptedException, TimeoutException {
+            byte[] bytes;
+            try {
+                bytes = future.get(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+            if (bytes == UNCOPYABLE) {
+                return NOT_LOADED;
+            }
+            return bytes == null ? null : CODEC.decode(bytes);
+        }
+    }
+
+    /**
+     * 未配置cacheRefreshExecutor时使用的后台刷新线程池，首次刷新时创建
+     * 线程数与队列长度有限，队列已满时放弃刷新；线程为守护线程，空闲后回收
+     */
+    private static final class RefreshExecutorHolder {
+
+        private static final ThreadPoolExecutor EXECUTOR;
+
+        static {
+            AtomicInteger threadIndex = new AtomicInteger();
+            int threads = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+            EXECUTOR = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1024), runnable -> {
+                Thread thread = new Thread(runnable, "linked-mybatis-cache-refresh-" + threadIndex.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+            EXECUTOR.allowCoreThreadTimeOut(true);
         }
     }
 
+    @FunctionalInterface
+    private interface SqlLoader<R> {
+        R load(MySqlRunner sqlRunner) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface PageLoader<T> {
+        List<T> load(MySqlRunner sqlRunner, String sql, List<Object> args, LongConsumer totalConsumer) throws SQLException;
+    }
+
 }
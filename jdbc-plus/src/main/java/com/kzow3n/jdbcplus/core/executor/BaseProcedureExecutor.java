@@ -7,7 +7,6 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * 存储过程执行器基本方法类
@@ -23,7 +22,7 @@ public class BaseProcedureExecutor extends BaseExecutor {
         String sql = getSql(proName, args);
         log.info(sql);
         List<Map<String, Object>> mapList = null;
-        MySqlRunner sqlRunner = new MySqlRunner(sqlSessionFactory, sqlSession, queryTimeout);
+        MySqlRunner sqlRunner = buildSqlRunner();
         try {
             mapList = sqlRunner.selectAll(sql, args);
             //若存储过程中有执行update操作，按需传入redisTemplate清空缓存
@@ -39,7 +38,7 @@ public class BaseProcedureExecutor extends BaseExecutor {
         String sql = getSql(proName, args);
         log.info(sql);
         List<T> list = null;
-        MySqlRunner sqlRunner = new MySqlRunner(sqlSessionFactory, sqlSession, queryTimeout);
+        MySqlRunner sqlRunner = buildSqlRunner();
         try {
             list = sqlRunner.selectAll(clazz, sql, args);
             //若存储过程中有执行update操作，按需传入redisTemplate清空缓存
@@ -63,14 +62,10 @@ public class BaseProcedureExecutor extends BaseExecutor {
         return sqlBuilder.toString();
     }
 
+    /**
+     * 存储过程涉及的表未知，递增全局版本使全部缓存失效
+     */
     private void clearCache() {
-        if (redisTemplate == null) {
-            return;
-        }
-        Set<String> keys = redisTemplate.keys("linked-mybatis:*");
-        if (keys == null) {
-            return;
-        }
-        redisTemplate.delete(keys);
+        invalidateAllCache();
     }
 }
@@ -0,0 +1,98 @@
+package com.kzow3n.jdbcplus.core.executor;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.kzow3n.jdbcplus.core.dialect.Dialect;
+import org.apache.ibatis.session.SqlSession;
+import org.springframework.util.CollectionUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 绑定了参数的查询计划
+ * 默认在执行时使用执行器当前的SqlSession，可通过withSqlSession在调用方的SqlSession（如所在事务）中执行
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class BoundLinkedQuery {
+
+    private final BaseLinkedQueryExecutor executor;
+    private final PreparedLinkedQuery preparedQuery;
+    private final List<Object> args;
+    private final SqlSession sqlSession;
+
+    BoundLinkedQuery(BaseLinkedQueryExecutor executor, PreparedLinkedQuery preparedQuery, List<Object> args) {
+        this(executor, preparedQuery, args, null);
+    }
+
+    private BoundLinkedQuery(BaseLinkedQueryExecutor executor, PreparedLinkedQuery preparedQuery, List<Object> args, SqlSession sqlSession) {
+        this.executor = executor;
+        this.preparedQuery = preparedQuery;
+        this.args = args;
+        this.sqlSession = sqlSession;
+    }
+
+    /**
+     * 在指定的SqlSession中执行，不修改共享的执行器；SqlSession需来自执行器的SqlSessionFactory，由调用方关闭
+     * 分页时异步查询的总数仍使用独立的SqlSession
+     */
+    public BoundLinkedQuery withSqlSession(SqlSession sqlSession) {
+        return new BoundLinkedQuery(executor, preparedQuery, args, sqlSession);
+    }
+
+    public long forCount() {
+        executor.checkExecutorValid();
+        return executor.queryForCount(getSqlSession(), preparedQuery.getCountSql(), args, preparedQuery.getTables(), preparedQuery.getCachePolicy());
+    }
+
+    public List<Map<String, Object>> forMaps() {
+        executor.checkExecutorValid();
+        return executor.queryForMaps(getSqlSession(), preparedQuery.getSql(), args, preparedQuery.getTables(), preparedQuery.getCachePolicy());
+    }
+
+    public Map<String, Object> forMap() {
+        List<Map<String, Object>> mapList = forMaps();
+        if (CollectionUtils.isEmpty(mapList)) {
+            return null;
+        }
+        return mapList.get(0);
+    }
+
+    public <T> List<T> forObjects(Class<T> clazz) {
+        executor.checkExecutorValid();
+        return executor.queryForObjects(clazz, getSqlSession(), preparedQuery.getSql(), args, preparedQuery.getTables(), preparedQuery.getCachePolicy());
+    }
+
+    public <T> T forObject(Class<T> clazz) {
+        List<T> list = forObjects(clazz);
+        if (CollectionUtils.isEmpty(list)) {
+            return null;
+        }
+        return list.get(0);
+    }
+
+    public Page<Map<String, Object>> forMapPage(int pageIndex, int pageSize) {
+        executor.checkExecutorValid();
+        Page<Map<String, Object>> page = new Page<>();
+        return executor.queryForMapPage(getSqlSession(), preparedQuery.getPageCountSql(), preparedQuery::getPageSql, getWindowPageSqlProvider(), args, preparedQuery.getTables(), preparedQuery.getCachePolicy(), page, pageIndex, pageSize);
+    }
+
+    public <T> Page<T> forObjectPage(Class<T> clazz, int pageIndex, int pageSize) {
+        executor.checkExecutorValid();
+        Page<T> page = new Page<>();
+        return executor.queryForObjectPage(clazz, getSqlSession(), preparedQuery.getPageCountSql(), preparedQuery::getPageSql, getWindowPageSqlProvider(), args, preparedQuery.getTables(), preparedQuery.getCachePolicy(), page, pageIndex, pageSize);
+    }
+
+    /**
+     * 未指定时在执行时读取执行器的SqlSession
+     */
+    private SqlSession getSqlSession() {
+        return sqlSession != null ? sqlSession : executor.getSqlSession();
+    }
+
+    private Function<Dialect, String> getWindowPageSqlProvider() {
+        return preparedQuery.isWindowCountPage() ? preparedQuery::getWindowPageSql : null;
+    }
+}
@@ -2,12 +2,15 @@ package com.kzow3n.jdbcplus.core.executor;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import com.kzow3n.jdbcplus.pojo.KeysetPage;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.springframework.util.CollectionUtils;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * 查询执行器
@@ -28,6 +31,13 @@ public class LinkedQueryExecutor extends BaseLinkedQueryExecutor {
         initConfiguration();
     }
 
+    /**
+     * 将查询条件编译为可复用的查询计划，之后每次请求只需绑定参数
+     */
+    public PreparedLinkedQuery prepare(LinkedQueryWrapper linkedQueryWrapper) {
+        return new PreparedLinkedQuery(this, linkedQueryWrapper);
+    }
+
     public long forCount(LinkedQueryWrapper linkedQueryWrapper) {
         return queryForCount(linkedQueryWrapper, true);
     }
@@ -56,6 +66,35 @@ public class LinkedQueryExecutor extends BaseLinkedQueryExecutor {
         return list.stream().findFirst().orElse(null);
     }
 
+    /**
+     * 流式查询，结果逐行读取，使用完毕后需关闭Stream（推荐try-with-resources）
+     */
+    public Stream<Map<String, Object>> forMapStream(LinkedQueryWrapper linkedQueryWrapper) {
+        return queryForMapStream(linkedQueryWrapper);
+    }
+
+    /**
+     * 流式查询并映射为实体类，使用完毕后需关闭Stream（推荐try-with-resources）
+     */
+    public <T> Stream<T> forStream(Class<T> clazz, LinkedQueryWrapper linkedQueryWrapper) {
+        return queryForStream(clazz, linkedQueryWrapper);
+    }
+
+    /**
+     * 逐行处理查询结果，处理完毕或consumer抛出异常后自动释放连接，查询失败时抛出异常
+     */
+    public void forEach(LinkedQueryWrapper linkedQueryWrapper, Consumer<Map<String, Object>> consumer) {
+        try (Stream<Map<String, Object>> stream = queryForMapStream(linkedQueryWrapper)) {
+            stream.forEach(consumer);
+        }
+    }
+
+    public <T> void forEach(Class<T> clazz, LinkedQueryWrapper linkedQueryWrapper, Consumer<T> consumer) {
+        try (Stream<T> stream = queryForStream(clazz, linkedQueryWrapper)) {
+            stream.forEach(consumer);
+        }
+    }
+
     public Page<Map<String, Object>> forMapPage(LinkedQueryWrapper linkedQueryWrapper, int pageIndex, int pageSize) {
         Page<Map<String, Object>> page = new Page<>();
         return queryForMapPage(linkedQueryWrapper, page, pageIndex, pageSize);
@@ -65,4 +104,16 @@ public class LinkedQueryExecutor extends BaseLinkedQueryExecutor {
         Page<T> page = new Page<>();
         return queryForObjectPage(clazz, linkedQueryWrapper, page, pageIndex, pageSize);
     }
+
+    /**
+     * 键集分页，按查询条件的orderBy从游标处继续查询，耗时与翻页深度无关
+     * 排序字段需能唯一确定一行（如以主键结尾）
+     *
+     * 查询失败时抛出异常而不是返回空页，避免被当作已到末尾
+     *
+     * @param cursor 上一页的nextCursor，为null时查询第一页
+     */
+    public <T> KeysetPage<T> forObjectsAfter(Class<T> clazz, LinkedQueryWrapper linkedQueryWrapper, String cursor, int pageSize) {
+        return queryForObjectsAfter(clazz, linkedQueryWrapper, cursor, pageSize);
+    }
 }
@@ -1,9 +1,17 @@
 package com.kzow3n.jdbcplus.core.executor;
 
+import com.kzow3n.jdbcplus.core.cache.CacheAdmission;
+import com.kzow3n.jdbcplus.core.cache.CacheCodec;
+import com.kzow3n.jdbcplus.core.cache.CacheWriter;
+import com.kzow3n.jdbcplus.core.cache.NearCache;
+import com.kzow3n.jdbcplus.core.cache.QueryCache;
+import com.kzow3n.jdbcplus.core.dialect.Dialect;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 
+import java.util.concurrent.Executor;
+
 /**
  * 查询执行器的构造器
  *
@@ -15,9 +23,25 @@ public class LinkedQueryExecutorBuilder {
     private SqlSession sqlSession;
     private final SqlSessionFactory sqlSessionFactory;
     private RedisTemplate<String, Object> redisTemplate;
+    private NearCache nearCache;
+    private QueryCache queryCache;
+    private CacheCodec cacheCodec;
+    private CacheAdmission cacheAdmission;
+    private CacheWriter cacheWriter;
+    private Dialect dialect;
     private boolean cacheable = false;
     private long cacheTimeout = 60L;
+    private boolean cacheKeyIndex = false;
+    private boolean cacheSingleFlight = true;
+    private long cacheLockMillis = 0L;
+    private double cacheTtlJitter = 0D;
+    private long cacheStaleSeconds = 0L;
+    private Executor cacheRefreshExecutor;
+    private Executor pageCountExecutor;
+    private boolean windowCountPage = false;
     private int queryTimeout = 60;
+    private int fetchSize = 1000;
+    private boolean beanRowMapper = false;
 
     public LinkedQueryExecutorBuilder(SqlSessionFactory sqlSessionFactory) {
         this.sqlSessionFactory = sqlSessionFactory;
@@ -33,6 +57,30 @@ public class LinkedQueryExecutorBuilder {
         return this;
     }
 
+    /**
+     * 流式查询每批读取的行数，MySQL固定逐行读取，不受此参数影响
+     */
+    public LinkedQueryExecutorBuilder fetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * 实体类查询使用BeanRowMapper映射结果集，代替MyBatis的反射映射
+     */
+    public LinkedQueryExecutorBuilder beanRowMapper(boolean beanRowMapper) {
+        this.beanRowMapper = beanRowMapper;
+        return this;
+    }
+
+    /**
+     * 指定方言，代替按数据库产品名称选择的内置方言，如低版本数据库或自定义分页语法
+     */
+    public LinkedQueryExecutorBuilder dialect(Dialect dialect) {
+        this.dialect = dialect;
+        return this;
+    }
+
     public LinkedQueryExecutorBuilder cacheable(boolean cacheable) {
         this.cacheable = cacheable;
         return this;
@@ -48,17 +96,156 @@ public class LinkedQueryExecutorBuilder {
         return this;
     }
 
+    /**
+     * 进程内一级缓存，位于Redis缓存之前，应在同一JVM的所有执行器间共享
+     */
+    public LinkedQueryExecutorBuilder nearCache(NearCache nearCache) {
+        this.nearCache = nearCache;
+        return this;
+    }
+
+    /**
+     * 自定义查询缓存，代替默认的Redis缓存
+     */
+    public LinkedQueryExecutorBuilder queryCache(QueryCache queryCache) {
+        this.queryCache = queryCache;
+        return this;
+    }
+
+    /**
+     * Redis缓存值的编解码器，如BinaryResultCodec，不配置时使用redisTemplate的序列化器
+     */
+    public LinkedQueryExecutorBuilder cacheCodec(CacheCodec cacheCodec) {
+        this.cacheCodec = cacheCodec;
+        return this;
+    }
+
+    /**
+     * 缓存准入策略，限制写入缓存的行数、编码后的字节数与最少查询次数，应在所有执行器间共享
+     */
+    public LinkedQueryExecutorBuilder cacheAdmission(CacheAdmission cacheAdmission) {
+        this.cacheAdmission = cacheAdmission;
+        return this;
+    }
+
+    /**
+     * 未命中缓存时异步写入缓存，查询线程不等待Redis，应在所有执行器间共享
+     */
+    public LinkedQueryExecutorBuilder cacheWriter(CacheWriter cacheWriter) {
+        this.cacheWriter = cacheWriter;
+        return this;
+    }
+
+    /**
+     * 缓存键为Sql与参数的哈希值，开启后另外记录哈希值对应的Sql与参数，便于排查
+     */
+    public LinkedQueryExecutorBuilder cacheKeyIndex(boolean cacheKeyIndex) {
+        this.cacheKeyIndex = cacheKeyIndex;
+        return this;
+    }
+
+    /**
+     * 同一JVM内同一缓存键同时只有一个线程查询数据库，其余线程等待其结果，默认开启
+     */
+    public LinkedQueryExecutorBuilder cacheSingleFlight(boolean cacheSingleFlight) {
+        this.cacheSingleFlight = cacheSingleFlight;
+        return this;
+    }
+
+    /**
+     * 未命中缓存时以Redis锁保证多个节点间只有一个节点查询数据库，其余节点最多等待lockMillis毫秒，需配置redisTemplate
+     */
+    public LinkedQueryExecutorBuilder cacheLock(long lockMillis) {
+        this.cacheLockMillis = lockMillis;
+        return this;
+    }
+
+    /**
+     * 过期时间随机增加0到cacheTimeout * jitter秒，如0.1表示最多增加10%
+     */
+    public LinkedQueryExecutorBuilder cacheTtlJitter(double jitter) {
+        this.cacheTtlJitter = jitter;
+        return this;
+    }
+
+    /**
+     * 缓存过期后的staleSeconds秒内仍返回旧数据，同时在后台刷新
+     */
+    public LinkedQueryExecutorBuilder cacheStaleSeconds(long staleSeconds) {
+        this.cacheStaleSeconds = staleSeconds;
+        return this;
+    }
+
+    /**
+     * 后台刷新缓存的线程池，默认为所有执行器共享的守护线程池，最多8个线程、1024个排队任务，队列已满时放弃刷新
+     */
+    public LinkedQueryExecutorBuilder cacheRefreshExecutor(Executor cacheRefreshExecutor) {
+        this.cacheRefreshExecutor = cacheRefreshExecutor;
+        return this;
+    }
+
+    /**
+     * 分页时在该线程池中以独立的SqlSession查询总数，与当前页的查询同时进行，耗时约为两者中较慢的一个
+     * 总数查询不在当前SqlSession的事务中，看不到未提交的写入；JDK 21及以上可传入Executors.newVirtualThreadPerTaskExecutor()
+     */
+    public LinkedQueryExecutorBuilder pageCountExecutor(Executor pageCountExecutor) {
+        this.pageCountExecutor = pageCountExecutor;
+        return this;
+    }
+
+    /**
+     * 分页时以COUNT(1) OVER()列随当前页一并查询总数，只需一条语句；需数据库支持窗口函数，如MySQL 8.0及以上
+     * 开启了缓存或distinct查询时仍分两条语句查询
+     * 数据库需读出全部符合条件的行才能取得总数，省下的是一次网络往返，与数据库之间延迟较低时可能比两条语句更慢（见PagingBenchmark）
+     */
+    public LinkedQueryExecutorBuilder windowCountPage(boolean windowCountPage) {
+        this.windowCountPage = windowCountPage;
+        return this;
+    }
+
     public LinkedQueryExecutor build() {
         LinkedQueryExecutor executor = new LinkedQueryExecutor(sqlSessionFactory);
         if (sqlSession != null) {
             executor.setSqlSession(sqlSession);
         }
         executor.setQueryTimeout(queryTimeout);
+        executor.setFetchSize(fetchSize);
+        executor.setBeanRowMapper(beanRowMapper);
+        if (dialect != null) {
+            executor.setDialect(dialect);
+        }
         executor.setCacheable(cacheable);
         if (redisTemplate != null) {
             executor.setRedisTemplate(redisTemplate);
         }
+        if (nearCache != null) {
+            executor.setNearCache(nearCache);
+        }
+        if (queryCache != null) {
+            executor.setQueryCache(queryCache);
+        }
+        if (cacheCodec != null) {
+            executor.setCacheCodec(cacheCodec);
+        }
+        if (cacheAdmission != null) {
+            executor.setCacheAdmission(cacheAdmission);
+        }
+        if (cacheWriter != null) {
+            executor.setCacheWriter(cacheWriter);
+        }
         executor.setCacheTimeout(cacheTimeout);
+        executor.setCacheKeyIndex(cacheKeyIndex);
+        executor.setCacheSingleFlight(cacheSingleFlight);
+        executor.setCacheLockMillis(cacheLockMillis);
+        executor.setCacheTtlJitter(cacheTtlJitter);
+        executor.setCacheStaleSeconds(cacheStaleSeconds);
+        if (cacheRefreshExecutor != null) {
+            executor.setCacheRefreshExecutor(cacheRefreshExecutor);
+        }
+        if (pageCountExecutor != null) {
+            executor.setPageCountExecutor(pageCountExecutor);
+        }
+        executor.setWindowCountPage(windowCountPage);
         return executor;
     }
 }
@@ -0,0 +1,182 @@
+package com.kzow3n.jdbcplus.core.executor;
+
+import com.kzow3n.jdbcplus.core.cache.CachePolicy;
+import com.kzow3n.jdbcplus.core.dialect.Dialect;
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import com.kzow3n.jdbcplus.pojo.LikeArg;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预编译的查询计划，创建后不可变，可在多线程间共享
+ * 查询Sql、计数Sql和各数据库的分页Sql只生成一次，每次请求只需绑定新的参数
+ * in条件的每个元素各占一个参数位置，元素个数在编译时确定；元素个数不同的in条件需分别编译
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class PreparedLinkedQuery {
+
+    private final BaseLinkedQueryExecutor executor;
+    private final String sql;
+    private final String countSql;
+    private final String pageCountSql;
+    private final String baseSql;
+    private final String windowBaseSql;
+    private final String orderBy;
+    private final List<Object> templateArgs;
+    private final Set<String> tables;
+    private final CachePolicy cachePolicy;
+    private final Class<?>[] slotTypes;
+    private final Map<Dialect, String> pageSqlMap = new ConcurrentHashMap<>();
+    private final Map<Dialect, String> windowPageSqlMap = new ConcurrentHashMap<>();
+
+    PreparedLinkedQuery(BaseLinkedQueryExecutor executor, LinkedQueryWrapper linkedQueryWrapper) {
+        Dialect dialect = executor.formatSql(linkedQueryWrapper);
+        this.executor = executor;
+        this.sql = linkedQueryWrapper.getFullSql();
+        this.countSql = executor.getCountSql(linkedQueryWrapper, true, dialect);
+        this.pageCountSql = executor.getCountSql(linkedQueryWrapper, false, dialect);
+        this.baseSql = linkedQueryWrapper.getBaseSql();
+        this.windowBaseSql = executor.getWindowBaseSql(linkedQueryWrapper, dialect);
+        this.orderBy = linkedQueryWrapper.getOrderBy().toString();
+        this.templateArgs = Collections.unmodifiableList(new ArrayList<>(linkedQueryWrapper.getArgs()));
+        Set<String> dependentTables = linkedQueryWrapper.getDependentTables();
+        this.tables = dependentTables == null ? null : Collections.unmodifiableSet(new LinkedHashSet<>(dependentTables));
+        this.cachePolicy = linkedQueryWrapper.getCachePolicy();
+        this.slotTypes = new Class<?>[templateArgs.size()];
+        for (int i = 0; i < slotTypes.length; i ++) {
+            Object arg = templateArgs.get(i);
+            if (arg instanceof LikeArg) {
+                slotTypes[i] = String.class;
+            }
+            else if (arg != null) {
+                slotTypes[i] = arg.getClass();
+            }
+        }
+    }
+
+    /**
+     * 按顺序绑定参数，参数个数与类型需与编译时的查询条件一致
+     * 整数可绑定到更宽的整数、浮点数或BigDecimal位置（如Integer绑定到Long），float可绑定到double位置，绑定时转换为该位置的类型，使缓存键一致
+     */
+    public BoundLinkedQuery bind(Object... args) {
+        if (args == null || args.length != slotTypes.length) {
+            throw new IllegalArgumentException(String.format("PreparedLinkedQuery requires %d args but %d were given.",
+                    slotTypes.length, args == null ? 0 : args.length));
+        }
+        List<Object> boundArgs = new ArrayList<>(args.length);
+        for (int i = 0; i < args.length; i ++) {
+            Object arg = args[i];
+            if (arg == null) {
+                throw new IllegalArgumentException(String.format("arg %d could not be null.", i));
+            }
+            Class<?> slotType = slotTypes[i];
+            if (slotType != null && !slotType.isInstance(arg)) {
+                Object widenedArg = widen(slotType, arg);
+                if (widenedArg == null) {
+                    throw new IllegalArgumentException(String.format("arg %d requires %s but %s was given.",
+                            i, slotType.getName(), arg.getClass().getName()));
+                }
+                arg = widenedArg;
+            }
+            Object templateArg = templateArgs.get(i);
+            if (templateArg instanceof LikeArg) {
+                arg = ((LikeArg) templateArg).withValue((String) arg);
+            }
+            boundArgs.add(arg);
+        }
+        return new BoundLinkedQuery(executor, this, boundArgs);
+    }
+
+    /**
+     * 无损的数值放宽转换，不可转换时返回null
+     */
+    private static Object widen(Class<?> slotType, Object arg) {
+        boolean blnIntegral = arg instanceof Byte || arg instanceof Short || arg instanceof Integer || arg instanceof Long;
+        if (!blnIntegral && !(arg instanceof Float)) {
+            return null;
+        }
+        Number number = (Number) arg;
+        if (slotType == Long.class && blnIntegral) {
+            return number.longValue();
+        }
+        if (slotType == Integer.class && (arg instanceof Byte || arg instanceof Short)) {
+            return number.intValue();
+        }
+        if (slotType == Short.class && arg instanceof Byte) {
+            return number.shortValue();
+        }
+        if (slotType == Double.class && !(arg instanceof Long)) {
+            return number.doubleValue();
+        }
+        if (slotType == BigDecimal.class && blnIntegral) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return null;
+    }
+
+    /**
+     * 以编译时的参数执行
+     */
+    public BoundLinkedQuery bindTemplateArgs() {
+        return new BoundLinkedQuery(executor, this, templateArgs);
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getCountSql() {
+        return countSql;
+    }
+
+    public String getPageCountSql() {
+        return pageCountSql;
+    }
+
+    public String getPageSql(Dialect dialect) {
+        return pageSqlMap.computeIfAbsent(dialect, k -> executor.getPageSql(baseSql, orderBy, k));
+    }
+
+    /**
+     * 是否可以窗口函数总数列单条语句分页
+     */
+    boolean isWindowCountPage() {
+        return windowBaseSql != null;
+    }
+
+    /**
+     * 带窗口函数总数列的分页Sql，执行器未开启windowCountPage或查询不支持时返回null
+     */
+    public String getWindowPageSql(Dialect dialect) {
+        if (windowBaseSql == null) {
+            return null;
+        }
+        return windowPageSqlMap.computeIfAbsent(dialect, k -> executor.getPageSql(windowBaseSql, orderBy, k));
+    }
+
+    /**
+     * 查询依赖的表，为null时表示未知
+     */
+    public Set<String> getTables() {
+        return tables;
+    }
+
+    /**
+     * 编译时查询条件上的缓存策略，为null时按执行器的cacheable
+     */
+    public CachePolicy getCachePolicy() {
+        return cachePolicy;
+    }
+
+    public int getSlotCount() {
+        return slotTypes.length;
+    }
+
+    public Class<?>[] getSlotTypes() {
+        return slotTypes.clone();
+    }
+}
@@ -1,5 +1,6 @@
 package com.kzow3n.jdbcplus.core.executor;
 
+import com.kzow3n.jdbcplus.core.cache.NearCache;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -15,6 +16,7 @@ public class ProcedureExecutorBuilder {
     private SqlSession sqlSession;
     private final SqlSessionFactory sqlSessionFactory;
     private RedisTemplate<String, Object> redisTemplate;
+    private NearCache nearCache;
     private int queryTimeout = 60;
 
     public ProcedureExecutorBuilder(SqlSessionFactory sqlSessionFactory) {
@@ -36,6 +38,14 @@ public class ProcedureExecutorBuilder {
         return this;
     }
 
+    /**
+     * 清除缓存时同时清除进程内一级缓存
+     */
+    public ProcedureExecutorBuilder nearCache(NearCache nearCache) {
+        this.nearCache = nearCache;
+        return this;
+    }
+
     public ProcedureExecutor build() {
         ProcedureExecutor executor = new ProcedureExecutor(sqlSessionFactory);
         if (sqlSession != null) {
@@ -45,6 +55,9 @@ public class ProcedureExecutorBuilder {
         if (redisTemplate != null) {
             executor.setRedisTemplate(redisTemplate);
         }
+        if (nearCache != null) {
+            executor.setNearCache(nearCache);
+        }
         return executor;
     }
 }
@@ -0,0 +1,192 @@
+package com.kzow3n.jdbcplus.core.jdbc;
+
+import com.kzow3n.jdbcplus.pojo.EntityMeta;
+import com.kzow3n.jdbcplus.utils.EntityMetaUtils;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 实体类行映射器，按(实体类, 结果集列)生成一次，之后每行只做按下标的类型化读取与MethodHandle赋值
+ * 列与属性的对应规则：属性名（忽略大小写）、@TableField/@TableId指定的字段名、开启下划线转驼峰时去掉下划线后的属性名
+ * 与MyBatis一致，值为null时不调用setter，整行都为null时返回null
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class BeanRowMapper<T> {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private final MethodHandle constructor;
+    private final ColumnMapping[] columnMappings;
+
+    private BeanRowMapper(MethodHandle constructor, ColumnMapping[] columnMappings) {
+        this.constructor = constructor;
+        this.columnMappings = columnMappings;
+    }
+
+    /**
+     * 生成行映射器，无法生成时（如没有无参构造方法）返回null，由调用方改用MyBatis映射
+     */
+    static <T> BeanRowMapper<T> build(Class<T> type, String[] columnLabels, TypeHandlerRegistry typeHandlerRegistry,
+                                      boolean mapUnderscoreToCamelCase) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle constructor;
+        try {
+            Constructor<T> declaredConstructor = type.getDeclaredConstructor();
+            declaredConstructor.setAccessible(true);
+            constructor = lookup.unreflectConstructor(declaredConstructor).asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+        EntityMeta entityMeta = EntityMetaUtils.getEntityMeta(type);
+        Map<String, Field> fieldNameMap = new HashMap<>();
+        Map<String, Field> columnMap = new HashMap<>();
+        List<Field> fields = entityMeta.getFields();
+        List<String> columns = entityMeta.getColumns(mapUnderscoreToCamelCase);
+        for (int i = 0; i < fields.size(); i ++) {
+            Field field = fields.get(i);
+            String key = field.getName().toUpperCase(Locale.ENGLISH);
+            fieldNameMap.putIfAbsent(key, field);
+            columnMap.putIfAbsent(columns.get(i).toUpperCase(Locale.ENGLISH), field);
+        }
+        Map<String, ColumnMapping> mappings = new LinkedHashMap<>();
+        for (int i = 0; i < columnLabels.length; i ++) {
+            String label = columnLabels[i].toUpperCase(Locale.ENGLISH);
+            Field field = fieldNameMap.get(label);
+            if (field == null) {
+                field = columnMap.get(label);
+            }
+            if (field == null && mapUnderscoreToCamelCase) {
+                field = fieldNameMap.get(label.replace("_", ""));
+            }
+            if (field == null) {
+                continue;
+            }
+            MethodHandle setter = findSetter(lookup, type, field);
+            if (setter == null) {
+                continue;
+            }
+            ColumnReader reader = getColumnReader(field.getType(), typeHandlerRegistry);
+            if (reader == null) {
+                continue;
+            }
+            //多列对应同一属性时以最后一列为准，与MyBatis自动映射一致
+            mappings.put(field.getName(), new ColumnMapping(i + 1, reader, setter));
+        }
+        return new BeanRowMapper<>(constructor, mappings.values().toArray(new ColumnMapping[0]));
+    }
+
+    @SuppressWarnings("unchecked")
+    public T map(ResultSet rs) throws SQLException {
+        Object bean;
+        try {
+            bean = constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new SQLException("Could not instantiate row object.", e);
+        }
+        boolean blnFoundValue = false;
+        for (ColumnMapping columnMapping : columnMappings) {
+            Object value = columnMapping.reader.read(rs, columnMapping.columnIndex);
+            if (value == null) {
+                continue;
+            }
+            blnFoundValue = true;
+            try {
+                columnMapping.setter.invokeExact(bean, value);
+            } catch (Throwable e) {
+                throw new SQLException("Could not set property for column " + columnMapping.columnIndex + ".", e);
+            }
+        }
+        return blnFoundValue ? (T) bean : null;
+    }
+
+    private static MethodHandle findSetter(MethodHandles.Lookup lookup, Class<?> type, Field field) {
+        String name = field.getName();
+        String setterName = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        try {
+            Method method = type.getMethod(setterName, field.getType());
+            method.setAccessible(true);
+            return lookup.unreflect(method).asType(SETTER_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException ignored) {
+        }
+        if (Modifier.isFinal(field.getModifiers())) {
+            return null;
+        }
+        try {
+            field.setAccessible(true);
+            return lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (RuntimeException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static ColumnReader getColumnReader(Class<?> type, TypeHandlerRegistry typeHandlerRegistry) {
+        if (type == String.class) {
+            return ResultSet::getString;
+        }
+        if (type == Long.class || type == long.class) {
+            return (rs, i) -> {
+                long value = rs.getLong(i);
+                return rs.wasNull() ? null : value;
+            };
+        }
+        if (type == Integer.class || type == int.class) {
+            return (rs, i) -> {
+                int value = rs.getInt(i);
+                return rs.wasNull() ? null : value;
+            };
+        }
+        if (type == Double.class || type == double.class) {
+            return (rs, i) -> {
+                double value = rs.getDouble(i);
+                return rs.wasNull() ? null : value;
+            };
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return (rs, i) -> {
+                boolean value = rs.getBoolean(i);
+                return rs.wasNull() ? null : value;
+            };
+        }
+        if (type == BigDecimal.class) {
+            return ResultSet::getBigDecimal;
+        }
+        //其余类型交给MyBatis的TypeHandler按下标读取
+        TypeHandler<?> typeHandler = typeHandlerRegistry.getTypeHandler(type);
+        if (typeHandler == null) {
+            return null;
+        }
+        return typeHandler::getResult;
+    }
+
+    @FunctionalInterface
+    private interface ColumnReader {
+        Object read(ResultSet rs, int columnIndex) throws SQLException;
+    }
+
+    private static final class ColumnMapping {
+        private final int columnIndex;
+        private final ColumnReader reader;
+        private final MethodHandle setter;
+
+        ColumnMapping(int columnIndex, ColumnReader reader, MethodHandle setter) {
+            this.columnIndex = columnIndex;
+            this.reader = reader;
+            this.setter = setter;
+        }
+    }
+}
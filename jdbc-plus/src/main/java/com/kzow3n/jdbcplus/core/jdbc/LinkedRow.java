@@ -0,0 +1,241 @@
+package com.kzow3n.jdbcplus.core.jdbc;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 紧凑的行数据，同一结果集的所有行共享列名索引，每行只保存一个Object[]
+ * 只读访问不产生额外对象，发生put、remove等结构性修改时才转为LinkedHashMap
+ * 序列化时以LinkedHashMap写出，缓存中的数据不依赖本类
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class LinkedRow extends AbstractMap<String, Object> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ColumnIndex columnIndex;
+    private final transient Object[] values;
+    private transient Map<String, Object> inflated;
+    private transient Set<Entry<String, Object>> entrySet;
+
+    LinkedRow(ColumnIndex columnIndex, Object[] values) {
+        this.columnIndex = columnIndex;
+        this.values = values;
+    }
+
+    /**
+     * 按列名生成一组共享列名索引的行，values的顺序与列名一致，用于缓存解码
+     */
+    public static Function<Object[], Map<String, Object>> rowFactory(List<String> columnLabels) {
+        ColumnIndex columnIndex = new ColumnIndex(columnLabels);
+        if (columnIndex.size() != columnLabels.size()) {
+            throw new IllegalArgumentException("column labels could not be duplicated.");
+        }
+        return values -> new LinkedRow(columnIndex, values);
+    }
+
+    @Override
+    public int size() {
+        return inflated != null ? inflated.size() : values.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return inflated != null ? inflated.containsKey(key) : columnIndex.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (inflated != null) {
+            return inflated.get(key);
+        }
+        int index = columnIndex.indexOf(key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (inflated == null) {
+            int index = columnIndex.indexOf(key);
+            //覆盖已有列不改变结构，直接写入数组
+            if (index >= 0) {
+                Object oldValue = values[index];
+                values[index] = value;
+                return oldValue;
+            }
+        }
+        return inflate().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (inflated == null && columnIndex.indexOf(key) < 0) {
+            return null;
+        }
+        return inflate().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        inflate().clear();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (inflated != null) {
+            return inflated.entrySet();
+        }
+        if (entrySet == null) {
+            entrySet = new RowEntrySet();
+        }
+        return entrySet;
+    }
+
+    private Map<String, Object> inflate() {
+        if (inflated == null) {
+            Map<String, Object> map = new LinkedHashMap<>(values.length * 4 / 3 + 1);
+            String[] labels = columnIndex.labels;
+            for (int i = 0; i < labels.length; i ++) {
+                map.put(labels[i], values[i]);
+            }
+            inflated = map;
+            entrySet = null;
+        }
+        return inflated;
+    }
+
+    private Object writeReplace() {
+        return new LinkedHashMap<>(this);
+    }
+
+    private class RowEntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public int size() {
+            return LinkedRow.this.size();
+        }
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            if (inflated != null) {
+                return inflated.entrySet().iterator();
+            }
+            return new Iterator<Entry<String, Object>>() {
+                private int index = 0;
+                private int lastIndex = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return index < values.length;
+                }
+
+                @Override
+                public Entry<String, Object> next() {
+                    if (index >= values.length) {
+                        throw new NoSuchElementException();
+                    }
+                    lastIndex = index ++;
+                    return new RowEntry(lastIndex);
+                }
+
+                @Override
+                public void remove() {
+                    if (lastIndex < 0) {
+                        throw new IllegalStateException();
+                    }
+                    inflate().remove(columnIndex.labels[lastIndex]);
+                    lastIndex = -1;
+                }
+            };
+        }
+    }
+
+    private class RowEntry implements Entry<String, Object> {
+        private final int index;
+
+        RowEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return columnIndex.labels[index];
+        }
+
+        @Override
+        public Object getValue() {
+            return inflated != null ? inflated.get(getKey()) : values[index];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return put(getKey(), value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * 结果集的列名索引，同一结果集的所有行共享
+     * 列名重复时（如连表查询的a.id与b.id）取第一列，与按列名读取结果集时驱动返回第一个匹配列一致
+     */
+    static final class ColumnIndex {
+        private final String[] labels;
+        private final int[] columnSlots;
+        private final Map<String, Integer> slotMap;
+
+        ColumnIndex(List<String> columnLabels) {
+            Map<String, Integer> map = new HashMap<>(columnLabels.size() * 4 / 3 + 1);
+            List<String> labelList = new ArrayList<>(columnLabels.size());
+            columnSlots = new int[columnLabels.size()];
+            for (int i = 0; i < columnLabels.size(); i ++) {
+                String label = columnLabels.get(i);
+                if (map.containsKey(label)) {
+                    columnSlots[i] = -1;
+                    continue;
+                }
+                columnSlots[i] = labelList.size();
+                map.put(label, labelList.size());
+                labelList.add(label);
+            }
+            labels = labelList.toArray(new String[0]);
+            slotMap = map;
+        }
+
+        int indexOf(Object label) {
+            Integer slot = slotMap.get(label);
+            return slot == null ? -1 : slot;
+        }
+
+        /**
+         * 结果集第column列（从0开始）对应的存储位置，与前面的列重名时返回-1
+         */
+        int slotOf(int column) {
+            return columnSlots[column];
+        }
+
+        int size() {
+            return labels.length;
+        }
+    }
+}
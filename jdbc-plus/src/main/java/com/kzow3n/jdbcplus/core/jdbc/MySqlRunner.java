@@ -1,18 +1,23 @@
 package com.kzow3n.jdbcplus.core.jdbc;
 
-import com.baomidou.mybatisplus.annotation.DbType;
+import com.kzow3n.jdbcplus.core.dialect.Dialect;
+import com.kzow3n.jdbcplus.pojo.LikeArg;
+import com.kzow3n.jdbcplus.utils.DialectUtils;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
-import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.executor.resultset.ResultSetWrapper;
 import org.apache.ibatis.jdbc.Null;
 import org.apache.ibatis.mapping.*;
 import org.apache.ibatis.session.*;
 import org.apache.ibatis.type.TypeHandler;
-import org.apache.ibatis.type.TypeHandlerRegistry;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.*;
 import java.util.*;
+import java.util.function.LongConsumer;
 
 /**
  * 自定义SqlRunner
@@ -22,68 +27,110 @@ import java.util.*;
  */
 @Slf4j
 public class MySqlRunner {
-    private SqlSession sqlSession;
-    private final SqlSessionFactory sqlSessionFactory;
-    private Configuration configuration;
-    private final TypeHandlerRegistry typeHandlerRegistry;
+    private final SqlSession sqlSession;
+    private final SqlRunnerContext context;
+    private final Configuration configuration;
     private int queryTimeout = 60;
-    private DbTypeEnum dbTypeEnum = DbTypeEnum.DEFAULT;
-    private boolean blnOwnSqlSession = false;
+    private Dialect dialect;
+    private SqlSession ownSqlSession;
+    private boolean blnBeanRowMapper = false;
 
     public MySqlRunner(SqlSessionFactory sqlSessionFactory, SqlSession sqlSession) {
-        this.sqlSessionFactory = sqlSessionFactory;
-        this.sqlSession = sqlSession;
-        this.typeHandlerRegistry = new TypeHandlerRegistry();
-        try {
-            initSqlSession();
-        } catch (SQLException sqlException) {
-            log.error(sqlException.getMessage());
-        }
+        this(SqlRunnerContext.of(sqlSessionFactory), sqlSession, 60);
     }
 
     public MySqlRunner(SqlSessionFactory sqlSessionFactory, SqlSession sqlSession, int queryTimeout) {
-        this.sqlSessionFactory = sqlSessionFactory;
+        this(SqlRunnerContext.of(sqlSessionFactory), sqlSession, queryTimeout);
+    }
+
+    /**
+     * 创建时不获取连接，执行语句时才获取
+     *
+     * @param sqlSession 为null或连接已关闭时，每条语句自行打开SqlSession，执行完后关闭
+     */
+    public MySqlRunner(SqlRunnerContext context, SqlSession sqlSession, int queryTimeout) {
+        this.context = context;
+        this.configuration = context.getConfiguration();
         this.sqlSession = sqlSession;
         this.queryTimeout = queryTimeout;
-        this.typeHandlerRegistry = new TypeHandlerRegistry();
-        try {
-            initSqlSession();
-        } catch (SQLException sqlException) {
-            log.error(sqlException.getMessage());
-        }
     }
 
-    private void initSqlSession() throws SQLException {
-        if (sqlSession == null) {
-            this.sqlSession = sqlSessionFactory.openSession();
-            blnOwnSqlSession = true;
-        }
-        else {
-            Connection connection = this.sqlSession.getConnection();
-            if (connection.isClosed()) {
-                this.sqlSession = sqlSessionFactory.openSession();
-                blnOwnSqlSession = true;
+    /**
+     * 获取执行语句的连接，传入的SqlSession不可用时自行打开
+     */
+    private Connection openConnection() throws SQLException {
+        if (sqlSession != null) {
+            Connection connection = sqlSession.getConnection();
+            if (!connection.isClosed()) {
+                return connection;
             }
         }
-        configuration = this.sqlSession.getConfiguration();
-        DatabaseMetaData md = this.sqlSession.getConnection().getMetaData();
-        String dbType = md.getDatabaseProductName().toLowerCase();
-        if (dbType.contains("dm")) {
-            dbTypeEnum = DbTypeEnum.DM;
+        SqlSessionFactory sqlSessionFactory = context.getSqlSessionFactory();
+        if (sqlSessionFactory == null) {
+            throw new IllegalStateException("sqlSessionFactory has been garbage collected.");
         }
-        else if (dbType.contains("sqlserver")) {
-            dbTypeEnum = DbTypeEnum.SQL_SERVER;
+        ownSqlSession = sqlSessionFactory.openSession();
+        try {
+            return ownSqlSession.getConnection();
+        } catch (RuntimeException e) {
+            close();
+            throw e;
         }
-        else if (dbType.contains("postgresql")) {
-            dbTypeEnum = DbTypeEnum.POSTGRE_SQL;
+    }
+
+    /**
+     * 语句执行完后关闭自行打开的SqlSession，传入的SqlSession由调用方管理
+     */
+    private void releaseConnection(Connection connection) {
+        if (ownSqlSession == null) {
+            return;
         }
-        else if (dbType.contains("oracle")) {
-            dbTypeEnum = DbTypeEnum.ORACLE;
+        try {
+            connection.close();
+        } catch (SQLException sqlException) {
+            log.error(sqlException.getMessage());
         }
+        close();
     }
 
     public DbTypeEnum getDbTypeEnum() {
-        return dbTypeEnum;
+        return context.getDbTypeEnum();
+    }
+
+    /**
+     * 未指定方言时按数据库类型选择，数据库类型每个数据源只探测一次
+     */
+    public Dialect getDialect() {
+        return dialect != null ? dialect : DialectUtils.getDialect(getDbTypeEnum());
+    }
+
+    private Dialect getDialect(Connection connection) {
+        return dialect != null ? dialect : context.getDialect(connection);
+    }
+
+    /**
+     * 指定方言，代替按数据库类型选择的内置方言
+     */
+    public void setDialect(Dialect dialect) {
+        this.dialect = dialect;
+    }
+
+    /**
+     * 关闭自行打开且尚未关闭的SqlSession，语句执行完或游标关闭时已自动关闭，可重复调用
+     */
+    public void close() {
+        SqlSession session = ownSqlSession;
+        if (session != null) {
+            ownSqlSession = null;
+            session.close();
+        }
+    }
+
+    /**
+     * 实体类查询是否使用BeanRowMapper代替MyBatis的结果集映射
+     */
+    public void setBeanRowMapper(boolean blnBeanRowMapper) {
+        this.blnBeanRowMapper = blnBeanRowMapper;
     }
 
     public Map<String, Object> selectOne(String sql, Object... args) throws SQLException {
@@ -96,115 +143,362 @@ public class MySqlRunner {
     }
 
     public List<Map<String, Object>> selectAll(String sql, Object... args) throws SQLException {
-        List<Map<String, Object>> result;
-        Connection connection = sqlSession.getConnection();
-        PreparedStatement ps = connection.prepareStatement(sql);
-        ps.setQueryTimeout(queryTimeout);
-        try {
+        return executeQuery(sql, args, (ps, rs) -> getResults(rs));
+    }
+
+    public <T> List<T> selectAll(Class<T> type, String sql, Object... args) throws SQLException {
+        return executeQuery(sql, args, (ps, rs) -> {
+            BeanRowMapper<T> beanRowMapper = getBeanRowMapper(type, rs.getMetaData());
+            if (beanRowMapper != null) {
+                List<T> result = new ArrayList<>();
+                while (rs.next()) {
+                    result.add(beanRowMapper.map(rs));
+                }
+                return result;
+            }
+            SqlRunnerContext.RowMapperKey autoMappingKey = context.getAutoMappingKey(type, rs.getMetaData());
+            DefaultResultSetHandler resultSetHandler = context.newResultSetHandler(type, autoMappingKey);
+            List<T> result = (List<T>) resultSetHandler.handleResultSets(ps);
+            context.saveAutoMappings(autoMappingKey, resultSetHandler);
+            return result;
+        });
+    }
+
+    /**
+     * 分页查询，结果集的最后一列为总数（如COUNT(1) OVER()），读取第一行的总数后该列不参与映射
+     *
+     * @param totalConsumer 接收总数，结果为空时不调用
+     */
+    public List<Map<String, Object>> selectPage(String sql, LongConsumer totalConsumer, Object... args) throws SQLException {
+        return executeQuery(sql, args, (ps, rs) -> {
+            int totalIndex = rs.getMetaData().getColumnCount();
+            RowReader rowReader = new RowReader(rs, totalIndex - 1);
+            List<Map<String, Object>> result = new ArrayList<>();
+            while (rs.next()) {
+                if (result.isEmpty()) {
+                    totalConsumer.accept(rs.getLong(totalIndex));
+                }
+                result.add(rowReader.read(rs));
+            }
+            return result;
+        });
+    }
+
+    public <T> List<T> selectPage(Class<T> type, String sql, LongConsumer totalConsumer, Object... args) throws SQLException {
+        boolean[] blnFirst = {true};
+        return selectHidden(type, sql, 1, (rs, hiddenIndex) -> {
+            if (blnFirst[0]) {
+                blnFirst[0] = false;
+                totalConsumer.accept(rs.getLong(hiddenIndex));
+            }
+        }, args);
+    }
+
+    /**
+     * 查询并映射为实体类，结果集的最后hiddenCount列不参与映射，每行映射前交给hiddenReader读取
+     */
+    public <T> List<T> selectHidden(Class<T> type, String sql, int hiddenCount, HiddenColumnReader hiddenReader, Object... args) throws SQLException {
+        return executeQuery(sql, args, (ps, rs) -> {
+            int hiddenIndex = rs.getMetaData().getColumnCount() - hiddenCount + 1;
+            ResultSetMetaData visibleMetaData = hideLastColumns(rs.getMetaData(), hiddenCount);
+            List<T> result = new ArrayList<>();
+            BeanRowMapper<T> beanRowMapper = getBeanRowMapper(type, visibleMetaData);
+            if (beanRowMapper != null) {
+                while (rs.next()) {
+                    hiddenReader.read(rs, hiddenIndex);
+                    result.add(beanRowMapper.map(rs));
+                }
+                return result;
+            }
+            //MyBatis按元数据中的列映射，隐藏的列对其不可见
+            ResultSet visibleRs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, methodArgs) -> "getMetaData".equals(method.getName()) ? visibleMetaData : invoke(rs, method, methodArgs));
+            ResultMap resultMap = context.getMappedStatement(type).getResultMaps().get(0);
+            SqlRunnerContext.RowMapperKey autoMappingKey = context.getAutoMappingKey(type, visibleMetaData);
+            DefaultResultSetHandler resultSetHandler = context.newResultSetHandler(type, autoMappingKey);
+            resultSetHandler.handleRowValues(new ResultSetWrapper(visibleRs, configuration), resultMap, resultContext -> {
+                try {
+                    hiddenReader.read(rs, hiddenIndex);
+                } catch (SQLException sqlException) {
+                    throw new RuntimeException(sqlException);
+                }
+                result.add(type.cast(resultContext.getResultObject()));
+            }, RowBounds.DEFAULT, null);
+            context.saveAutoMappings(autoMappingKey, resultSetHandler);
+            return result;
+        });
+    }
+
+    private <R> R executeQuery(String sql, Object[] args, ResultExtractor<R> extractor) throws SQLException {
+        Connection connection = openConnection();
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setQueryTimeout(queryTimeout);
             this.setParameters(ps, args);
             ResultSet rs = ps.executeQuery();
-            result = this.getResults(rs);
+            return extractor.extract(ps, rs);
         }
         finally {
-            try {
-                if (blnOwnSqlSession) {
-                    connection.close();
-                    sqlSession.close();
-                }
-                ps.close();
-            } catch (SQLException ignored) {
-            }
+            releaseConnection(connection);
         }
-        return result;
     }
 
-    public <T> List<T> selectAll(Class<T> type, String sql, Object... args) throws SQLException {
-        List<T> result;
-        Connection connection = sqlSession.getConnection();
-        PreparedStatement ps = connection.prepareStatement(sql);
-        ps.setQueryTimeout(queryTimeout);
+    /**
+     * 去掉最后count列的结果集元数据
+     */
+    private static ResultSetMetaData hideLastColumns(ResultSetMetaData rsmd, int count) throws SQLException {
+        int columnCount = rsmd.getColumnCount() - count;
+        return (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(), new Class<?>[]{ResultSetMetaData.class},
+                (proxy, method, methodArgs) -> "getColumnCount".equals(method.getName()) ? columnCount : invoke(rsmd, method, methodArgs));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
         try {
-            this.setParameters(ps, args);
-            ps.executeQuery();
-            DefaultResultSetHandler resultSetHandler = getResultSetHandler(type);
-            result = (List<T>) resultSetHandler.handleResultSets(ps);
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
         }
-        finally {
-            try {
-                if (blnOwnSqlSession) {
-                    connection.close();
-                    sqlSession.close();
+    }
+
+    /**
+     * 以游标方式查询，结果逐行读取，不会一次性加载到内存
+     */
+    public ResultCursor<Map<String, Object>> selectCursor(String sql, int fetchSize, Object... args) throws SQLException {
+        return openCursor(sql, fetchSize, args, (ps, rs) -> new RowIterator<>(rs, new RowReader(rs)::read));
+    }
+
+    /**
+     * 以游标方式查询并映射为实体类
+     */
+    public <T> ResultCursor<T> selectCursor(Class<T> type, String sql, int fetchSize, Object... args) throws SQLException {
+        return openCursor(sql, fetchSize, args, (ps, rs) -> {
+            BeanRowMapper<T> beanRowMapper = getBeanRowMapper(type, rs.getMetaData());
+            if (beanRowMapper != null) {
+                return new RowIterator<>(rs, beanRowMapper::map);
+            }
+            SqlRunnerContext.RowMapperKey autoMappingKey = context.getAutoMappingKey(type, rs.getMetaData());
+            DefaultResultSetHandler resultSetHandler = context.newResultSetHandler(type, autoMappingKey);
+            Cursor<T> cursor = resultSetHandler.handleCursorResultSets(ps);
+            Iterator<T> iterator = cursor.iterator();
+            //游标读取第一行时才解析自动映射
+            return new Iterator<T>() {
+                private boolean blnSaved = false;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    T value = iterator.next();
+                    if (!blnSaved) {
+                        blnSaved = true;
+                        context.saveAutoMappings(autoMappingKey, resultSetHandler);
+                    }
+                    return value;
                 }
+            };
+        });
+    }
+
+    private <T> ResultCursor<T> openCursor(String sql, int fetchSize, Object[] args, CursorOpener<T> opener) throws SQLException {
+        Connection connection = openConnection();
+        boolean blnResetAutoCommit = false;
+        PreparedStatement ps = null;
+        try {
+            DbTypeEnum dbTypeEnum = context.getDbTypeEnum(connection);
+            ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setQueryTimeout(queryTimeout);
+            if (dbTypeEnum == DbTypeEnum.POSTGRE_SQL) {
+                //PostgreSQL只有在事务内才会按fetchSize分批读取
+                if (connection.getAutoCommit()) {
+                    connection.setAutoCommit(false);
+                    blnResetAutoCommit = true;
+                }
+                ps.setFetchSize(fetchSize);
+            }
+            else if (dbTypeEnum == DbTypeEnum.DEFAULT && context.isMySql(connection)) {
+                //MySQL驱动只有fetchSize为Integer.MIN_VALUE时才逐行读取
+                ps.setFetchSize(Integer.MIN_VALUE);
+            }
+            else if (fetchSize > 0) {
+                ps.setFetchSize(fetchSize);
+            }
+            this.setParameters(ps, args);
+            ResultSet rs = ps.executeQuery();
+            Iterator<T> iterator = opener.open(ps, rs);
+            PreparedStatement statement = ps;
+            boolean blnAutoCommit = blnResetAutoCommit;
+            return new ResultCursor<>(iterator, () -> closeCursor(connection, statement, blnAutoCommit));
+        } catch (SQLException | RuntimeException e) {
+            closeCursor(connection, ps, blnResetAutoCommit);
+            throw e;
+        }
+    }
+
+    private void closeCursor(Connection connection, PreparedStatement ps, boolean blnResetAutoCommit) {
+        try {
+            if (ps != null) {
                 ps.close();
-            } catch (SQLException ignored) {
             }
+            if (blnResetAutoCommit) {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException sqlException) {
+            log.error(sqlException.getMessage());
         }
-        return result;
+        releaseConnection(connection);
     }
 
     private void setParameters(PreparedStatement ps, Object... args) throws SQLException {
         int i = 0;
 
         for(int n = args.length; i < n; ++i) {
-            if (args[i] == null) {
+            Object arg = args[i];
+            if (arg == null) {
                 throw new SQLException("SqlRunner requires an instance of Null to represent typed null values for JDBC compatibility");
             }
 
-            if (args[i] instanceof Null) {
-                ((Null)args[i]).getTypeHandler().setParameter(ps, i + 1, null, ((Null)args[i]).getJdbcType());
+            if (arg instanceof Null) {
+                ((Null)arg).getTypeHandler().setParameter(ps, i + 1, null, ((Null)arg).getJdbcType());
             } else {
-                TypeHandler typeHandler = this.typeHandlerRegistry.getTypeHandler(args[i].getClass());
+                if (arg instanceof LikeArg) {
+                    arg = getDialect(ps.getConnection()).toLikePattern((LikeArg) arg);
+                }
+                TypeHandler typeHandler = context.getTypeHandler(arg.getClass());
                 if (typeHandler == null) {
-                    throw new SQLException("SqlRunner could not find a TypeHandler instance for " + args[i].getClass());
+                    throw new SQLException("SqlRunner could not find a TypeHandler instance for " + arg.getClass());
                 }
 
-                typeHandler.setParameter(ps, i + 1, args[i], null);
+                typeHandler.setParameter(ps, i + 1, arg, null);
             }
         }
     }
 
+    /**
+     * 读取结果集中不参与映射的列
+     */
+    @FunctionalInterface
+    public interface HiddenColumnReader {
+        /**
+         * @param hiddenIndex 第一个隐藏列的下标（从1开始）
+         */
+        void read(ResultSet rs, int hiddenIndex) throws SQLException;
+    }
+
+    private interface ResultExtractor<R> {
+        R extract(PreparedStatement ps, ResultSet rs) throws SQLException;
+    }
+
     private List<Map<String, Object>> getResults(ResultSet rs) throws SQLException {
         List<Map<String, Object>> list = new ArrayList<>();
-        List<String> columns = new ArrayList<>();
-        List<TypeHandler<?>> typeHandlers = new ArrayList<>();
-        ResultSetMetaData rsmd = rs.getMetaData();
-        for (int i = 0, n = rsmd.getColumnCount(); i < n; i++) {
-            columns.add(rsmd.getColumnLabel(i + 1));
-            try {
-                Class<?> type = Resources.classForName(rsmd.getColumnClassName(i + 1));
-                TypeHandler<?> typeHandler = typeHandlerRegistry.getTypeHandler(type);
-                if (typeHandler == null) {
-                    typeHandler = typeHandlerRegistry.getTypeHandler(Object.class);
-                }
-                typeHandlers.add(typeHandler);
-            } catch (Exception e) {
-                typeHandlers.add(typeHandlerRegistry.getTypeHandler(Object.class));
+        RowReader rowReader = new RowReader(rs);
+        while (rs.next()) {
+            list.add(rowReader.read(rs));
+        }
+        return list;
+    }
+
+    private interface CursorOpener<T> {
+        Iterator<T> open(PreparedStatement ps, ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * 按列下标读取一行数据，列名索引与TypeHandler只解析一次，所有行共享
+     */
+    private class RowReader {
+        private final LinkedRow.ColumnIndex columnIndex;
+        private final TypeHandler<?>[] typeHandlers;
+
+        RowReader(ResultSet rs) throws SQLException {
+            this(rs, rs.getMetaData().getColumnCount());
+        }
+
+        /**
+         * 只读取前columnCount列
+         */
+        RowReader(ResultSet rs, int columnCount) throws SQLException {
+            ResultSetMetaData rsmd = rs.getMetaData();
+            List<String> columns = new ArrayList<>(columnCount);
+            typeHandlers = new TypeHandler<?>[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                columns.add(rsmd.getColumnLabel(i + 1));
+                typeHandlers[i] = context.getColumnTypeHandler(rsmd.getColumnClassName(i + 1));
             }
+            columnIndex = new LinkedRow.ColumnIndex(columns);
         }
-        while (rs.next()) {
-            Map<String, Object> row = new HashMap<>();
-            for (int i = 0, n = columns.size(); i < n; i++) {
-                String name = columns.get(i);
-                TypeHandler<?> handler = typeHandlers.get(i);
-                row.put(name, handler.getResult(rs, name));
+
+        Map<String, Object> read(ResultSet rs) throws SQLException {
+            Object[] values = new Object[columnIndex.size()];
+            for (int i = 0; i < typeHandlers.length; i++) {
+                int slot = columnIndex.slotOf(i);
+                if (slot >= 0) {
+                    values[slot] = typeHandlers[i].getResult(rs, i + 1);
+                }
             }
-            list.add(row);
+            return new LinkedRow(columnIndex, values);
         }
-        return list;
     }
 
-    private DefaultResultSetHandler getResultSetHandler(Class<?> type) {
-        final MappedStatement ms = getMappedStatement(type);
-        final RowBounds rowBounds = new RowBounds();
-        return new DefaultResultSetHandler(null, ms, null, null, null, rowBounds);
+    private interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
     }
 
-    private MappedStatement getMappedStatement(Class<?> type) {
-        return new MappedStatement.Builder(configuration, "linkedSelect", new StaticSqlSource(configuration, "some select statement"), SqlCommandType.SELECT).resultMaps(
-            new ArrayList<ResultMap>() {
-                {
-                    add(new ResultMap.Builder(configuration, "linkedMap", type, new ArrayList<>()).build());
+    /**
+     * 游标方式逐行读取
+     */
+    private static class RowIterator<T> implements Iterator<T> {
+        private final ResultSet rs;
+        private final RowMapper<T> rowMapper;
+        private T nextRow;
+        private boolean blnFetched = false;
+        private boolean blnEnd = false;
+
+        RowIterator(ResultSet rs, RowMapper<T> rowMapper) {
+            this.rs = rs;
+            this.rowMapper = rowMapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (blnFetched) {
+                return true;
+            }
+            if (blnEnd) {
+                return false;
+            }
+            try {
+                if (rs.next()) {
+                    nextRow = rowMapper.map(rs);
+                    blnFetched = true;
+                    return true;
                 }
-            }).build();
+            } catch (SQLException sqlException) {
+                throw new RuntimeException(sqlException);
+            }
+            blnEnd = true;
+            return false;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T row = nextRow;
+            nextRow = null;
+            blnFetched = false;
+            return row;
+        }
+    }
+
+    /**
+     * 未开启行映射器或类型不适用时返回null，改用MyBatis映射
+     */
+    private <T> BeanRowMapper<T> getBeanRowMapper(Class<T> type, ResultSetMetaData rsmd) throws SQLException {
+        if (!blnBeanRowMapper) {
+            return null;
+        }
+        return context.getBeanRowMapper(type, rsmd);
     }
 }
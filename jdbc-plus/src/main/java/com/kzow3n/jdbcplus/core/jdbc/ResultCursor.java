@@ -0,0 +1,75 @@
+package com.kzow3n.jdbcplus.core.jdbc;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 逐行读取的结果集游标，读完或关闭时释放Statement与连接
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class ResultCursor<T> implements Iterator<T>, Closeable {
+
+    private final Iterator<T> iterator;
+    private final Runnable closeAction;
+    private boolean blnClosed = false;
+
+    ResultCursor(Iterator<T> iterator, Runnable closeAction) {
+        this.iterator = iterator;
+        this.closeAction = closeAction;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (blnClosed) {
+            return false;
+        }
+        boolean hasNext;
+        try {
+            hasNext = iterator.hasNext();
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        //读完后立即释放连接
+        if (!hasNext) {
+            close();
+        }
+        return hasNext;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return iterator.next();
+    }
+
+    /**
+     * 转为Stream，Stream关闭时同时关闭游标
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(this::close);
+    }
+
+    public boolean isClosed() {
+        return blnClosed;
+    }
+
+    @Override
+    public void close() {
+        if (blnClosed) {
+            return;
+        }
+        blnClosed = true;
+        closeAction.run();
+    }
+}
@@ -0,0 +1,350 @@
+package com.kzow3n.jdbcplus.core.jdbc;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kzow3n.jdbcplus.core.dialect.Dialect;
+import com.kzow3n.jdbcplus.utils.DialectUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SqlRunner运行时上下文，与SqlSessionFactory一一绑定，线程安全
+ * 数据库类型只探测一次，TypeHandler复用Configuration中的注册表并按Class缓存查找结果
+ * 上下文以弱引用关联SqlSessionFactory，SqlSessionFactory不再使用（如测试或多租户中动态创建的数据源被关闭）后随之回收
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Slf4j
+public class SqlRunnerContext {
+
+    /**
+     * 弱引用的键按对象标识比较，值中同样不能强引用SqlSessionFactory，否则键永远不会被回收
+     */
+    private static final Cache<SqlSessionFactory, SqlRunnerContext> CONTEXTS = Caffeine.newBuilder().weakKeys().build();
+    /**
+     * MyBatis的ResultSetHandler在该字段中缓存按结果集解析的自动映射，每次查询新建ResultSetHandler时需逐列重新查找属性与TypeHandler
+     * MyBatis版本中没有该字段时为null，不缓存自动映射
+     */
+    private static final Field AUTO_MAPPINGS_CACHE_FIELD = findAutoMappingsCacheField();
+
+    private final WeakReference<SqlSessionFactory> sqlSessionFactory;
+    private final Configuration configuration;
+    private final TypeHandlerRegistry typeHandlerRegistry;
+    private final TypeHandler<?> objectTypeHandler;
+    private final Map<Class<?>, TypeHandler<?>> typeHandlerCache = new ConcurrentHashMap<>();
+    private final Map<String, TypeHandler<?>> columnTypeHandlerCache = new ConcurrentHashMap<>();
+    private final Map<Class<?>, MappedStatement> mappedStatementCache = new ConcurrentHashMap<>();
+    private final Map<RowMapperKey, Optional<BeanRowMapper<?>>> beanRowMapperCache = new ConcurrentHashMap<>();
+    private final Map<RowMapperKey, Map<String, Object>> autoMappingCache = new ConcurrentHashMap<>();
+    private volatile DbTypeEnum dbTypeEnum;
+    private volatile String databaseProductName = "";
+
+    private SqlRunnerContext(SqlSessionFactory sqlSessionFactory) {
+        this.sqlSessionFactory = new WeakReference<>(sqlSessionFactory);
+        this.configuration = sqlSessionFactory.getConfiguration();
+        this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+        this.objectTypeHandler = typeHandlerRegistry.getTypeHandler(Object.class);
+    }
+
+    public static SqlRunnerContext of(SqlSessionFactory sqlSessionFactory) {
+        return CONTEXTS.get(sqlSessionFactory, SqlRunnerContext::new);
+    }
+
+    /**
+     * SqlSessionFactory已被回收时返回null
+     */
+    public SqlSessionFactory getSqlSessionFactory() {
+        return sqlSessionFactory.get();
+    }
+
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    public TypeHandlerRegistry getTypeHandlerRegistry() {
+        return typeHandlerRegistry;
+    }
+
+    /**
+     * 获取数据库类型，首次调用时通过连接元数据探测
+     */
+    public DbTypeEnum getDbTypeEnum(Connection connection) {
+        DbTypeEnum result = dbTypeEnum;
+        if (result != null) {
+            return result;
+        }
+        synchronized (this) {
+            if (dbTypeEnum == null) {
+                try {
+                    String productName = connection.getMetaData().getDatabaseProductName().toLowerCase();
+                    databaseProductName = productName;
+                    dbTypeEnum = detectDbType(productName);
+                } catch (SQLException sqlException) {
+                    log.error(sqlException.getMessage());
+                    return DbTypeEnum.DEFAULT;
+                }
+            }
+            return dbTypeEnum;
+        }
+    }
+
+    /**
+     * 获取数据源的方言，与数据库类型一样只探测一次
+     */
+    public Dialect getDialect(Connection connection) {
+        return DialectUtils.getDialect(getDbTypeEnum(connection));
+    }
+
+    /**
+     * 获取数据库类型，尚未探测时打开一个SqlSession探测
+     */
+    public DbTypeEnum getDbTypeEnum() {
+        DbTypeEnum result = dbTypeEnum;
+        if (result != null) {
+            return result;
+        }
+        SqlSessionFactory factory = sqlSessionFactory.get();
+        if (factory == null) {
+            return DbTypeEnum.DEFAULT;
+        }
+        try (SqlSession sqlSession = factory.openSession()) {
+            return getDbTypeEnum(sqlSession.getConnection());
+        }
+    }
+
+    /**
+     * 获取数据源的方言，尚未探测数据库类型时打开一个SqlSession探测
+     */
+    public Dialect getDialect() {
+        return DialectUtils.getDialect(getDbTypeEnum());
+    }
+
+    /**
+     * 是否为MySQL或MariaDB，二者共用DEFAULT类型，流式读取时需区分
+     */
+    public boolean isMySql(Connection connection) {
+        getDbTypeEnum(connection);
+        String productName = databaseProductName;
+        return productName.contains("mysql") || productName.contains("mariadb");
+    }
+
+    /**
+     * 按参数Class获取TypeHandler，找不到时返回null
+     */
+    public TypeHandler<?> getTypeHandler(Class<?> type) {
+        TypeHandler<?> typeHandler = typeHandlerCache.get(type);
+        if (typeHandler == null) {
+            typeHandler = typeHandlerRegistry.getTypeHandler(type);
+            if (typeHandler == null) {
+                return null;
+            }
+            typeHandlerCache.putIfAbsent(type, typeHandler);
+        }
+        return typeHandler;
+    }
+
+    /**
+     * 按结果集列的Class名称获取TypeHandler，找不到时返回Object的TypeHandler
+     */
+    public TypeHandler<?> getColumnTypeHandler(String columnClassName) {
+        if (columnClassName == null) {
+            return objectTypeHandler;
+        }
+        return columnTypeHandlerCache.computeIfAbsent(columnClassName, this::resolveColumnTypeHandler);
+    }
+
+    /**
+     * 按目标Class获取MappedStatement，每个Class只构建一次
+     */
+    public MappedStatement getMappedStatement(Class<?> type) {
+        MappedStatement mappedStatement = mappedStatementCache.get(type);
+        if (mappedStatement == null) {
+            mappedStatement = mappedStatementCache.computeIfAbsent(type, this::buildMappedStatement);
+        }
+        return mappedStatement;
+    }
+
+    private MappedStatement buildMappedStatement(Class<?> type) {
+        //不设置显式ResultMapping，由MyBatis自动映射；显式映射在MyBatis中每个单元格都要线性查找列名，宽表反而更慢
+        ResultMap resultMap = new ResultMap.Builder(configuration, "linkedMap." + type.getName(), type, new ArrayList<>()).build();
+        return new MappedStatement.Builder(configuration, "linkedSelect." + type.getName(), new StaticSqlSource(configuration, "some select statement"), SqlCommandType.SELECT)
+                .resultMaps(Collections.singletonList(resultMap))
+                .build();
+    }
+
+    /**
+     * 自动映射的缓存键，按实体类、结果集列名与列类型区分，列类型不同时MyBatis可能选择不同的TypeHandler（如Date的DATE与TIMESTAMP列）
+     *
+     * @return 不缓存自动映射时返回null
+     */
+    RowMapperKey getAutoMappingKey(Class<?> type, ResultSetMetaData rsmd) throws SQLException {
+        if (AUTO_MAPPINGS_CACHE_FIELD == null) {
+            return null;
+        }
+        int columnCount = rsmd.getColumnCount();
+        String[] columnLabels = new String[columnCount];
+        int[] columnTypes = new int[columnCount];
+        for (int i = 0; i < columnCount; i ++) {
+            columnLabels[i] = rsmd.getColumnLabel(i + 1);
+            columnTypes[i] = rsmd.getColumnType(i + 1);
+        }
+        return new RowMapperKey(type, columnLabels, columnTypes);
+    }
+
+    /**
+     * 新建MyBatis的ResultSetHandler，预置同一缓存键已解析的自动映射，映射时不再逐列查找属性与TypeHandler
+     *
+     * @param key 为null时不预置
+     */
+    DefaultResultSetHandler newResultSetHandler(Class<?> type, RowMapperKey key) {
+        DefaultResultSetHandler resultSetHandler = new DefaultResultSetHandler(null, getMappedStatement(type), null, null, null, new RowBounds());
+        Map<String, Object> autoMappings = key == null ? null : autoMappingCache.get(key);
+        if (autoMappings != null) {
+            getAutoMappings(resultSetHandler).putAll(autoMappings);
+        }
+        return resultSetHandler;
+    }
+
+    /**
+     * 记录ResultSetHandler映射第一行时解析的自动映射，其中的映射项不可变，可在ResultSetHandler之间共享
+     */
+    void saveAutoMappings(RowMapperKey key, DefaultResultSetHandler resultSetHandler) {
+        if (key == null || autoMappingCache.containsKey(key)) {
+            return;
+        }
+        Map<String, Object> autoMappings = getAutoMappings(resultSetHandler);
+        if (!autoMappings.isEmpty()) {
+            autoMappingCache.putIfAbsent(key, Collections.unmodifiableMap(new HashMap<>(autoMappings)));
+        }
+    }
+
+    int getAutoMappingCount() {
+        return autoMappingCache.size();
+    }
+
+    /**
+     * 字段的实际类型为Map<String, List<UnMappedColumnAutoMapping>>，映射项的类不可见，只整体复制
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> getAutoMappings(DefaultResultSetHandler resultSetHandler) {
+        try {
+            return (Map<String, Object>) AUTO_MAPPINGS_CACHE_FIELD.get(resultSetHandler);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Field findAutoMappingsCacheField() {
+        try {
+            Field field = DefaultResultSetHandler.class.getDeclaredField("autoMappingsCache");
+            field.setAccessible(true);
+            return Map.class.isAssignableFrom(field.getType()) ? field : null;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            log.warn("MyBatis auto-mapping cache is not accessible, auto-mappings will be resolved per query.");
+            return null;
+        }
+    }
+
+    /**
+     * 按实体类与结果集列获取行映射器，Map与基本类型返回null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> BeanRowMapper<T> getBeanRowMapper(Class<T> type, ResultSetMetaData rsmd) throws SQLException {
+        if (Map.class.isAssignableFrom(type) || typeHandlerRegistry.hasTypeHandler(type)) {
+            return null;
+        }
+        int columnCount = rsmd.getColumnCount();
+        String[] columnLabels = new String[columnCount];
+        for (int i = 0; i < columnCount; i ++) {
+            columnLabels[i] = rsmd.getColumnLabel(i + 1);
+        }
+        RowMapperKey key = new RowMapperKey(type, columnLabels, null);
+        Optional<BeanRowMapper<?>> beanRowMapper = beanRowMapperCache.get(key);
+        if (beanRowMapper == null) {
+            beanRowMapper = beanRowMapperCache.computeIfAbsent(key, k -> Optional.ofNullable(
+                    BeanRowMapper.build(type, columnLabels, typeHandlerRegistry, configuration.isMapUnderscoreToCamelCase())));
+        }
+        return (BeanRowMapper<T>) beanRowMapper.orElse(null);
+    }
+
+    private TypeHandler<?> resolveColumnTypeHandler(String columnClassName) {
+        try {
+            Class<?> type = Resources.classForName(columnClassName);
+            TypeHandler<?> typeHandler = typeHandlerRegistry.getTypeHandler(type);
+            return typeHandler == null ? objectTypeHandler : typeHandler;
+        } catch (Exception e) {
+            return objectTypeHandler;
+        }
+    }
+
+    private static DbTypeEnum detectDbType(String dbType) {
+        if (dbType.contains("dm")) {
+            return DbTypeEnum.DM;
+        }
+        //SqlServer的产品名称为Microsoft SQL Server
+        else if (dbType.contains("sqlserver") || dbType.contains("sql server")) {
+            return DbTypeEnum.SQL_SERVER;
+        }
+        else if (dbType.contains("postgresql")) {
+            return DbTypeEnum.POSTGRE_SQL;
+        }
+        else if (dbType.contains("oracle")) {
+            return DbTypeEnum.ORACLE;
+        }
+        return DbTypeEnum.DEFAULT;
+    }
+
+    static final class RowMapperKey {
+        private final Class<?> type;
+        private final String[] columnLabels;
+        private final int[] columnTypes;
+        private final int hashCode;
+
+        /**
+         * @param columnTypes 为null时只按列名区分
+         */
+        RowMapperKey(Class<?> type, String[] columnLabels, int[] columnTypes) {
+            this.type = type;
+            this.columnLabels = columnLabels;
+            this.columnTypes = columnTypes;
+            this.hashCode = 31 * (31 * type.hashCode() + Arrays.hashCode(columnLabels)) + Arrays.hashCode(columnTypes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RowMapperKey)) {
+                return false;
+            }
+            RowMapperKey that = (RowMapperKey) o;
+            return type == that.type && Arrays.equals(columnLabels, that.columnLabels) && Arrays.equals(columnTypes, that.columnTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -1,11 +1,21 @@
 package com.kzow3n.jdbcplus.core.wrapper;
 
 import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.kzow3n.jdbcplus.core.cache.CachePolicy;
+import com.kzow3n.jdbcplus.core.dialect.Dialect;
 import com.kzow3n.jdbcplus.core.wrapper.column.AggregateWrapper;
 import com.kzow3n.jdbcplus.pojo.ColumnInfo;
+import com.kzow3n.jdbcplus.pojo.EntityMeta;
+import com.kzow3n.jdbcplus.pojo.JoinInfo;
+import com.kzow3n.jdbcplus.pojo.LikeArg;
+import com.kzow3n.jdbcplus.pojo.LinkedColumn;
+import com.kzow3n.jdbcplus.pojo.OrderInfo;
 import com.kzow3n.jdbcplus.pojo.TableInfo;
+import com.kzow3n.jdbcplus.utils.CacheKeyUtils;
 import com.kzow3n.jdbcplus.utils.ClazzUtils;
 import com.kzow3n.jdbcplus.utils.ColumnUtils;
+import com.kzow3n.jdbcplus.utils.DialectUtils;
+import com.kzow3n.jdbcplus.utils.EntityMetaUtils;
 import lombok.Data;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ibatis.session.Configuration;
@@ -15,10 +25,12 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * Sql构造器基本方法类
@@ -33,17 +45,27 @@ public class BaseLinkedQueryWrapper {
     protected List<TableInfo> selectAllTableInfos;
     protected List<TableInfo> parentTableInfos;
     protected StringBuilder sqlBuilder;
+    protected int selectIndex;
+    protected int baseColumnsEnd;
+    protected int whereIndex;
     protected List<ColumnInfo> columnInfos;
+    protected List<JoinInfo> joinInfos;
     protected List<String> groupColumns;
     protected String having;
     protected StringBuilder orderBy;
+    protected List<OrderInfo> orderInfos;
     protected Integer limit;
     protected Integer offset;
     protected String baseSql;
     protected String fullSql;
     protected List<Object> args;
+    protected Set<String> tableNames;
+    protected CachePolicy cachePolicy;
+    protected Dialect dialect;
+    protected boolean blnRawSql;
     protected boolean blnFormatSql;
     protected boolean blnDistinct;
+    protected boolean blnSelectDistinct;
     protected boolean blnWhere;
     protected boolean blnOr;
     protected boolean blnOpenBracket;
@@ -54,13 +76,22 @@ public class BaseLinkedQueryWrapper {
         tableInfos = new ArrayList<>();
         selectAllTableInfos = new ArrayList<>();
         parentTableInfos = new ArrayList<>();
-        sqlBuilder = new StringBuilder();
+        sqlBuilder = new StringBuilder(256);
+        selectIndex = -1;
+        baseColumnsEnd = -1;
+        whereIndex = -1;
         columnInfos = new LinkedList<>();
+        joinInfos = new ArrayList<>();
         groupColumns = new LinkedList<>();
         orderBy = new StringBuilder();
+        orderInfos = new ArrayList<>();
         args = new LinkedList<>();
+        tableNames = new LinkedHashSet<>();
+        cachePolicy = null;
+        blnRawSql = false;
         blnFormatSql = false;
         blnDistinct = false;
+        blnSelectDistinct = false;
         blnWhere = false;
         blnOr = false;
         blnOpenBracket = false;
@@ -73,6 +104,28 @@ public class BaseLinkedQueryWrapper {
         mapUnderscoreToCamelCase = configuration.isMapUnderscoreToCamelCase();
     }
 
+    /**
+     * 方言变化时重新生成Sql，嵌套查询在构造时生成，使用构造时的方言
+     */
+    public void setDialect(Dialect dialect) {
+        if (this.dialect == dialect) {
+            return;
+        }
+        this.dialect = dialect;
+        baseSql = null;
+        fullSql = null;
+        blnFormatSql = false;
+    }
+
+    /**
+     * 嵌套查询的Sql构造器，继承当前的方言
+     */
+    private LinkedQueryWrapper buildNestedWrapper() {
+        LinkedQueryWrapper linkedQueryWrapper = new LinkedQueryWrapper();
+        linkedQueryWrapper.setDialect(dialect);
+        return linkedQueryWrapper;
+    }
+
     protected AggregateWrapper buildAggregateWrapper() {
         AggregateWrapper aggregateWrapper = new AggregateWrapper();
         aggregateWrapper.setTableInfos(tableInfos);
@@ -83,6 +136,7 @@ public class BaseLinkedQueryWrapper {
     protected void spendOperator() {
         if (!blnWhere) {
             sqlBuilder.append("where ");
+            whereIndex = sqlBuilder.length();
             blnWhere = true;
             return;
         }
@@ -98,6 +152,18 @@ public class BaseLinkedQueryWrapper {
         sqlBuilder.append("and ");
     }
 
+    /**
+     * 查询依赖的表（含join、子查询中的表，表名经CacheKeyUtils.normalizeTableName处理），包含原始Sql片段时无法确定依赖的表，返回null
+     */
+    public Set<String> getDependentTables() {
+        return blnRawSql ? null : tableNames;
+    }
+
+    private void addDependentTables(BaseLinkedQueryWrapper linkedQueryWrapper) {
+        tableNames.addAll(linkedQueryWrapper.getTableNames());
+        blnRawSql |= linkedQueryWrapper.isBlnRawSql();
+    }
+
     protected TableInfo getTableInfoByIndex(Integer tableIndex) {
         if (tableIndex == null) {
             return null;
@@ -168,19 +234,40 @@ public class BaseLinkedQueryWrapper {
         this.columnInfos.add(columnInfo);
     }
 
+    protected String addColumnInfo(TableInfo tableInfo, LinkedColumn<?> linkedColumn, String beanColumn, String columnFormat) {
+        String tableColumn = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        ColumnInfo columnInfo = new ColumnInfo();
+        columnInfo.setTableIndex(tableInfo.getTableIndex());
+        columnInfo.setTableColumns(tableColumn);
+        columnInfo.setBeanColumns(StringUtils.isBlank(beanColumn) ? linkedColumn.getProperty() : beanColumn);
+        if (!StringUtils.isBlank(columnFormat)) {
+            columnInfo.setColumnFormat(columnFormat);
+        }
+        this.columnInfos.add(columnInfo);
+        return tableColumn;
+    }
+
+    protected void addColumnInfo(Integer tableIndex, LinkedColumn<?> linkedColumn, String beanColumn, String columnFormat) {
+        //与Field一致，表字段名在拼接Sql时按表信息确定
+        ColumnInfo columnInfo = new ColumnInfo();
+        columnInfo.setTableIndex(tableIndex);
+        columnInfo.setLinkedColumn(linkedColumn);
+        columnInfo.setBeanColumns(StringUtils.isBlank(beanColumn) ? linkedColumn.getProperty() : beanColumn);
+        if (!StringUtils.isBlank(columnFormat)) {
+            columnInfo.setColumnFormat(columnFormat);
+        }
+        this.columnInfos.add(columnInfo);
+    }
+
     protected void appendFrom(Class<?> clazz, String tableId) {
         String tableName = ClazzUtils.getTableName(clazz, mapUnderscoreToCamelCase);
         TableInfo tableInfo = new TableInfo(tableId, clazz);
         tableInfos.add(tableInfo);
         int tableIndex = tableInfos.indexOf(tableInfo);
         tableInfos.get(tableIndex).setTableIndex(tableIndex + 1);
-        if (blnDistinct) {
-            blnDistinct = false;
-            sqlBuilder.append("select distinct %s from ").append(String.format("%s %s ", tableName, tableId));
-        }
-        else {
-            sqlBuilder.append("select %s from ").append(String.format("%s %s ", tableName, tableId));
-        }
+        tableNames.add(CacheKeyUtils.normalizeTableName(tableName));
+        appendSelect();
+        sqlBuilder.append(tableName).append(' ').append(tableId).append(' ');
     }
 
     protected void appendFrom(Consumer<LinkedQueryWrapper> consumer, String tableId) {
@@ -189,17 +276,30 @@ public class BaseLinkedQueryWrapper {
         tableInfos.add(tableInfo);
         int tableIndex = tableInfos.indexOf(tableInfo);
         tableInfos.get(tableIndex).setTableIndex(tableIndex + 1);
-        LinkedQueryWrapper linkedQueryWrapper = new LinkedQueryWrapper();
+        LinkedQueryWrapper linkedQueryWrapper = buildNestedWrapper();
         consumer.accept(linkedQueryWrapper);
-        linkedQueryWrapper.formatSql();
         args.addAll(linkedQueryWrapper.getArgs());
+        addDependentTables(linkedQueryWrapper);
+        appendSelect();
+        sqlBuilder.append('(');
+        linkedQueryWrapper.appendFullSql(sqlBuilder);
+        sqlBuilder.append(") ").append(tableId).append(' ');
+    }
+
+    /**
+     * 拼接select关键字并记录查询字段的插入位置，查询字段在生成Sql时写入
+     */
+    private void appendSelect() {
         if (blnDistinct) {
             blnDistinct = false;
-            sqlBuilder.append("select distinct %s from ").append(String.format("(%s) %s ", linkedQueryWrapper.getFullSql(), tableId));
+            blnSelectDistinct = true;
+            sqlBuilder.append("select distinct ");
         }
         else {
-            sqlBuilder.append("select %s from ").append(String.format("(%s) %s ", linkedQueryWrapper.getFullSql(), tableId));
+            sqlBuilder.append("select ");
         }
+        selectIndex = sqlBuilder.length();
+        sqlBuilder.append(" from ");
     }
 
     protected void appendJoin(Class<?> clazz, String tableId, String joinType) {
@@ -208,7 +308,9 @@ public class BaseLinkedQueryWrapper {
         tableInfos.add(tableInfo);
         int tableIndex = tableInfos.indexOf(tableInfo);
         tableInfos.get(tableIndex).setTableIndex(tableIndex + 1);
-        sqlBuilder.append(String.format("%s %s %s ", joinType, tableName, tableId));
+        tableNames.add(CacheKeyUtils.normalizeTableName(tableName));
+        addJoinInfo(joinType, tableId, clazz);
+        sqlBuilder.append(joinType).append(' ').append(tableName).append(' ').append(tableId).append(' ');
     }
 
     protected void appendJoin(Consumer<LinkedQueryWrapper> consumer, String tableId, String joinType) {
@@ -217,15 +319,42 @@ public class BaseLinkedQueryWrapper {
         tableInfos.add(tableInfo);
         int tableIndex = tableInfos.indexOf(tableInfo);
         tableInfos.get(tableIndex).setTableIndex(tableIndex + 1);
-        LinkedQueryWrapper linkedQueryWrapper = new LinkedQueryWrapper();
+        LinkedQueryWrapper linkedQueryWrapper = buildNestedWrapper();
         consumer.accept(linkedQueryWrapper);
-        linkedQueryWrapper.formatSql();
         args.addAll(linkedQueryWrapper.getArgs());
-        sqlBuilder.append(String.format("%s (%s) %s ", joinType, linkedQueryWrapper.getFullSql(), tableId));
+        addDependentTables(linkedQueryWrapper);
+        addJoinInfo(joinType, tableId, null);
+        sqlBuilder.append(joinType).append(" (");
+        linkedQueryWrapper.appendFullSql(sqlBuilder);
+        sqlBuilder.append(") ").append(tableId).append(' ');
     }
 
     protected void appendOn(String tableId1, String column1, String tableId2, String column2) {
-        sqlBuilder.append(String.format("on %s.%s = %s.%s ", tableId1, column1, tableId2, column2));
+        sqlBuilder.append("on ");
+        appendColumn(tableId1, column1);
+        sqlBuilder.append(" = ");
+        appendColumn(tableId2, column2);
+        sqlBuilder.append(' ');
+        JoinInfo joinInfo = joinInfos.isEmpty() ? null : joinInfos.get(joinInfos.size() - 1);
+        if (joinInfo == null || joinInfo.getEnd() >= 0 || tableId1.equals(tableId2)) {
+            return;
+        }
+        joinInfo.setEnd(sqlBuilder.length());
+        if (joinInfo.getTableId().equals(tableId1)) {
+            joinInfo.setJoinColumn(column1);
+        }
+        else if (joinInfo.getTableId().equals(tableId2)) {
+            joinInfo.setJoinColumn(column2);
+        }
+    }
+
+    private void addJoinInfo(String joinType, String tableId, Class<?> tableClass) {
+        JoinInfo joinInfo = new JoinInfo();
+        joinInfo.setJoinType(joinType);
+        joinInfo.setTableId(tableId);
+        joinInfo.setTableClass(tableClass);
+        joinInfo.setStart(sqlBuilder.length());
+        joinInfos.add(joinInfo);
     }
 
     protected void formatFullSql() {
@@ -233,39 +362,269 @@ public class BaseLinkedQueryWrapper {
             return;
         }
         blnFormatSql = true;
-        StringBuilder baseSqlBuilder = new StringBuilder();
-        baseSqlBuilder.append(sqlBuilder.toString());
-        if (!CollectionUtils.isEmpty(groupColumns)) {
-            baseSqlBuilder.append(String.format("group by %s ", String.join(",", groupColumns)));
-            if (StringUtils.isNotBlank(having)) {
-                baseSqlBuilder.append(having);
+        StringBuilder fullSqlBuilder = new StringBuilder(estimateSqlLength());
+        appendSelectSql(fullSqlBuilder, null);
+        baseColumnsEnd = selectIndex < 0 ? -1 : fullSqlBuilder.length() - (sqlBuilder.length() - selectIndex);
+        appendGroupBy(fullSqlBuilder);
+        baseSql = fullSqlBuilder.toString();
+        appendOrderByAndLimit(fullSqlBuilder);
+        fullSql = fullSqlBuilder.toString();
+    }
+
+    /**
+     * 将完整Sql直接写入目标缓冲区，用于嵌套查询
+     */
+    protected void appendFullSql(StringBuilder target) {
+        target.ensureCapacity(target.length() + estimateSqlLength());
+        appendBaseSql(target, null);
+        appendOrderByAndLimit(target);
+    }
+
+    /**
+     * 以指定的查询字段生成不含group by、order by的Sql
+     */
+    public String getSelectSql(String columns) {
+        StringBuilder stringBuilder = new StringBuilder(sqlBuilder.length() + columns.length());
+        appendSelectSql(stringBuilder, columns);
+        return stringBuilder.toString();
+    }
+
+    /**
+     * 生成计数用的Sql，不含order by，查询字段替换为columns
+     * 以主键left join且在条件、分组及其他连表中均未引用的表不影响行数，不写入Sql
+     *
+     * @param blnGroupBy 是否写入group by与having
+     */
+    public String getCountSelectSql(String columns, boolean blnGroupBy) {
+        if (selectIndex < 0) {
+            return getSelectSql(columns);
+        }
+        List<JoinInfo> prunedJoins = getPrunableJoins(columns, blnGroupBy);
+        StringBuilder stringBuilder = new StringBuilder(sqlBuilder.length() + columns.length() + groupColumns.size() * 16);
+        stringBuilder.append(sqlBuilder, 0, selectIndex).append(columns);
+        int index = selectIndex;
+        for (JoinInfo joinInfo : prunedJoins) {
+            stringBuilder.append(sqlBuilder, index, joinInfo.getStart());
+            index = joinInfo.getEnd();
+        }
+        stringBuilder.append(sqlBuilder, index, sqlBuilder.length());
+        if (blnGroupBy) {
+            appendGroupBy(stringBuilder);
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * 可以去掉的连表，按在Sql中的位置排序
+     * 包含原始Sql片段时字段可能未带表别名，无法判断是否引用，不去掉任何连表
+     */
+    private List<JoinInfo> getPrunableJoins(String columns, boolean blnGroupBy) {
+        List<JoinInfo> prunedJoins = new ArrayList<>();
+        if (blnRawSql || joinInfos.isEmpty()) {
+            return prunedJoins;
+        }
+        List<JoinInfo> candidates = new ArrayList<>();
+        for (JoinInfo joinInfo : joinInfos) {
+            if (isKeyLeftJoin(joinInfo)) {
+                candidates.add(joinInfo);
             }
         }
-        String columnString = formatColumns();
-        baseSql = String.format(baseSqlBuilder.toString(), columnString);
+        //从后往前判断，去掉一个连表后，只被它引用的连表也可以去掉
+        boolean blnChanged = true;
+        while (blnChanged) {
+            blnChanged = false;
+            for (int i = candidates.size() - 1; i >= 0; i --) {
+                JoinInfo joinInfo = candidates.get(i);
+                prunedJoins.add(joinInfo);
+                if (isTableReferenced(joinInfo.getTableId(), prunedJoins, columns, blnGroupBy)) {
+                    prunedJoins.remove(prunedJoins.size() - 1);
+                }
+                else {
+                    candidates.remove(i);
+                    blnChanged = true;
+                }
+            }
+        }
+        prunedJoins.sort(Comparator.comparingInt(JoinInfo::getStart));
+        return prunedJoins;
+    }
+
+    /**
+     * 以连接表的唯一主键left join，每行最多匹配一行，不改变行数
+     */
+    private boolean isKeyLeftJoin(JoinInfo joinInfo) {
+        if (!"left join".equals(joinInfo.getJoinType()) || joinInfo.getTableClass() == null
+                || joinInfo.getEnd() < 0 || joinInfo.getJoinColumn() == null) {
+            return false;
+        }
+        List<String> idColumns = EntityMetaUtils.getEntityMeta(joinInfo.getTableClass()).getIdColumns(mapUnderscoreToCamelCase);
+        return idColumns.size() == 1 && idColumns.get(0).equalsIgnoreCase(joinInfo.getJoinColumn());
+    }
 
-        StringBuilder fullSqlBuilder = new StringBuilder();
-        fullSqlBuilder.append(baseSql).append(orderBy.toString());
-        if (limit != null) {
-            String paging;
-            if (offset != null) {
-                paging = String.format(" limit %d offset %d", limit, offset);
+    /**
+     * 去掉prunedJoins后的Sql及查询字段中是否仍引用了表别名
+     */
+    private boolean isTableReferenced(String tableId, List<JoinInfo> prunedJoins, String columns, boolean blnGroupBy) {
+        if (containsTableId(columns, 0, columns.length(), tableId)) {
+            return true;
+        }
+        List<JoinInfo> sortedJoins = new ArrayList<>(prunedJoins);
+        sortedJoins.sort(Comparator.comparingInt(JoinInfo::getStart));
+        int index = selectIndex;
+        for (JoinInfo joinInfo : sortedJoins) {
+            if (containsTableId(sqlBuilder, index, joinInfo.getStart(), tableId)) {
+                return true;
             }
-            else {
-                paging = String.format(" limit %d", limit);
+            index = joinInfo.getEnd();
+        }
+        if (containsTableId(sqlBuilder, index, sqlBuilder.length(), tableId)) {
+            return true;
+        }
+        if (!blnGroupBy) {
+            return false;
+        }
+        for (String groupColumn : groupColumns) {
+            if (containsTableId(groupColumn, 0, groupColumn.length(), tableId)) {
+                return true;
             }
-            fullSqlBuilder.append(paging);
         }
-        fullSql = fullSqlBuilder.toString();
+        return having != null && containsTableId(having, 0, having.length(), tableId);
+    }
+
+    /**
+     * 区间内是否出现以表别名限定的字段，如t.name，不匹配st.name
+     */
+    private static boolean containsTableId(CharSequence sql, int start, int end, String tableId) {
+        int length = tableId.length();
+        for (int i = start; i + length < end; i ++) {
+            if (sql.charAt(i + length) != '.' || (i > 0 && isIdentifierChar(sql.charAt(i - 1)))) {
+                continue;
+            }
+            boolean blnMatch = true;
+            for (int j = 0; j < length; j ++) {
+                if (sql.charAt(i + j) != tableId.charAt(j)) {
+                    blnMatch = false;
+                    break;
+                }
+            }
+            if (blnMatch) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '$';
+    }
+
+    /**
+     * 生成键集分页的Sql，在查询字段后追加extraColumns，在查询条件后以and追加condition（可为null），不含group by、order by
+     * 需在formatSql之后调用
+     */
+    public String getSeekSql(String extraColumns, String condition) {
+        StringBuilder stringBuilder = new StringBuilder(sqlBuilder.length() + extraColumns.length() + columnInfos.size() * 24 + 64);
+        stringBuilder.append(sqlBuilder, 0, selectIndex);
+        appendColumns(stringBuilder);
+        stringBuilder.append(',').append(extraColumns);
+        if (condition == null) {
+            stringBuilder.append(sqlBuilder, selectIndex, sqlBuilder.length());
+        }
+        else if (whereIndex < 0) {
+            stringBuilder.append(sqlBuilder, selectIndex, sqlBuilder.length()).append("where ").append(condition).append(' ');
+        }
+        else {
+            //原有条件可能包含or，整体加括号后再追加
+            stringBuilder.append(sqlBuilder, selectIndex, whereIndex).append('(').append(sqlBuilder, whereIndex, sqlBuilder.length())
+                    .append(") and ").append(condition).append(' ');
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * 在查询字段后追加一列生成基础Sql，如分页时的总数列，需在formatSql之后调用，无法确定查询字段的位置时返回null
+     */
+    public String getBaseSql(String extraColumn) {
+        if (baseSql == null || baseColumnsEnd < 0) {
+            return null;
+        }
+        //oracle等数据库不支持*后再跟其他列
+        if (baseSql.charAt(baseColumnsEnd - 1) == '*' && baseSql.charAt(baseColumnsEnd - 2) == ' ') {
+            return null;
+        }
+        StringBuilder stringBuilder = new StringBuilder(baseSql.length() + extraColumn.length() + 1);
+        stringBuilder.append(baseSql, 0, baseColumnsEnd).append(',').append(extraColumn).append(baseSql, baseColumnsEnd, baseSql.length());
+        return stringBuilder.toString();
+    }
+
+    /**
+     * 写入基础Sql，columns为null时写入查询字段
+     */
+    protected void appendBaseSql(StringBuilder target, String columns) {
+        appendSelectSql(target, columns);
+        appendGroupBy(target);
+    }
+
+    private void appendGroupBy(StringBuilder target) {
+        if (!CollectionUtils.isEmpty(groupColumns)) {
+            target.append("group by ");
+            boolean blnFirst = true;
+            for (String groupColumn : groupColumns) {
+                if (!blnFirst) {
+                    target.append(',');
+                }
+                target.append(groupColumn);
+                blnFirst = false;
+            }
+            target.append(' ');
+            if (StringUtils.isNotBlank(having)) {
+                target.append(having);
+            }
+        }
+    }
+
+    private void appendSelectSql(StringBuilder target, String columns) {
+        if (selectIndex < 0) {
+            target.append(sqlBuilder);
+            return;
+        }
+        target.append(sqlBuilder, 0, selectIndex);
+        if (columns == null) {
+            appendColumns(target);
+        }
+        else {
+            target.append(columns);
+        }
+        target.append(sqlBuilder, selectIndex, sqlBuilder.length());
+    }
+
+    private void appendOrderByAndLimit(StringBuilder target) {
+        //未指定方言时按limit offset生成
+        Dialect targetDialect = dialect == null ? DialectUtils.getDefaultDialect() : dialect;
+        targetDialect.appendOrderByAndLimit(target, orderBy, limit, offset);
+    }
+
+    private int estimateSqlLength() {
+        return sqlBuilder.length() + (columnInfos.size() + selectAllTableInfos.size() * 8) * 24
+                + groupColumns.size() * 16 + orderBy.length() + 32;
     }
 
     protected String formatColumns() {
+        StringBuilder stringBuilder = new StringBuilder(columnInfos.size() * 24);
+        appendColumns(stringBuilder);
+        return stringBuilder.toString();
+    }
+
+    /**
+     * 写入查询字段，不使用String.format与split，单次遍历完成
+     */
+    protected void appendColumns(StringBuilder target) {
         addAllTableColumns();
         if (CollectionUtils.isEmpty(columnInfos)) {
-            return "*";
+            target.append('*');
+            return;
         }
-        List<String> formats = new ArrayList<>();
-
+        boolean blnFirst = true;
         for (ColumnInfo columnInfo : columnInfos) {
             Integer tableIndex = columnInfo.getTableIndex();
             if (tableIndex == null) {
@@ -277,40 +636,66 @@ public class BaseLinkedQueryWrapper {
             String beanColumns = columnInfo.getBeanColumns();
             String columnFormat = columnInfo.getColumnFormat();
             Field field = columnInfo.getField();
+            LinkedColumn<?> linkedColumn = columnInfo.getLinkedColumn();
             if (StringUtils.isBlank(tableColumns)) {
-                if (field == null) {
+                if (field != null) {
+                    tableColumns = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+                }
+                else if (linkedColumn != null) {
+                    tableColumns = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+                }
+                else {
                     continue;
                 }
-                tableColumns = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
             }
-            List<String> tableColumnList = Arrays.stream(tableColumns.split(",")).collect(Collectors.toList());
-            List<String> beanColumnList = StringUtils.isBlank(beanColumns) ?
-                    new ArrayList<>() : Arrays.stream(beanColumns.split(",")).collect(Collectors.toList());
-            int beanColumnSize = beanColumnList.size();
+            boolean blnBeanColumnBlank = StringUtils.isBlank(beanColumns);
             boolean blnTableIdBlank = StringUtils.isBlank(tableId);
             boolean blnColumnFormatBlank = StringUtils.isBlank(columnFormat);
-            for (int i = 0; i < tableColumnList.size(); i ++) {
-                String tableColumn = tableColumnList.get(i);
-                String format = blnTableIdBlank ?
-                        tableColumn : String.format("%s.%s", tableId, tableColumn);
-                if (blnColumnFormatBlank) {
-                    if (beanColumnSize > i) {
-                        String beanColumn = beanColumnList.get(i);
-                        if (!tableColumn.equals(beanColumn)) {
-                            format += String.format(" as %s", beanColumn);
-                        }
+            int formatIndex = blnColumnFormatBlank ? -1 : columnFormat.indexOf("%s");
+            int tableStart = 0;
+            int beanStart = blnBeanColumnBlank ? -1 : 0;
+            while (tableStart >= 0) {
+                int tableEnd = tableColumns.indexOf(',', tableStart);
+                int tableColumnEnd = tableEnd < 0 ? tableColumns.length() : tableEnd;
+                int beanColumnEnd = -1;
+                if (beanStart >= 0) {
+                    int beanEnd = beanColumns.indexOf(',', beanStart);
+                    beanColumnEnd = beanEnd < 0 ? beanColumns.length() : beanEnd;
+                }
+                if (!blnFirst) {
+                    target.append(',');
+                }
+                blnFirst = false;
+                if (formatIndex >= 0) {
+                    target.append(columnFormat, 0, formatIndex);
+                }
+                if (!blnTableIdBlank) {
+                    target.append(tableId).append('.');
+                }
+                target.append(tableColumns, tableStart, tableColumnEnd);
+                if (!blnColumnFormatBlank) {
+                    if (formatIndex >= 0) {
+                        target.append(columnFormat, formatIndex + 2, columnFormat.length());
+                    }
+                    if (beanStart >= 0) {
+                        target.append(" as ").append(beanColumns, beanStart, beanColumnEnd);
                     }
                 }
-                else {
-                    format = String.format(columnFormat, format);
-                    if (beanColumnSize > i) {
-                        format += String.format(" as %s", beanColumnList.get(i));
+                else if (beanStart >= 0) {
+                    int tableColumnLength = tableColumnEnd - tableStart;
+                    int beanColumnLength = beanColumnEnd - beanStart;
+                    //字段名与属性名相同时不加别名
+                    if (tableColumnLength != beanColumnLength
+                            || !tableColumns.regionMatches(tableStart, beanColumns, beanStart, beanColumnLength)) {
+                        target.append(" as ").append(beanColumns, beanStart, beanColumnEnd);
                     }
                 }
-                formats.add(format);
+                tableStart = tableEnd < 0 ? -1 : tableEnd + 1;
+                if (beanStart >= 0) {
+                    beanStart = beanColumnEnd < beanColumns.length() ? beanColumnEnd + 1 : -1;
+                }
             }
         }
-        return String.join(",", formats);
     }
 
     private void addAllTableColumns() {
@@ -329,66 +714,94 @@ public class BaseLinkedQueryWrapper {
                 columnInfos.add(columnInfo);
                 continue;
             }
-            List<Field> fields = ClazzUtils.getAllFields(clazz);
-            for (Field field : fields) {
-                addColumnInfo(tableInfo, field, formatBeanColumn, null, null);
+            EntityMeta entityMeta = EntityMetaUtils.getEntityMeta(clazz);
+            List<Field> fields = entityMeta.getFields();
+            List<String> columns = entityMeta.getColumns(mapUnderscoreToCamelCase);
+            for (int i = 0; i < fields.size(); i ++) {
+                ColumnInfo columnInfo = new ColumnInfo();
+                columnInfo.setTableIndex(tableIndex);
+                columnInfo.setTableColumns(columns.get(i));
+                if (formatBeanColumn) {
+                    columnInfo.setBeanColumns(fields.get(i).getName());
+                }
+                columnInfos.add(columnInfo);
             }
         }
+        //已展开为查询字段，重新生成Sql时不再重复添加
+        selectAllTableInfos.clear();
+    }
+
+    protected void appendColumn(String tableId, String column) {
+        sqlBuilder.append(tableId).append('.').append(column);
+    }
+
+    private void appendSubQuery(Consumer<LinkedQueryWrapper> consumer, List<TableInfo> parentTableInfos) {
+        LinkedQueryWrapper linkedQueryWrapper = buildNestedWrapper();
+        if (parentTableInfos != null) {
+            linkedQueryWrapper.setParentTableInfos(parentTableInfos);
+        }
+        consumer.accept(linkedQueryWrapper);
+        sqlBuilder.append('(');
+        linkedQueryWrapper.appendFullSql(sqlBuilder);
+        sqlBuilder.append(") ");
+        args.addAll(linkedQueryWrapper.getArgs());
+        addDependentTables(linkedQueryWrapper);
     }
 
     protected void isNull(String tableId, String column) {
         spendOperator();
-        sqlBuilder.append(String.format("%s.%s is null ", tableId, column));
+        appendColumn(tableId, column);
+        sqlBuilder.append(" is null ");
     }
 
     protected void isNotNull(String tableId, String column) {
         spendOperator();
-        sqlBuilder.append(String.format("%s.%s is not null ", tableId, column));
+        appendColumn(tableId, column);
+        sqlBuilder.append(" is not null ");
     }
 
     protected void eq(String tableId, String column, Object arg, Consumer<LinkedQueryWrapper> consumer) {
         spendOperator();
+        appendColumn(tableId, column);
         if (consumer == null) {
             if (arg != null) {
-                sqlBuilder.append(String.format("%s.%s = ? ", tableId, column));
+                sqlBuilder.append(" = ? ");
                 args.add(arg);
             }
             else {
-                sqlBuilder.append(String.format("%s.%s is null ", tableId, column));
+                sqlBuilder.append(" is null ");
             }
         }
         else {
-            LinkedQueryWrapper linkedQueryWrapper = new LinkedQueryWrapper();
-            consumer.accept(linkedQueryWrapper);
-            linkedQueryWrapper.formatSql();
-            sqlBuilder.append(String.format("%s.%s = (%s) ", tableId, column, linkedQueryWrapper.getFullSql()));
-            args.addAll(linkedQueryWrapper.getArgs());
+            sqlBuilder.append(" = ");
+            appendSubQuery(consumer, null);
         }
     }
 
     protected void eq(String tableId1, String column1, String tableId2, String column2) {
         spendOperator();
-        sqlBuilder.append(String.format("%s.%s = %s.%s ", tableId1, column1, tableId2, column2));
+        appendColumn(tableId1, column1);
+        sqlBuilder.append(" = ");
+        appendColumn(tableId2, column2);
+        sqlBuilder.append(' ');
     }
 
 
     protected void ne(String tableId, String column, Object arg, Consumer<LinkedQueryWrapper> consumer) {
         spendOperator();
+        appendColumn(tableId, column);
         if (consumer == null) {
             if (arg != null) {
-                sqlBuilder.append(String.format("%s.%s <> ? ", tableId, column));
+                sqlBuilder.append(" <> ? ");
                 args.add(arg);
             }
             else {
-                sqlBuilder.append(String.format("%s.%s is not null ", tableId, column));
+                sqlBuilder.append(" is not null ");
             }
         }
         else {
-            LinkedQueryWrapper linkedQueryWrapper = new LinkedQueryWrapper();
-            consumer.accept(linkedQueryWrapper);
-            linkedQueryWrapper.formatSql();
-            sqlBuilder.append(String.format("%s.%s <> (%s) ", tableId, column, linkedQueryWrapper.getFullSql()));
-            args.addAll(linkedQueryWrapper.getArgs());
+            sqlBuilder.append(" <> ");
+            appendSubQuery(consumer, null);
         }
     }
 
@@ -410,98 +823,89 @@ public class BaseLinkedQueryWrapper {
 
     private void compare(String tableId, String column, Object arg, Consumer<LinkedQueryWrapper> consumer, String compareType) {
         spendOperator();
+        appendColumn(tableId, column);
+        sqlBuilder.append(' ').append(compareType).append(' ');
         if (consumer == null) {
-            sqlBuilder.append(String.format("%s.%s %s ? ", tableId, column, compareType));
+            sqlBuilder.append("? ");
             args.add(arg);
         }
         else {
-            LinkedQueryWrapper linkedQueryWrapper = new LinkedQueryWrapper();
-            consumer.accept(linkedQueryWrapper);
-            linkedQueryWrapper.formatSql();
-            sqlBuilder.append(String.format("%s.%s %s (%s) ", tableId, column, compareType, linkedQueryWrapper.getFullSql()));
-            args.addAll(linkedQueryWrapper.getArgs());
+            appendSubQuery(consumer, null);
         }
     }
 
     protected void like(String tableId, String column, String arg) {
         spendOperator();
-        sqlBuilder.append(String.format("%s.%s like concat(?, ?, ?) ", tableId, column));
-        args.add("%");
-        args.add(arg);
-        args.add("%");
+        appendColumn(tableId, column);
+        sqlBuilder.append(" like ? ");
+        args.add(new LikeArg(arg, true, true));
     }
 
     protected void likeLeft(String tableId, String column, String arg) {
         spendOperator();
-        sqlBuilder.append(String.format("%s.%s like concat(?, ?) ", tableId, column));
-        args.add("%");
-        args.add(arg);
+        appendColumn(tableId, column);
+        sqlBuilder.append(" like ? ");
+        args.add(new LikeArg(arg, true, false));
     }
 
     protected void likeRight(String tableId, String column, String arg) {
         spendOperator();
-        sqlBuilder.append(String.format("%s.%s like concat(?, ?) ", tableId, column));
-        args.add(arg);
-        args.add("%");
+        appendColumn(tableId, column);
+        sqlBuilder.append(" like ? ");
+        args.add(new LikeArg(arg, false, true));
     }
 
     protected void notLike(String tableId, String column, String arg) {
         spendOperator();
-        sqlBuilder.append(String.format("%s.%s not like concat(?, ?, ?) ", tableId, column));
-        args.add("%");
-        args.add(arg);
-        args.add("%");
+        appendColumn(tableId, column);
+        sqlBuilder.append(" not like ? ");
+        args.add(new LikeArg(arg, true, true));
     }
 
     protected void between(String tableId, String column, Object arg1, Object arg2) {
         spendOperator();
-        sqlBuilder.append(String.format("%s.%s between ? and ? ", tableId, column));
+        appendColumn(tableId, column);
+        sqlBuilder.append(" between ? and ? ");
         args.add(arg1);
         args.add(arg2);
     }
 
     protected void notBetween(String tableId, String column, Object arg1, Object arg2) {
         spendOperator();
-        sqlBuilder.append(String.format("%s.%s not between ? and ? ", tableId, column));
+        appendColumn(tableId, column);
+        sqlBuilder.append(" not between ? and ? ");
         args.add(arg1);
         args.add(arg2);
     }
 
     protected void in(String tableId, String column, List<?> args, Consumer<LinkedQueryWrapper> consumer) {
         spendOperator();
-        if (consumer == null) {
-            this.args.addAll(args);
-            List<String> params = new ArrayList<>();
-            for (int i = 0; i < args.size(); i ++) {
-                params.add("?");
-            }
-            sqlBuilder.append(String.format("%s.%s in (%s) ", tableId, column, String.join(",", params)));
-        }
-        else {
-            LinkedQueryWrapper linkedQueryWrapper = new LinkedQueryWrapper();
-            consumer.accept(linkedQueryWrapper);
-            linkedQueryWrapper.formatSql();
-            sqlBuilder.append(String.format("%s.%s in (%s) ", tableId, column, linkedQueryWrapper.getFullSql()));
-            this.args.addAll(linkedQueryWrapper.getArgs());
-        }
+        appendColumn(tableId, column);
+        sqlBuilder.append(" in ");
+        appendInValues(args, consumer);
     }
 
     protected void notIn(String tableId, String column, List<?> args, Consumer<LinkedQueryWrapper> consumer) {
         spendOperator();
+        appendColumn(tableId, column);
+        sqlBuilder.append(" not in ");
+        appendInValues(args, consumer);
+    }
+
+    private void appendInValues(List<?> args, Consumer<LinkedQueryWrapper> consumer) {
         if (consumer == null) {
             this.args.addAll(args);
-            List<String> params = new ArrayList<>();
+            sqlBuilder.append('(');
             for (int i = 0; i < args.size(); i ++) {
-                params.add("?");
+                if (i > 0) {
+                    sqlBuilder.append(',');
+                }
+                sqlBuilder.append('?');
             }
-            sqlBuilder.append(String.format("%s.%s not in (%s) ", tableId, column, String.join(",", params)));
+            sqlBuilder.append(") ");
         }
         else {
-            LinkedQueryWrapper linkedQueryWrapper = new LinkedQueryWrapper();
-            consumer.accept(linkedQueryWrapper);
-            linkedQueryWrapper.formatSql();
-            sqlBuilder.append(String.format("%s.%s not in (%s) ", tableId, column, linkedQueryWrapper.getFullSql()));
-            this.args.addAll(linkedQueryWrapper.getArgs());
+            appendSubQuery(consumer, null);
         }
     }
 
@@ -510,17 +914,14 @@ public class BaseLinkedQueryWrapper {
         if (args != null) {
             this.args.addAll(Arrays.asList(args));
         }
-        sqlBuilder.append(String.format("exists(%s) ", sql));
+        sqlBuilder.append("exists(").append(sql).append(") ");
+        blnRawSql = true;
     }
 
     protected void appendExists(Consumer<LinkedQueryWrapper> consumer) {
         spendOperator();
-        LinkedQueryWrapper linkedQueryWrapper = new LinkedQueryWrapper();
-        linkedQueryWrapper.setParentTableInfos(this.tableInfos);
-        consumer.accept(linkedQueryWrapper);
-        linkedQueryWrapper.formatSql();
-        sqlBuilder.append(String.format("exists(%s) ", linkedQueryWrapper.getFullSql()));
-        this.args.addAll(linkedQueryWrapper.getArgs());
+        sqlBuilder.append("exists");
+        appendSubQuery(consumer, this.tableInfos);
     }
 
     protected void appendNotExists(String sql, Object... args) {
@@ -528,17 +929,14 @@ public class BaseLinkedQueryWrapper {
         if (args != null) {
             this.args.addAll(Arrays.asList(args));
         }
-        sqlBuilder.append(String.format("not exists(%s) ", sql));
+        sqlBuilder.append("not exists(").append(sql).append(") ");
+        blnRawSql = true;
     }
 
     protected void appendNotExists(Consumer<LinkedQueryWrapper> consumer) {
         spendOperator();
-        LinkedQueryWrapper linkedQueryWrapper = new LinkedQueryWrapper();
-        linkedQueryWrapper.setParentTableInfos(this.tableInfos);
-        consumer.accept(linkedQueryWrapper);
-        linkedQueryWrapper.formatSql();
-        sqlBuilder.append(String.format("not exists(%s) ", linkedQueryWrapper.getFullSql()));
-        this.args.addAll(linkedQueryWrapper.getArgs());
+        sqlBuilder.append("not exists");
+        appendSubQuery(consumer, this.tableInfos);
     }
 
     @SafeVarargs
@@ -547,7 +945,7 @@ public class BaseLinkedQueryWrapper {
         for (SFunction<K, ?> fn : fns) {
             Field field = ColumnUtils.getField(fn);
             String tableColumn = addColumnInfo(tableInfo, field, true, null, null);
-            groupColumns.add(String.format("%s.%s", tableId, tableColumn));
+            groupColumns.add(tableId + "." + tableColumn);
         }
     }
 
@@ -557,14 +955,14 @@ public class BaseLinkedQueryWrapper {
         Field field2 = ColumnUtils.getField(fn2);
         String beanColumn = field2.getName();
         String tableColumn = addColumnInfo(tableInfo, field1, true, beanColumn, null);
-        groupColumns.add(String.format("%s.%s", tableId, tableColumn));
+        groupColumns.add(tableId + "." + tableColumn);
     }
 
     protected final <K> void groupBy(TableInfo tableInfo, SFunction<K, ?> fn1, String beanColumn) {
         String tableId = tableInfo.getTableId();
         Field field1 = ColumnUtils.getField(fn1);
         String tableColumn = addColumnInfo(tableInfo, field1, true, beanColumn, null);
-        groupColumns.add(String.format("%s.%s", tableId, tableColumn));
+        groupColumns.add(tableId + "." + tableColumn);
     }
 
     protected final <M> void groupBy(TableInfo tableInfo, String tableColumn, SFunction<M, ?> fn2) {
@@ -572,40 +970,61 @@ public class BaseLinkedQueryWrapper {
         Field field2 = ColumnUtils.getField(fn2);
         String beanColumn = field2.getName();
         addColumnInfo(tableInfo.getTableIndex(), tableColumn, beanColumn, null);
-        groupColumns.add(String.format("%s.%s", tableId, tableColumn));
+        groupColumns.add(tableId + "." + tableColumn);
     }
 
     protected void groupBy(TableInfo tableInfo, String tableColumn, String beanColumn) {
         String tableId = tableInfo.getTableId();
         addColumnInfo(tableInfo.getTableIndex(), tableColumn, beanColumn, null);
-        groupColumns.add(String.format("%s.%s", tableId, tableColumn));
+        groupColumns.add(tableId + "." + tableColumn);
+    }
+
+    protected void groupBy(TableInfo tableInfo, LinkedColumn<?> linkedColumn, String beanColumn) {
+        String tableId = tableInfo.getTableId();
+        String tableColumn = addColumnInfo(tableInfo, linkedColumn, beanColumn, null);
+        groupColumns.add(tableId + "." + tableColumn);
     }
 
     protected void appendHaving(String sql, Object... args) {
         if (args != null) {
             this.args.addAll(Arrays.asList(args));
         }
-        having = String.format("having %s ", sql);
+        having = "having " + sql + " ";
     }
 
     protected void appendHaving(Consumer<LinkedQueryWrapper> consumer) {
-        LinkedQueryWrapper linkedQueryWrapper = new LinkedQueryWrapper();
+        LinkedQueryWrapper linkedQueryWrapper = buildNestedWrapper();
         linkedQueryWrapper.setTableInfos(this.tableInfos);
         consumer.accept(linkedQueryWrapper);
-        linkedQueryWrapper.formatSql();
-        String having = linkedQueryWrapper.getFullSql();
-        this.having = having.replaceFirst("where", "having");
+        addDependentTables(linkedQueryWrapper);
+        args.addAll(linkedQueryWrapper.getArgs());
+        StringBuilder havingBuilder = new StringBuilder();
+        linkedQueryWrapper.appendFullSql(havingBuilder);
+        int whereIndex = havingBuilder.indexOf("where");
+        if (whereIndex >= 0) {
+            havingBuilder.replace(whereIndex, whereIndex + "where".length(), "having");
+        }
+        this.having = havingBuilder.toString();
     }
 
     protected void orderBy(String tableId, String column, boolean blnFirst, boolean blnDesc) {
         if (blnFirst) {
-            orderBy.append(String.format("order by %s.%s", tableId, column));
+            orderBy.append("order by ");
         }
         else {
-            orderBy.append(String.format(",%s.%s", tableId, column));
+            orderBy.append(',');
         }
+        orderBy.append(tableId).append('.').append(column);
         if (blnDesc) {
             orderBy.append(" desc");
         }
+        orderInfos.add(new OrderInfo(tableId, column, blnDesc));
+    }
+
+    protected void appendNulls(boolean blnNullsFirst) {
+        orderBy.append(blnNullsFirst ? " nulls first" : " nulls last");
+        if (!orderInfos.isEmpty()) {
+            orderInfos.get(orderInfos.size() - 1).setBlnNullsFirst(blnNullsFirst);
+        }
     }
 }
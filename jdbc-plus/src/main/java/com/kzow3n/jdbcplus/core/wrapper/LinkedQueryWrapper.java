@@ -1,7 +1,10 @@
 package com.kzow3n.jdbcplus.core.wrapper;
 
 import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.kzow3n.jdbcplus.core.cache.CachePolicy;
+import com.kzow3n.jdbcplus.core.dialect.Dialect;
 import com.kzow3n.jdbcplus.core.wrapper.column.AggregateWrapper;
+import com.kzow3n.jdbcplus.pojo.LinkedColumn;
 import com.kzow3n.jdbcplus.pojo.TableInfo;
 import com.kzow3n.jdbcplus.utils.ColumnUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -10,6 +13,7 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.CollectionUtils;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
@@ -31,6 +35,14 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         initConfiguration(configuration);
     }
 
+    /**
+     * 指定方言，嵌套查询中的limit、offset在构造时生成，需在构造前确定方言；执行时以执行器的方言为准
+     */
+    public LinkedQueryWrapper(Dialect dialect) {
+        init();
+        this.dialect = dialect;
+    }
+
     public void initSql() {
         baseSql = null;
         fullSql = null;
@@ -142,10 +154,8 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         TableInfo tableInfo2 = getTableInfoByIndex(tableIndex2);
         String tableId1 = tableInfo1.getTableId();
         String tableId2 = tableInfo2.getTableId();
-        Field field1 = ColumnUtils.getField(fn1);
-        String column1 = ColumnUtils.getColumn(tableInfo1, field1, mapUnderscoreToCamelCase);
-        Field field2 = ColumnUtils.getField(fn2);
-        String column2 = ColumnUtils.getColumn(tableInfo2, field2, mapUnderscoreToCamelCase);
+        String column1 = ColumnUtils.getColumn(tableInfo1, fn1, mapUnderscoreToCamelCase);
+        String column2 = ColumnUtils.getColumn(tableInfo2, fn2, mapUnderscoreToCamelCase);
         appendOn(tableId1, column1, tableId2, column2);
         return this;
     }
@@ -155,8 +165,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         TableInfo tableInfo2 = getTableInfoByIndex(tableIndex2);
         String tableId1 = tableInfo1.getTableId();
         String tableId2 = tableInfo2.getTableId();
-        Field field1 = ColumnUtils.getField(fn1);
-        String column1 = ColumnUtils.getColumn(tableInfo1, field1, mapUnderscoreToCamelCase);
+        String column1 = ColumnUtils.getColumn(tableInfo1, fn1, mapUnderscoreToCamelCase);
         appendOn(tableId1, column1, tableId2, column2);
         return this;
     }
@@ -166,8 +175,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         TableInfo tableInfo2 = getTableInfoByIndex(tableIndex2);
         String tableId1 = tableInfo1.getTableId();
         String tableId2 = tableInfo2.getTableId();
-        Field field2 = ColumnUtils.getField(fn2);
-        String column2 = ColumnUtils.getColumn(tableInfo2, field2, mapUnderscoreToCamelCase);
+        String column2 = ColumnUtils.getColumn(tableInfo2, fn2, mapUnderscoreToCamelCase);
         appendOn(tableId1, column1, tableId2, column2);
         return this;
     }
@@ -385,8 +393,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper isNull(Integer tableIndex, SFunction<K, ?> fn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         isNull(tableId, column);
         return this;
     }
@@ -401,8 +408,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper isNotNull(Integer tableIndex, SFunction<K, ?> fn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         isNotNull(tableId, column);
         return this;
     }
@@ -417,8 +423,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper eq(Integer tableIndex, SFunction<K, ?> fn, Object arg) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         eq(tableId, column, arg, null);
         return this;
     }
@@ -443,8 +448,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper eq(Integer tableIndex, SFunction<K, ?> fn, Consumer<LinkedQueryWrapper> consumer) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         eq(tableId, column, null, consumer);
         return this;
     }
@@ -469,8 +473,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K, M> LinkedQueryWrapper eq(Integer tableIndex1, SFunction<K, ?> fn1, String tableId2, SFunction<M, ?> fn2) {
         TableInfo tableInfo1 = getTableInfoByIndex(tableIndex1);
         String tableId1 = tableInfo1.getTableId();
-        Field field1 = ColumnUtils.getField(fn1);
-        String column1 = ColumnUtils.getColumn(tableInfo1, field1, mapUnderscoreToCamelCase);
+        String column1 = ColumnUtils.getColumn(tableInfo1, fn1, mapUnderscoreToCamelCase);
         Field field2 = ColumnUtils.getField(fn2);
         TableInfo tableInfo2 = getTableInfoById(parentTableInfos, tableId2);
         String column2 = ColumnUtils.getColumn(tableInfo2, field2, mapUnderscoreToCamelCase);
@@ -481,8 +484,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper eq(Integer tableIndex1, SFunction<K, ?> fn1, String tableId2, String column2) {
         TableInfo tableInfo1 = getTableInfoByIndex(tableIndex1);
         String tableId1 = tableInfo1.getTableId();
-        Field field1 = ColumnUtils.getField(fn1);
-        String column1 = ColumnUtils.getColumn(tableInfo1, field1, mapUnderscoreToCamelCase);
+        String column1 = ColumnUtils.getColumn(tableInfo1, fn1, mapUnderscoreToCamelCase);
         eq(tableId1, column1, tableId2, column2);
         return this;
     }
@@ -490,8 +492,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper ne(Integer tableIndex, SFunction<K, ?> fn, Object arg) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         ne(tableId, column, arg, null);
         return this;
     }
@@ -516,8 +517,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper ne(Integer tableIndex, SFunction<K, ?> fn, Consumer<LinkedQueryWrapper> consumer) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         ne(tableId, column, null, consumer);
         return this;
     }
@@ -545,8 +545,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         gt(tableId, column, arg, null);
         return this;
     }
@@ -574,8 +573,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper gt(Integer tableIndex, SFunction<K, ?> fn, Consumer<LinkedQueryWrapper> consumer) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         gt(tableId, column, null, consumer);
         return this;
     }
@@ -603,8 +601,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         ge(tableId, column, arg, null);
         return this;
     }
@@ -632,8 +629,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper ge(Integer tableIndex, SFunction<K, ?> fn, Consumer<LinkedQueryWrapper> consumer) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         ge(tableId, column, null, consumer);
         return this;
     }
@@ -661,8 +657,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         lt(tableId, column, arg, null);
         return this;
     }
@@ -690,8 +685,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper lt(Integer tableIndex, SFunction<K, ?> fn, Consumer<LinkedQueryWrapper> consumer) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         lt(tableId, column, null, consumer);
         return this;
     }
@@ -719,8 +713,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         le(tableId, column, arg, null);
         return this;
     }
@@ -748,8 +741,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper le(Integer tableIndex, SFunction<K, ?> fn, Consumer<LinkedQueryWrapper> consumer) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         le(tableId, column, null, consumer);
         return this;
     }
@@ -777,8 +769,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         like(tableId, column, arg);
         return this;
     }
@@ -799,8 +790,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         likeLeft(tableId, column, arg);
         return this;
     }
@@ -821,8 +811,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         likeRight(tableId, column, arg);
         return this;
     }
@@ -843,8 +832,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         notLike(tableId, column, arg);
         return this;
     }
@@ -865,8 +853,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         between(tableId, column, arg1, arg2);
         return this;
     }
@@ -900,8 +887,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         notBetween(tableId, column, arg1, arg2);
         return this;
     }
@@ -935,8 +921,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         List<Object> list = Arrays.asList(args);
         in(tableId, column, list, null);
         return this;
@@ -959,8 +944,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         in(tableId, column, args, null);
         return this;
     }
@@ -978,8 +962,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper in(Integer tableIndex, SFunction<K, ?> fn, Consumer<LinkedQueryWrapper> consumer) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         in(tableId, column, null, consumer);
         return this;
     }
@@ -997,8 +980,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         List<Object> list = Arrays.asList(args);
         notIn(tableId, column, list, null);
         return this;
@@ -1021,8 +1003,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
         }
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         notIn(tableId, column, args, null);
         return this;
     }
@@ -1040,8 +1021,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper notIn(Integer tableIndex, SFunction<K, ?> fn, Consumer<LinkedQueryWrapper> consumer) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         notIn(tableId, column, null, consumer);
         return this;
     }
@@ -1117,8 +1097,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper orderBy(Integer tableIndex, SFunction<K, ?> fn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         orderBy(tableId, column, true, false);
         return this;
     }
@@ -1133,8 +1112,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper orderByDesc(Integer tableIndex, SFunction<K, ?> fn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         orderBy(tableId, column, true, true);
         return this;
     }
@@ -1149,8 +1127,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper thenBy(Integer tableIndex, SFunction<K, ?> fn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         orderBy(tableId, column, false, false);
         return this;
     }
@@ -1165,8 +1142,7 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
     public <K> LinkedQueryWrapper thenByDesc(Integer tableIndex, SFunction<K, ?> fn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
         String tableId = tableInfo.getTableId();
-        Field field = ColumnUtils.getField(fn);
-        String column = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
+        String column = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
         orderBy(tableId, column, false, true);
         return this;
     }
@@ -1180,27 +1156,442 @@ public class LinkedQueryWrapper extends BaseLinkedQueryWrapper {
 
     //仅适用于达梦、oracle等支持nulls first/last语法的数据库
     public LinkedQueryWrapper nullsFirst() {
-        orderBy.append(" nulls first");
+        appendNulls(true);
         return this;
     }
 
     //仅适用于达梦、oracle等支持nulls first/last语法的数据库
     public LinkedQueryWrapper nullsLast() {
-        orderBy.append(" nulls last");
+        appendNulls(false);
         return this;
     }
 
-    //仅适用于mysql、pgsql等支持limit offset语法的数据库
+    //按方言生成，SqlServer、oracle使用offset fetch
     public LinkedQueryWrapper limit(int limit) {
         this.limit = limit;
         return this;
     }
 
-    //仅适用于mysql、pgsql等支持limit offset语法的数据库
+    //按方言生成，需与limit同时使用
     public LinkedQueryWrapper offset(int offset) {
         this.offset = offset;
         return this;
     }
 
     //endregion
+
+    //region 缓存策略
+
+    /**
+     * 缓存本查询的计数与结果，执行器未开启cacheable时同样生效，但需配置redisTemplate或queryCache
+     *
+     * @param timeout 过期时间，为null时使用执行器的cacheTimeout
+     */
+    public LinkedQueryWrapper cache(@Nullable Duration timeout) {
+        cachePolicy = CachePolicy.cache(timeout);
+        return this;
+    }
+
+    /**
+     * 本查询不使用缓存，执行器开启了cacheable时同样生效
+     */
+    public LinkedQueryWrapper noCache() {
+        cachePolicy = CachePolicy.noCache();
+        return this;
+    }
+
+    /**
+     * 只缓存本查询的计数（包括分页查询的总数），结果每次从数据库读取
+     */
+    public LinkedQueryWrapper cacheCountOnly(@Nullable Duration timeout) {
+        cachePolicy = CachePolicy.cacheCountOnly(timeout);
+        return this;
+    }
+
+    //endregion
+
+    //region 静态元模型
+
+    public LinkedQueryWrapper select(Integer tableIndex, LinkedColumn<?>... linkedColumns) {
+        for (LinkedColumn<?> linkedColumn : linkedColumns) {
+            addColumnInfo(tableIndex, linkedColumn, null, null);
+        }
+        return this;
+    }
+
+    public LinkedQueryWrapper select(Integer tableIndex, LinkedColumn<?> linkedColumn, @Nullable String beanColumn) {
+        addColumnInfo(tableIndex, linkedColumn, beanColumn, null);
+        return this;
+    }
+
+    public LinkedQueryWrapper count(Integer tableIndex, LinkedColumn<?> linkedColumn, String beanColumn) {
+        addColumnInfo(tableIndex, linkedColumn, beanColumn, "count(%s)");
+        return this;
+    }
+
+    public LinkedQueryWrapper avg(Integer tableIndex, LinkedColumn<?> linkedColumn, String beanColumn) {
+        addColumnInfo(tableIndex, linkedColumn, beanColumn, "avg(%s)");
+        return this;
+    }
+
+    public LinkedQueryWrapper sum(Integer tableIndex, LinkedColumn<?> linkedColumn, String beanColumn) {
+        addColumnInfo(tableIndex, linkedColumn, beanColumn, "sum(%s)");
+        return this;
+    }
+
+    public LinkedQueryWrapper max(Integer tableIndex, LinkedColumn<?> linkedColumn, String beanColumn) {
+        addColumnInfo(tableIndex, linkedColumn, beanColumn, "max(%s)");
+        return this;
+    }
+
+    public LinkedQueryWrapper min(Integer tableIndex, LinkedColumn<?> linkedColumn, String beanColumn) {
+        addColumnInfo(tableIndex, linkedColumn, beanColumn, "min(%s)");
+        return this;
+    }
+
+    public LinkedQueryWrapper groupConcat(Integer tableIndex, LinkedColumn<?> linkedColumn, String beanColumn) {
+        addColumnInfo(tableIndex, linkedColumn, beanColumn, "group_concat(%s)");
+        return this;
+    }
+
+    public LinkedQueryWrapper on(Integer tableIndex1, LinkedColumn<?> linkedColumn1, Integer tableIndex2, LinkedColumn<?> linkedColumn2) {
+        TableInfo tableInfo1 = getTableInfoByIndex(tableIndex1);
+        TableInfo tableInfo2 = getTableInfoByIndex(tableIndex2);
+        String tableId1 = tableInfo1.getTableId();
+        String tableId2 = tableInfo2.getTableId();
+        String column1 = ColumnUtils.getColumn(tableInfo1, linkedColumn1, mapUnderscoreToCamelCase);
+        String column2 = ColumnUtils.getColumn(tableInfo2, linkedColumn2, mapUnderscoreToCamelCase);
+        appendOn(tableId1, column1, tableId2, column2);
+        return this;
+    }
+
+    public LinkedQueryWrapper on(Integer tableIndex1, LinkedColumn<?> linkedColumn1, Integer tableIndex2, String column2) {
+        TableInfo tableInfo1 = getTableInfoByIndex(tableIndex1);
+        TableInfo tableInfo2 = getTableInfoByIndex(tableIndex2);
+        String tableId1 = tableInfo1.getTableId();
+        String tableId2 = tableInfo2.getTableId();
+        String column1 = ColumnUtils.getColumn(tableInfo1, linkedColumn1, mapUnderscoreToCamelCase);
+        appendOn(tableId1, column1, tableId2, column2);
+        return this;
+    }
+
+    public LinkedQueryWrapper on(Integer tableIndex1, String column1, Integer tableIndex2, LinkedColumn<?> linkedColumn2) {
+        TableInfo tableInfo1 = getTableInfoByIndex(tableIndex1);
+        TableInfo tableInfo2 = getTableInfoByIndex(tableIndex2);
+        String tableId1 = tableInfo1.getTableId();
+        String tableId2 = tableInfo2.getTableId();
+        String column2 = ColumnUtils.getColumn(tableInfo2, linkedColumn2, mapUnderscoreToCamelCase);
+        appendOn(tableId1, column1, tableId2, column2);
+        return this;
+    }
+
+    public LinkedQueryWrapper isNull(Integer tableIndex, LinkedColumn<?> linkedColumn) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        isNull(tableId, column);
+        return this;
+    }
+
+    public LinkedQueryWrapper isNotNull(Integer tableIndex, LinkedColumn<?> linkedColumn) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        isNotNull(tableId, column);
+        return this;
+    }
+
+    public LinkedQueryWrapper eq(Integer tableIndex, LinkedColumn<?> linkedColumn, Object arg) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        eq(tableId, column, arg, null);
+        return this;
+    }
+
+    public LinkedQueryWrapper eq(Integer tableIndex, LinkedColumn<?> linkedColumn, Consumer<LinkedQueryWrapper> consumer) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        eq(tableId, column, null, consumer);
+        return this;
+    }
+
+    public LinkedQueryWrapper eq(Integer tableIndex1, LinkedColumn<?> linkedColumn1, String tableId2, LinkedColumn<?> linkedColumn2) {
+        TableInfo tableInfo1 = getTableInfoByIndex(tableIndex1);
+        String tableId1 = tableInfo1.getTableId();
+        String column1 = ColumnUtils.getColumn(tableInfo1, linkedColumn1, mapUnderscoreToCamelCase);
+        TableInfo tableInfo2 = getTableInfoById(parentTableInfos, tableId2);
+        String column2 = ColumnUtils.getColumn(tableInfo2, linkedColumn2, mapUnderscoreToCamelCase);
+        eq(tableId1, column1, tableId2, column2);
+        return this;
+    }
+
+    public LinkedQueryWrapper ne(Integer tableIndex, LinkedColumn<?> linkedColumn, Object arg) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        ne(tableId, column, arg, null);
+        return this;
+    }
+
+    public LinkedQueryWrapper ne(Integer tableIndex, LinkedColumn<?> linkedColumn, Consumer<LinkedQueryWrapper> consumer) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        ne(tableId, column, null, consumer);
+        return this;
+    }
+
+    public LinkedQueryWrapper gt(Integer tableIndex, LinkedColumn<?> linkedColumn, Object arg) {
+        if (arg == null) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        gt(tableId, column, arg, null);
+        return this;
+    }
+
+    public LinkedQueryWrapper gt(Integer tableIndex, LinkedColumn<?> linkedColumn, Consumer<LinkedQueryWrapper> consumer) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        gt(tableId, column, null, consumer);
+        return this;
+    }
+
+    public LinkedQueryWrapper ge(Integer tableIndex, LinkedColumn<?> linkedColumn, Object arg) {
+        if (arg == null) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        ge(tableId, column, arg, null);
+        return this;
+    }
+
+    public LinkedQueryWrapper ge(Integer tableIndex, LinkedColumn<?> linkedColumn, Consumer<LinkedQueryWrapper> consumer) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        ge(tableId, column, null, consumer);
+        return this;
+    }
+
+    public LinkedQueryWrapper lt(Integer tableIndex, LinkedColumn<?> linkedColumn, Object arg) {
+        if (arg == null) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        lt(tableId, column, arg, null);
+        return this;
+    }
+
+    public LinkedQueryWrapper lt(Integer tableIndex, LinkedColumn<?> linkedColumn, Consumer<LinkedQueryWrapper> consumer) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        lt(tableId, column, null, consumer);
+        return this;
+    }
+
+    public LinkedQueryWrapper le(Integer tableIndex, LinkedColumn<?> linkedColumn, Object arg) {
+        if (arg == null) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        le(tableId, column, arg, null);
+        return this;
+    }
+
+    public LinkedQueryWrapper le(Integer tableIndex, LinkedColumn<?> linkedColumn, Consumer<LinkedQueryWrapper> consumer) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        le(tableId, column, null, consumer);
+        return this;
+    }
+
+    public LinkedQueryWrapper like(Integer tableIndex, LinkedColumn<?> linkedColumn, String arg) {
+        if (StringUtils.isBlank(arg)) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        like(tableId, column, arg);
+        return this;
+    }
+
+    public LinkedQueryWrapper likeLeft(Integer tableIndex, LinkedColumn<?> linkedColumn, String arg) {
+        if (StringUtils.isBlank(arg)) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        likeLeft(tableId, column, arg);
+        return this;
+    }
+
+    public LinkedQueryWrapper likeRight(Integer tableIndex, LinkedColumn<?> linkedColumn, String arg) {
+        if (StringUtils.isBlank(arg)) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        likeRight(tableId, column, arg);
+        return this;
+    }
+
+    public LinkedQueryWrapper notLike(Integer tableIndex, LinkedColumn<?> linkedColumn, String arg) {
+        if (StringUtils.isBlank(arg)) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        notLike(tableId, column, arg);
+        return this;
+    }
+
+    public LinkedQueryWrapper between(Integer tableIndex, LinkedColumn<?> linkedColumn, Object arg1, Object arg2) {
+        if (arg1 == null || arg2 == null) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        between(tableId, column, arg1, arg2);
+        return this;
+    }
+
+    public LinkedQueryWrapper notBetween(Integer tableIndex, LinkedColumn<?> linkedColumn, Object arg1, Object arg2) {
+        if (arg1 == null || arg2 == null) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        notBetween(tableId, column, arg1, arg2);
+        return this;
+    }
+
+    public LinkedQueryWrapper in(Integer tableIndex, LinkedColumn<?> linkedColumn, Object... args) {
+        if (args == null || args.length == 0) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        List<Object> list = Arrays.asList(args);
+        in(tableId, column, list, null);
+        return this;
+    }
+
+    public LinkedQueryWrapper in(Integer tableIndex, LinkedColumn<?> linkedColumn, List<?> args) {
+        if (CollectionUtils.isEmpty(args)) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        in(tableId, column, args, null);
+        return this;
+    }
+
+    public LinkedQueryWrapper in(Integer tableIndex, LinkedColumn<?> linkedColumn, Consumer<LinkedQueryWrapper> consumer) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        in(tableId, column, null, consumer);
+        return this;
+    }
+
+    public LinkedQueryWrapper notIn(Integer tableIndex, LinkedColumn<?> linkedColumn, Object... args) {
+        if (args == null || args.length == 0) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        List<Object> list = Arrays.asList(args);
+        notIn(tableId, column, list, null);
+        return this;
+    }
+
+    public LinkedQueryWrapper notIn(Integer tableIndex, LinkedColumn<?> linkedColumn, List<?> args) {
+        if (CollectionUtils.isEmpty(args)) {
+            return this;
+        }
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        notIn(tableId, column, args, null);
+        return this;
+    }
+
+    public LinkedQueryWrapper notIn(Integer tableIndex, LinkedColumn<?> linkedColumn, Consumer<LinkedQueryWrapper> consumer) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        notIn(tableId, column, null, consumer);
+        return this;
+    }
+
+    public LinkedQueryWrapper groupBy(Integer tableIndex, LinkedColumn<?>... linkedColumns) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        for (LinkedColumn<?> linkedColumn : linkedColumns) {
+            groupBy(tableInfo, linkedColumn, null);
+        }
+        return this;
+    }
+
+    public LinkedQueryWrapper groupBy(Integer tableIndex, LinkedColumn<?> linkedColumn, @Nullable String beanColumn) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        groupBy(tableInfo, linkedColumn, beanColumn);
+        return this;
+    }
+
+    public LinkedQueryWrapper orderBy(Integer tableIndex, LinkedColumn<?> linkedColumn) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        orderBy(tableId, column, true, false);
+        return this;
+    }
+
+    public LinkedQueryWrapper orderByDesc(Integer tableIndex, LinkedColumn<?> linkedColumn) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        orderBy(tableId, column, true, true);
+        return this;
+    }
+
+    public LinkedQueryWrapper thenBy(Integer tableIndex, LinkedColumn<?> linkedColumn) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        orderBy(tableId, column, false, false);
+        return this;
+    }
+
+    public LinkedQueryWrapper thenByDesc(Integer tableIndex, LinkedColumn<?> linkedColumn) {
+        TableInfo tableInfo = getTableInfoByIndex(tableIndex);
+        String tableId = tableInfo.getTableId();
+        String column = ColumnUtils.getColumn(tableInfo, linkedColumn, mapUnderscoreToCamelCase);
+        orderBy(tableId, column, false, true);
+        return this;
+    }
+
+    //endregion
 }
@@ -4,8 +4,6 @@ import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.kzow3n.jdbcplus.pojo.TableInfo;
 import com.kzow3n.jdbcplus.utils.ColumnUtils;
 
-import java.lang.reflect.Field;
-
 /**
  * 聚合Column构造器
  *
@@ -16,73 +14,67 @@ public class AggregateWrapper extends BaseAggregateWrapper {
 
     public <K> void count(Integer tableIndex, SFunction<K, ?> fn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
-        Field field = ColumnUtils.getField(fn);
-        String tableColumn = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
-        column = String.format("count(%s.%s)", tableInfo.getTableId(), tableColumn);
+        String tableColumn = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
+        column = "count(" + tableInfo.getTableId() + "." + tableColumn + ")";
     }
 
     public void count(Integer tableIndex, String tableColumn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
-        column = String.format("count(%s.%s)", tableInfo.getTableId(), tableColumn);
+        column = "count(" + tableInfo.getTableId() + "." + tableColumn + ")";
     }
 
     public <K> void avg(Integer tableIndex, SFunction<K, ?> fn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
-        Field field = ColumnUtils.getField(fn);
-        String tableColumn = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
-        column = String.format("avg(%s.%s)", tableInfo.getTableId(), tableColumn);
+        String tableColumn = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
+        column = "avg(" + tableInfo.getTableId() + "." + tableColumn + ")";
     }
 
     public void avg(Integer tableIndex, String tableColumn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
-        column = String.format("avg(%s.%s)", tableInfo.getTableId(), tableColumn);
+        column = "avg(" + tableInfo.getTableId() + "." + tableColumn + ")";
     }
 
     public <K> void sum(Integer tableIndex, SFunction<K, ?> fn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
-        Field field = ColumnUtils.getField(fn);
-        String tableColumn = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
-        column = String.format("sum(%s.%s)", tableInfo.getTableId(), tableColumn);
+        String tableColumn = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
+        column = "sum(" + tableInfo.getTableId() + "." + tableColumn + ")";
     }
 
     public void sum(Integer tableIndex, String tableColumn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
-        column = String.format("sum(%s.%s)", tableInfo.getTableId(), tableColumn);
+        column = "sum(" + tableInfo.getTableId() + "." + tableColumn + ")";
     }
 
     public <K> void max(Integer tableIndex, SFunction<K, ?> fn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
-        Field field = ColumnUtils.getField(fn);
-        String tableColumn = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
-        column = String.format("max(%s.%s)", tableInfo.getTableId(), tableColumn);
+        String tableColumn = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
+        column = "max(" + tableInfo.getTableId() + "." + tableColumn + ")";
     }
 
     public void max(Integer tableIndex, String tableColumn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
-        column = String.format("max(%s.%s)", tableInfo.getTableId(), tableColumn);
+        column = "max(" + tableInfo.getTableId() + "." + tableColumn + ")";
     }
 
     public <K> void min(Integer tableIndex, SFunction<K, ?> fn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
-        Field field = ColumnUtils.getField(fn);
-        String tableColumn = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
-        column = String.format("min(%s.%s)", tableInfo.getTableId(), tableColumn);
+        String tableColumn = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
+        column = "min(" + tableInfo.getTableId() + "." + tableColumn + ")";
     }
 
     public void min(Integer tableIndex, String tableColumn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
-        column = String.format("min(%s.%s)", tableInfo.getTableId(), tableColumn);
+        column = "min(" + tableInfo.getTableId() + "." + tableColumn + ")";
     }
 
     public <K> void groupConcat(Integer tableIndex, SFunction<K, ?> fn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
-        Field field = ColumnUtils.getField(fn);
-        String tableColumn = ColumnUtils.getColumn(tableInfo, field, mapUnderscoreToCamelCase);
-        column = String.format("group_concat(%s.%s)", tableInfo.getTableId(), tableColumn);
+        String tableColumn = ColumnUtils.getColumn(tableInfo, fn, mapUnderscoreToCamelCase);
+        column = "group_concat(" + tableInfo.getTableId() + "." + tableColumn + ")";
     }
 
     public void groupConcat(Integer tableIndex, String tableColumn) {
         TableInfo tableInfo = getTableInfoByIndex(tableIndex);
-        column = String.format("group_concat(%s.%s)", tableInfo.getTableId(), tableColumn);
+        column = "group_concat(" + tableInfo.getTableId() + "." + tableColumn + ")";
     }
 }
@@ -18,4 +18,5 @@ public class ColumnInfo {
     private String beanColumns;
     private String columnFormat;
     private Field field;
+    private LinkedColumn<?> linkedColumn;
 }
@@ -0,0 +1,68 @@
+package com.kzow3n.jdbcplus.pojo;
+
+import lombok.Getter;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 实体类元数据，创建后不可变
+ * 表名、字段名同时保存mapUnderscoreToCamelCase为true和false两种结果
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Getter
+public class EntityMeta {
+
+    private final Class<?> entityClass;
+    private final String tableName;
+    private final String rawTableName;
+    /**
+     * 非静态字段，按当前类、父类的顺序排列
+     */
+    private final List<Field> fields;
+    private final List<String> columns;
+    private final List<String> rawColumns;
+    private final Map<String, String> propertyColumnMap;
+    private final Map<String, String> rawPropertyColumnMap;
+    private final List<String> idColumns;
+    private final List<String> rawIdColumns;
+
+    public EntityMeta(Class<?> entityClass, String tableName, String rawTableName, List<Field> fields,
+                      List<String> columns, List<String> rawColumns,
+                      Map<String, String> propertyColumnMap, Map<String, String> rawPropertyColumnMap,
+                      List<String> idColumns, List<String> rawIdColumns) {
+        this.entityClass = entityClass;
+        this.tableName = tableName;
+        this.rawTableName = rawTableName;
+        this.fields = fields;
+        this.columns = columns;
+        this.rawColumns = rawColumns;
+        this.propertyColumnMap = propertyColumnMap;
+        this.rawPropertyColumnMap = rawPropertyColumnMap;
+        this.idColumns = idColumns;
+        this.rawIdColumns = rawIdColumns;
+    }
+
+    public String getTableName(boolean mapUnderscoreToCamelCase) {
+        return mapUnderscoreToCamelCase ? tableName : rawTableName;
+    }
+
+    public List<String> getColumns(boolean mapUnderscoreToCamelCase) {
+        return mapUnderscoreToCamelCase ? columns : rawColumns;
+    }
+
+    public Map<String, String> getPropertyColumnMap(boolean mapUnderscoreToCamelCase) {
+        return mapUnderscoreToCamelCase ? propertyColumnMap : rawPropertyColumnMap;
+    }
+
+    public String getColumn(String property, boolean mapUnderscoreToCamelCase) {
+        return getPropertyColumnMap(mapUnderscoreToCamelCase).get(property);
+    }
+
+    public List<String> getIdColumns(boolean mapUnderscoreToCamelCase) {
+        return mapUnderscoreToCamelCase ? idColumns : rawIdColumns;
+    }
+}
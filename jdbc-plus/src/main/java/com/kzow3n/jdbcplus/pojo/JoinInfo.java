@@ -0,0 +1,26 @@
+package com.kzow3n.jdbcplus.pojo;
+
+import lombok.Data;
+
+/**
+ * 连表信息，记录join在Sql中的位置，用于生成计数Sql时去掉无关的连表
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Data
+public class JoinInfo {
+
+    private String joinType;
+    private String tableId;
+    private Class<?> tableClass;
+    /**
+     * join在Sql中的起止位置，未指定on时end为-1
+     */
+    private int start;
+    private int end = -1;
+    /**
+     * on条件中连接表一侧的字段
+     */
+    private String joinColumn;
+}
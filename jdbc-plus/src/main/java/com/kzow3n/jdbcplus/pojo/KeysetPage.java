@@ -0,0 +1,25 @@
+package com.kzow3n.jdbcplus.pojo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 键集分页结果
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Data
+public class KeysetPage<T> {
+
+    private List<T> records;
+    /**
+     * 下一页的游标，传给forObjectsAfter继续查询，没有下一页时为null
+     */
+    private String nextCursor;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.kzow3n.jdbcplus.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.lang.reflect.Field;
+
+/**
+ * Lambda方法引用解析结果，按Lambda的Class缓存
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Getter
+@AllArgsConstructor
+public class LambdaInfo {
+
+    private final String fieldName;
+    private final Field field;
+    /**
+     * mapUnderscoreToCamelCase为true时的表字段名
+     */
+    private final String tableColumn;
+    /**
+     * mapUnderscoreToCamelCase为false时的表字段名
+     */
+    private final String rawTableColumn;
+
+    public String getTableColumn(boolean mapUnderscoreToCamelCase) {
+        return mapUnderscoreToCamelCase ? tableColumn : rawTableColumn;
+    }
+}
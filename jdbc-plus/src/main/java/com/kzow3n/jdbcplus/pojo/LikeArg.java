@@ -0,0 +1,35 @@
+package com.kzow3n.jdbcplus.pojo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 模糊查询参数，执行时拼接通配符
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Data
+@AllArgsConstructor
+public class LikeArg {
+
+    private String value;
+    private boolean blnLeft;
+    private boolean blnRight;
+
+    public LikeArg withValue(String value) {
+        return new LikeArg(value, blnLeft, blnRight);
+    }
+
+    public String toPattern() {
+        StringBuilder stringBuilder = new StringBuilder(value.length() + 2);
+        if (blnLeft) {
+            stringBuilder.append('%');
+        }
+        stringBuilder.append(value);
+        if (blnRight) {
+            stringBuilder.append('%');
+        }
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package com.kzow3n.jdbcplus.pojo;
+
+import lombok.Getter;
+
+/**
+ * 静态元模型字段，由LinkedMetamodelProcessor在编译期为@TableName实体类生成（如Student_.NAME）
+ * 属性名与表字段名在编译期已确定，构造Sql时不需要解析Lambda，也不依赖反射
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Getter
+public final class LinkedColumn<T> {
+
+    private final Class<T> entityClass;
+    private final String property;
+    /**
+     * mapUnderscoreToCamelCase为true时的表字段名
+     */
+    private final String column;
+    /**
+     * mapUnderscoreToCamelCase为false时的表字段名
+     */
+    private final String rawColumn;
+
+    public LinkedColumn(Class<T> entityClass, String property, String column, String rawColumn) {
+        this.entityClass = entityClass;
+        this.property = property;
+        this.column = column;
+        this.rawColumn = rawColumn;
+    }
+
+    public String getColumn(boolean mapUnderscoreToCamelCase) {
+        return mapUnderscoreToCamelCase ? column : rawColumn;
+    }
+
+    @Override
+    public String toString() {
+        return entityClass.getSimpleName() + "." + property;
+    }
+}
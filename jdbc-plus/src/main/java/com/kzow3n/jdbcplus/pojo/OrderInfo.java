@@ -0,0 +1,27 @@
+package com.kzow3n.jdbcplus.pojo;
+
+import lombok.Data;
+
+/**
+ * 排序字段信息，用于键集分页
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Data
+public class OrderInfo {
+
+    private String tableId;
+    private String column;
+    private boolean blnDesc;
+    /**
+     * 指定的nulls first/last，为null时按数据库的默认规则
+     */
+    private Boolean blnNullsFirst;
+
+    public OrderInfo(String tableId, String column, boolean blnDesc) {
+        this.tableId = tableId;
+        this.column = column;
+        this.blnDesc = blnDesc;
+    }
+}
@@ -0,0 +1,195 @@
+package com.kzow3n.jdbcplus.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * 编译期为@TableName实体类生成静态元模型（如Student_），字段名规则与ColumnUtils一致
+ * 只读取注解的源码信息，不依赖MyBatis-Plus的运行时类
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@SupportedAnnotationTypes(LinkedMetamodelProcessor.TABLE_NAME)
+public class LinkedMetamodelProcessor extends AbstractProcessor {
+
+    static final String TABLE_NAME = "com.baomidou.mybatisplus.annotation.TableName";
+    private static final String TABLE_FIELD = "com.baomidou.mybatisplus.annotation.TableField";
+    private static final String TABLE_ID = "com.baomidou.mybatisplus.annotation.TableId";
+    private static final String LINKED_COLUMN = "com.kzow3n.jdbcplus.pojo.LinkedColumn";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (TypeElement typeElement : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                if (typeElement.getKind() != ElementKind.CLASS) {
+                    continue;
+                }
+                try {
+                    generate(typeElement);
+                } catch (IOException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), typeElement);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement typeElement) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(typeElement).getQualifiedName().toString();
+        String entityName = typeElement.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+        //内部类以外部类名拼接，如Outer$Inner生成Outer_Inner_
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace('$', '_');
+        String metamodelName = simpleName + "_";
+        //泛型实体类使用原始类型构造
+        boolean blnGeneric = !typeElement.getTypeParameters().isEmpty();
+        String entityType = blnGeneric ? entityName + "<?>" : entityName;
+        String constructor = blnGeneric ? "new LinkedColumn(" : "new LinkedColumn<>(";
+
+        StringBuilder builder = new StringBuilder(1024);
+        if (!packageName.isEmpty()) {
+            builder.append("package ").append(packageName).append(";\n\n");
+        }
+        builder.append("import ").append(LINKED_COLUMN).append(";\n\n");
+        //生成的源码只使用ASCII字符，不受编译环境的文件编码影响
+        builder.append("/**\n * Static metamodel of ").append(typeElement.getSimpleName()).append(", generated by LinkedMetamodelProcessor.\n */\n");
+        if (blnGeneric) {
+            builder.append("@SuppressWarnings({\"rawtypes\", \"unchecked\"})\n");
+        }
+        builder.append("public final class ").append(metamodelName).append(" {\n\n");
+        Map<String, String> constantNames = new HashMap<>(16);
+        for (VariableElement field : getAllFields(typeElement)) {
+            String property = field.getSimpleName().toString();
+            String constantName = camelToUnderline(property).toUpperCase(Locale.ENGLISH);
+            String clashProperty = constantNames.putIfAbsent(constantName, property);
+            if (clashProperty != null) {
+                //如userName与user_name转换后同名，改用属性名作为常量名，并提示使用者
+                if (constantNames.putIfAbsent(property, property) != null) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, String.format(
+                            "Property '%s' of %s clashes with '%s' on metamodel constant %s, and '%s' is also taken",
+                            property, entityName, clashProperty, constantName, property), field);
+                    continue;
+                }
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, String.format(
+                        "Property '%s' of %s clashes with '%s' on metamodel constant %s, generated as %s_.%s instead",
+                        property, entityName, clashProperty, constantName, simpleName, property), field);
+                constantName = property;
+            }
+            builder.append("    public static final LinkedColumn<").append(entityType).append("> ").append(constantName)
+                    .append(" = ").append(constructor).append(entityName).append(".class, ")
+                    .append(quote(property)).append(", ")
+                    .append(quote(resolveTableColumn(field, true))).append(", ")
+                    .append(quote(resolveTableColumn(field, false))).append(");\n");
+        }
+        builder.append("\n    private ").append(metamodelName).append("() {\n    }\n}\n");
+
+        String qualifiedName = packageName.isEmpty() ? metamodelName : packageName + "." + metamodelName;
+        JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(qualifiedName, typeElement);
+        try (Writer writer = sourceFile.openWriter()) {
+            writer.write(builder.toString());
+        }
+    }
+
+    /**
+     * 与ClazzUtils.getAllFields一致，先取本类字段再取父类字段，同名字段以子类为准
+     */
+    private List<VariableElement> getAllFields(TypeElement typeElement) {
+        List<VariableElement> fields = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        TypeElement current = typeElement;
+        while (current != null && !"java.lang.Object".equals(current.getQualifiedName().toString())) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                //不处理静态字段
+                if (field.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                if (names.add(field.getSimpleName().toString())) {
+                    fields.add(field);
+                }
+            }
+            TypeMirror superclass = current.getSuperclass();
+            if (superclass.getKind() != TypeKind.DECLARED) {
+                break;
+            }
+            current = (TypeElement) ((DeclaredType) superclass).asElement();
+        }
+        return fields;
+    }
+
+    /**
+     * 与ColumnUtils.resolveTableColumn一致：@TableField、@TableId指定的字段名优先，否则按属性名转换
+     */
+    private String resolveTableColumn(VariableElement field, boolean mapUnderscoreToCamelCase) {
+        String tableColumn = getAnnotationValue(field, TABLE_FIELD);
+        if (tableColumn == null) {
+            tableColumn = getAnnotationValue(field, TABLE_ID);
+        }
+        if (tableColumn == null || tableColumn.trim().isEmpty()) {
+            String property = field.getSimpleName().toString();
+            tableColumn = mapUnderscoreToCamelCase ? camelToUnderline(property) : property;
+        }
+        return tableColumn;
+    }
+
+    private String getAnnotationValue(VariableElement field, String annotationName) {
+        for (AnnotationMirror annotationMirror : field.getAnnotationMirrors()) {
+            TypeElement annotationElement = (TypeElement) annotationMirror.getAnnotationType().asElement();
+            if (!annotationName.contentEquals(annotationElement.getQualifiedName())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotationMirror.getElementValues().entrySet()) {
+                if ("value".contentEquals(entry.getKey().getSimpleName())) {
+                    return String.valueOf(entry.getValue().getValue());
+                }
+            }
+            return "";
+        }
+        return null;
+    }
+
+    /**
+     * 与MyBatis-Plus的StringUtils.camelToUnderline一致
+     */
+    private static String camelToUnderline(String param) {
+        int len = param.length();
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i ++) {
+            char c = param.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) {
+                sb.append('_');
+            }
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    private static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i ++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+}
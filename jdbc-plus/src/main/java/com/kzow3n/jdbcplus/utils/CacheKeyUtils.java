@@ -0,0 +1,304 @@
+package com.kzow3n.jdbcplus.utils;
+
+import com.alibaba.fastjson.JSON;
+import com.kzow3n.jdbcplus.pojo.LikeArg;
+import org.apache.ibatis.jdbc.Null;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 缓存键工具类
+ * 缓存键为(查询类型, Sql, 带类型的参数)按固定规则编码后的128位MurmurHash3，编码直接写入哈希状态，不生成中间字符串
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class CacheKeyUtils {
+
+    public static final String KEY_PREFIX = "linked-mybatis:";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_INT = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_DOUBLE = 4;
+    private static final byte TAG_FLOAT = 5;
+    private static final byte TAG_BOOLEAN = 6;
+    private static final byte TAG_BIG_DECIMAL = 7;
+    private static final byte TAG_BIG_INTEGER = 8;
+    private static final byte TAG_DATE = 9;
+    private static final byte TAG_TIMESTAMP = 10;
+    private static final byte TAG_LIKE = 11;
+    private static final byte TAG_ENUM = 12;
+    private static final byte TAG_CHAR = 13;
+    private static final byte TAG_BYTES = 14;
+    private static final byte TAG_TYPED_NULL = 15;
+    private static final byte TAG_SHORT = 16;
+    private static final byte TAG_BYTE = 17;
+    private static final byte TAG_OTHER = 18;
+
+    /**
+     * 生成定长缓存键，如linked-mybatis:1f0c…（32位十六进制）
+     *
+     * @param type 查询类型，如forMaps
+     * @param resultType 实体类查询的结果类型，其他查询为null
+     */
+    public static String getCacheKey(String type, Class<?> resultType, String sql, List<Object> args) {
+        Murmur3Hasher hasher = new Murmur3Hasher();
+        hasher.putString(type);
+        hasher.putString(resultType == null ? "" : resultType.getName());
+        hasher.putString(sql);
+        hasher.putInt(args.size());
+        for (Object arg : args) {
+            putArg(hasher, arg);
+        }
+        hasher.finish();
+
+        char[] chars = new char[KEY_PREFIX.length() + 32];
+        KEY_PREFIX.getChars(0, KEY_PREFIX.length(), chars, 0);
+        writeHex(hasher.h1, chars, KEY_PREFIX.length());
+        writeHex(hasher.h2, chars, KEY_PREFIX.length() + 16);
+        return new String(chars);
+    }
+
+    /**
+     * 统一表名的写法，用于按表失效缓存：去掉引号与库名前缀，转为小写
+     * 不同库的同名表会被视为同一张表，只会多失效，不会漏失效
+     */
+    public static String normalizeTableName(String tableName) {
+        String name = tableName.trim();
+        int dotIndex = name.lastIndexOf('.');
+        if (dotIndex >= 0) {
+            name = name.substring(dotIndex + 1);
+        }
+        StringBuilder builder = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i ++) {
+            char c = name.charAt(i);
+            if (c != '`' && c != '"' && c != '[' && c != ']') {
+                builder.append(c);
+            }
+        }
+        return builder.toString().toLowerCase(Locale.ENGLISH);
+    }
+
+    private static void putArg(Murmur3Hasher hasher, Object arg) {
+        if (arg == null) {
+            hasher.putByte(TAG_NULL);
+        }
+        else if (arg instanceof String) {
+            hasher.putByte(TAG_STRING);
+            hasher.putString((String) arg);
+        }
+        else if (arg instanceof Integer) {
+            hasher.putByte(TAG_INT);
+            hasher.putInt((Integer) arg);
+        }
+        else if (arg instanceof Long) {
+            hasher.putByte(TAG_LONG);
+            hasher.putLong((Long) arg);
+        }
+        else if (arg instanceof Double) {
+            hasher.putByte(TAG_DOUBLE);
+            hasher.putLong(Double.doubleToLongBits((Double) arg));
+        }
+        else if (arg instanceof Float) {
+            hasher.putByte(TAG_FLOAT);
+            hasher.putInt(Float.floatToIntBits((Float) arg));
+        }
+        else if (arg instanceof Boolean) {
+            hasher.putByte(TAG_BOOLEAN);
+            hasher.putByte((Boolean) arg ? (byte) 1 : (byte) 0);
+        }
+        else if (arg instanceof Short) {
+            hasher.putByte(TAG_SHORT);
+            hasher.putInt((Short) arg);
+        }
+        else if (arg instanceof Byte) {
+            hasher.putByte(TAG_BYTE);
+            hasher.putByte((Byte) arg);
+        }
+        else if (arg instanceof BigDecimal) {
+            hasher.putByte(TAG_BIG_DECIMAL);
+            hasher.putString(arg.toString());
+        }
+        else if (arg instanceof BigInteger) {
+            hasher.putByte(TAG_BIG_INTEGER);
+            hasher.putString(arg.toString());
+        }
+        else if (arg instanceof Timestamp) {
+            hasher.putByte(TAG_TIMESTAMP);
+            hasher.putLong(((Timestamp) arg).getTime());
+            hasher.putInt(((Timestamp) arg).getNanos());
+        }
+        else if (arg instanceof Date) {
+            //java.sql.Date、java.sql.Time与java.util.Date按类型区分
+            hasher.putByte(TAG_DATE);
+            hasher.putString(arg.getClass().getName());
+            hasher.putLong(((Date) arg).getTime());
+        }
+        else if (arg instanceof LikeArg) {
+            LikeArg likeArg = (LikeArg) arg;
+            hasher.putByte(TAG_LIKE);
+            hasher.putByte(likeArg.isBlnLeft() ? (byte) 1 : (byte) 0);
+            hasher.putByte(likeArg.isBlnRight() ? (byte) 1 : (byte) 0);
+            hasher.putString(likeArg.getValue());
+        }
+        else if (arg instanceof Enum) {
+            hasher.putByte(TAG_ENUM);
+            hasher.putString(arg.getClass().getName());
+            hasher.putString(((Enum<?>) arg).name());
+        }
+        else if (arg instanceof Character) {
+            hasher.putByte(TAG_CHAR);
+            hasher.putChar((Character) arg);
+        }
+        else if (arg instanceof byte[]) {
+            byte[] bytes = (byte[]) arg;
+            hasher.putByte(TAG_BYTES);
+            hasher.putInt(bytes.length);
+            for (byte b : bytes) {
+                hasher.putByte(b);
+            }
+        }
+        else if (arg instanceof Null) {
+            hasher.putByte(TAG_TYPED_NULL);
+            hasher.putString(((Null) arg).name());
+        }
+        else {
+            //java.time等其他类型按类名与JSON区分
+            hasher.putByte(TAG_OTHER);
+            hasher.putString(arg.getClass().getName());
+            hasher.putString(JSON.toJSONString(arg));
+        }
+    }
+
+    private static void writeHex(long value, char[] chars, int offset) {
+        for (int i = 15; i >= 0; i --) {
+            chars[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * 流式的MurmurHash3 x64 128位实现，与Guava的Hashing.murmur3_128()结果一致
+     */
+    static final class Murmur3Hasher {
+        private static final long C1 = 0x87c37b91114253d5L;
+        private static final long C2 = 0x4cf5ad432745937fL;
+
+        long h1;
+        long h2;
+        private long k1;
+        private long k2;
+        private int position;
+        private long length;
+
+        void putByte(byte b) {
+            long value = b & 0xFFL;
+            if (position < 8) {
+                k1 |= value << (position << 3);
+            }
+            else {
+                k2 |= value << ((position - 8) << 3);
+            }
+            position ++;
+            if (position == 16) {
+                mix(k1, k2);
+                k1 = 0L;
+                k2 = 0L;
+                position = 0;
+                length += 16;
+            }
+        }
+
+        void putChar(char c) {
+            //两个字节都在同一个long内时一次写入
+            long value = c;
+            if (position < 7) {
+                k1 |= value << (position << 3);
+            }
+            else if (position > 7 && position < 15) {
+                k2 |= value << ((position - 8) << 3);
+            }
+            else {
+                putByte((byte) c);
+                putByte((byte) (c >>> 8));
+                return;
+            }
+            position += 2;
+            if (position == 16) {
+                mix(k1, k2);
+                k1 = 0L;
+                k2 = 0L;
+                position = 0;
+                length += 16;
+            }
+        }
+
+        void putInt(int value) {
+            for (int i = 0; i < 4; i ++) {
+                putByte((byte) (value >>> (i << 3)));
+            }
+        }
+
+        void putLong(long value) {
+            for (int i = 0; i < 8; i ++) {
+                putByte((byte) (value >>> (i << 3)));
+            }
+        }
+
+        /**
+         * 先写入长度，避免相邻字符串拼接后产生相同的编码
+         */
+        void putString(String value) {
+            int len = value.length();
+            putInt(len);
+            for (int i = 0; i < len; i ++) {
+                putChar(value.charAt(i));
+            }
+        }
+
+        void finish() {
+            length += position;
+            if (position > 0) {
+                h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+                h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+            }
+            h1 ^= length;
+            h2 ^= length;
+            h1 += h2;
+            h2 += h1;
+            h1 = fmix64(h1);
+            h2 = fmix64(h2);
+            h1 += h2;
+            h2 += h1;
+        }
+
+        private void mix(long k1, long k2) {
+            h1 ^= Long.rotateLeft(k1 * C1, 31) * C2;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= Long.rotateLeft(k2 * C2, 33) * C1;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        private static long fmix64(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+    }
+}
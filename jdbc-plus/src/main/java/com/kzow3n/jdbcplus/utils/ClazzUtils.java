@@ -22,6 +22,10 @@ public class ClazzUtils {
     }
 
     public static String getTableName(Class<?> clazz, boolean mapUnderscoreToCamelCase) {
+        return EntityMetaUtils.getEntityMeta(clazz).getTableName(mapUnderscoreToCamelCase);
+    }
+
+    static String resolveTableName(Class<?> clazz, boolean mapUnderscoreToCamelCase) {
         TableName annotation = clazz.getAnnotation(TableName.class);
         if (annotation == null) {
             if (mapUnderscoreToCamelCase) {
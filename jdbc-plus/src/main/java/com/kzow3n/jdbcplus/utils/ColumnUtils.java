@@ -3,6 +3,9 @@ package com.kzow3n.jdbcplus.utils;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.kzow3n.jdbcplus.pojo.EntityMeta;
+import com.kzow3n.jdbcplus.pojo.LambdaInfo;
+import com.kzow3n.jdbcplus.pojo.LinkedColumn;
 import com.kzow3n.jdbcplus.pojo.TableInfo;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.util.ClassUtils;
@@ -12,6 +15,9 @@ import java.lang.invoke.SerializedLambda;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 表字段工具类
@@ -20,33 +26,34 @@ import java.lang.reflect.Method;
  * @since 2021/8/4
  */
 public class ColumnUtils {
-    public static <T> String getName(SFunction<T, ?> fn) {
-        // 从function取出序列化方法
-        Method writeReplaceMethod;
-        try {
-            writeReplaceMethod = fn.getClass().getDeclaredMethod("writeReplace");
-        } catch (NoSuchMethodException e) {
-            throw new RuntimeException(e);
-        }
 
-        // 从序列化方法取出序列化的lambda信息
-        boolean isAccessible = writeReplaceMethod.isAccessible();
-        writeReplaceMethod.setAccessible(true);
-        SerializedLambda serializedLambda;
-        try {
-            serializedLambda = (SerializedLambda) writeReplaceMethod.invoke(fn);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
-        }
-        writeReplaceMethod.setAccessible(isAccessible);
+    private static final Map<Class<?>, LambdaInfo> LAMBDA_INFO_CACHE = new ConcurrentHashMap<>();
 
-        // 从lambda信息取出method、field、class等
-        String fieldName = serializedLambda.getImplMethodName().substring("get".length());
-        fieldName = fieldName.replaceFirst(fieldName.charAt(0) + "", (fieldName.charAt(0) + "").toLowerCase());
-        return fieldName;
+    public static <T> String getName(SFunction<T, ?> fn) {
+        return getLambdaInfo(fn).getFieldName();
     }
 
     public static <T> Field getField(SFunction<T, ?> fn) {
+        return getLambdaInfo(fn).getField();
+    }
+
+    /**
+     * 获取Lambda的解析结果，同一个方法引用只解析一次
+     */
+    public static <T> LambdaInfo getLambdaInfo(SFunction<T, ?> fn) {
+        Class<?> lambdaClass = fn.getClass();
+        LambdaInfo lambdaInfo = LAMBDA_INFO_CACHE.get(lambdaClass);
+        if (lambdaInfo == null) {
+            lambdaInfo = resolveLambdaInfo(fn);
+            LambdaInfo existing = LAMBDA_INFO_CACHE.putIfAbsent(lambdaClass, lambdaInfo);
+            if (existing != null) {
+                lambdaInfo = existing;
+            }
+        }
+        return lambdaInfo;
+    }
+
+    private static <T> LambdaInfo resolveLambdaInfo(SFunction<T, ?> fn) {
         // 从function取出序列化方法
         Method writeReplaceMethod;
         try {
@@ -79,7 +86,21 @@ public class ColumnUtils {
         }
 
         // Spring 中的反射工具类获取Class中定义的Field
-        return ReflectionUtils.findField(aClass, fieldName);
+        Field field = ReflectionUtils.findField(aClass, fieldName);
+        if (field == null) {
+            return new LambdaInfo(fieldName, null, null, null);
+        }
+        return new LambdaInfo(fieldName, field, getTableColumnByField(field, true), getTableColumnByField(field, false));
+    }
+
+    public static <T> String getColumn(TableInfo tableInfo, SFunction<T, ?> fn, boolean mapUnderscoreToCamelCase) {
+        LambdaInfo lambdaInfo = getLambdaInfo(fn);
+        if (tableInfo.getTableClass() != null) {
+            return lambdaInfo.getTableColumn(mapUnderscoreToCamelCase);
+        }
+        else {
+            return getBeanColumnByField(lambdaInfo.getField());
+        }
     }
 
     public static String getColumn(TableInfo tableInfo, Field field, boolean mapUnderscoreToCamelCase) {
@@ -91,7 +112,27 @@ public class ColumnUtils {
         }
     }
 
+    public static String getColumn(TableInfo tableInfo, LinkedColumn<?> linkedColumn, boolean mapUnderscoreToCamelCase) {
+        if (tableInfo.getTableClass() != null) {
+            return linkedColumn.getColumn(mapUnderscoreToCamelCase);
+        }
+        else {
+            return linkedColumn.getProperty();
+        }
+    }
+
     public static String getTableColumnByField(Field field, boolean mapUnderscoreToCamelCase) {
+        if (!Modifier.isStatic(field.getModifiers())) {
+            EntityMeta entityMeta = EntityMetaUtils.getEntityMeta(field.getDeclaringClass());
+            String tableColumn = entityMeta.getColumn(field.getName(), mapUnderscoreToCamelCase);
+            if (tableColumn != null) {
+                return tableColumn;
+            }
+        }
+        return resolveTableColumn(field, mapUnderscoreToCamelCase);
+    }
+
+    static String resolveTableColumn(Field field, boolean mapUnderscoreToCamelCase) {
         String tableColumn = null;
         TableField annotation = field.getAnnotation(TableField.class);
         if (annotation != null) {
@@ -0,0 +1,40 @@
+package com.kzow3n.jdbcplus.utils;
+
+import com.kzow3n.jdbcplus.core.dialect.Dialect;
+import com.kzow3n.jdbcplus.core.dialect.DmDialect;
+import com.kzow3n.jdbcplus.core.dialect.MySqlDialect;
+import com.kzow3n.jdbcplus.core.dialect.OracleDialect;
+import com.kzow3n.jdbcplus.core.dialect.PostgreSqlDialect;
+import com.kzow3n.jdbcplus.core.dialect.SqlServerDialect;
+import com.kzow3n.jdbcplus.core.jdbc.DbTypeEnum;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 方言工具类，按数据库类型获取内置方言，方言无状态，全局共享
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class DialectUtils {
+
+    private static final Map<DbTypeEnum, Dialect> DIALECT_MAP = new EnumMap<>(DbTypeEnum.class);
+
+    static {
+        DIALECT_MAP.put(DbTypeEnum.DEFAULT, new MySqlDialect());
+        DIALECT_MAP.put(DbTypeEnum.SQL_SERVER, new SqlServerDialect());
+        DIALECT_MAP.put(DbTypeEnum.DM, new DmDialect());
+        DIALECT_MAP.put(DbTypeEnum.POSTGRE_SQL, new PostgreSqlDialect());
+        DIALECT_MAP.put(DbTypeEnum.ORACLE, new OracleDialect());
+    }
+
+    public static Dialect getDialect(DbTypeEnum dbTypeEnum) {
+        Dialect dialect = dbTypeEnum == null ? null : DIALECT_MAP.get(dbTypeEnum);
+        return dialect == null ? DIALECT_MAP.get(DbTypeEnum.DEFAULT) : dialect;
+    }
+
+    public static Dialect getDefaultDialect() {
+        return DIALECT_MAP.get(DbTypeEnum.DEFAULT);
+    }
+}
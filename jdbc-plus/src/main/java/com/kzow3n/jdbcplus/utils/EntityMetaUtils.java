@@ -0,0 +1,97 @@
+package com.kzow3n.jdbcplus.utils;
+
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.kzow3n.jdbcplus.pojo.EntityMeta;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 实体类元数据注册表，每个Class只解析一次
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class EntityMetaUtils {
+
+    private static final Map<Class<?>, EntityMeta> ENTITY_META_CACHE = new ConcurrentHashMap<>();
+
+    public static EntityMeta getEntityMeta(Class<?> clazz) {
+        EntityMeta entityMeta = ENTITY_META_CACHE.get(clazz);
+        if (entityMeta == null) {
+            entityMeta = ENTITY_META_CACHE.computeIfAbsent(clazz, EntityMetaUtils::buildEntityMeta);
+        }
+        return entityMeta;
+    }
+
+    /**
+     * 启动时扫描指定包下带@TableName注解的实体类，提前解析元数据
+     *
+     * @return 解析的实体类数量
+     */
+    public static int scan(String... basePackages) {
+        ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false);
+        provider.addIncludeFilter(new AnnotationTypeFilter(TableName.class));
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        int count = 0;
+        for (String basePackage : basePackages) {
+            for (BeanDefinition beanDefinition : provider.findCandidateComponents(basePackage)) {
+                Class<?> clazz;
+                try {
+                    clazz = ClassUtils.forName(Objects.requireNonNull(beanDefinition.getBeanClassName()), classLoader);
+                } catch (ClassNotFoundException e) {
+                    throw new RuntimeException(e);
+                }
+                getEntityMeta(clazz);
+                count ++;
+            }
+        }
+        return count;
+    }
+
+    private static EntityMeta buildEntityMeta(Class<?> clazz) {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : ClazzUtils.getAllFields(clazz)) {
+            //不处理静态字段
+            if (!Modifier.isStatic(field.getModifiers())) {
+                fields.add(field);
+            }
+        }
+        List<String> columns = new ArrayList<>(fields.size());
+        List<String> rawColumns = new ArrayList<>(fields.size());
+        Map<String, String> propertyColumnMap = new LinkedHashMap<>();
+        Map<String, String> rawPropertyColumnMap = new LinkedHashMap<>();
+        List<String> idColumns = new ArrayList<>();
+        List<String> rawIdColumns = new ArrayList<>();
+        for (Field field : fields) {
+            String column = ColumnUtils.resolveTableColumn(field, true);
+            String rawColumn = ColumnUtils.resolveTableColumn(field, false);
+            columns.add(column);
+            rawColumns.add(rawColumn);
+            propertyColumnMap.putIfAbsent(field.getName(), column);
+            rawPropertyColumnMap.putIfAbsent(field.getName(), rawColumn);
+            if (field.getAnnotation(TableId.class) != null) {
+                idColumns.add(column);
+                rawIdColumns.add(rawColumn);
+            }
+        }
+        //未使用@TableId时与MyBatis-Plus一致，默认取名为id的字段
+        if (idColumns.isEmpty() && propertyColumnMap.containsKey("id")) {
+            idColumns.add(propertyColumnMap.get("id"));
+            rawIdColumns.add(rawPropertyColumnMap.get("id"));
+        }
+        return new EntityMeta(clazz,
+                ClazzUtils.resolveTableName(clazz, true), ClazzUtils.resolveTableName(clazz, false),
+                Collections.unmodifiableList(fields),
+                Collections.unmodifiableList(columns), Collections.unmodifiableList(rawColumns),
+                Collections.unmodifiableMap(propertyColumnMap), Collections.unmodifiableMap(rawPropertyColumnMap),
+                Collections.unmodifiableList(idColumns), Collections.unmodifiableList(rawIdColumns));
+    }
+}
@@ -0,0 +1,351 @@
+package com.kzow3n.jdbcplus.utils;
+
+import com.kzow3n.jdbcplus.core.dialect.Dialect;
+import com.kzow3n.jdbcplus.pojo.OrderInfo;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 键集分页工具类，生成跳过已读行的查询条件，编码、解码游标
+ * 游标为排序字段指纹与上一页最后一行排序字段值的Base64编码，只包含基本类型，解码时不反序列化对象
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class KeysetUtils {
+
+    private static final byte VERSION = 1;
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_INT = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_DOUBLE = 4;
+    private static final byte TAG_FLOAT = 5;
+    private static final byte TAG_BOOLEAN = 6;
+    private static final byte TAG_BIG_DECIMAL = 7;
+    private static final byte TAG_BIG_INTEGER = 8;
+    private static final byte TAG_TIMESTAMP = 9;
+    private static final byte TAG_SQL_DATE = 10;
+    private static final byte TAG_SQL_TIME = 11;
+    private static final byte TAG_DATE = 12;
+    private static final byte TAG_LOCAL_DATE = 13;
+    private static final byte TAG_LOCAL_DATE_TIME = 14;
+    private static final byte TAG_LOCAL_TIME = 15;
+    private static final byte TAG_SHORT = 16;
+    private static final byte TAG_BYTE = 17;
+
+    /**
+     * 生成排在游标所在行之后的查询条件，参数按占位符的顺序追加到args
+     * 各字段排序方向相同、游标值均不为null且null排在前面时使用行值比较，否则展开为or条件
+     * 第一个排序字段另加范围条件，使数据库可以按索引定位，而不是逐行判断or条件
+     */
+    public static String buildCondition(List<OrderInfo> orderInfos, Object[] values, Dialect dialect, List<Object> args) {
+        OrderInfo firstOrderInfo = orderInfos.get(0);
+        if (orderInfos.size() == 1 || values[0] == null || !isNullsBefore(firstOrderInfo, dialect)) {
+            return buildAfterCondition(orderInfos, values, dialect, args);
+        }
+        StringBuilder condition = new StringBuilder();
+        appendColumn(condition, firstOrderInfo);
+        condition.append(firstOrderInfo.isBlnDesc() ? " <= ?" : " >= ?");
+        args.add(values[0]);
+        condition.append(" and ").append(buildAfterCondition(orderInfos, values, dialect, args));
+        return condition.toString();
+    }
+
+    private static String buildAfterCondition(List<OrderInfo> orderInfos, Object[] values, Dialect dialect, List<Object> args) {
+        if (canCompareRowValues(orderInfos, values, dialect)) {
+            StringBuilder columns = new StringBuilder();
+            StringBuilder placeholders = new StringBuilder();
+            for (int i = 0; i < orderInfos.size(); i ++) {
+                if (i > 0) {
+                    columns.append(',');
+                    placeholders.append(',');
+                }
+                appendColumn(columns, orderInfos.get(i));
+                placeholders.append('?');
+                args.add(values[i]);
+            }
+            return "(" + columns + ") " + (orderInfos.get(0).isBlnDesc() ? "<" : ">") + " (" + placeholders + ")";
+        }
+        StringBuilder condition = new StringBuilder();
+        condition.append('(');
+        boolean blnFirst = true;
+        for (int i = 0; i < orderInfos.size(); i ++) {
+            OrderInfo orderInfo = orderInfos.get(i);
+            //游标值为null且null排在最后时，该字段上没有排在后面的值
+            if (values[i] == null && !isNullsBefore(orderInfo, dialect)) {
+                continue;
+            }
+            if (!blnFirst) {
+                condition.append(" or ");
+            }
+            blnFirst = false;
+            condition.append('(');
+            for (int j = 0; j < i; j ++) {
+                appendEqual(condition, orderInfos.get(j), values[j], args);
+                condition.append(" and ");
+            }
+            appendAfter(condition, orderInfo, values[i], dialect, args);
+            condition.append(')');
+        }
+        if (blnFirst) {
+            return "1 = 0";
+        }
+        condition.append(')');
+        return condition.toString();
+    }
+
+    /**
+     * 排序字段的指纹，游标只能用于相同排序的查询，nulls first/last不同的排序视为不同的查询
+     * 未指定nulls first/last时不参与计算，已签发的游标仍然有效
+     */
+    public static int getFingerprint(List<OrderInfo> orderInfos) {
+        int fingerprint = orderInfos.size();
+        for (OrderInfo orderInfo : orderInfos) {
+            fingerprint = fingerprint * 31 + orderInfo.getTableId().hashCode();
+            fingerprint = fingerprint * 31 + orderInfo.getColumn().hashCode();
+            fingerprint = fingerprint * 31 + (orderInfo.isBlnDesc() ? 1 : 0);
+            if (orderInfo.getBlnNullsFirst() != null) {
+                fingerprint = fingerprint * 31 + (orderInfo.getBlnNullsFirst() ? 2 : 3);
+            }
+        }
+        return fingerprint;
+    }
+
+    public static String encodeCursor(int fingerprint, Object[] values) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeInt(fingerprint);
+            out.writeByte(values.length);
+            for (Object value : values) {
+                writeValue(out, value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * @throws IllegalArgumentException 游标无法解析或不属于当前排序
+     */
+    public static Object[] decodeCursor(String cursor, int fingerprint, int count) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid cursor.", e);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readByte() != VERSION || in.readInt() != fingerprint || in.readUnsignedByte() != count) {
+                throw new IllegalArgumentException("cursor does not match the orderBy of the query.");
+            }
+            Object[] values = new Object[count];
+            for (int i = 0; i < count; i ++) {
+                values[i] = readValue(in);
+            }
+            return values;
+        } catch (IOException | RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e;
+            }
+            throw new IllegalArgumentException("invalid cursor.", e);
+        }
+    }
+
+    private static boolean canCompareRowValues(List<OrderInfo> orderInfos, Object[] values, Dialect dialect) {
+        if (!dialect.supportsRowValueComparison() || orderInfos.size() < 2) {
+            return false;
+        }
+        boolean blnDesc = orderInfos.get(0).isBlnDesc();
+        for (int i = 0; i < orderInfos.size(); i ++) {
+            OrderInfo orderInfo = orderInfos.get(i);
+            if (values[i] == null || orderInfo.isBlnDesc() != blnDesc || !isNullsBefore(orderInfo, dialect)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按排序方向null是否排在非null值之前
+     */
+    private static boolean isNullsBefore(OrderInfo orderInfo, Dialect dialect) {
+        if (orderInfo.getBlnNullsFirst() != null) {
+            return orderInfo.getBlnNullsFirst();
+        }
+        return orderInfo.isBlnDesc() != dialect.isNullsLow();
+    }
+
+    private static void appendColumn(StringBuilder target, OrderInfo orderInfo) {
+        target.append(orderInfo.getTableId()).append('.').append(orderInfo.getColumn());
+    }
+
+    private static void appendEqual(StringBuilder target, OrderInfo orderInfo, Object value, List<Object> args) {
+        appendColumn(target, orderInfo);
+        if (value == null) {
+            target.append(" is null");
+            return;
+        }
+        target.append(" = ?");
+        args.add(value);
+    }
+
+    private static void appendAfter(StringBuilder target, OrderInfo orderInfo, Object value, Dialect dialect, List<Object> args) {
+        if (value == null) {
+            appendColumn(target, orderInfo);
+            target.append(" is not null");
+            return;
+        }
+        boolean blnNullsAfter = !isNullsBefore(orderInfo, dialect);
+        if (blnNullsAfter) {
+            target.append('(');
+        }
+        appendColumn(target, orderInfo);
+        target.append(orderInfo.isBlnDesc() ? " < ?" : " > ?");
+        args.add(value);
+        if (blnNullsAfter) {
+            target.append(" or ");
+            appendColumn(target, orderInfo);
+            target.append(" is null)");
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        }
+        else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            out.writeUTF((String) value);
+        }
+        else if (value instanceof Integer) {
+            out.writeByte(TAG_INT);
+            out.writeInt((Integer) value);
+        }
+        else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        }
+        else if (value instanceof Short) {
+            out.writeByte(TAG_SHORT);
+            out.writeShort((Short) value);
+        }
+        else if (value instanceof Byte) {
+            out.writeByte(TAG_BYTE);
+            out.writeByte((Byte) value);
+        }
+        else if (value instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) value);
+        }
+        else if (value instanceof Float) {
+            out.writeByte(TAG_FLOAT);
+            out.writeFloat((Float) value);
+        }
+        else if (value instanceof Boolean) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        }
+        else if (value instanceof BigDecimal) {
+            out.writeByte(TAG_BIG_DECIMAL);
+            out.writeUTF(value.toString());
+        }
+        else if (value instanceof BigInteger) {
+            out.writeByte(TAG_BIG_INTEGER);
+            out.writeUTF(value.toString());
+        }
+        else if (value instanceof Timestamp) {
+            out.writeByte(TAG_TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        }
+        else if (value instanceof java.sql.Date) {
+            out.writeByte(TAG_SQL_DATE);
+            out.writeLong(((java.sql.Date) value).getTime());
+        }
+        else if (value instanceof Time) {
+            out.writeByte(TAG_SQL_TIME);
+            out.writeLong(((Time) value).getTime());
+        }
+        else if (value instanceof Date) {
+            out.writeByte(TAG_DATE);
+            out.writeLong(((Date) value).getTime());
+        }
+        else if (value instanceof LocalDate) {
+            out.writeByte(TAG_LOCAL_DATE);
+            out.writeUTF(value.toString());
+        }
+        else if (value instanceof LocalDateTime) {
+            out.writeByte(TAG_LOCAL_DATE_TIME);
+            out.writeUTF(value.toString());
+        }
+        else if (value instanceof LocalTime) {
+            out.writeByte(TAG_LOCAL_TIME);
+            out.writeUTF(value.toString());
+        }
+        else {
+            //其他类型按字符串比较，由数据库隐式转换
+            out.writeByte(TAG_STRING);
+            out.writeUTF(value.toString());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return in.readUTF();
+            case TAG_INT:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_SHORT:
+                return in.readShort();
+            case TAG_BYTE:
+                return in.readByte();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_FLOAT:
+                return in.readFloat();
+            case TAG_BOOLEAN:
+                return in.readBoolean();
+            case TAG_BIG_DECIMAL:
+                return new BigDecimal(in.readUTF());
+            case TAG_BIG_INTEGER:
+                return new BigInteger(in.readUTF());
+            case TAG_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            case TAG_SQL_DATE:
+                return new java.sql.Date(in.readLong());
+            case TAG_SQL_TIME:
+                return new Time(in.readLong());
+            case TAG_DATE:
+                return new Date(in.readLong());
+            case TAG_LOCAL_DATE:
+                return LocalDate.parse(in.readUTF());
+            case TAG_LOCAL_DATE_TIME:
+                return LocalDateTime.parse(in.readUTF());
+            case TAG_LOCAL_TIME:
+                return LocalTime.parse(in.readUTF());
+            default:
+                throw new IllegalArgumentException("invalid cursor.");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import com.kzow3n.jdbcplus.entity.Student;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author owen
+ * @since 2026/10/18
+ */
+class BinaryResultCodecTest {
+
+    private final BinaryResultCodec codec = new BinaryResultCodec();
+
+    @Test
+    void roundTrip() {
+        assertEquals(rows(100), codec.decode(codec.encode(rows(100))));
+        assertEquals(25L, codec.decode(codec.encode(25L)));
+        Student student = new Student();
+        student.setId(1L);
+        student.setName("a");
+        List<Student> students = (List<Student>) codec.decode(codec.encode(new ArrayList<>(Collections.singletonList(student))));
+        assertEquals("a", students.get(0).getName());
+    }
+
+    @Test
+    void eachDecodeIsIndependent() {
+        byte[] bytes = codec.encode(rows(3));
+        List<Map<String, Object>> first = (List<Map<String, Object>>) codec.decode(bytes);
+        List<Map<String, Object>> second = (List<Map<String, Object>>) codec.decode(bytes);
+        first.get(0).put("name", "changed");
+        first.set(1, null);
+        first.remove(2);
+        assertEquals(rows(3), second);
+    }
+
+    @Test
+    void concurrentReadsSeeOneRowObject() throws Exception {
+        List<Object> list = (List<Object>) codec.decode(codec.encode(rows(1000)));
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Object>>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i ++) {
+                futures.add(executorService.submit(() -> {
+                    List<Object> read = new ArrayList<>();
+                    for (Object row : list) {
+                        read.add(row);
+                    }
+                    return read;
+                }));
+            }
+            List<Object> expected = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<List<Object>> future : futures) {
+                List<Object> read = future.get(10, TimeUnit.SECONDS);
+                for (int i = 0; i < expected.size(); i ++) {
+                    assertSame(expected.get(i), read.get(i));
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void setIsKeptAfterStructuralChange() {
+        List<Object> list = (List<Object>) codec.decode(codec.encode(rows(3)));
+        Map<String, Object> replaced = new HashMap<>();
+        list.set(1, replaced);
+        list.add(null);
+        list.remove(0);
+        assertSame(replaced, list.get(0));
+        assertEquals(3, list.size());
+        assertNull(list.get(2));
+    }
+
+    private static List<Map<String, Object>> rows(int count) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (long id = 1; id <= count; id ++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", id);
+            row.put("name", "student" + id);
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,104 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 缓存准入的行数、字节数与查询次数限制
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+class CacheAdmissionTest {
+
+    @Test
+    void admitsAfterMinFrequency() {
+        CacheAdmission cacheAdmission = new CacheAdmission(0, 0L, 3);
+        CacheKey key = cacheKey("hot");
+        List<Integer> value = Arrays.asList(1, 2, 3);
+        assertFalse(cacheAdmission.admit(key, value));
+        assertFalse(cacheAdmission.admit(key, value));
+        assertTrue(cacheAdmission.admit(key, value));
+        assertTrue(cacheAdmission.admit(key, value));
+        //其他缓存键单独计数
+        assertFalse(cacheAdmission.admit(cacheKey("cold"), value));
+        assertEquals(2L, cacheAdmission.getAdmittedCount());
+        assertEquals(3L, cacheAdmission.getFrequencyRejectedCount());
+        assertEquals(3L, cacheAdmission.getRejectedCount());
+    }
+
+    @Test
+    void countsAgeAfterSamplePeriod() {
+        //64个计数器组，每640次记录全部减半
+        CacheAdmission cacheAdmission = new CacheAdmission(0, 0L, 12, 64);
+        CacheKey key = cacheKey("hot");
+        boolean blnAdmitted = false;
+        for (int i = 0; i < 15; i ++) {
+            blnAdmitted = cacheAdmission.admit(key, Collections.emptyList());
+        }
+        assertTrue(blnAdmitted);
+        for (int i = 0; i < 700; i ++) {
+            cacheAdmission.admit(cacheKey("other" + i), Collections.emptyList());
+        }
+        //减半后过去的热点需重新累计查询次数
+        assertFalse(cacheAdmission.admit(key, Collections.emptyList()));
+        for (int i = 0; i < 5; i ++) {
+            blnAdmitted = cacheAdmission.admit(key, Collections.emptyList());
+        }
+        assertTrue(blnAdmitted);
+    }
+
+    @Test
+    void sketchHalvesSaturatedCounts() {
+        FrequencySketch frequencySketch = new FrequencySketch(64);
+        long hash = 0x9e3779b97f4a7c15L;
+        int frequency = 0;
+        for (int i = 0; i < 20; i ++) {
+            frequency = frequencySketch.increment(hash);
+        }
+        assertEquals(15, frequency);
+        for (long i = 1; i <= 700; i ++) {
+            frequencySketch.increment(i * 0xbf58476d1ce4e5b9L);
+        }
+        frequency = frequencySketch.increment(hash);
+        assertTrue(frequency >= 8 && frequency < 15, String.valueOf(frequency));
+    }
+
+    @Test
+    void disabledPolicyAdmitsEverything() {
+        CacheAdmission cacheAdmission = new CacheAdmission(0, 0L);
+        CacheKey key = cacheKey("any");
+        assertTrue(cacheAdmission.admit(key, Collections.nCopies(100000, 1)));
+        assertTrue(cacheAdmission.admit(key, new CacheEntry(Collections.nCopies(100000, 1), 0L)));
+        assertTrue(cacheAdmission.admitBytes(key, Integer.MAX_VALUE));
+        //minFrequency为1时不计数
+        CacheAdmission noFrequency = new CacheAdmission(0, 0L, 1);
+        assertTrue(noFrequency.admit(cacheKey("first"), 1L));
+        assertEquals(0L, cacheAdmission.getRejectedCount());
+        assertEquals(0L, noFrequency.getRejectedCount());
+    }
+
+    @Test
+    void rejectsRowsAndBytesOverLimit() {
+        CacheAdmission cacheAdmission = new CacheAdmission(10, 1024L);
+        CacheKey key = cacheKey("big");
+        assertTrue(cacheAdmission.admit(key, Collections.nCopies(10, 1)));
+        assertFalse(cacheAdmission.admit(key, Collections.nCopies(11, 1)));
+        assertFalse(cacheAdmission.admitRows(key, new CacheEntry(Collections.nCopies(11, 1), 0L)));
+        //计数等非集合结果不按行数限制
+        assertTrue(cacheAdmission.admit(key, 100L));
+        assertTrue(cacheAdmission.admitBytes(key, 1024));
+        assertFalse(cacheAdmission.admitBytes(key, 1025));
+        assertEquals(2L, cacheAdmission.getRowsRejectedCount());
+        assertEquals(1L, cacheAdmission.getBytesRejectedCount());
+    }
+
+    private static CacheKey cacheKey(String key) {
+        return new CacheKey(key, Collections.singleton("student"));
+    }
+}
@@ -0,0 +1,177 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import com.kzow3n.jdbcplus.support.MapQueryCache;
+import com.kzow3n.jdbcplus.support.TestDatabase;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 写入表的解析，以及Spring事务、自动提交、SqlSession提交与回滚时的失效时机
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+class CacheInvalidationInterceptorTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "update student s join teacher t on s.headmaster_id = t.id set s.name = t.name | student,teacher",
+            "update student s, teacher t set s.name = t.name where s.headmaster_id = t.id | student,teacher",
+            "update s set s.name = t.name from student s join teacher t on s.headmaster_id = t.id | student,teacher",
+            "update student set name = t.name from teacher t where student.headmaster_id = t.id | student",
+            "delete s from student s join teacher t on s.headmaster_id = t.id | student",
+            "delete S, t from student s join teacher t on s.headmaster_id = t.id | student,teacher",
+            "delete from student s where s.id = 1 | student",
+            "insert into student (id) select id from teacher | student",
+            "update db.`Student` set name = 'x' | student"
+    })
+    void parsesWrittenTables(String sql, String tables) {
+        CacheInvalidationInterceptor interceptor = new CacheInvalidationInterceptor(new MapQueryCache());
+        assertEquals(tables(tables.split(",")), interceptor.getTables(sql));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "update [dbo].[student] set [name] = 'x' where [id] = 1 | student",
+            "delete s from [student] s join [teacher] t on s.[headmaster_id] = t.[id] | student",
+            "insert into [student] ([id]) values (1) | student"
+    })
+    void parsesSquareBracketsAfterDefaultParserFails(String sql, String tables) {
+        CacheInvalidationInterceptor interceptor = new CacheInvalidationInterceptor(new MapQueryCache());
+        assertEquals(tables(tables.split(",")), interceptor.getTables(sql));
+    }
+
+    @Test
+    void clearsParsedSqlAtLimit() {
+        CacheInvalidationInterceptor interceptor = new CacheInvalidationInterceptor(new MapQueryCache());
+        for (int i = 0; i < CacheInvalidationInterceptor.MAX_PARSED_SQL_COUNT; i ++) {
+            interceptor.getTables("update student set age = " + i);
+        }
+        assertEquals(CacheInvalidationInterceptor.MAX_PARSED_SQL_COUNT, interceptor.getParsedSqlCount());
+        //已缓存的Sql不计入新增
+        interceptor.getTables("update student set age = 0");
+        assertEquals(CacheInvalidationInterceptor.MAX_PARSED_SQL_COUNT, interceptor.getParsedSqlCount());
+        assertEquals(tables("teacher"), interceptor.getTables("update teacher set name = 'x'"));
+        assertEquals(1, interceptor.getParsedSqlCount());
+    }
+
+    @Test
+    void autoCommitInvalidatesAfterStatement() {
+        MapQueryCache queryCache = new MapQueryCache();
+        SqlSessionFactory sqlSessionFactory = buildSqlSessionFactory(queryCache);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+            sqlSession.update("updateStudent");
+            assertEquals(Collections.singletonList(tables("student")), queryCache.getInvalidatedTables());
+        }
+    }
+
+    @Test
+    void sqlSessionCommitInvalidates() {
+        MapQueryCache queryCache = new MapQueryCache();
+        SqlSessionFactory sqlSessionFactory = buildSqlSessionFactory(queryCache);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(false)) {
+            sqlSession.update("updateStudent");
+            sqlSession.update("updateTeacher");
+            assertTrue(queryCache.getInvalidatedTables().isEmpty());
+            sqlSession.commit();
+            //同一事务中写入的表合并为一次失效
+            assertEquals(Collections.singletonList(tables("student", "teacher")), queryCache.getInvalidatedTables());
+        }
+    }
+
+    @Test
+    void sqlSessionRollbackDiscards() {
+        MapQueryCache queryCache = new MapQueryCache();
+        SqlSessionFactory sqlSessionFactory = buildSqlSessionFactory(queryCache);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(false)) {
+            sqlSession.update("updateStudent");
+            sqlSession.rollback(true);
+            sqlSession.commit(true);
+        }
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(false)) {
+            sqlSession.update("updateStudent");
+        }
+        assertTrue(queryCache.getInvalidatedTables().isEmpty());
+    }
+
+    @Test
+    void springTransactionInvalidatesAfterCommit() {
+        MapQueryCache queryCache = new MapQueryCache();
+        SqlSessionFactory sqlSessionFactory = buildSqlSessionFactory(queryCache);
+        TransactionSynchronizationManager.initSynchronization();
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+            //存在Spring事务时即使连接为自动提交也等到事务提交
+            sqlSession.update("updateStudent");
+            sqlSession.update("updateTeacher");
+            assertTrue(queryCache.getInvalidatedTables().isEmpty());
+            assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            assertEquals(Collections.singletonList(tables("student", "teacher")), queryCache.getInvalidatedTables());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void springTransactionRollbackDiscards() {
+        MapQueryCache queryCache = new MapQueryCache();
+        SqlSessionFactory sqlSessionFactory = buildSqlSessionFactory(queryCache);
+        TransactionSynchronizationManager.initSynchronization();
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+            sqlSession.update("updateStudent");
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(queryCache.getInvalidatedTables().isEmpty());
+    }
+
+    @Test
+    void unknownStatementInvalidatesAll() {
+        MapQueryCache queryCache = new MapQueryCache();
+        SqlSessionFactory sqlSessionFactory = buildSqlSessionFactory(queryCache);
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(true)) {
+            sqlSession.update("createTable");
+        }
+        assertEquals(1, queryCache.getInvalidateAllCount());
+        assertTrue(queryCache.getInvalidatedTables().isEmpty());
+    }
+
+    private static SqlSessionFactory buildSqlSessionFactory(QueryCache queryCache) {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        SqlSessionFactory sqlSessionFactory = database.getSqlSessionFactory();
+        Configuration configuration = sqlSessionFactory.getConfiguration();
+        configuration.addInterceptor(new CacheInvalidationInterceptor(queryCache));
+        addStatement(configuration, "updateStudent", "update student set age = age + 1 where id = 1");
+        addStatement(configuration, "updateTeacher", "update teacher set name = 'teacher' where id = 1");
+        addStatement(configuration, "createTable", "create table course (id bigint primary key)");
+        return sqlSessionFactory;
+    }
+
+    private static void addStatement(Configuration configuration, String id, String sql) {
+        configuration.addMappedStatement(new MappedStatement.Builder(configuration, id,
+                new StaticSqlSource(configuration, sql), SqlCommandType.UPDATE).build());
+    }
+
+    private static Set<String> tables(String... tables) {
+        return new LinkedHashSet<>(Arrays.asList(tables));
+    }
+}
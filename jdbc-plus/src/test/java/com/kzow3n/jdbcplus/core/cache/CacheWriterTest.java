@@ -0,0 +1,178 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import com.kzow3n.jdbcplus.support.MapQueryCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 异步写入缓存的排队、合并、丢弃、刷新与关闭
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+class CacheWriterTest {
+
+    @Test
+    void flushWritesQueuedAndWaitsForInFlight() throws Exception {
+        GatedQueryCache queryCache = new GatedQueryCache("a");
+        try (CacheWriter cacheWriter = new CacheWriter(16)) {
+            assertTrue(cacheWriter.submit(queryCache, cacheKey("a"), "A", 60L, null));
+            queryCache.awaitBlocked();
+            assertTrue(cacheWriter.submit(queryCache, cacheKey("b"), "B", 60L, null));
+            assertTrue(cacheWriter.submit(queryCache, cacheKey("c"), "C", 60L, null));
+            //尚未写入的值仍可读取
+            assertEquals("A", cacheWriter.getPending(cacheKey("a")));
+            assertEquals("C", cacheWriter.getPending(cacheKey("c")));
+            assertEquals(3, cacheWriter.getPendingCount());
+
+            openLater(queryCache);
+            cacheWriter.flush();
+            assertEquals(0, cacheWriter.getPendingCount());
+            assertEquals(3L, cacheWriter.getWrittenCount());
+            assertEquals(3, queryCache.size());
+            assertNull(cacheWriter.getPending(cacheKey("a")));
+            assertNull(cacheWriter.getPending(cacheKey("c")));
+        }
+    }
+
+    @Test
+    void coalescesAndDropsNewest() throws Exception {
+        GatedQueryCache queryCache = new GatedQueryCache("a");
+        try (CacheWriter cacheWriter = new CacheWriter(2)) {
+            cacheWriter.submit(queryCache, cacheKey("a"), "A", 60L, null);
+            queryCache.awaitBlocked();
+            assertTrue(cacheWriter.submit(queryCache, cacheKey("b"), "B", 60L, null));
+            assertFalse(cacheWriter.submit(queryCache, cacheKey("b"), "B2", 60L, null));
+            assertTrue(cacheWriter.submit(queryCache, cacheKey("c"), "C", 60L, null));
+            assertFalse(cacheWriter.submit(queryCache, cacheKey("d"), "D", 60L, null));
+            assertEquals("B", cacheWriter.getPending(cacheKey("b")));
+            assertNull(cacheWriter.getPending(cacheKey("d")));
+            assertEquals(1L, cacheWriter.getCoalescedCount());
+            assertEquals(1L, cacheWriter.getDroppedCount());
+            queryCache.open();
+        }
+    }
+
+    @Test
+    void dropsOldestWhenConfigured() throws Exception {
+        GatedQueryCache queryCache = new GatedQueryCache("a");
+        try (CacheWriter cacheWriter = new CacheWriter(2, CacheDropPolicyEnum.DROP_OLDEST)) {
+            cacheWriter.submit(queryCache, cacheKey("a"), "A", 60L, null);
+            queryCache.awaitBlocked();
+            cacheWriter.submit(queryCache, cacheKey("b"), "B", 60L, null);
+            cacheWriter.submit(queryCache, cacheKey("c"), "C", 60L, null);
+            assertTrue(cacheWriter.submit(queryCache, cacheKey("d"), "D", 60L, null));
+            assertNull(cacheWriter.getPending(cacheKey("b")));
+            assertEquals("D", cacheWriter.getPending(cacheKey("d")));
+            openLater(queryCache);
+            cacheWriter.flush();
+            assertNull(queryCache.get(cacheKey("b")));
+            assertEquals("D", queryCache.get(cacheKey("d")));
+        }
+    }
+
+    @Test
+    void flushContinuesAfterFailedWrite() throws Exception {
+        GatedQueryCache queryCache = new GatedQueryCache("a") {
+            @Override
+            public boolean putIfAbsent(CacheKey key, Object value, long timeoutSeconds) {
+                if ("bad".equals(key.getKey())) {
+                    throw new IllegalStateException("redis unavailable");
+                }
+                return super.putIfAbsent(key, value, timeoutSeconds);
+            }
+        };
+        AtomicInteger writtenCallbacks = new AtomicInteger();
+        try (CacheWriter cacheWriter = new CacheWriter(16)) {
+            cacheWriter.submit(queryCache, cacheKey("a"), "A", 60L, writtenCallbacks::incrementAndGet);
+            queryCache.awaitBlocked();
+            cacheWriter.submit(queryCache, cacheKey("bad"), "X", 60L, writtenCallbacks::incrementAndGet);
+            cacheWriter.submit(queryCache, cacheKey("good"), "G", 60L, writtenCallbacks::incrementAndGet);
+            openLater(queryCache);
+            cacheWriter.flush();
+            assertEquals(1L, cacheWriter.getFailedCount());
+            assertEquals(2L, cacheWriter.getWrittenCount());
+            assertEquals(2, writtenCallbacks.get());
+            assertEquals("G", queryCache.get(cacheKey("good")));
+            //写入失败的值不再作为待写入读取
+            assertNull(cacheWriter.getPending(cacheKey("bad")));
+            assertEquals(0, cacheWriter.getPendingCount());
+        }
+    }
+
+    @Test
+    void closeDrainsPendingWrites() throws Exception {
+        GatedQueryCache queryCache = new GatedQueryCache("a");
+        CacheWriter cacheWriter = new CacheWriter(16);
+        cacheWriter.submit(queryCache, cacheKey("a"), "A", 60L, null);
+        queryCache.awaitBlocked();
+        for (int i = 0; i < 10; i ++) {
+            cacheWriter.submit(queryCache, cacheKey("k" + i), i, 60L, null);
+        }
+        openLater(queryCache);
+        cacheWriter.close();
+        assertEquals(0, cacheWriter.getPendingCount());
+        assertEquals(11, queryCache.size());
+
+        //关闭后在当前线程直接写入
+        assertFalse(cacheWriter.submit(queryCache, cacheKey("late"), "L", 60L, null));
+        assertEquals("L", queryCache.get(cacheKey("late")));
+        assertEquals(12L, cacheWriter.getWrittenCount());
+    }
+
+    private static void openLater(GatedQueryCache queryCache) {
+        Thread thread = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            queryCache.open();
+        });
+        thread.start();
+    }
+
+    private static CacheKey cacheKey(String key) {
+        return new CacheKey(key, Collections.singleton("student"));
+    }
+
+    /**
+     * 写入指定缓存键时阻塞，直到open
+     */
+    private static class GatedQueryCache extends MapQueryCache {
+        private final String gatedKey;
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        GatedQueryCache(String gatedKey) {
+            this.gatedKey = gatedKey;
+        }
+
+        @Override
+        public boolean putIfAbsent(CacheKey key, Object value, long timeoutSeconds) {
+            if (gatedKey.equals(key.getKey())) {
+                blocked.countDown();
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.putIfAbsent(key, value, timeoutSeconds);
+        }
+
+        void awaitBlocked() throws InterruptedException {
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        }
+
+        void open() {
+            gate.countDown();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import com.kzow3n.jdbcplus.support.FakeRedis;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author owen
+ * @since 2026/10/18
+ */
+class RedisQueryCacheTest {
+
+    private static final Set<String> TABLES = Collections.singleton("student");
+
+    @Test
+    void missCostsOneLookupAndOneSetNx() {
+        FakeRedis redis = new FakeRedis();
+        RedisQueryCache queryCache = new RedisQueryCache(redis.getRedisTemplate(), new BinaryResultCodec());
+        queryCache.get(new CacheKey("warm-up", TABLES));
+        redis.reset();
+
+        CacheKey cacheKey = new CacheKey("maps", TABLES);
+        assertNull(queryCache.get(cacheKey));
+        assertTrue(queryCache.putIfAbsent(cacheKey, rows(), 60));
+        assertEquals(Arrays.asList("evalSha", "set"), redis.getCommands());
+        assertEquals(2, redis.getRoundTrips());
+        assertEquals(60L, redis.getTtl(cacheKey.getVersionedKey()));
+    }
+
+    @Test
+    void hitCostsOneRoundTrip() {
+        FakeRedis redis = new FakeRedis();
+        RedisQueryCache queryCache = new RedisQueryCache(redis.getRedisTemplate(), new BinaryResultCodec());
+        queryCache.putIfAbsent(new CacheKey("maps", TABLES), rows(), 60);
+        queryCache.get(new CacheKey("maps", TABLES));
+        redis.reset();
+
+        assertEquals(rows(), queryCache.get(new CacheKey("maps", TABLES)));
+        assertEquals(Collections.singletonList("evalSha"), redis.getCommands());
+        assertEquals(1, redis.getRoundTrips());
+    }
+
+    @Test
+    void loadsScriptOnceWhenMissing() {
+        FakeRedis redis = new FakeRedis();
+        RedisQueryCache queryCache = new RedisQueryCache(redis.getRedisTemplate(), new BinaryResultCodec());
+        assertNull(queryCache.get(new CacheKey("maps", TABLES)));
+        assertEquals(Arrays.asList("evalSha", "eval"), redis.getCommands());
+        redis.reset();
+
+        assertNull(queryCache.get(new CacheKey("maps", TABLES)));
+        assertEquals(Collections.singletonList("evalSha"), redis.getCommands());
+    }
+
+    @Test
+    void lookupAndWriteShareVersionedKey() {
+        FakeRedis redis = new FakeRedis();
+        RedisQueryCache queryCache = new RedisQueryCache(redis.getRedisTemplate(), new BinaryResultCodec());
+        CacheKey lookupKey = new CacheKey("maps", TABLES);
+        assertNull(queryCache.get(lookupKey));
+        CacheKey writeKey = new CacheKey("maps", TABLES);
+        queryCache.putIfAbsent(writeKey, rows(), 60);
+        //查找与只写入时拼接的键相同，查找后的表更新使查找时的键不再被读取
+        assertEquals(writeKey.getVersionedKey(), lookupKey.getVersionedKey());
+        queryCache.invalidateTables(TABLES);
+        CacheKey staleKey = new CacheKey("maps", TABLES);
+        assertNull(queryCache.get(staleKey));
+        assertNotEquals(lookupKey.getVersionedKey(), staleKey.getVersionedKey());
+    }
+
+    @Test
+    void putIfAbsentKeepsExistingValue() {
+        FakeRedis redis = new FakeRedis();
+        RedisQueryCache queryCache = new RedisQueryCache(redis.getRedisTemplate(), new BinaryResultCodec());
+        assertTrue(queryCache.putIfAbsent(new CacheKey("maps", TABLES), rows(), 60));
+        assertFalse(queryCache.putIfAbsent(new CacheKey("maps", TABLES), new ArrayList<>(), 60));
+        assertEquals(rows(), queryCache.get(new CacheKey("maps", TABLES)));
+    }
+
+    @Test
+    void invalidateTablesIsOnePipeline() {
+        FakeRedis redis = new FakeRedis();
+        RedisQueryCache queryCache = new RedisQueryCache(redis.getRedisTemplate(), new BinaryResultCodec());
+        queryCache.putIfAbsent(new CacheKey("maps", TABLES), rows(), 60);
+        queryCache.putIfAbsent(new CacheKey("other", Collections.singleton("teacher")), rows(), 60);
+        redis.reset();
+
+        queryCache.invalidateTables(TABLES);
+        assertEquals(1, redis.getRoundTrips());
+        assertEquals(Arrays.asList("PIPELINE:incr", "PIPELINE:incr", "PIPELINE:publish"), redis.getCommands());
+        assertNull(queryCache.get(new CacheKey("maps", TABLES)));
+        assertNotNull(queryCache.get(new CacheKey("other", Collections.singleton("teacher"))));
+        //依赖的表未知的缓存随任意表失效
+        queryCache.putIfAbsent(new CacheKey("unknown", null), rows(), 60);
+        queryCache.invalidateTables(Collections.singleton("teacher"));
+        assertNull(queryCache.get(new CacheKey("unknown", null)));
+    }
+
+    @Test
+    void invalidateAllIsOnePipeline() {
+        FakeRedis redis = new FakeRedis();
+        RedisQueryCache queryCache = new RedisQueryCache(redis.getRedisTemplate(), new BinaryResultCodec());
+        queryCache.putIfAbsent(new CacheKey("maps", TABLES), rows(), 60);
+        redis.reset();
+
+        queryCache.invalidateAll();
+        assertEquals(1, redis.getRoundTrips());
+        assertEquals(Arrays.asList("PIPELINE:incr", "PIPELINE:publish"), redis.getCommands());
+        assertNull(queryCache.get(new CacheKey("maps", TABLES)));
+    }
+
+    @Test
+    void invalidationReachesEveryNearCache() {
+        //不经过TieredQueryCache的失效同样通知各节点的进程内缓存，包括本节点
+        FakeRedis redis = new FakeRedis();
+        RedisQueryCache queryCache = new RedisQueryCache(redis.getRedisTemplate(), new BinaryResultCodec());
+        List<NearCache> nearCaches = Arrays.asList(new NearCache(1024 * 1024, 60), new NearCache(1024 * 1024, 60));
+        for (NearCache nearCache : nearCaches) {
+            nearCache.put("maps", TABLES, rows());
+            nearCache.put("other", Collections.singleton("teacher"), rows());
+        }
+
+        queryCache.invalidateTables(TABLES);
+        deliver(redis, nearCaches);
+        for (NearCache nearCache : nearCaches) {
+            assertNull(nearCache.get("maps"));
+            assertNotNull(nearCache.get("other"));
+            assertEquals(1L, nearCache.getGeneration());
+        }
+
+        queryCache.invalidateAll();
+        deliver(redis, nearCaches);
+        for (NearCache nearCache : nearCaches) {
+            assertNull(nearCache.get("other"));
+        }
+    }
+
+    private static void deliver(FakeRedis redis, List<NearCache> nearCaches) {
+        for (String message : redis.getMessages()) {
+            nearCaches.forEach(nearCache -> nearCache.onMessage(message));
+        }
+        redis.reset();
+    }
+
+    private static List<Map<String, Object>> rows() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (long id = 1; id <= 3; id ++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", id);
+            row.put("name", "student" + id);
+            rows.add(row);
+        }
+        return rows;
+    }
+}
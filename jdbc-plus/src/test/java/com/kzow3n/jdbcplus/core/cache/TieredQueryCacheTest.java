@@ -0,0 +1,118 @@
+package com.kzow3n.jdbcplus.core.cache;
+
+import com.kzow3n.jdbcplus.entity.Student;
+import com.kzow3n.jdbcplus.support.FakeRedis;
+import com.kzow3n.jdbcplus.support.MapQueryCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author owen
+ * @since 2026/10/18
+ */
+class TieredQueryCacheTest {
+
+    private static final Set<String> TABLES = Collections.singleton("student");
+
+    @Test
+    void nearCacheHitReturnsIndependentCopies() {
+        NearCache nearCache = new NearCache(1024 * 1024, 60);
+        TieredQueryCache queryCache = new TieredQueryCache(nearCache, new MapQueryCache());
+        CacheKey cacheKey = new CacheKey("maps", TABLES);
+        assertNull(queryCache.get(cacheKey));
+        assertTrue(queryCache.putIfAbsent(cacheKey, new ArrayList<>(Arrays.asList(row(1L), row(2L))), 60));
+
+        List<Map<String, Object>> first = (List<Map<String, Object>>) queryCache.get(new CacheKey("maps", TABLES));
+        first.get(0).put("name", "changed");
+        first.remove(1);
+        Collections.reverse(first);
+
+        List<Map<String, Object>> second = (List<Map<String, Object>>) queryCache.get(new CacheKey("maps", TABLES));
+        assertEquals(Arrays.asList(row(1L), row(2L)), second);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    void nearCacheHitReturnsIndependentBeans() {
+        NearCache nearCache = new NearCache(1024 * 1024, 60);
+        Student student = new Student();
+        student.setId(1L);
+        student.setName("a");
+        nearCache.put("beans", TABLES, new ArrayList<>(Collections.singletonList(student)));
+
+        List<Student> first = (List<Student>) nearCache.get("beans");
+        first.get(0).setName("changed");
+        assertEquals("a", ((List<Student>) nearCache.get("beans")).get(0).getName());
+    }
+
+    @Test
+    void invalidationThroughRedisPublishesOnce() {
+        FakeRedis redis = new FakeRedis();
+        NearCache nearCache = new NearCache(1024 * 1024, 60);
+        TieredQueryCache queryCache = new TieredQueryCache(nearCache, new RedisQueryCache(redis.getRedisTemplate(), new BinaryResultCodec()));
+        CacheKey cacheKey = new CacheKey("maps", TABLES);
+        assertNull(queryCache.get(cacheKey));
+        assertTrue(queryCache.putIfAbsent(cacheKey, new ArrayList<>(Collections.singletonList(row(1L))), 60));
+        redis.reset();
+
+        //本节点同步清除，其他节点只收到RedisQueryCache发布的一条消息
+        queryCache.invalidateTables(TABLES);
+        assertNull(nearCache.get("maps"));
+        assertEquals(1, redis.getMessages().size());
+        assertTrue(redis.getMessages().get(0).endsWith("|@tables:student"), redis.getMessages().get(0));
+
+        queryCache.invalidateAll();
+        assertEquals(2, redis.getMessages().size());
+        assertTrue(redis.getMessages().get(1).endsWith("|*"), redis.getMessages().get(1));
+    }
+
+    @Test
+    void invalidationDuringRemoteReadIsNotOverwritten() {
+        NearCache nearCache = new NearCache(1024 * 1024, 60);
+        //远程读取期间收到失效消息，读到的旧值不应回填进程内缓存
+        QueryCache remoteCache = new MapQueryCache() {
+            @Override
+            public Object get(CacheKey key) {
+                nearCache.invalidateTables(TABLES);
+                return new ArrayList<>(Collections.singletonList(row(1L)));
+            }
+        };
+        TieredQueryCache queryCache = new TieredQueryCache(nearCache, remoteCache);
+        assertNotNull(queryCache.get(new CacheKey("maps", TABLES)));
+        assertNull(nearCache.get("maps"));
+    }
+
+    @Test
+    void invalidationBeforeWriteIsNotOverwritten() {
+        NearCache nearCache = new NearCache(1024 * 1024, 60);
+        TieredQueryCache queryCache = new TieredQueryCache(nearCache, new MapQueryCache());
+        CacheKey cacheKey = new CacheKey("maps", TABLES);
+        assertNull(queryCache.get(cacheKey));
+        //查询数据库期间表被更新
+        nearCache.invalidateTables(TABLES);
+        assertTrue(queryCache.putIfAbsent(cacheKey, new ArrayList<>(Collections.singletonList(row(1L))), 60));
+        assertNull(nearCache.get("maps"));
+
+        CacheKey nextKey = new CacheKey("maps", TABLES);
+        assertNotNull(queryCache.get(nextKey));
+        assertNotNull(nearCache.get("maps"));
+    }
+
+    @Test
+    void keyNotLookedUpIsNotWrittenToNearCache() {
+        NearCache nearCache = new NearCache(1024 * 1024, 60);
+        TieredQueryCache queryCache = new TieredQueryCache(nearCache, new MapQueryCache());
+        queryCache.put(new CacheKey("maps", TABLES), new ArrayList<>(Collections.singletonList(row(1L))), 60);
+        assertNull(nearCache.get("maps"));
+    }
+
+    private static Map<String, Object> row(Long id) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", id);
+        row.put("name", "student" + id);
+        return row;
+    }
+}
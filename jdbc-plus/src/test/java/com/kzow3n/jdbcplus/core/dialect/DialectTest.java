@@ -0,0 +1,201 @@
+package com.kzow3n.jdbcplus.core.dialect;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.kzow3n.jdbcplus.core.executor.LinkedQueryExecutor;
+import com.kzow3n.jdbcplus.core.executor.LinkedQueryExecutorBuilder;
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import com.kzow3n.jdbcplus.entity.Student;
+import com.kzow3n.jdbcplus.entity.Teacher;
+import com.kzow3n.jdbcplus.pojo.KeysetPage;
+import com.kzow3n.jdbcplus.support.TestDatabase;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 在H2的兼容模式下执行各方言生成的Sql
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+class DialectTest {
+
+    static Stream<Arguments> dialects() {
+        return Stream.of(
+                Arguments.of("MySQL", new MySqlDialect()),
+                Arguments.of("PostgreSQL", new PostgreSqlDialect()),
+                Arguments.of("MSSQLServer", new SqlServerDialect()),
+                Arguments.of("Oracle", new OracleDialect()),
+                //H2没有达梦模式，达梦使用的limit offset与双引号在默认模式下同样可用
+                Arguments.of(null, new DmDialect()));
+    }
+
+    static Stream<String> modes() {
+        return dialects().map(arguments -> (String) arguments.get()[0]);
+    }
+
+    @ParameterizedTest
+    @MethodSource("dialects")
+    void pagesWithNativeForm(String mode, Dialect dialect) {
+        LinkedQueryExecutor queryExecutor = buildExecutor(mode, dialect);
+        Page<Student> page = queryExecutor.forObjectPage(Student.class, new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .orderBy(1, Student::getId), 2, 10);
+        assertEquals(25L, page.getTotal());
+        assertEquals(ids(11, 20), page.getRecords().stream().map(Student::getId).collect(Collectors.toList()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("dialects")
+    void pagesWithoutOrderBy(String mode, Dialect dialect) {
+        LinkedQueryExecutor queryExecutor = buildExecutor(mode, dialect);
+        Page<Student> page = queryExecutor.forObjectPage(Student.class, new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s"), 3, 10);
+        assertEquals(25L, page.getTotal());
+        assertEquals(5, page.getRecords().size());
+    }
+
+    @ParameterizedTest
+    @MethodSource("dialects")
+    void rendersLimitAndOffset(String mode, Dialect dialect) {
+        LinkedQueryExecutor queryExecutor = buildExecutor(mode, dialect);
+        List<Student> students = queryExecutor.forObjects(Student.class, new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .orderByDesc(1, Student::getId)
+                .limit(3)
+                .offset(2));
+        assertEquals(Arrays.asList(23L, 22L, 21L), students.stream().map(Student::getId).collect(Collectors.toList()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("dialects")
+    void writesAliasUnquoted(String mode, Dialect dialect) {
+        LinkedQueryExecutor queryExecutor = buildExecutor(mode, dialect);
+        List<Map<String, Object>> maps = queryExecutor.forMaps(new LinkedQueryWrapper()
+                .select(1, Student::getHeadmasterId, "headmasterId")
+                .from(Student.class, "s")
+                .eq(1, Student::getId, 1L));
+        assertEquals(1, maps.size());
+        //别名不加引用，列名的大小写由数据库决定，与外层查询中未引用的别名一致
+        String label = maps.get(0).keySet().iterator().next();
+        assertTrue("headmasterId".equalsIgnoreCase(label), label);
+        assertEquals("`a``b`", new MySqlDialect().quote("a`b"));
+        assertEquals("[a]]b]", new SqlServerDialect().quote("a]b"));
+        assertEquals("\"a\"\"b\"", new OracleDialect().quote("a\"b"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("dialects")
+    void resolvesNestedAlias(String mode, Dialect dialect) {
+        assertNestedQueryMatchesJoin(buildExecutor(mode, dialect));
+    }
+
+    @ParameterizedTest
+    @MethodSource("modes")
+    void resolvesNestedAliasWithDetectedDialect(String mode) {
+        //不指定方言时H2探测为默认方言，嵌套查询在构造时已生成Sql，别名不能依赖方言
+        TestDatabase database = new TestDatabase(mode).withSchoolData();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build();
+        assertNestedQueryMatchesJoin(queryExecutor);
+    }
+
+    private static void assertNestedQueryMatchesJoin(LinkedQueryExecutor queryExecutor) {
+        List<Student> nested = queryExecutor.forObjects(Student.class, new LinkedQueryWrapper()
+                .select(1, "id", Student::getId)
+                .select(1, "masterId", Student::getHeadmasterId)
+                .from(wrapper -> wrapper
+                        .select(1, Student::getId)
+                        .select(1, Student::getHeadmasterId, "masterId")
+                        .from(Student.class, "s"), "t")
+                .innerJoin(Teacher.class, "te")
+                .on(1, "masterId", 2, Teacher::getId)
+                .orderBy(1, "id"));
+        List<Student> joined = queryExecutor.forObjects(Student.class, new LinkedQueryWrapper()
+                .select(1, Student::getId)
+                .select(1, Student::getHeadmasterId)
+                .from(Student.class, "s")
+                .innerJoin(Teacher.class, "te")
+                .on(1, Student::getHeadmasterId, 2, Teacher::getId)
+                .orderBy(1, Student::getId));
+        assertFalse(joined.isEmpty());
+        assertEquals(joined.stream().map(Student::getId).collect(Collectors.toList()),
+                nested.stream().map(Student::getId).collect(Collectors.toList()));
+        assertEquals(joined.stream().map(Student::getHeadmasterId).collect(Collectors.toList()),
+                nested.stream().map(Student::getHeadmasterId).collect(Collectors.toList()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("dialects")
+    void rendersLike(String mode, Dialect dialect) {
+        LinkedQueryExecutor queryExecutor = buildExecutor(mode, dialect);
+        assertEquals(11L, queryExecutor.forCount(new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .likeRight(1, Student::getName, "student1")));
+        assertEquals(3L, queryExecutor.forCount(new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .likeLeft(1, Student::getName, "5")));
+    }
+
+    @ParameterizedTest
+    @MethodSource("dialects")
+    void seeksThroughAllRows(String mode, Dialect dialect) {
+        //H2在各兼容模式下都将null视为最小值，而PostgreSQL、Oracle视为最大值，显式指定nulls first/last使两者一致
+        LinkedQueryExecutor queryExecutor = buildExecutor(mode, dialect);
+        assertSeeksLikeFullQuery(queryExecutor, () -> new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .orderByDesc(1, Student::getAge)
+                .nullsLast()
+                .thenBy(1, Student::getId));
+        assertSeeksLikeFullQuery(queryExecutor, () -> new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .orderBy(1, Student::getHeadmasterId)
+                .nullsFirst()
+                .thenByDesc(1, Student::getId));
+    }
+
+    private static void assertSeeksLikeFullQuery(LinkedQueryExecutor queryExecutor, Supplier<LinkedQueryWrapper> wrapper) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPage<Student> page = queryExecutor.forObjectsAfter(Student.class, wrapper.get(), cursor, 4);
+            page.getRecords().forEach(student -> ids.add(student.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        List<Long> expected = queryExecutor.forObjects(Student.class, wrapper.get()).stream()
+                .map(Student::getId).collect(Collectors.toList());
+        assertEquals(25, expected.size());
+        assertEquals(expected, ids);
+    }
+
+    private static LinkedQueryExecutor buildExecutor(String mode, Dialect dialect) {
+        TestDatabase database = new TestDatabase(mode).withSchoolData();
+        return new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .dialect(dialect)
+                .build();
+    }
+
+    private static List<Long> ids(long from, long to) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = from; id <= to; id ++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,146 @@
+package com.kzow3n.jdbcplus.core.executor;
+
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import com.kzow3n.jdbcplus.entity.Student;
+import com.kzow3n.jdbcplus.entity.Teacher;
+import com.kzow3n.jdbcplus.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 改写后的计数Sql与查询结果的行数一致
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+class CountSqlTest {
+
+    private LinkedQueryExecutor queryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build();
+    }
+
+    @Test
+    void dropsProjectionOrderByAndUnreferencedKeyJoin() {
+        Supplier<LinkedQueryWrapper> wrapper = () -> new LinkedQueryWrapper()
+                .selectAll(1)
+                .select(2, Teacher::getName, "teacherName")
+                .from(Student.class, "s")
+                .leftJoin(Teacher.class, "t")
+                .on(2, Teacher::getId, 1, Student::getHeadmasterId)
+                .gt(1, Student::getAge, 10)
+                .orderBy(1, Student::getId);
+        String countSql = countSql(wrapper.get());
+        assertEquals("select count(1) select_count from student s where s.age > ?", normalize(countSql));
+        assertCountEquals(wrapper);
+    }
+
+    @Test
+    void keepsJoinReferencedByCondition() {
+        Supplier<LinkedQueryWrapper> wrapper = () -> new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .leftJoin(Teacher.class, "t")
+                .on(2, Teacher::getId, 1, Student::getHeadmasterId)
+                .eq(2, Teacher::getName, "teacher2");
+        String countSql = normalize(countSql(wrapper.get()));
+        assertTrue(countSql.startsWith("select count(1) select_count from student s left join teacher t"), countSql);
+        assertCountEquals(wrapper);
+    }
+
+    @Test
+    void keepsJoinNotOnKey() {
+        //按非主键连表可能匹配多行，不能去掉
+        Supplier<LinkedQueryWrapper> wrapper = () -> new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .leftJoin(Student.class, "o")
+                .on(2, Student::getAge, 1, Student::getAge);
+        assertTrue(normalize(countSql(wrapper.get())).contains("left join student o"));
+        assertCountEquals(wrapper);
+    }
+
+    @Test
+    void countsSingleColumnGroupsWithDistinct() {
+        //age为null的学生单独算作一组
+        Supplier<LinkedQueryWrapper> wrapper = () -> new LinkedQueryWrapper()
+                .select(1, Student::getAge, "age")
+                .count(1, Student::getId, "total")
+                .from(Student.class, "s")
+                .leftJoin(Teacher.class, "t")
+                .on(2, Teacher::getId, 1, Student::getHeadmasterId)
+                .groupBy(1, Student::getAge)
+                .orderBy(1, Student::getAge);
+        String countSql = normalize(countSql(wrapper.get()));
+        assertEquals("select count(distinct s.age) + count(distinct case when s.age is null then 1 end) select_count from student s", countSql);
+        assertEquals(5L, assertCountEquals(wrapper));
+    }
+
+    @Test
+    void countsGroupsOfJoinedColumn() {
+        //headmaster_id为null或指向不存在的老师时，t.id为null，这些学生合为一组
+        Supplier<LinkedQueryWrapper> wrapper = () -> new LinkedQueryWrapper()
+                .select(2, Teacher::getId, "teacherId")
+                .count(1, Student::getId, "total")
+                .from(Student.class, "s")
+                .leftJoin(Teacher.class, "t")
+                .on(2, Teacher::getId, 1, Student::getHeadmasterId)
+                .groupBy(2, Teacher::getId);
+        assertTrue(normalize(countSql(wrapper.get())).contains("left join teacher t"));
+        assertEquals(4L, assertCountEquals(wrapper));
+    }
+
+    @Test
+    void countsMultiColumnGroupsWithSubquery() {
+        Supplier<LinkedQueryWrapper> wrapper = () -> new LinkedQueryWrapper()
+                .from(Student.class, "s")
+                .groupBy(1, Student::getAge)
+                .groupBy(1, Student::getHeadmasterId);
+        String countSql = normalize(countSql(wrapper.get()));
+        assertEquals("select count(1) select_count from (select 1 select_one from student s group by s.age,s.headmaster_id ) t", countSql);
+        assertCountEquals(wrapper);
+    }
+
+    @Test
+    void countsDistinctWithSubquery() {
+        Supplier<LinkedQueryWrapper> wrapper = () -> new LinkedQueryWrapper()
+                .distinct()
+                .select(1, Student::getAge, "age")
+                .from(Student.class, "s");
+        assertTrue(normalize(countSql(wrapper.get())).contains("(select distinct"));
+        assertEquals(5L, assertCountEquals(wrapper));
+    }
+
+    @Test
+    void countsWithLimit() {
+        //计数包含limit、offset，与返回的行数一致
+        assertEquals(3L, queryExecutor.forCount(new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .orderBy(1, Student::getId)
+                .limit(5)
+                .offset(22)));
+    }
+
+    private String countSql(LinkedQueryWrapper linkedQueryWrapper) {
+        return queryExecutor.getCountSql(linkedQueryWrapper, false, queryExecutor.formatSql(linkedQueryWrapper));
+    }
+
+    private long assertCountEquals(Supplier<LinkedQueryWrapper> wrapper) {
+        long count = queryExecutor.forCount(wrapper.get());
+        assertEquals(queryExecutor.forMaps(wrapper.get()).size(), count);
+        return count;
+    }
+
+    private static String normalize(String sql) {
+        return sql.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,724 @@
+package com.kzow3n.jdbcplus.core.executor;
+
+import com.alibaba.fastjson.support.spring.GenericFastJsonRedisSerializer;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import com.kzow3n.jdbcplus.entity.Student;
+import com.kzow3n.jdbcplus.core.cache.BinaryResultCodec;
+import com.kzow3n.jdbcplus.core.cache.CacheKey;
+import com.kzow3n.jdbcplus.core.cache.NearCache;
+import com.kzow3n.jdbcplus.core.cache.QueryCache;
+import com.kzow3n.jdbcplus.core.cache.RedisQueryCache;
+import com.kzow3n.jdbcplus.core.cache.TieredQueryCache;
+import com.kzow3n.jdbcplus.support.FakeRedis;
+import com.kzow3n.jdbcplus.support.MapQueryCache;
+import com.kzow3n.jdbcplus.support.TestDatabase;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author owen
+ * @since 2026/10/18
+ */
+class LinkedQueryExecutorTest {
+
+    @Test
+    void cacheHitDoesNotOpenConnection() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        MapQueryCache queryCache = new MapQueryCache();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .cacheable(true)
+                .queryCache(queryCache)
+                .build();
+        List<Map<String, Object>> maps = queryExecutor.forMaps(studentsOlderThan(11));
+        assertFalse(maps.isEmpty());
+        assertEquals(1, queryCache.size());
+        int openedCount = database.getOpenedCount();
+
+        assertEquals(maps, queryExecutor.forMaps(studentsOlderThan(11)));
+        assertEquals(openedCount, database.getOpenedCount());
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void redisRoundTripsPerQuery() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        FakeRedis redis = new FakeRedis();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .cacheable(true)
+                .redisTemplate(redis.getRedisTemplate())
+                .cacheCodec(new BinaryResultCodec())
+                .build();
+        //未命中：首次查找时Redis中没有脚本，EVALSHA失败后EVAL，之后SET NX EX
+        List<Map<String, Object>> maps = queryExecutor.forMaps(studentsOlderThan(11));
+        assertEquals(Arrays.asList("evalSha", "eval", "set"), redis.getCommands());
+        redis.reset();
+
+        //命中：一次EVALSHA，在Redis端读取表版本并GET
+        assertEquals(maps, queryExecutor.forMaps(studentsOlderThan(11)));
+        assertEquals(Collections.singletonList("evalSha"), redis.getCommands());
+        assertEquals(1, redis.getRoundTrips());
+    }
+
+    @Test
+    void reusesBuiltQueryCache() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        FakeRedis redis = new FakeRedis();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .cacheable(true)
+                .redisTemplate(redis.getRedisTemplate())
+                .nearCache(new NearCache(1024 * 1024, 60))
+                .build();
+        QueryCache queryCache = queryExecutor.buildQueryCache();
+        assertTrue(queryCache instanceof TieredQueryCache);
+        assertSame(queryCache, queryExecutor.buildQueryCache());
+
+        //参与构造的属性变化后重新构造
+        queryExecutor.setCacheCodec(new BinaryResultCodec());
+        QueryCache rebuilt = queryExecutor.buildQueryCache();
+        assertNotSame(queryCache, rebuilt);
+        assertSame(rebuilt, queryExecutor.buildQueryCache());
+        queryExecutor.setNearCache(null);
+        assertTrue(queryExecutor.buildQueryCache() instanceof RedisQueryCache);
+        MapQueryCache mapQueryCache = new MapQueryCache();
+        queryExecutor.setQueryCache(mapQueryCache);
+        assertSame(mapQueryCache, queryExecutor.buildQueryCache());
+    }
+
+    @Test
+    void noCacheQueriesDatabaseEveryTime() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        MapQueryCache queryCache = new MapQueryCache();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .cacheable(true)
+                .queryCache(queryCache)
+                .build();
+        int size = queryExecutor.forMaps(studentsOlderThan(11).noCache()).size();
+        int openedCount = database.getOpenedCount();
+        //绕过执行器直接写入，只有读取数据库才能看到
+        database.execute("insert into student values (100, 'student100', 30, 1)");
+
+        assertEquals(size + 1, queryExecutor.forMaps(studentsOlderThan(11).noCache()).size());
+        assertEquals(openedCount + 1, database.getOpenedCount());
+        assertEquals(size + 1, queryExecutor.forObjects(Student.class, studentsOlderThan(11).noCache()).size());
+        assertEquals(size + 1, queryExecutor.forCount(studentsOlderThan(11).noCache()));
+        assertEquals(openedCount + 3, database.getOpenedCount());
+        assertEquals(0, queryCache.getGetCount());
+        assertEquals(0, queryCache.size());
+    }
+
+    @Test
+    void cacheCountOnlyCachesPageTotalButNotRecords() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        MapQueryCache queryCache = new MapQueryCache();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .queryCache(queryCache)
+                .build();
+        Page<Student> page = queryExecutor.forObjectPage(Student.class, studentsByIdDesc().cacheCountOnly(Duration.ofSeconds(60)), 1, 10);
+        assertEquals(25L, page.getTotal());
+        assertEquals(25L, page.getRecords().get(0).getId());
+        assertEquals(1, queryCache.size());
+        database.execute("insert into student values (100, 'student100', 30, 1)");
+
+        //总数来自缓存，当前页从数据库读取
+        page = queryExecutor.forObjectPage(Student.class, studentsByIdDesc().cacheCountOnly(Duration.ofSeconds(60)), 1, 10);
+        assertEquals(25L, page.getTotal());
+        assertEquals(100L, page.getRecords().get(0).getId());
+        assertEquals(1, queryCache.size());
+        assertEquals(26L, queryExecutor.forObjectPage(Student.class, studentsByIdDesc(), 1, 10).getTotal());
+    }
+
+    @Test
+    void cacheKeyIndexFollowsQueryTimeout() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        FakeRedis redis = new FakeRedis();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .redisTemplate(redis.getRedisTemplate())
+                .cacheCodec(new BinaryResultCodec())
+                .cacheTimeout(60L)
+                .cacheKeyIndex(true)
+                .build();
+        queryExecutor.forMaps(studentsOlderThan(11).cache(Duration.ofSeconds(600)));
+        List<String> indexKeys = new ArrayList<>();
+        for (String key : redis.keys()) {
+            if (key.startsWith(BaseExecutor.CACHE_KEY_INDEX_PREFIX)) {
+                indexKeys.add(key);
+            }
+        }
+        assertEquals(1, indexKeys.size());
+        assertEquals(600L, redis.getTtl(indexKeys.get(0)));
+    }
+
+    @Test
+    void waitersReceiveIndependentCopies() throws Exception {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        CountDownLatch waiterArrived = new CountDownLatch(1);
+        MapQueryCache queryCache = new MapQueryCache() {
+            @Override
+            public Object get(CacheKey key) {
+                Object value = super.get(key);
+                if (getGetCount() == 2) {
+                    waiterArrived.countDown();
+                }
+                return value;
+            }
+
+            @Override
+            public boolean putIfAbsent(CacheKey key, Object value, long timeoutSeconds) {
+                await(waiterArrived);
+                sleep(200);
+                return super.putIfAbsent(key, value, timeoutSeconds);
+            }
+        };
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .cacheable(true)
+                .queryCache(queryCache)
+                .build();
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Map<String, Object>>> loader = executorService.submit(() -> queryExecutor.forMaps(studentsOlderThan(12)));
+            Future<List<Map<String, Object>>> waiter = executorService.submit(() -> {
+                while (queryCache.getGetCount() == 0) {
+                    Thread.yield();
+                }
+                return queryExecutor.forMaps(studentsOlderThan(12));
+            });
+            List<Map<String, Object>> loaded = loader.get(10, TimeUnit.SECONDS);
+            List<Map<String, Object>> waited = waiter.get(10, TimeUnit.SECONDS);
+            assertEquals(loaded, waited);
+            assertNotSame(loaded, waited);
+            loaded.get(0).put("name", "changed");
+            loaded.clear();
+            assertFalse(waited.isEmpty());
+            assertNotEquals("changed", waited.get(0).get("name"));
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void waiterRethrowsLoaderException() throws Exception {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        CountDownLatch waiterArrived = new CountDownLatch(1);
+        MapQueryCache queryCache = new MapQueryCache() {
+            @Override
+            public Object get(CacheKey key) {
+                Object value = super.get(key);
+                if (getGetCount() == 2) {
+                    waiterArrived.countDown();
+                }
+                return value;
+            }
+
+            @Override
+            public boolean putIfAbsent(CacheKey key, Object value, long timeoutSeconds) {
+                await(waiterArrived);
+                sleep(200);
+                throw new IllegalStateException("cache unavailable");
+            }
+        };
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .cacheable(true)
+                .queryCache(queryCache)
+                .build();
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> loader = executorService.submit(() -> queryExecutor.forMaps(studentsOlderThan(13)));
+            Future<?> waiter = executorService.submit(() -> {
+                while (queryCache.getGetCount() == 0) {
+                    Thread.yield();
+                }
+                return queryExecutor.forMaps(studentsOlderThan(13));
+            });
+            ExecutionException loaderException = assertThrows(ExecutionException.class, () -> loader.get(10, TimeUnit.SECONDS));
+            ExecutionException waiterException = assertThrows(ExecutionException.class, () -> waiter.get(10, TimeUnit.SECONDS));
+            assertTrue(loaderException.getCause() instanceof IllegalStateException);
+            assertTrue(waiterException.getCause() instanceof IllegalStateException);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void waiterQueriesByItselfAfterTimeout() throws Exception {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        CountDownLatch waiterDone = new CountDownLatch(1);
+        AtomicBoolean blnFirst = new AtomicBoolean(true);
+        MapQueryCache queryCache = new MapQueryCache() {
+            @Override
+            public boolean putIfAbsent(CacheKey key, Object value, long timeoutSeconds) {
+                if (blnFirst.getAndSet(false)) {
+                    await(waiterDone);
+                }
+                return super.putIfAbsent(key, value, timeoutSeconds);
+            }
+        };
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .cacheable(true)
+                .queryCache(queryCache)
+                .cacheLock(100L)
+                .build();
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Map<String, Object>>> loader = executorService.submit(() -> queryExecutor.forMaps(studentsOlderThan(14)));
+            while (blnFirst.get()) {
+                Thread.yield();
+            }
+            //加载线程阻塞在写入缓存，等待的线程超时后自行查询
+            List<Map<String, Object>> waited = queryExecutor.forMaps(studentsOlderThan(14));
+            waiterDone.countDown();
+            assertEquals(loader.get(10, TimeUnit.SECONDS), waited);
+        } finally {
+            waiterDone.countDown();
+            executorService.shutdownNow();
+        }
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void staleRefreshReleasesConnection() throws Exception {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .cacheable(true)
+                .queryCache(new MapQueryCache())
+                .cacheTimeout(0L)
+                .cacheStaleSeconds(60L)
+                .build();
+        List<Map<String, Object>> maps = queryExecutor.forMaps(studentsOlderThan(11));
+        int openedCount = database.getOpenedCount();
+        sleep(10);
+        assertEquals(maps, queryExecutor.forMaps(studentsOlderThan(11)));
+        long deadline = System.currentTimeMillis() + 5000L;
+        while ((database.getOpenedCount() == openedCount || database.getOpenCount() > 0) && System.currentTimeMillis() < deadline) {
+            sleep(10);
+        }
+        assertTrue(database.getOpenedCount() > openedCount);
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void keysetRejectsBadCursorBeforeConnecting() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build();
+        assertThrows(IllegalArgumentException.class, () -> queryExecutor.forObjectsAfter(Student.class, new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .orderBy(1, Student::getId), "not-a-cursor", 10));
+        assertEquals(0, database.getOpenedCount());
+    }
+
+    @Test
+    void keysetFailureIsNotAnEmptyPage() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build();
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> queryExecutor.forObjectsAfter(Student.class, new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .orderBy(1, "not_exists"), null, 10));
+        assertTrue(exception.getCause() instanceof SQLException);
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void uncachedQueriesReleaseConnections() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build();
+        assertFalse(queryExecutor.forObjects(Student.class, studentsOlderThan(11)).isEmpty());
+        assertEquals(25L, queryExecutor.forObjectPage(Student.class, new LinkedQueryWrapper().selectAll(1).from(Student.class, "s"), 2, 10).getTotal());
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3})
+    void windowPageReadsTotalWithRecords(int pageIndex) {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = buildWindowExecutor(database);
+        long count = queryExecutor.forCount(studentsOlderThan(10));
+        int openedCount = database.getOpenedCount();
+        Page<Student> page = queryExecutor.forObjectPage(Student.class, studentsOlderThan(10).orderBy(1, Student::getId), pageIndex, 5);
+        //总数与当前页在同一条语句中查询
+        assertEquals(openedCount + 1, database.getOpenedCount());
+        assertEquals(count, page.getTotal());
+        assertEquals(pageIndex, page.getCurrent());
+        assertEquals((count + 4) / 5, page.getPages());
+        assertEquals(expectedPage(queryExecutor, pageIndex), page.getRecords().stream().map(Student::getId).collect(Collectors.toList()));
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void windowPagePastEndQueriesCount() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = buildWindowExecutor(database);
+        long count = queryExecutor.forCount(studentsOlderThan(10));
+        int openedCount = database.getOpenedCount();
+        Page<Map<String, Object>> page = queryExecutor.forMapPage(studentsOlderThan(10).orderBy(1, Student::getId), 10, 5);
+        //超出范围的页没有行可读取总数，另外查询一次
+        assertEquals(openedCount + 2, database.getOpenedCount());
+        assertTrue(page.getRecords().isEmpty());
+        assertEquals(count, page.getTotal());
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void windowPageEmptyFirstPageSkipsCount() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = buildWindowExecutor(database);
+        assertEquals(0L, queryExecutor.forCount(studentsOlderThan(99)));
+        int openedCount = database.getOpenedCount();
+        Page<Map<String, Object>> page = queryExecutor.forMapPage(studentsOlderThan(99).orderBy(1, Student::getId), 1, 5);
+        //第一页为空时总数即为0
+        assertEquals(openedCount + 1, database.getOpenedCount());
+        assertTrue(page.getRecords().isEmpty());
+        assertEquals(0L, page.getTotal());
+        assertEquals(0L, page.getPages());
+    }
+
+    @Test
+    void windowPageMapsOmitTotalColumn() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = buildWindowExecutor(database);
+        Page<Map<String, Object>> windowPage = queryExecutor.forMapPage(studentsOlderThan(10).orderBy(1, Student::getId), 2, 5);
+        Page<Map<String, Object>> page = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build()
+                .forMapPage(studentsOlderThan(10).orderBy(1, Student::getId), 2, 5);
+        assertEquals(page.getTotal(), windowPage.getTotal());
+        assertEquals(page.getRecords(), windowPage.getRecords());
+    }
+
+    @Test
+    void failedPageWaitsForAsyncCount() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        AtomicBoolean blnCounted = new AtomicBoolean(false);
+        MapQueryCache queryCache = new MapQueryCache() {
+            @Override
+            public Object get(CacheKey key) {
+                if (!Thread.currentThread().getName().startsWith("page-count")) {
+                    throw new IllegalStateException("cache unavailable");
+                }
+                sleep(200);
+                return super.get(key);
+            }
+
+            @Override
+            public boolean putIfAbsent(CacheKey key, Object value, long timeoutSeconds) {
+                blnCounted.set(true);
+                return super.putIfAbsent(key, value, timeoutSeconds);
+            }
+        };
+        ExecutorService pageCountExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "page-count"));
+        try {
+            LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                    .cacheable(true)
+                    .queryCache(queryCache)
+                    .pageCountExecutor(pageCountExecutor)
+                    .build();
+            assertThrows(IllegalStateException.class, () -> queryExecutor.forMapPage(studentsOlderThan(10), 1, 5));
+            //抛出异常前总数查询已结束并释放连接
+            assertTrue(blnCounted.get());
+            assertEquals(0, database.getOpenCount());
+        } finally {
+            pageCountExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentPagesMatchCount() throws Exception {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        ExecutorService pageCountExecutor = Executors.newFixedThreadPool(2);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                    .pageCountExecutor(pageCountExecutor)
+                    .build();
+            long count = queryExecutor.forCount(studentsOlderThan(10));
+            List<Future<Page<Student>>> futures = new ArrayList<>();
+            for (int i = 0; i < 40; i ++) {
+                int pageIndex = i % 4 + 1;
+                futures.add(executorService.submit(() -> queryExecutor.forObjectPage(Student.class,
+                        studentsOlderThan(10).orderBy(1, Student::getId), pageIndex, 5)));
+            }
+            for (int i = 0; i < futures.size(); i ++) {
+                Page<Student> page = futures.get(i).get(10, TimeUnit.SECONDS);
+                assertEquals(count, page.getTotal());
+                assertEquals(expectedPage(queryExecutor, i % 4 + 1), page.getRecords().stream().map(Student::getId).collect(Collectors.toList()));
+            }
+        } finally {
+            executorService.shutdownNow();
+            pageCountExecutor.shutdownNow();
+        }
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void singleFlightIsScopedToSqlSessionFactory() throws Exception {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        TestDatabase otherDatabase = new TestDatabase("MySQL").withSchoolData();
+        otherDatabase.execute("delete from student where age = 12");
+        long count = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build().forCount(studentsOlderThan(11));
+        long otherCount = new LinkedQueryExecutorBuilder(otherDatabase.getSqlSessionFactory()).build().forCount(studentsOlderThan(11));
+        assertNotEquals(count, otherCount);
+
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        MapQueryCache queryCache = new MapQueryCache() {
+            @Override
+            public boolean putIfAbsent(CacheKey key, Object value, long timeoutSeconds) {
+                blocked.countDown();
+                await(gate);
+                return super.putIfAbsent(key, value, timeoutSeconds);
+            }
+        };
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .cacheable(true)
+                .queryCache(queryCache)
+                .build();
+        LinkedQueryExecutor otherExecutor = new LinkedQueryExecutorBuilder(otherDatabase.getSqlSessionFactory())
+                .cacheable(true)
+                .queryCache(new MapQueryCache())
+                .build();
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> future = executorService.submit(() -> queryExecutor.forCount(studentsOlderThan(11)));
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+            //缓存键相同，但另一数据源的查询不等待也不共用该结果
+            Future<Long> otherFuture = executorService.submit(() -> otherExecutor.forCount(studentsOlderThan(11)));
+            assertEquals(otherCount, otherFuture.get(5, TimeUnit.SECONDS));
+            gate.countDown();
+            assertEquals(count, future.get(10, TimeUnit.SECONDS));
+        } finally {
+            gate.countDown();
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void streamReleasesConnectionWhenExhausted() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).fetchSize(4).build();
+        long count = queryExecutor.forCount(studentsOlderThan(10));
+        Stream<Map<String, Object>> stream = queryExecutor.forMapStream(studentsOlderThan(10));
+        Iterator<Map<String, Object>> iterator = stream.iterator();
+        assertEquals(1, database.getOpenCount());
+        long rows = 0L;
+        while (iterator.hasNext()) {
+            assertFalse(iterator.next().isEmpty());
+            rows ++;
+        }
+        //读完即释放连接，不依赖调用方关闭
+        assertEquals(count, rows);
+        assertEquals(0, database.getOpenCount());
+        assertFalse(iterator.hasNext());
+        stream.close();
+
+        List<Map<String, Object>> maps = new ArrayList<>();
+        queryExecutor.forEach(studentsOlderThan(10), maps::add);
+        assertEquals(queryExecutor.forMaps(studentsOlderThan(10)), maps);
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void streamReleasesConnectionOnEarlyClose() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).fetchSize(4).build();
+        try (Stream<Student> stream = queryExecutor.forStream(Student.class, studentsOlderThan(10).orderBy(1, Student::getId))) {
+            List<Long> ids = stream.limit(3).map(Student::getId).collect(Collectors.toList());
+            assertEquals(Arrays.asList(1L, 2L, 3L), ids);
+            assertEquals(1, database.getOpenCount());
+        }
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void forEachReleasesConnectionWhenConsumerThrows() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).fetchSize(4).build();
+        List<Long> ids = new ArrayList<>();
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () ->
+                queryExecutor.forEach(Student.class, studentsOlderThan(10).orderBy(1, Student::getId), student -> {
+                    if (ids.size() == 2) {
+                        throw new IllegalStateException("consumer failed");
+                    }
+                    ids.add(student.getId());
+                }));
+        assertEquals("consumer failed", exception.getMessage());
+        assertEquals(Arrays.asList(1L, 2L), ids);
+        assertEquals(0, database.getOpenCount());
+        assertThrows(IllegalStateException.class, () -> queryExecutor.forEach(studentsOlderThan(10), map -> {
+            throw new IllegalStateException("consumer failed");
+        }));
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void streamsBeansLikeForObjects(boolean beanRowMapper) {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .beanRowMapper(beanRowMapper)
+                .fetchSize(4)
+                .build();
+        List<Student> expected = queryExecutor.forObjects(Student.class, allStudents());
+        //包含age、headmaster_id为null的行
+        assertTrue(expected.stream().anyMatch(student -> student.getAge() == null));
+        assertTrue(expected.stream().anyMatch(student -> student.getHeadmasterId() == null));
+        List<Student> streamed;
+        try (Stream<Student> stream = queryExecutor.forStream(Student.class, allStudents())) {
+            streamed = stream.collect(Collectors.toList());
+        }
+        assertEquals(expected, streamed);
+        List<Student> consumed = new ArrayList<>();
+        queryExecutor.forEach(Student.class, allStudents(), consumed::add);
+        assertEquals(expected, consumed);
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void postgreSqlStreamRestoresAutoCommit() throws SQLException {
+        TestDatabase database = new TestDatabase("PostgreSQL").withProductName("PostgreSQL").withSchoolData();
+        try (SqlSession sqlSession = database.getSqlSessionFactory().openSession(true)) {
+            Connection connection = sqlSession.getConnection();
+            LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory(), sqlSession)
+                    .fetchSize(4)
+                    .build();
+            List<Boolean> autoCommits = new ArrayList<>();
+            queryExecutor.forEach(Student.class, studentsOlderThan(10), student -> autoCommits.add(getAutoCommit(connection)));
+            //PostgreSQL在事务内才按fetchSize分批读取，读完后恢复自动提交
+            assertFalse(autoCommits.isEmpty());
+            assertTrue(autoCommits.stream().noneMatch(Boolean::booleanValue));
+            assertTrue(connection.getAutoCommit());
+
+            try (Stream<Map<String, Object>> stream = queryExecutor.forMapStream(studentsOlderThan(10))) {
+                stream.findFirst();
+                assertFalse(connection.getAutoCommit());
+            }
+            assertTrue(connection.getAutoCommit());
+        }
+        assertEquals(0, database.getOpenCount());
+
+        //自行打开的连接同样在读完后关闭
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).fetchSize(4).build();
+        assertEquals(queryExecutor.forCount(studentsOlderThan(10)), queryExecutor.forMapStream(studentsOlderThan(10)).count());
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void streamQueryFailureIsThrown() {
+        //没有建表，查询失败
+        TestDatabase database = new TestDatabase("MySQL");
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build();
+        List<Map<String, Object>> maps = new ArrayList<>();
+        assertThrows(RuntimeException.class, () -> queryExecutor.forEach(studentsOlderThan(10), maps::add));
+        assertThrows(RuntimeException.class, () -> queryExecutor.forEach(Student.class, studentsOlderThan(10), student -> { }));
+        assertThrows(RuntimeException.class, () -> queryExecutor.forMapStream(studentsOlderThan(10)));
+        assertThrows(RuntimeException.class, () -> queryExecutor.forStream(Student.class, studentsOlderThan(10)));
+        assertTrue(maps.isEmpty());
+        assertEquals(0, database.getOpenCount());
+    }
+
+    private static LinkedQueryExecutor buildWindowExecutor(TestDatabase database) {
+        return new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .windowCountPage(true)
+                .build();
+    }
+
+    private static List<Long> expectedPage(LinkedQueryExecutor queryExecutor, int pageIndex) {
+        return queryExecutor.forObjects(Student.class, studentsOlderThan(10).orderBy(1, Student::getId)).stream()
+                .map(Student::getId)
+                .skip((pageIndex - 1L) * 5L)
+                .limit(5L)
+                .collect(Collectors.toList());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean getAutoCommit(Connection connection) {
+        try {
+            return connection.getAutoCommit();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0L, 60L})
+    void fastJsonSerializerReadsCachedMaps(long staleSeconds) {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        FakeRedis redis = new FakeRedis();
+        redis.getRedisTemplate().setValueSerializer(new GenericFastJsonRedisSerializer());
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .cacheable(true)
+                .cacheStaleSeconds(staleSeconds)
+                .redisTemplate(redis.getRedisTemplate())
+                .build();
+        List<Map<String, Object>> maps = queryExecutor.forMaps(studentsOlderThan(11));
+        int openedCount = database.getOpenedCount();
+        //fastjson不写出值为null的键
+        assertEquals(withoutNulls(maps), withoutNulls(queryExecutor.forMaps(studentsOlderThan(11))));
+        assertEquals(openedCount, database.getOpenedCount());
+    }
+
+    private static List<Map<String, Object>> withoutNulls(List<Map<String, Object>> maps) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map<String, Object> map : maps) {
+            Map<String, Object> copy = new LinkedHashMap<>(map);
+            copy.values().removeIf(Objects::isNull);
+            result.add(copy);
+        }
+        return result;
+    }
+
+    private static LinkedQueryWrapper allStudents() {
+        return new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .orderBy(1, Student::getId);
+    }
+
+    private static LinkedQueryWrapper studentsByIdDesc() {
+        return new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .orderByDesc(1, Student::getId);
+    }
+
+    private static LinkedQueryWrapper studentsOlderThan(int age) {
+        return new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .gt(1, Student::getAge, age);
+    }
+}
@@ -0,0 +1,144 @@
+package com.kzow3n.jdbcplus.core.executor;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import com.kzow3n.jdbcplus.entity.Student;
+import com.kzow3n.jdbcplus.support.MapQueryCache;
+import com.kzow3n.jdbcplus.support.TestDatabase;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 预编译查询的参数绑定与执行
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+class PreparedLinkedQueryTest {
+
+    @Test
+    void boundQueryMatchesWrapper() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build();
+        PreparedLinkedQuery preparedQuery = queryExecutor.prepare(studentsByAgeAndName(0, "x"));
+        assertEquals(2, preparedQuery.getSlotCount());
+        for (int age = 10; age <= 13; age ++) {
+            BoundLinkedQuery boundQuery = preparedQuery.bind(age, "student1");
+            LinkedQueryWrapper linkedQueryWrapper = studentsByAgeAndName(age, "student1");
+            assertEquals(ids(queryExecutor.forObjects(Student.class, linkedQueryWrapper)), ids(boundQuery.forObjects(Student.class)));
+            assertEquals(queryExecutor.forMaps(studentsByAgeAndName(age, "student1")), boundQuery.forMaps());
+            assertEquals(queryExecutor.forCount(studentsByAgeAndName(age, "student1")), boundQuery.forCount());
+            Page<Student> page = boundQuery.forObjectPage(Student.class, 2, 2);
+            Page<Student> expected = queryExecutor.forObjectPage(Student.class, studentsByAgeAndName(age, "student1"), 2, 2);
+            assertEquals(expected.getTotal(), page.getTotal());
+            assertEquals(ids(expected.getRecords()), ids(page.getRecords()));
+        }
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void rejectsIncompatibleArgs() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        PreparedLinkedQuery preparedQuery = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build()
+                .prepare(studentsByAgeAndName(0, "x"));
+        assertThrows(IllegalArgumentException.class, () -> preparedQuery.bind(12));
+        assertThrows(IllegalArgumentException.class, () -> preparedQuery.bind(12, null));
+        assertThrows(IllegalArgumentException.class, () -> preparedQuery.bind("12", "student1"));
+        //不做有损的收窄转换
+        assertThrows(IllegalArgumentException.class, () -> preparedQuery.bind(12L, "student1"));
+        assertThrows(IllegalArgumentException.class, () -> preparedQuery.bind(12.0, "student1"));
+    }
+
+    @Test
+    void widensNumericArgs() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        MapQueryCache queryCache = new MapQueryCache();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory())
+                .cacheable(true)
+                .queryCache(queryCache)
+                .build();
+        PreparedLinkedQuery preparedQuery = queryExecutor.prepare(new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .eq(1, Student::getId, 1L));
+        List<Map<String, Object>> maps = preparedQuery.bind(3L).forMaps();
+        int openedCount = database.getOpenedCount();
+        //Integer转换为Long后与Long参数的缓存键相同
+        assertEquals(maps, preparedQuery.bind(3).forMaps());
+        assertEquals(maps, preparedQuery.bind((short) 3).forMaps());
+        assertEquals(1, queryCache.size());
+        assertEquals(openedCount, database.getOpenedCount());
+
+        PreparedLinkedQuery decimalQuery = queryExecutor.prepare(new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .eq(1, Student::getId, new BigDecimal("1")));
+        assertEquals(3L, decimalQuery.bind(3).forObject(Student.class).getId());
+    }
+
+    @Test
+    void inListSizeIsFixedAtCompileTime() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build();
+        PreparedLinkedQuery preparedQuery = queryExecutor.prepare(new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .in(1, Student::getId, 1L, 2L, 3L)
+                .orderBy(1, Student::getId));
+        assertEquals(3, preparedQuery.getSlotCount());
+        assertEquals(Arrays.asList(4L, 5L, 6L), ids(preparedQuery.bind(6L, 4L, 5L).forObjects(Student.class)));
+        assertThrows(IllegalArgumentException.class, () -> preparedQuery.bind(4L, 5L));
+        assertThrows(IllegalArgumentException.class, () -> preparedQuery.bind(4L, 5L, 6L, 7L));
+    }
+
+    @Test
+    void usesSqlSessionAtExecution() throws SQLException {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(database.getSqlSessionFactory()).build();
+        PreparedLinkedQuery preparedQuery = queryExecutor.prepare(new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .gt(1, Student::getId, 0L));
+        BoundLinkedQuery boundQuery = preparedQuery.bind(0L);
+        try (SqlSession sqlSession = database.getSqlSessionFactory().openSession(false)) {
+            try (Statement statement = sqlSession.getConnection().createStatement()) {
+                statement.execute("insert into student values (26, 'student26', 12, 1)");
+            }
+            //未提交的行只在该SqlSession中可见
+            assertEquals(26L, boundQuery.withSqlSession(sqlSession).forCount());
+            assertEquals(26, boundQuery.withSqlSession(sqlSession).forMapPage(1, 30).getRecords().size());
+            assertEquals(25L, boundQuery.forCount());
+
+            //未指定时在执行时读取执行器的SqlSession，而不是编译时的
+            queryExecutor.setSqlSession(sqlSession);
+            assertEquals(26L, boundQuery.forCount());
+            queryExecutor.setSqlSession(null);
+            assertEquals(25L, boundQuery.forCount());
+            sqlSession.rollback(true);
+        }
+        assertEquals(0, database.getOpenCount());
+    }
+
+    private static LinkedQueryWrapper studentsByAgeAndName(int age, String name) {
+        return new LinkedQueryWrapper()
+                .selectAll(1)
+                .from(Student.class, "s")
+                .eq(1, Student::getAge, age)
+                .likeRight(1, Student::getName, name)
+                .orderBy(1, Student::getId);
+    }
+
+    private static List<Long> ids(List<Student> students) {
+        return students.stream().map(Student::getId).collect(Collectors.toList());
+    }
+}
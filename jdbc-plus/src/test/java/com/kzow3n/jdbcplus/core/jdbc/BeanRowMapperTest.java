@@ -0,0 +1,104 @@
+package com.kzow3n.jdbcplus.core.jdbc;
+
+import com.kzow3n.jdbcplus.entity.Profile;
+import com.kzow3n.jdbcplus.support.TestDatabase;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 行映射器与MyBatis自动映射的结果应一致
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+class BeanRowMapperTest {
+
+    @Test
+    void convertsColumnTypes() throws SQLException {
+        TestDatabase database = withProfiles();
+        //整数列映射到BigDecimal、Double属性，字符串列映射到int属性
+        String sql = "select id, '42' as score, 7 as balance, 3 as gpa, birthday, create_time from profile where id = 1";
+        Profile profile = selectOne(database, sql);
+        assertEquals(1L, profile.getId());
+        assertEquals(42, profile.getScore());
+        assertEquals(0, new BigDecimal("7").compareTo(profile.getBalance()));
+        assertEquals(3D, profile.getGpa());
+        assertEquals(LocalDate.of(2010, 5, 1), profile.getBirthday());
+        assertEquals(LocalDateTime.of(2026, 1, 1, 8, 30), profile.getCreateTime());
+        assertMatchesMyBatis(database, sql);
+    }
+
+    @Test
+    void mapsUnderscoreColumnsToCamelCase() throws SQLException {
+        TestDatabase database = withProfiles();
+        String sql = "select id, school_id, create_time, active from profile where id = 1";
+        Profile profile = selectOne(database, sql);
+        assertEquals(3L, profile.getSchoolId());
+        assertEquals(LocalDateTime.of(2026, 1, 1, 8, 30), profile.getCreateTime());
+        assertTrue(profile.isActive());
+        assertMatchesMyBatis(database, sql);
+        //@TableField指定的字段名也能对应，MyBatis自动映射不识别，查询条件生成的Sql中总会加上属性名作为别名
+        assertEquals("owen", selectOne(database, "select nick from profile where id = 1").getNickName());
+        //别名为属性名时不区分大小写
+        assertEquals("owen", selectOne(database, "select nick as NICKNAME from profile where id = 1").getNickName());
+    }
+
+    @Test
+    void ignoresUnknownColumns() throws SQLException {
+        TestDatabase database = withProfiles();
+        String sql = "select id, 'x' as not_a_property, nick as nickName from profile where id = 1";
+        Profile profile = selectOne(database, sql);
+        assertEquals(1L, profile.getId());
+        assertEquals("owen", profile.getNickName());
+        assertMatchesMyBatis(database, sql);
+    }
+
+    @Test
+    void leavesNullPrimitivesAtDefault() throws SQLException {
+        TestDatabase database = withProfiles();
+        String sql = "select id, score, active, gpa, balance from profile where id = 2";
+        Profile profile = selectOne(database, sql);
+        assertEquals(2L, profile.getId());
+        assertEquals(0, profile.getScore());
+        assertFalse(profile.isActive());
+        assertNull(profile.getGpa());
+        assertNull(profile.getBalance());
+        //整行都为null时与MyBatis一致返回null
+        List<Profile> profiles = sqlRunner(database, true).selectAll(Profile.class, "select score, nick from profile where id = 2");
+        assertEquals(1, profiles.size());
+        assertNull(profiles.get(0));
+        assertMatchesMyBatis(database, sql);
+    }
+
+    private static Profile selectOne(TestDatabase database, String sql) throws SQLException {
+        List<Profile> profiles = sqlRunner(database, true).selectAll(Profile.class, sql);
+        assertEquals(1, profiles.size());
+        return profiles.get(0);
+    }
+
+    private static void assertMatchesMyBatis(TestDatabase database, String sql) throws SQLException {
+        assertEquals(sqlRunner(database, false).selectAll(Profile.class, sql), sqlRunner(database, true).selectAll(Profile.class, sql));
+    }
+
+    private static MySqlRunner sqlRunner(TestDatabase database, boolean blnBeanRowMapper) {
+        MySqlRunner sqlRunner = new MySqlRunner(database.getSqlSessionFactory(), null);
+        sqlRunner.setBeanRowMapper(blnBeanRowMapper);
+        return sqlRunner;
+    }
+
+    private static TestDatabase withProfiles() {
+        TestDatabase database = new TestDatabase("MySQL");
+        database.execute("create table profile (id bigint primary key, nick varchar(32), score int, active boolean, gpa double, "
+                        + "balance decimal(10, 2), birthday date, create_time timestamp, school_id bigint)",
+                "insert into profile values (1, 'owen', 90, true, 3.5, 12.50, '2010-05-01', '2026-01-01 08:30:00', 3)",
+                "insert into profile values (2, null, null, null, null, null, null, null, null)");
+        return database;
+    }
+}
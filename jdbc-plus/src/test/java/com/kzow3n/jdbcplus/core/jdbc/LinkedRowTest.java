@@ -0,0 +1,53 @@
+package com.kzow3n.jdbcplus.core.jdbc;
+
+import com.kzow3n.jdbcplus.support.TestDatabase;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author owen
+ * @since 2026/10/18
+ */
+class LinkedRowTest {
+
+    @Test
+    void duplicateLabelKeepsFirstColumn() throws SQLException {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        MySqlRunner sqlRunner = new MySqlRunner(database.getSqlSessionFactory(), null);
+        List<Map<String, Object>> maps = sqlRunner.selectAll("select s.id, t.id, s.name from student s inner join teacher t on t.id = s.headmaster_id where s.id = ?", 2L);
+        assertEquals(1, maps.size());
+        Map<String, Object> row = maps.get(0);
+        //与按列名读取一致：s.id为2，t.id为3
+        assertEquals(2L, ((Number) row.get("ID")).longValue());
+        assertEquals(Arrays.asList("ID", "NAME"), Arrays.asList(row.keySet().toArray()));
+        assertEquals("student2", row.get("NAME"));
+    }
+
+    @Test
+    void columnIndexSkipsLaterDuplicates() {
+        LinkedRow.ColumnIndex columnIndex = new LinkedRow.ColumnIndex(Arrays.asList("id", "id", "name"));
+        assertEquals(2, columnIndex.size());
+        assertEquals(0, columnIndex.slotOf(0));
+        assertEquals(-1, columnIndex.slotOf(1));
+        assertEquals(1, columnIndex.slotOf(2));
+        assertEquals(1, columnIndex.indexOf("name"));
+    }
+
+    @Test
+    void structuralChangeKeepsValues() {
+        Map<String, Object> row = LinkedRow.rowFactory(Arrays.asList("a", "b")).apply(new Object[]{1, 2});
+        row.put("a", 3);
+        assertEquals(3, row.get("a"));
+        row.put("c", 4);
+        row.remove("b");
+        assertEquals(2, row.size());
+        assertEquals(3, row.get("a"));
+        assertEquals(4, row.get("c"));
+    }
+}
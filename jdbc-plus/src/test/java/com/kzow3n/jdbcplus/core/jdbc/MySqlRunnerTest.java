@@ -0,0 +1,98 @@
+package com.kzow3n.jdbcplus.core.jdbc;
+
+import com.kzow3n.jdbcplus.entity.Student;
+import com.kzow3n.jdbcplus.support.TestDatabase;
+import org.apache.ibatis.session.SqlSession;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author owen
+ * @since 2026/10/18
+ */
+class MySqlRunnerTest {
+
+    @Test
+    void opensConnectionOnlyWhenExecuting() throws SQLException {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        MySqlRunner sqlRunner = new MySqlRunner(database.getSqlSessionFactory(), null);
+        assertEquals(0, database.getOpenedCount());
+
+        List<Map<String, Object>> maps = sqlRunner.selectAll("select id from student where id <= ?", 3L);
+        assertEquals(3, maps.size());
+        assertEquals(0, database.getOpenCount());
+
+        //自行打开的SqlSession在语句执行后关闭，同一个SqlRunner可继续执行
+        assertEquals(1, sqlRunner.selectAll("select id from teacher where id = ?", 1L).size());
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void releasesConnectionWhenStatementFails() {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        MySqlRunner sqlRunner = new MySqlRunner(database.getSqlSessionFactory(), null);
+        assertThrows(SQLException.class, () -> sqlRunner.selectAll("select not_exists from student"));
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void keepsCallerSqlSessionOpen() throws SQLException {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        try (SqlSession sqlSession = database.getSqlSessionFactory().openSession()) {
+            MySqlRunner sqlRunner = new MySqlRunner(database.getSqlSessionFactory(), sqlSession);
+            sqlRunner.selectAll("select id from student");
+            sqlRunner.close();
+            assertFalse(sqlSession.getConnection().isClosed());
+            assertEquals(1, database.getOpenedCount());
+        }
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void reusesAutoMappingPerColumns() throws SQLException {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        MySqlRunner sqlRunner = new MySqlRunner(database.getSqlSessionFactory(), null);
+        SqlRunnerContext context = SqlRunnerContext.of(database.getSqlSessionFactory());
+        List<Student> students = sqlRunner.selectAll(Student.class, "select * from student where id <= ? order by id", 3L);
+        assertEquals(1, context.getAutoMappingCount());
+        //第二次查询使用预置的自动映射，结果不变
+        assertEquals(students, sqlRunner.selectAll(Student.class, "select * from student where id <= ? order by id", 3L));
+        assertEquals(1, context.getAutoMappingCount());
+        try (ResultCursor<Student> cursor = sqlRunner.selectCursor(Student.class, "select * from student where id <= 3 order by id", 10)) {
+            List<Student> streamed = new ArrayList<>();
+            cursor.forEachRemaining(streamed::add);
+            assertEquals(students, streamed);
+        }
+        assertEquals(1, context.getAutoMappingCount());
+
+        //列名或列类型不同时分别解析
+        Student student = sqlRunner.selectAll(Student.class, "select id, name from student where id = 2").get(0);
+        assertEquals(2L, student.getId());
+        assertEquals("student2", student.getName());
+        assertNull(student.getAge());
+        assertEquals(2, context.getAutoMappingCount());
+        assertEquals(2L, sqlRunner.selectAll(Student.class, "select cast(id as varchar(8)) id, name from student where id = 2").get(0).getId());
+        assertEquals(3, context.getAutoMappingCount());
+        //没有行时没有解析结果，不记录
+        assertTrue(sqlRunner.selectAll(Student.class, "select id, age from student where id < 0").isEmpty());
+        assertEquals(3, context.getAutoMappingCount());
+        assertEquals(0, database.getOpenCount());
+    }
+
+    @Test
+    void cursorReleasesConnectionOnClose() throws SQLException {
+        TestDatabase database = new TestDatabase("MySQL").withSchoolData();
+        MySqlRunner sqlRunner = new MySqlRunner(database.getSqlSessionFactory(), null);
+        try (ResultCursor<Map<String, Object>> cursor = sqlRunner.selectCursor("select id from student", 10)) {
+            assertTrue(cursor.hasNext());
+            assertEquals(1, database.getOpenCount());
+        }
+        assertEquals(0, database.getOpenCount());
+    }
+}
@@ -0,0 +1,69 @@
+package com.kzow3n.jdbcplus.core.jdbc;
+
+import com.kzow3n.jdbcplus.core.executor.LinkedQueryExecutor;
+import com.kzow3n.jdbcplus.core.executor.LinkedQueryExecutorBuilder;
+import com.kzow3n.jdbcplus.core.wrapper.LinkedQueryWrapper;
+import com.kzow3n.jdbcplus.entity.Student;
+import com.kzow3n.jdbcplus.support.TestDatabase;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SqlRunner上下文与SqlSessionFactory的绑定
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+class SqlRunnerContextTest {
+
+    @Test
+    void sharesContextPerSqlSessionFactory() {
+        TestDatabase database = new TestDatabase("MySQL");
+        SqlRunnerContext context = SqlRunnerContext.of(database.getSqlSessionFactory());
+        assertSame(context, SqlRunnerContext.of(database.getSqlSessionFactory()));
+        assertSame(database.getSqlSessionFactory(), context.getSqlSessionFactory());
+        assertNotSame(context, SqlRunnerContext.of(new TestDatabase("MySQL").getSqlSessionFactory()));
+    }
+
+    @Test
+    void releasesUnusedSqlSessionFactory() throws Exception {
+        WeakReference<SqlSessionFactory> reference = queryWithNewSqlSessionFactory();
+        for (int i = 0; i < 50 && reference.get() != null; i ++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(reference.get());
+    }
+
+    /**
+     * TestDatabase本身引用SqlSessionFactory，这里直接使用H2的数据源，使Configuration不引用SqlSessionFactory
+     */
+    private static WeakReference<SqlSessionFactory> queryWithNewSqlSessionFactory() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table student (id bigint primary key, name varchar(32), age int, headmaster_id bigint)");
+            statement.execute("insert into student values (1, 'student1', 12, 1)");
+        }
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        SqlSessionFactory sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+        LinkedQueryExecutor queryExecutor = new LinkedQueryExecutorBuilder(sqlSessionFactory).build();
+        assertEquals(1, queryExecutor.forObjects(Student.class, new LinkedQueryWrapper().selectAll(1).from(Student.class, "s")).size());
+        assertNotNull(SqlRunnerContext.of(sqlSessionFactory).getSqlSessionFactory());
+        return new WeakReference<>(sqlSessionFactory);
+    }
+}
@@ -0,0 +1,182 @@
+package com.kzow3n.jdbcplus.core.wrapper;
+
+import com.kzow3n.jdbcplus.core.dialect.MySqlDialect;
+import com.kzow3n.jdbcplus.entity.Student;
+import com.kzow3n.jdbcplus.entity.Student_;
+import com.kzow3n.jdbcplus.entity.Teacher;
+import com.kzow3n.jdbcplus.entity.Teacher_;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 静态元模型（Student_.NAME）与Lambda（Student::getName）两种写法生成的Sql与参数一致
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+class LinkedColumnWrapperTest {
+
+    @Test
+    void rendersSameSelectJoinAndGroup() {
+        LinkedQueryWrapper lambda = new LinkedQueryWrapper(new MySqlDialect())
+                //两个Lambda的select、groupBy表示"字段 as 属性"，逐个传入以对应元模型的可变参数
+                .select(1, Student::getId)
+                .select(1, Student::getName)
+                .select(1, Student::getAge, "years")
+                .count(1, Student::getId, "total")
+                .avg(1, Student::getAge, "avgAge")
+                .sum(1, Student::getAge, "sumAge")
+                .max(1, Student::getAge, "maxAge")
+                .min(1, Student::getAge, "minAge")
+                .groupConcat(2, Teacher::getName, "teacherNames")
+                .from(Student.class, "s")
+                .leftJoin(Teacher.class, "t")
+                .on(2, Teacher::getId, 1, Student::getHeadmasterId)
+                .innerJoin(Teacher.class, "h")
+                .on(3, Teacher::getId, 1, "headmaster_id")
+                .groupBy(1, Student::getId)
+                .groupBy(1, Student::getName)
+                .groupBy(1, Student::getHeadmasterId, "headmasterId")
+                .orderBy(1, Student::getAge)
+                .thenByDesc(1, Student::getName)
+                .thenBy(1, Student::getId);
+        LinkedQueryWrapper metamodel = new LinkedQueryWrapper(new MySqlDialect())
+                .select(1, Student_.ID, Student_.NAME)
+                .select(1, Student_.AGE, "years")
+                .count(1, Student_.ID, "total")
+                .avg(1, Student_.AGE, "avgAge")
+                .sum(1, Student_.AGE, "sumAge")
+                .max(1, Student_.AGE, "maxAge")
+                .min(1, Student_.AGE, "minAge")
+                .groupConcat(2, Teacher_.NAME, "teacherNames")
+                .from(Student.class, "s")
+                .leftJoin(Teacher.class, "t")
+                .on(2, Teacher_.ID, 1, Student_.HEADMASTER_ID)
+                .innerJoin(Teacher.class, "h")
+                .on(3, Teacher_.ID, 1, "headmaster_id")
+                .groupBy(1, Student_.ID, Student_.NAME)
+                .groupBy(1, Student_.HEADMASTER_ID, "headmasterId")
+                .orderBy(1, Student_.AGE)
+                .thenByDesc(1, Student_.NAME)
+                .thenBy(1, Student_.ID);
+        assertSameSql(lambda, metamodel);
+        assertTrue(metamodel.getFullSql().contains("s.headmaster_id"), metamodel.getFullSql());
+    }
+
+    @Test
+    void rendersSameConditions() {
+        LinkedQueryWrapper lambda = new LinkedQueryWrapper(new MySqlDialect())
+                .selectAll(1)
+                .from(Student.class, "s")
+                .leftJoin(Teacher.class, "t")
+                .on(2, "id", 1, Student::getHeadmasterId)
+                .isNull(1, Student::getAge)
+                .isNotNull(1, Student::getName)
+                .eq(1, Student::getId, 1L)
+                .ne(1, Student::getId, 2L)
+                .gt(1, Student::getAge, 3)
+                .ge(1, Student::getAge, 4)
+                .lt(1, Student::getAge, 5)
+                .le(1, Student::getAge, 6)
+                .like(1, Student::getName, "a")
+                .likeLeft(1, Student::getName, "b")
+                .likeRight(1, Student::getName, "c")
+                .notLike(2, Teacher::getName, "d")
+                .between(1, Student::getAge, 7, 8)
+                .notBetween(1, Student::getAge, 9, 10)
+                .in(1, Student::getId, 11L, 12L)
+                .in(1, Student::getHeadmasterId, Arrays.asList(13L, 14L))
+                .notIn(1, Student::getId, 15L)
+                .notIn(1, Student::getHeadmasterId, Arrays.asList(16L, 17L))
+                .or()
+                .eq(1, Student::getName, "e");
+        LinkedQueryWrapper metamodel = new LinkedQueryWrapper(new MySqlDialect())
+                .selectAll(1)
+                .from(Student.class, "s")
+                .leftJoin(Teacher.class, "t")
+                .on(2, "id", 1, Student_.HEADMASTER_ID)
+                .isNull(1, Student_.AGE)
+                .isNotNull(1, Student_.NAME)
+                .eq(1, Student_.ID, 1L)
+                .ne(1, Student_.ID, 2L)
+                .gt(1, Student_.AGE, 3)
+                .ge(1, Student_.AGE, 4)
+                .lt(1, Student_.AGE, 5)
+                .le(1, Student_.AGE, 6)
+                .like(1, Student_.NAME, "a")
+                .likeLeft(1, Student_.NAME, "b")
+                .likeRight(1, Student_.NAME, "c")
+                .notLike(2, Teacher_.NAME, "d")
+                .between(1, Student_.AGE, 7, 8)
+                .notBetween(1, Student_.AGE, 9, 10)
+                .in(1, Student_.ID, 11L, 12L)
+                .in(1, Student_.HEADMASTER_ID, Arrays.asList(13L, 14L))
+                .notIn(1, Student_.ID, 15L)
+                .notIn(1, Student_.HEADMASTER_ID, Arrays.asList(16L, 17L))
+                .or()
+                .eq(1, Student_.NAME, "e");
+        assertSameSql(lambda, metamodel);
+        assertEquals(22, metamodel.getArgs().size());
+    }
+
+    @Test
+    void rendersSameSubqueries() {
+        LinkedQueryWrapper lambda = new LinkedQueryWrapper(new MySqlDialect())
+                .selectAll(1)
+                .from(Student.class, "s")
+                .eq(1, Student::getHeadmasterId, w -> w.max(1, Teacher::getId, "id").from(Teacher.class, "t").eq(1, Teacher::getName, "a"))
+                .ne(1, Student::getHeadmasterId, w -> w.min(1, Teacher::getId, "id").from(Teacher.class, "t"))
+                .gt(1, Student::getAge, w -> w.min(1, Student::getAge, "age").from(Student.class, "o"))
+                .ge(1, Student::getAge, w -> w.min(1, Student::getAge, "age").from(Student.class, "o"))
+                .lt(1, Student::getAge, w -> w.max(1, Student::getAge, "age").from(Student.class, "o"))
+                .le(1, Student::getAge, w -> w.max(1, Student::getAge, "age").from(Student.class, "o"))
+                .in(1, Student::getHeadmasterId, w -> w.select(1, Teacher::getId).from(Teacher.class, "t").like(1, Teacher::getName, "b"))
+                .notIn(1, Student::getHeadmasterId, w -> w.select(1, Teacher::getId).from(Teacher.class, "t").eq(1, Teacher::getName, "c"))
+                .exists(w -> w.select(1, Teacher::getId).from(Teacher.class, "t").eq(1, Teacher::getId, "s", Student::getHeadmasterId));
+        LinkedQueryWrapper metamodel = new LinkedQueryWrapper(new MySqlDialect())
+                .selectAll(1)
+                .from(Student.class, "s")
+                .eq(1, Student_.HEADMASTER_ID, w -> w.max(1, Teacher_.ID, "id").from(Teacher.class, "t").eq(1, Teacher_.NAME, "a"))
+                .ne(1, Student_.HEADMASTER_ID, w -> w.min(1, Teacher_.ID, "id").from(Teacher.class, "t"))
+                .gt(1, Student_.AGE, w -> w.min(1, Student_.AGE, "age").from(Student.class, "o"))
+                .ge(1, Student_.AGE, w -> w.min(1, Student_.AGE, "age").from(Student.class, "o"))
+                .lt(1, Student_.AGE, w -> w.max(1, Student_.AGE, "age").from(Student.class, "o"))
+                .le(1, Student_.AGE, w -> w.max(1, Student_.AGE, "age").from(Student.class, "o"))
+                .in(1, Student_.HEADMASTER_ID, w -> w.select(1, Teacher_.ID).from(Teacher.class, "t").like(1, Teacher_.NAME, "b"))
+                .notIn(1, Student_.HEADMASTER_ID, w -> w.select(1, Teacher_.ID).from(Teacher.class, "t").eq(1, Teacher_.NAME, "c"))
+                .exists(w -> w.select(1, Teacher_.ID).from(Teacher.class, "t").eq(1, Teacher_.ID, "s", Student_.HEADMASTER_ID));
+        assertSameSql(lambda, metamodel);
+        assertEquals(3, metamodel.getArgs().size());
+    }
+
+    @Test
+    void rendersSameRawColumnsWithoutUnderscoreMapping() {
+        Configuration configuration = new Configuration();
+        configuration.setMapUnderscoreToCamelCase(false);
+        LinkedQueryWrapper lambda = new LinkedQueryWrapper(configuration)
+                .select(1, Student::getHeadmasterId)
+                .from(Student.class, "s")
+                .eq(1, Student::getHeadmasterId, 1L)
+                .orderByDesc(1, Student::getHeadmasterId);
+        LinkedQueryWrapper metamodel = new LinkedQueryWrapper(configuration)
+                .select(1, Student_.HEADMASTER_ID)
+                .from(Student.class, "s")
+                .eq(1, Student_.HEADMASTER_ID, 1L)
+                .orderByDesc(1, Student_.HEADMASTER_ID);
+        lambda.setDialect(new MySqlDialect());
+        metamodel.setDialect(new MySqlDialect());
+        assertSameSql(lambda, metamodel);
+        assertTrue(metamodel.getFullSql().contains("s.headmasterId"), metamodel.getFullSql());
+    }
+
+    private static void assertSameSql(LinkedQueryWrapper lambda, LinkedQueryWrapper metamodel) {
+        lambda.formatSql();
+        metamodel.formatSql();
+        assertEquals(lambda.getFullSql(), metamodel.getFullSql());
+        assertEquals(lambda.getArgs(), metamodel.getArgs());
+    }
+}
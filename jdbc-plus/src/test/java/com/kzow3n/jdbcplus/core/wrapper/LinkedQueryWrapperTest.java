@@ -0,0 +1,108 @@
+package com.kzow3n.jdbcplus.core.wrapper;
+
+import com.kzow3n.jdbcplus.core.dialect.MySqlDialect;
+import com.kzow3n.jdbcplus.entity.Student;
+import com.kzow3n.jdbcplus.entity.Teacher;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 生成的Sql与参数逐字比对，期望值与改为单次拼接之前的String.format实现的结果一致
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+class LinkedQueryWrapperTest {
+
+    @Test
+    void rendersJoinsAggregatesAndLimit() {
+        LinkedQueryWrapper wrapper = joinsAggregatesAndLimit(new LinkedQueryWrapper(new MySqlDialect())).formatSql();
+        assertEquals("select s.age,count(s.id) as total,avg(s.age) as avgAge,sum(s.age) as sumAge,max(s.age) as maxAge,min(s.age) as minAge,group_concat(t.name) as teacherNames,s.age from student s left join teacher t on t.id = s.headmaster_id inner join teacher h on h.id = s.headmaster_id right join teacher r on r.id = s.headmaster_id where s.age > ? group by s.age having count(s.id) > ? order by s.age desc,s.id limit 10 offset 20", wrapper.getFullSql());
+        assertEquals(Arrays.asList(10, 2L), wrapper.getArgs());
+    }
+
+    @Test
+    void rendersNestedFromAndJoin() {
+        LinkedQueryWrapper wrapper = nestedFromAndJoin(new LinkedQueryWrapper(new MySqlDialect())).formatSql();
+        assertEquals("select b.name as teacherName,a.* from (select s.id,s.name,s.age,s.headmaster_id as headmasterId from student s where s.age > ? order by s.id limit 5) a left join (select t.id,t.name from teacher t where t.name like ? ) b on b.id = a.headmaster_id where b.name is not null ", wrapper.getFullSql());
+        assertEquals(10, wrapper.getArgs().get(0));
+        assertEquals(2, wrapper.getArgs().size());
+    }
+
+    @Test
+    void rendersExistsAndSubqueryConditions() {
+        LinkedQueryWrapper wrapper = existsAndSubqueryConditions(new LinkedQueryWrapper(new MySqlDialect())).formatSql();
+        assertEquals("select s.id,s.name,s.age,s.headmaster_id as headmasterId from student s where exists(select t.id from teacher t where t.id = s.headmaster_id and t.name = ? ) and not exists(select 1 from teacher n where n.id = s.id and n.id > ?) and s.headmaster_id in (select t.id from teacher t ) or (s.age > ? or s.age is null ) and (s.id in (?,?) ) order by s.id limit 3", wrapper.getFullSql());
+        assertEquals(Arrays.asList("teacher1", 3L, 18, 1L, 2L), wrapper.getArgs());
+    }
+
+    @Test
+    void rendersDistinctGroupAndHaving() {
+        LinkedQueryWrapper wrapper = distinctGroupAndHaving(new LinkedQueryWrapper(new MySqlDialect())).formatSql();
+        assertEquals("select distinct s.headmaster_id as headmasterId,max(s.age) as maxAge,s.headmaster_id as headmasterId from student s group by s.headmaster_id having s.headmaster_id > ? and s.headmaster_id is not null order by s.headmaster_id", wrapper.getFullSql());
+        //having中嵌套条件的参数同样加入
+        assertEquals(Arrays.asList(10), wrapper.getArgs());
+    }
+
+    private static LinkedQueryWrapper joinsAggregatesAndLimit(LinkedQueryWrapper wrapper) {
+        return wrapper
+                .select(1, Student::getAge, "age")
+                .count(1, Student::getId, "total")
+                .avg(1, Student::getAge, "avgAge")
+                .sum(1, Student::getAge, "sumAge")
+                .max(1, Student::getAge, "maxAge")
+                .min(1, Student::getAge, "minAge")
+                .groupConcat(2, Teacher::getName, "teacherNames")
+                .from(Student.class, "s")
+                .leftJoin(Teacher.class, "t")
+                .on(2, Teacher::getId, 1, Student::getHeadmasterId)
+                .innerJoin(Teacher.class, "h")
+                .on(3, "id", 1, "headmaster_id")
+                .rightJoin(Teacher.class, "r")
+                .on(4, Teacher::getId, 1, Student::getHeadmasterId)
+                .gt(1, Student::getAge, 10)
+                .groupBy(1, Student::getAge)
+                .having("count(s.id) > ?", 2L)
+                .orderByDesc(1, Student::getAge)
+                .thenBy(1, "id")
+                .limit(10)
+                .offset(20);
+    }
+
+    private static LinkedQueryWrapper nestedFromAndJoin(LinkedQueryWrapper wrapper) {
+        return wrapper
+                .selectAll(1)
+                .select(2, "name", "teacherName")
+                .from(w -> w.selectAll(1).from(Student.class, "s").gt(1, Student::getAge, 10).orderBy(1, Student::getId).limit(5), "a")
+                .leftJoin(w -> w.select(1, Teacher::getId).select(1, Teacher::getName).from(Teacher.class, "t").likeRight(1, Teacher::getName, "teacher"), "b")
+                .on(2, "id", 1, "headmaster_id")
+                .isNotNull(2, "name");
+    }
+
+    private static LinkedQueryWrapper existsAndSubqueryConditions(LinkedQueryWrapper wrapper) {
+        return wrapper
+                .selectAll(1)
+                .from(Student.class, "s")
+                .exists(w -> w.select(1, Teacher::getId).from(Teacher.class, "t").eq(1, Teacher::getId, "s", Student::getHeadmasterId).eq(1, Teacher::getName, "teacher1"))
+                .notExists("select 1 from teacher n where n.id = s.id and n.id > ?", 3L)
+                .in(1, Student::getHeadmasterId, w -> w.select(1, Teacher::getId).from(Teacher.class, "t"))
+                .or(w -> w.gt(1, Student::getAge, 18).or().isNull(1, Student::getAge))
+                .and(w -> w.in(1, Student::getId, 1L, 2L))
+                .orderBy(1, Student::getId)
+                .limit(3);
+    }
+
+    private static LinkedQueryWrapper distinctGroupAndHaving(LinkedQueryWrapper wrapper) {
+        return wrapper
+                .distinct()
+                .select(1, Student::getHeadmasterId, "headmasterId")
+                .max(1, Student::getAge, "maxAge")
+                .from(Student.class, "s")
+                .groupBy(1, Student::getHeadmasterId)
+                .having(w -> w.gt(1, Student::getHeadmasterId, 10).isNotNull(1, Student::getHeadmasterId))
+                .orderBy(1, Student::getHeadmasterId);
+    }
+}
@@ -0,0 +1,33 @@
+package com.kzow3n.jdbcplus.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 包含基本类型与需要TypeHandler的属性，用于行映射测试
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+@Data
+@TableName("profile")
+public class Profile {
+
+    @TableId
+    private Long id;
+    @TableField("nick")
+    private String nickName;
+    private int score;
+    private boolean active;
+    private Double gpa;
+    private BigDecimal balance;
+    private LocalDate birthday;
+    private LocalDateTime createTime;
+    private Long schoolId;
+}
@@ -0,0 +1,20 @@
+package com.kzow3n.jdbcplus.entity;
+
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+/**
+ * @author owen
+ * @since 2026/10/18
+ */
+@Data
+@TableName("student")
+public class Student {
+
+    @TableId
+    private Long id;
+    private String name;
+    private Integer age;
+    private Long headmasterId;
+}
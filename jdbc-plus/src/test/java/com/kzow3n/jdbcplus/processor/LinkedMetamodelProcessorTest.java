@@ -0,0 +1,210 @@
+package com.kzow3n.jdbcplus.processor;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.kzow3n.jdbcplus.pojo.LinkedColumn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.*;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 以JavaCompiler编译示例实体类，校验生成的静态元模型常量
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+class LinkedMetamodelProcessorTest {
+
+    private static final String BASE_ENTITY = "package sample;\n"
+            + "import com.baomidou.mybatisplus.annotation.TableField;\n"
+            + "import com.baomidou.mybatisplus.annotation.TableId;\n"
+            + "public class BaseEntity {\n"
+            + "    @TableId(\"pk\") private Long id;\n"
+            + "    private java.time.LocalDateTime createTime;\n"
+            + "    private String remark;\n"
+            + "}\n";
+
+    private static final String ACCOUNT = "package sample;\n"
+            + "import com.baomidou.mybatisplus.annotation.TableField;\n"
+            + "import com.baomidou.mybatisplus.annotation.TableName;\n"
+            + "@TableName(\"account\")\n"
+            + "public class Account extends BaseEntity {\n"
+            + "    public static final String IGNORED = \"ignored\";\n"
+            + "    @TableField(\"nick\") private String nickName;\n"
+            + "    @TableField(\"memo\") private String remark;\n"
+            + "    @TableField(exist = false) private String extra;\n"
+            + "}\n";
+
+    private static final String OUTER = "package sample;\n"
+            + "import com.baomidou.mybatisplus.annotation.TableName;\n"
+            + "public class Outer {\n"
+            + "    @TableName(\"inner_table\")\n"
+            + "    public static class Inner {\n"
+            + "        private String innerValue;\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String BOX = "package sample;\n"
+            + "import com.baomidou.mybatisplus.annotation.TableName;\n"
+            + "@TableName(\"box\")\n"
+            + "public class Box<T> {\n"
+            + "    private Long boxId;\n"
+            + "    private T content;\n"
+            + "}\n";
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    void resolvesAnnotatedColumnsAndSuperclassFields() throws Exception {
+        Compilation compilation = compile(source("sample.BaseEntity", BASE_ENTITY), source("sample.Account", ACCOUNT));
+        assertTrue(compilation.success, compilation.toString());
+        Map<String, LinkedColumn<?>> columns = compilation.loadColumns("sample.Account_");
+        assertEquals(new HashSet<>(Arrays.asList("NICK_NAME", "REMARK", "EXTRA", "ID", "CREATE_TIME")), columns.keySet());
+        assertColumn(columns.get("NICK_NAME"), "nickName", "nick", "nick");
+        //子类覆盖的同名字段以子类为准
+        assertColumn(columns.get("REMARK"), "remark", "memo", "memo");
+        assertColumn(columns.get("ID"), "id", "pk", "pk");
+        assertColumn(columns.get("CREATE_TIME"), "createTime", "create_time", "createTime");
+        assertEquals("sample.Account", columns.get("ID").getEntityClass().getName());
+        //未继承@TableName的父类不生成元模型
+        assertThrows(ClassNotFoundException.class, () -> compilation.classLoader.loadClass("sample.BaseEntity_"));
+    }
+
+    @Test
+    void namesInnerClassAfterOuterClass() throws Exception {
+        Compilation compilation = compile(source("sample.Outer", OUTER));
+        assertTrue(compilation.success, compilation.toString());
+        Map<String, LinkedColumn<?>> columns = compilation.loadColumns("sample.Outer_Inner_");
+        assertColumn(columns.get("INNER_VALUE"), "innerValue", "inner_value", "innerValue");
+        assertEquals("sample.Outer$Inner", columns.get("INNER_VALUE").getEntityClass().getName());
+    }
+
+    @Test
+    void generatesGenericEntity() throws Exception {
+        Compilation compilation = compile(source("sample.Box", BOX));
+        assertTrue(compilation.success, compilation.toString());
+        assertTrue(compilation.messages(Diagnostic.Kind.WARNING).isEmpty(), compilation.toString());
+        Map<String, LinkedColumn<?>> columns = compilation.loadColumns("sample.Box_");
+        assertColumn(columns.get("BOX_ID"), "boxId", "box_id", "boxId");
+        assertColumn(columns.get("CONTENT"), "content", "content", "content");
+        assertEquals("sample.Box", columns.get("CONTENT").getEntityClass().getName());
+    }
+
+    @Test
+    void warnsAndFallsBackWhenConstantNamesClash() throws Exception {
+        Compilation compilation = compile(source("sample.Member", "package sample;\n"
+                + "@com.baomidou.mybatisplus.annotation.TableName(\"member\")\n"
+                + "public class Member {\n"
+                + "    private String userName;\n"
+                + "    private String user_name;\n"
+                + "}\n"));
+        assertTrue(compilation.success, compilation.toString());
+        List<String> warnings = compilation.messages(Diagnostic.Kind.WARNING);
+        assertEquals(1, warnings.size(), compilation.toString());
+        assertTrue(warnings.get(0).contains("'user_name'") && warnings.get(0).contains("'userName'"), warnings.get(0));
+        Map<String, LinkedColumn<?>> columns = compilation.loadColumns("sample.Member_");
+        assertColumn(columns.get("USER_NAME"), "userName", "user_name", "userName");
+        assertColumn(columns.get("user_name"), "user_name", "user_name", "user_name");
+    }
+
+    @Test
+    void failsWhenFallbackConstantAlsoClashes() {
+        //x生成常量X，X转换后同为X，退回属性名X仍冲突
+        Compilation compilation = compile(source("sample.Point", "package sample;\n"
+                + "@com.baomidou.mybatisplus.annotation.TableName(\"point\")\n"
+                + "public class Point {\n"
+                + "    private int x;\n"
+                + "    private int X;\n"
+                + "}\n"));
+        assertFalse(compilation.success);
+        List<String> errors = compilation.messages(Diagnostic.Kind.ERROR);
+        assertTrue(errors.stream().anyMatch(error -> error.contains("'X'") && error.contains("'x'")), compilation.toString());
+    }
+
+    private static void assertColumn(LinkedColumn<?> linkedColumn, String property, String column, String rawColumn) {
+        assertNotNull(linkedColumn);
+        assertEquals(property, linkedColumn.getProperty());
+        assertEquals(column, linkedColumn.getColumn(true));
+        assertEquals(rawColumn, linkedColumn.getColumn(false));
+    }
+
+    private Compilation compile(JavaFileObject... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        //编译示例只需要MyBatis-Plus注解与LinkedColumn
+        String classpath = classpathOf(TableName.class) + File.pathSeparator + classpathOf(LinkedColumn.class);
+        List<String> options = Arrays.asList("-classpath", classpath, "-d", outputDir.toString(), "-s", outputDir.toString());
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, Arrays.asList(sources));
+        task.setProcessors(Collections.singletonList(new LinkedMetamodelProcessor()));
+        boolean success = task.call();
+        return new Compilation(success, diagnostics.getDiagnostics(), outputDir);
+    }
+
+    private static String classpathOf(Class<?> clazz) {
+        try {
+            return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private static class Compilation {
+
+        private final boolean success;
+        private final List<Diagnostic<? extends JavaFileObject>> diagnostics;
+        private final ClassLoader classLoader;
+
+        private Compilation(boolean success, List<Diagnostic<? extends JavaFileObject>> diagnostics, Path outputDir) {
+            this.success = success;
+            this.diagnostics = diagnostics;
+            try {
+                this.classLoader = new URLClassLoader(new URL[]{outputDir.toUri().toURL()}, LinkedMetamodelProcessorTest.class.getClassLoader());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private List<String> messages(Diagnostic.Kind kind) {
+            return diagnostics.stream()
+                    .filter(diagnostic -> diagnostic.getKind() == kind)
+                    .map(diagnostic -> diagnostic.getMessage(Locale.ENGLISH))
+                    .collect(Collectors.toList());
+        }
+
+        private Map<String, LinkedColumn<?>> loadColumns(String metamodelName) throws Exception {
+            Map<String, LinkedColumn<?>> columns = new HashMap<>(16);
+            for (Field field : classLoader.loadClass(metamodelName).getDeclaredFields()) {
+                assertTrue(Modifier.isStatic(field.getModifiers()) && Modifier.isFinal(field.getModifiers()), field.getName());
+                columns.put(field.getName(), (LinkedColumn<?>) field.get(null));
+            }
+            return columns;
+        }
+
+        @Override
+        public String toString() {
+            return diagnostics.toString();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.kzow3n.jdbcplus.support;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DigestUtils;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 内存中的Redis替身，只实现缓存用到的GET、MGET、SET、SETEX、INCR与PUBLISH，不处理过期
+ * EVAL与EVALSHA不解释Lua，按TableVersions的查找脚本执行：MGET版本键，拼接带版本的键后GET；脚本未经EVAL加载时EVALSHA返回NOSCRIPT
+ * 记录往返次数：管道外每条命令一次，管道内的命令在关闭管道时合计一次；PUBLISH不投递，只记录消息
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class FakeRedis {
+
+    private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+    private final Map<String, Long> ttlMap = new ConcurrentHashMap<>();
+    private final Set<String> scriptShas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger roundTrips = new AtomicInteger();
+    private final List<String> commands = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public FakeRedis() {
+        RedisConnectionFactory connectionFactory = (RedisConnectionFactory) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RedisConnectionFactory.class}, (proxy, method, args) -> {
+                    if ("getConnection".equals(method.getName())) {
+                        return newConnection();
+                    }
+                    return defaultValue(method);
+                });
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+    }
+
+    public RedisTemplate<String, Object> getRedisTemplate() {
+        return redisTemplate;
+    }
+
+    public int getRoundTrips() {
+        return roundTrips.get();
+    }
+
+    /**
+     * 已执行的命令名称，管道内的命令以PIPELINE:开头
+     */
+    public List<String> getCommands() {
+        synchronized (commands) {
+            return new ArrayList<>(commands);
+        }
+    }
+
+    /**
+     * 已发布的消息，按发布顺序
+     */
+    public List<String> getMessages() {
+        synchronized (messages) {
+            return new ArrayList<>(messages);
+        }
+    }
+
+    public void reset() {
+        roundTrips.set(0);
+        commands.clear();
+        messages.clear();
+    }
+
+    public Set<String> keys() {
+        return new TreeSet<>(values.keySet());
+    }
+
+    public byte[] getValue(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * 写入时设置的过期秒数，未设置时返回null
+     */
+    public Long getTtl(String key) {
+        return ttlMap.get(key);
+    }
+
+    private RedisConnection newConnection() {
+        boolean[] blnPipelined = {false};
+        List<Object> pipelineResults = new ArrayList<>();
+        return (RedisConnection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{RedisConnection.class}, (proxy, method, args) -> {
+            String name = method.getName();
+            switch (name) {
+                case "openPipeline":
+                    blnPipelined[0] = true;
+                    return null;
+                case "isPipelined":
+                    return blnPipelined[0];
+                case "closePipeline":
+                    blnPipelined[0] = false;
+                    roundTrips.incrementAndGet();
+                    List<Object> results = new ArrayList<>(pipelineResults);
+                    pipelineResults.clear();
+                    return results;
+                case "get":
+                case "mGet":
+                case "set":
+                case "setEx":
+                case "incr":
+                case "publish":
+                case "eval":
+                case "evalSha":
+                    if (blnPipelined[0]) {
+                        commands.add("PIPELINE:" + name);
+                        pipelineResults.add(execute(name, args));
+                        return null;
+                    }
+                    //先记录再执行，返回错误的命令同样计入往返
+                    commands.add(name);
+                    roundTrips.incrementAndGet();
+                    return execute(name, args);
+                default:
+                    return defaultValue(method);
+            }
+        });
+    }
+
+    private Object execute(String name, Object[] args) {
+        switch (name) {
+            case "get":
+                return values.get(key(args[0]));
+            case "mGet":
+                List<byte[]> result = new ArrayList<>();
+                for (Object rawKey : (Object[]) args[0]) {
+                    result.add(values.get(key(rawKey)));
+                }
+                return result;
+            case "set":
+                return set(key(args[0]), (byte[]) args[1], args.length > 2 ? (Expiration) args[2] : null,
+                        args.length > 3 ? (RedisStringCommands.SetOption) args[3] : RedisStringCommands.SetOption.UPSERT);
+            case "setEx":
+                String setExKey = key(args[0]);
+                values.put(setExKey, (byte[]) args[2]);
+                ttlMap.put(setExKey, (Long) args[1]);
+                return Boolean.TRUE;
+            case "evalSha":
+                if (!scriptShas.contains((String) args[0])) {
+                    throw new RedisSystemException("NOSCRIPT No matching script. Please use EVAL.", null);
+                }
+                return evalGetScript((Integer) args[2], (byte[][]) args[3]);
+            case "eval":
+                scriptShas.add(DigestUtils.sha1DigestAsHex(new String((byte[]) args[0], StandardCharsets.UTF_8)));
+                return evalGetScript((Integer) args[2], (byte[][]) args[3]);
+            case "publish":
+                messages.add(key(args[1]));
+                return 0L;
+            case "incr":
+                String incrKey = key(args[0]);
+                byte[] value = values.get(incrKey);
+                long next = (value == null ? 0L : Long.parseLong(new String(value, StandardCharsets.UTF_8))) + 1L;
+                values.put(incrKey, String.valueOf(next).getBytes(StandardCharsets.UTF_8));
+                return next;
+            default:
+                return 0L;
+        }
+    }
+
+    private List<Object> evalGetScript(int numKeys, byte[][] keysAndArgs) {
+        StringBuilder keyBuilder = new StringBuilder(key(keysAndArgs[numKeys]));
+        for (int i = 0; i < numKeys; i ++) {
+            byte[] version = values.get(key(keysAndArgs[i]));
+            keyBuilder.append(i == 0 ? ':' : '.').append(version == null ? "0" : key(version));
+        }
+        String versionedKey = keyBuilder.toString();
+        return Arrays.asList(versionedKey.getBytes(StandardCharsets.UTF_8), values.get(versionedKey));
+    }
+
+    private synchronized Boolean set(String key, byte[] value, Expiration expiration, RedisStringCommands.SetOption option) {
+        if (option == RedisStringCommands.SetOption.SET_IF_ABSENT && values.containsKey(key)) {
+            return Boolean.FALSE;
+        }
+        values.put(key, value);
+        if (expiration != null && !expiration.isPersistent()) {
+            ttlMap.put(key, expiration.getExpirationTimeInSeconds());
+        }
+        return Boolean.TRUE;
+    }
+
+    private static String key(Object rawKey) {
+        return new String((byte[]) rawKey, StandardCharsets.UTF_8);
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == boolean.class) {
+            return false;
+        }
+        if (returnType == int.class || returnType == long.class) {
+            return 0;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.kzow3n.jdbcplus.support;
+
+import com.kzow3n.jdbcplus.core.cache.CacheKey;
+import com.kzow3n.jdbcplus.core.cache.QueryCache;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 以Map保存的查询缓存，不过期，失效时清空，记录查找次数与失效的表
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class MapQueryCache implements QueryCache {
+
+    private final Map<String, Object> map = new ConcurrentHashMap<>();
+    private final AtomicInteger getCount = new AtomicInteger();
+    private final List<Set<String>> invalidatedTables = new CopyOnWriteArrayList<>();
+    private final AtomicInteger invalidateAllCount = new AtomicInteger();
+
+    @Override
+    public Object get(CacheKey key) {
+        getCount.incrementAndGet();
+        return map.get(key.getKey());
+    }
+
+    @Override
+    public boolean putIfAbsent(CacheKey key, Object value, long timeoutSeconds) {
+        return map.putIfAbsent(key.getKey(), value) == null;
+    }
+
+    @Override
+    public void put(CacheKey key, Object value, long timeoutSeconds) {
+        map.put(key.getKey(), value);
+    }
+
+    @Override
+    public void invalidateTables(Collection<String> tables) {
+        invalidatedTables.add(new LinkedHashSet<>(tables));
+        map.clear();
+    }
+
+    @Override
+    public void invalidateAll() {
+        invalidateAllCount.incrementAndGet();
+        map.clear();
+    }
+
+    public int getGetCount() {
+        return getCount.get();
+    }
+
+    /**
+     * 每次invalidateTables失效的表
+     */
+    public List<Set<String>> getInvalidatedTables() {
+        return invalidatedTables;
+    }
+
+    public int getInvalidateAllCount() {
+        return invalidateAllCount.get();
+    }
+
+    public int size() {
+        return map.size();
+    }
+}
@@ -0,0 +1,175 @@
+package com.kzow3n.jdbcplus.support;
+
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * H2内存数据库，按兼容模式模拟各数据库，记录打开与未关闭的连接数
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+public class TestDatabase implements DataSource {
+
+    private final String url;
+    private final AtomicInteger openedCount = new AtomicInteger();
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final SqlSessionFactory sqlSessionFactory;
+    private volatile String productName;
+
+    /**
+     * @param mode H2兼容模式，如MySQL、PostgreSQL、MSSQLServer、Oracle，为null时使用H2默认模式
+     */
+    public TestDatabase(String mode) {
+        this.url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1" + (mode == null ? "" : ";MODE=" + mode);
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), this));
+        configuration.setMapUnderscoreToCamelCase(true);
+        this.sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    public SqlSessionFactory getSqlSessionFactory() {
+        return sqlSessionFactory;
+    }
+
+    /**
+     * 执行建表、插入等语句，不计入连接数
+     */
+    public void execute(String... sqls) {
+        try (Connection connection = DriverManager.getConnection(url); Statement statement = connection.createStatement()) {
+            for (String sql : sqls) {
+                statement.execute(sql);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 创建student、teacher两张表，共25个学生，headmaster_id为null或指向不存在的老师的学生各若干
+     */
+    public TestDatabase withSchoolData() {
+        execute("create table teacher (id bigint primary key, name varchar(32))",
+                "create table student (id bigint primary key, name varchar(32), age int, headmaster_id bigint)");
+        for (int i = 1; i <= 3; i ++) {
+            execute(String.format("insert into teacher values (%d, 'teacher%d')", i, i));
+        }
+        for (int i = 1; i <= 25; i ++) {
+            String headmasterId = i % 5 == 0 ? "null" : String.valueOf(i % 4 + 1);
+            String age = i % 7 == 0 ? "null" : String.valueOf(10 + i % 4);
+            execute(String.format("insert into student values (%d, 'student%d', %s, %s)", i, i, age, headmasterId));
+        }
+        return this;
+    }
+
+    /**
+     * 连接元数据返回指定的数据库产品名称，使执行器按该数据库处理，需在首次查询前设置
+     */
+    public TestDatabase withProductName(String productName) {
+        this.productName = productName;
+        return this;
+    }
+
+    /**
+     * 已打开的连接总数
+     */
+    public int getOpenedCount() {
+        return openedCount.get();
+    }
+
+    /**
+     * 尚未关闭的连接数
+     */
+    public int getOpenCount() {
+        return openCount.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        openedCount.incrementAndGet();
+        openCount.incrementAndGet();
+        boolean[] blnClosed = {false};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if ("close".equals(method.getName()) && !blnClosed[0]) {
+                blnClosed[0] = true;
+                openCount.decrementAndGet();
+            }
+            if ("getMetaData".equals(method.getName()) && productName != null) {
+                return wrapMetaData(connection.getMetaData());
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private DatabaseMetaData wrapMetaData(DatabaseMetaData metaData) {
+        return (DatabaseMetaData) Proxy.newProxyInstance(DatabaseMetaData.class.getClassLoader(), new Class<?>[]{DatabaseMetaData.class}, (proxy, method, args) -> {
+            if ("getDatabaseProductName".equals(method.getName())) {
+                return productName;
+            }
+            try {
+                return method.invoke(metaData, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        throw new SQLException("not a wrapper.");
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return false;
+    }
+}
@@ -0,0 +1,135 @@
+package com.kzow3n.jdbcplus.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MurmurHash3 x64 128位以公开的参考值校验，结果以h1、h2的十六进制表示
+ * 狐狸句子的结果为Guava测试用例中的公开值，其余为Guava的Hashing.murmur3_128()对bytes(n)的结果
+ *
+ * @author owen
+ * @since 2026/10/18
+ */
+class CacheKeyUtilsTest {
+
+    /**
+     * bytes(0)至bytes(15)的结果，覆盖0至15字节的尾部
+     */
+    private static final String[] TAIL_VECTORS = {
+            "00000000000000000000000000000000",
+            "27166dd8702e926e34626979e5713619",
+            "10ff321cdf79f1777421446ac0d70486",
+            "6285fc7cad8e22eb88f37085ad05a0b5",
+            "e1b86802804340f4a1ae7dc605c593e9",
+            "e0000b2e19aba07e3bf589507ed0c915",
+            "b61661e1ae798a001da340166294956d",
+            "b2c6384fdf60dbccbe886b885713c1e8",
+            "11f53d0e5a9f92c4068bac560c9dd13a",
+            "377aecd2c8d26f46786821f615ceb647",
+            "057c5b6ca7b110f3bc58cc569ef636de",
+            "b900749d15295020e5af39e802a5cd52",
+            "24303ae339145935487d6162ad92f35c",
+            "4dd9083f8a2ec63a3e4037ea4251910f",
+            "ee660ac9d12be50fac0fd2968d871aa0",
+            "0f6d9f1fa6b234e41a4a81d3af807589"
+    };
+
+    @Test
+    void matchesPublishedVector() {
+        byte[] input = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.US_ASCII);
+        assertEquals("e34bbc7bbc071b6c7a433ca9c49a9347", hash(input));
+    }
+
+    @Test
+    void matchesReferenceForEveryTailLength() {
+        for (int length = 0; length < TAIL_VECTORS.length; length ++) {
+            assertEquals(TAIL_VECTORS[length], hash(bytes(length)), "length " + length);
+        }
+    }
+
+    @Test
+    void matchesReferenceAcrossBlocks() {
+        assertEquals("ce3f60fd9ce732e44651e1aa4970c056", hash(bytes(16)));
+        assertEquals("7e52f5db4887638847127394fed82eae", hash(bytes(17)));
+        assertEquals("f2a7f50f32c1a79ca7087f13c75ab322", hash(bytes(31)));
+        assertEquals("2fdc3ea37a13b066f600e7a9dba0ad92", hash(bytes(32)));
+        assertEquals("c055b46ce5a4b9c4ab062bd7fb4ed4a4", hash(bytes(33)));
+    }
+
+    @Test
+    void wideWritesMatchByteWrites() {
+        //每种对齐位置写入char、int、long，结果应与逐字节写入一致
+        for (int offset = 0; offset < 16; offset ++) {
+            CacheKeyUtils.Murmur3Hasher wide = new CacheKeyUtils.Murmur3Hasher();
+            CacheKeyUtils.Murmur3Hasher narrow = new CacheKeyUtils.Murmur3Hasher();
+            for (int i = 0; i < offset; i ++) {
+                wide.putByte((byte) i);
+                narrow.putByte((byte) i);
+            }
+            wide.putChar('\u4e2d');
+            putLittleEndian(narrow, '\u4e2d', 2);
+            wide.putInt(0x12345678);
+            putLittleEndian(narrow, 0x12345678, 4);
+            wide.putLong(0x0123456789abcdefL);
+            putLittleEndian(narrow, 0x0123456789abcdefL, 8);
+            wide.finish();
+            narrow.finish();
+            assertEquals(narrow.h1, wide.h1, "offset " + offset);
+            assertEquals(narrow.h2, wide.h2, "offset " + offset);
+        }
+    }
+
+    @Test
+    void keyHasFixedWidth() {
+        String key = CacheKeyUtils.getCacheKey("forMaps", null, "select * from student", Collections.emptyList());
+        assertTrue(key.startsWith(CacheKeyUtils.KEY_PREFIX));
+        assertEquals(CacheKeyUtils.KEY_PREFIX.length() + 32, key.length());
+        assertTrue(key.substring(CacheKeyUtils.KEY_PREFIX.length()).matches("[0-9a-f]{32}"));
+    }
+
+    @Test
+    void keySeparatesTypesAndBoundaries() {
+        String sql = "select * from student where id = ?";
+        assertNotEquals(key(sql, 1), key(sql, 1L));
+        assertNotEquals(key(sql, "1"), key(sql, 1));
+        assertNotEquals(key(sql, (Object) null), key(sql, "null"));
+        assertNotEquals(key(sql, "ab", "c"), key(sql, "a", "bc"));
+        assertNotEquals(key(sql, new Timestamp(1000L)), key(sql, new java.util.Date(1000L)));
+        assertNotEquals(CacheKeyUtils.getCacheKey("forMaps", null, sql, Arrays.asList(1)),
+                CacheKeyUtils.getCacheKey("forCount", null, sql, Arrays.asList(1)));
+        assertEquals(key(sql, 1, "a"), key(sql, 1, "a"));
+    }
+
+    private static String key(String sql, Object... args) {
+        return CacheKeyUtils.getCacheKey("forMaps", null, sql, Arrays.asList(args));
+    }
+
+    private static void putLittleEndian(CacheKeyUtils.Murmur3Hasher hasher, long value, int byteCount) {
+        for (int i = 0; i < byteCount; i ++) {
+            hasher.putByte((byte) (value >>> (i << 3)));
+        }
+    }
+
+    private static String hash(byte[] input) {
+        CacheKeyUtils.Murmur3Hasher hasher = new CacheKeyUtils.Murmur3Hasher();
+        for (byte b : input) {
+            hasher.putByte(b);
+        }
+        hasher.finish();
+        return String.format("%016x%016x", hasher.h1, hasher.h2);
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i ++) {
+            bytes[i] = (byte) (i * 37 + 0x81);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,39 @@
+package com.kzow3n.jdbcplus.utils;
+
+import com.kzow3n.jdbcplus.pojo.OrderInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author owen
+ * @since 2026/10/18
+ */
+class KeysetUtilsTest {
+
+    @Test
+    void fingerprintDistinguishesNullsOrdering() {
+        int unspecified = KeysetUtils.getFingerprint(orderByAge(null));
+        int nullsFirst = KeysetUtils.getFingerprint(orderByAge(true));
+        int nullsLast = KeysetUtils.getFingerprint(orderByAge(false));
+        assertEquals(3, new HashSet<>(Arrays.asList(unspecified, nullsFirst, nullsLast)).size());
+        assertEquals(nullsFirst, KeysetUtils.getFingerprint(orderByAge(true)));
+    }
+
+    @Test
+    void cursorOfOtherNullsOrderingIsRejected() {
+        String cursor = KeysetUtils.encodeCursor(KeysetUtils.getFingerprint(orderByAge(true)), new Object[]{null, 1L});
+        assertArrayEquals(new Object[]{null, 1L}, KeysetUtils.decodeCursor(cursor, KeysetUtils.getFingerprint(orderByAge(true)), 2));
+        assertThrows(IllegalArgumentException.class, () -> KeysetUtils.decodeCursor(cursor, KeysetUtils.getFingerprint(orderByAge(false)), 2));
+    }
+
+    private static List<OrderInfo> orderByAge(Boolean blnNullsFirst) {
+        OrderInfo age = new OrderInfo("s", "age", false);
+        age.setBlnNullsFirst(blnNullsFirst);
+        return Arrays.asList(age, new OrderInfo("s", "id", false));
+    }
+}